@@ -0,0 +1,131 @@
+package com.example.DACN.cache;
+
+import com.example.DACN.dto.response.CategoryResponse;
+import com.example.DACN.dto.response.CategoryTreeResponse;
+import com.example.DACN.event.CategoryChangedEvent;
+import com.example.DACN.event.ProductChangedEvent;
+import com.example.DACN.service.CategoryService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the current {@link CategoryTreeSnapshot}. Readers get the snapshot with
+ * a single volatile read; a rebuild after each committed category write
+ * replaces it atomically, so a request never sees a half-built tree.
+ * Product writes that can move the per-category product counts only mark the
+ * counts stale; {@link #refreshCounts} rebuilds on a schedule, so a burst of
+ * catalog edits costs one rebuild and at most one version change.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryTreeCache {
+
+    private final CategoryService categoryService;
+    private final ObjectMapper objectMapper;
+
+    private final AtomicReference<CategoryTreeSnapshot> current = new AtomicReference<>();
+    private final AtomicBoolean countsStale = new AtomicBoolean();
+
+    /**
+     * The current snapshot, built on first use if startup has not built it yet.
+     */
+    public CategoryTreeSnapshot get() {
+        CategoryTreeSnapshot snapshot = current.get();
+        return snapshot != null ? snapshot : refresh();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        refresh();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            // The write already committed; the old tree stays until the next change
+            log.error("Failed to rebuild category tree after change to category {}", event.getCategoryId(), e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.getChangeType() != ProductChangedEvent.ChangeType.STOCK_CHANGED) {
+            countsStale.set(true);
+        }
+    }
+
+    /**
+     * Rebuild if product writes may have moved the counts since the last
+     * rebuild. A failed rebuild leaves the counts stale for the next call.
+     */
+    public void refreshCounts() {
+        if (!countsStale.get()) {
+            return;
+        }
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            countsStale.set(true);
+            throw e;
+        }
+    }
+
+    /**
+     * Rebuild from the database and swap the snapshot in. Serialized so that
+     * the last rebuild to run, which has read the latest committed state, is
+     * the one left in place.
+     */
+    public synchronized CategoryTreeSnapshot refresh() {
+        // Cleared before reading, so a product write committed during the read marks it again
+        countsStale.set(false);
+        List<CategoryTreeResponse> tree = categoryService.getAllCategoriesTree();
+        List<CategoryResponse> roots = categoryService.getRootCategories();
+
+        byte[] treeJson = toJson(tree);
+        byte[] rootsJson = toJson(roots);
+        byte[] content = Arrays.copyOf(treeJson, treeJson.length + rootsJson.length);
+        System.arraycopy(rootsJson, 0, content, treeJson.length, rootsJson.length);
+        String version = DigestUtils.md5DigestAsHex(content);
+
+        CategoryTreeSnapshot snapshot = new CategoryTreeSnapshot(version, countNodes(tree), treeJson, rootsJson);
+        CategoryTreeSnapshot previous = current.getAndSet(snapshot);
+        if (previous == null || !previous.getVersion().equals(version)) {
+            log.info("Category tree snapshot {} built with {} categories", version, snapshot.getCategoryCount());
+        }
+        return snapshot;
+    }
+
+    private byte[] toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize category tree", e);
+        }
+    }
+
+    private int countNodes(List<CategoryTreeResponse> nodes) {
+        if (nodes == null) {
+            return 0;
+        }
+        int count = nodes.size();
+        for (CategoryTreeResponse node : nodes) {
+            count += countNodes(node.getChildren());
+        }
+        return count;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.DACN.cache;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Immutable point-in-time copy of the public category listings, held as
+ * pre-rendered JSON. The version is derived from the content, so it is stable
+ * across restarts and identical on every instance serving the same tree.
+ * <p>
+ * The JSON arrays are shared with every request and must not be modified.
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+public class CategoryTreeSnapshot {
+
+    private final String version;
+    private final int categoryCount;
+    private final byte[] treeJson;
+    private final byte[] rootsJson;
+
+    public String getEtag() {
+        return "\"" + version + "\"";
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.DACN.cache;
+
+import com.example.DACN.dto.response.CacheStatsResponse;
+import com.example.DACN.dto.response.ProductDetailResponse;
+import com.example.DACN.event.ProductChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of product detail responses. Entries expire after
+ * a fixed TTL and are dropped as soon as a write to the product commits.
+ */
+@Component
+@Slf4j
+public class ProductDetailCache {
+
+    public static final String CACHE_NAME = "product-detail";
+
+    private final Cache<Long, ProductDetailResponse> cache;
+
+    public ProductDetailCache(
+            @Value("${cache.product-detail.max-size:10000}") long maxSize,
+            @Value("${cache.product-detail.ttl-seconds:300}") long ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Return the cached response, loading it on a miss. Exceptions thrown by the
+     * loader (e.g. product not found) propagate and nothing is cached.
+     */
+    public ProductDetailResponse get(Long productId, Function<Long, ProductDetailResponse> loader) {
+        return cache.get(productId, loader);
+    }
+
+    /**
+     * Return cached responses for the given IDs, loading all misses with a
+     * single call to the loader. IDs the loader does not return are absent from
+     * the result and are not cached.
+     */
+    public Map<Long, ProductDetailResponse> getAll(Collection<Long> productIds,
+            Function<Set<? extends Long>, Map<Long, ProductDetailResponse>> loader) {
+        return cache.getAll(productIds, loader);
+    }
+
+    public void invalidate(Long productId) {
+        cache.invalidate(productId);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        log.debug("Evicting product {} from detail cache ({})", event.getProductId(), event.getChangeType());
+        invalidate(event.getProductId());
+    }
+
+    public CacheStatsResponse stats() {
+        CacheStats stats = cache.stats();
+        return CacheStatsResponse.builder()
+                .cacheName(CACHE_NAME)
+                .size(cache.estimatedSize())
+                .hitCount(stats.hitCount())
+                .missCount(stats.missCount())
+                .hitRate(stats.hitRate())
+                .evictionCount(stats.evictionCount())
+                .build();
+    }
+}
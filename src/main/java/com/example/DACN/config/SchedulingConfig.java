@@ -0,0 +1,12 @@
+package com.example.DACN.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Scheduled} batch jobs in the {@code job} package.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -50,10 +50,12 @@ public class SecurityConfig {
                                 "/api/v1/shops",
                                 "/api/v1/shops/*",
                                 "/api/v1/shops/*/products",
+                                "/api/v1/shops/*/top-products",
                                 "/api/v1/categories",
                                 "/api/v1/categories/**",
                                 "/api/v1/products",
-                                "/api/v1/products/**")
+                                "/api/v1/products/**",
+                                "/api/v1/search/**")
                         .permitAll()
                         // Customer voucher endpoints
                         .requestMatchers("/api/v1/vouchers/collect/**").hasRole("CUSTOMER")
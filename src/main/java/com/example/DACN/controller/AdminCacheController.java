@@ -0,0 +1,37 @@
+package com.example.DACN.controller;
+
+import com.example.DACN.cache.ProductDetailCache;
+import com.example.DACN.dto.response.CacheStatsResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/admin/caches")
+@RequiredArgsConstructor
+@Tag(name = "Cache Monitoring (Admin)", description = "APIs for admins to inspect in-memory caches")
+public class AdminCacheController {
+
+    private final ProductDetailCache productDetailCache;
+
+    @Operation(summary = "Get cache statistics", description = "Size, hit/miss counts and eviction count of each in-memory cache")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Statistics retrieved successfully"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - user is not an admin")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping
+    public ResponseEntity<List<CacheStatsResponse>> getCacheStats() {
+        return ResponseEntity.ok(List.of(productDetailCache.stats()));
+    }
+}
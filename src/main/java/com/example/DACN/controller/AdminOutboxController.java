@@ -0,0 +1,35 @@
+package com.example.DACN.controller;
+
+import com.example.DACN.dto.response.OutboxStatsResponse;
+import com.example.DACN.service.OutboxService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/admin/outbox")
+@RequiredArgsConstructor
+@Tag(name = "Outbox Monitoring (Admin)", description = "APIs for admins to inspect order event delivery")
+public class AdminOutboxController {
+
+    private final OutboxService outboxService;
+
+    @Operation(summary = "Get outbox statistics", description = "Backlog, delivery lag and throughput counters of the order event dispatcher")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Statistics retrieved successfully"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - user is not an admin")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping
+    public ResponseEntity<OutboxStatsResponse> getOutboxStats() {
+        return ResponseEntity.ok(outboxService.stats());
+    }
+}
@@ -1,42 +1,58 @@
 package com.example.DACN.controller;
 
+import com.example.DACN.dto.request.CheckoutRequest;
 import com.example.DACN.dto.request.CreateOrderRequest;
+import com.example.DACN.dto.request.SellerOrderSearchRequest;
 import com.example.DACN.dto.request.UpdateOrderStatusRequest;
 import com.example.DACN.dto.response.CancelOrderResponse;
+import com.example.DACN.dto.response.CheckoutResponse;
 import com.example.DACN.dto.response.CreateOrderResponse;
-import com.example.DACN.dto.response.CustomerOrderResponse;
+import com.example.DACN.dto.response.CustomerOrderListResponse;
 import com.example.DACN.dto.response.OrderStatusHistoryResponse;
-import com.example.DACN.dto.response.SellerOrderResponse;
+import com.example.DACN.dto.response.SellerOrderListResponse;
 import com.example.DACN.dto.response.UpdateOrderStatusResponse;
 import com.example.DACN.entity.Shop;
 import com.example.DACN.entity.User;
 import com.example.DACN.exception.ResourceNotFoundException;
 import com.example.DACN.repository.ShopRepository;
 import com.example.DACN.repository.UserRepository;
+import com.example.DACN.service.IdempotencyService;
 import com.example.DACN.service.OrderService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/orders")
 @RequiredArgsConstructor
+@Validated
 @Tag(name = "Order Management", description = "APIs for managing orders")
 public class OrderController {
 
         private final OrderService orderService;
         private final UserRepository userRepository;
         private final ShopRepository shopRepository;
+        private final IdempotencyService idempotencyService;
 
         @PostMapping
         @PreAuthorize("hasRole('CUSTOMER')")
@@ -45,45 +61,84 @@ public class OrderController {
                         @ApiResponse(responseCode = "201", description = "Order created successfully"),
                         @ApiResponse(responseCode = "400", description = "Invalid request or insufficient stock"),
                         @ApiResponse(responseCode = "404", description = "Shop, product, address, or voucher not found"),
-                        @ApiResponse(responseCode = "403", description = "Unauthorized access")
+                        @ApiResponse(responseCode = "403", description = "Unauthorized access"),
+                        @ApiResponse(responseCode = "409", description = "A request with the same Idempotency-Key is still being processed")
         })
-        public ResponseEntity<CreateOrderResponse> createOrder(@Valid @RequestBody CreateOrderRequest request) {
+        public ResponseEntity<CreateOrderResponse> createOrder(@Valid @RequestBody CreateOrderRequest request,
+                        @Parameter(description = "Client-generated key; retries with the same key return the first response") @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
                 String userEmail = SecurityContextHolder.getContext().getAuthentication().getName();
 
                 User user = userRepository.findByEmail(userEmail)
                                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
-                CreateOrderResponse response = orderService.createOrder(request, user.getUserId());
+                CreateOrderResponse response = idempotencyService.execute("create-order:" + user.getUserId(),
+                                idempotencyKey, request, CreateOrderResponse.class,
+                                () -> orderService.createOrder(request, user.getUserId()));
+                return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        }
+
+        @PostMapping("/checkout")
+        @PreAuthorize("hasRole('CUSTOMER')")
+        @Operation(summary = "Check out items from several shops", description = "Create one order per shop from cart items in a single request. "
+                        + "Shop vouchers apply to their own shop's order and a platform voucher is split across all orders. "
+                        + "PayPal checkouts return one payment URL covering every order.")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "201", description = "Orders created successfully"),
+                        @ApiResponse(responseCode = "400", description = "Invalid request, voucher or insufficient stock"),
+                        @ApiResponse(responseCode = "404", description = "Shop, product, address, or voucher not found"),
+                        @ApiResponse(responseCode = "403", description = "Unauthorized access"),
+                        @ApiResponse(responseCode = "409", description = "A request with the same Idempotency-Key is still being processed")
+        })
+        public ResponseEntity<CheckoutResponse> checkout(@Valid @RequestBody CheckoutRequest request,
+                        @Parameter(description = "Client-generated key; retries with the same key return the first response") @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+                String userEmail = SecurityContextHolder.getContext().getAuthentication().getName();
+
+                User user = userRepository.findByEmail(userEmail)
+                                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+
+                CheckoutResponse response = idempotencyService.execute("checkout:" + user.getUserId(),
+                                idempotencyKey, request, CheckoutResponse.class,
+                                () -> orderService.checkout(request, user.getUserId()));
                 return ResponseEntity.status(HttpStatus.CREATED).body(response);
         }
 
         @GetMapping("/customer")
         @PreAuthorize("hasRole('CUSTOMER')")
-        @Operation(summary = "Get customer orders", description = "Retrieve all orders for the authenticated customer")
+        @Operation(summary = "Get customer orders", description = "Retrieve the authenticated customer's orders, newest first, one page at a time. "
+                        + "Omit the cursor for the first page and pass the returned nextCursor to get the next one; nextCursor is null on the last page.")
         @ApiResponses(value = {
                         @ApiResponse(responseCode = "200", description = "Orders retrieved successfully"),
+                        @ApiResponse(responseCode = "400", description = "Invalid cursor or page size"),
                         @ApiResponse(responseCode = "403", description = "Unauthorized access"),
                         @ApiResponse(responseCode = "404", description = "User not found")
         })
-        public ResponseEntity<List<CustomerOrderResponse>> getCustomerOrders() {
+        public ResponseEntity<CustomerOrderListResponse> getCustomerOrders(
+                        @RequestParam(value = "cursor", required = false) String cursor,
+                        @RequestParam(value = "size", required = false, defaultValue = "20") @Min(value = 1, message = "Size must be at least 1") @Max(value = 100, message = "Size must not exceed 100") int size) {
                 String userEmail = SecurityContextHolder.getContext().getAuthentication().getName();
 
                 User user = userRepository.findByEmail(userEmail)
                                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
-                List<CustomerOrderResponse> orders = orderService.getCustomerOrders(user.getUserId());
+                CustomerOrderListResponse orders = orderService.getCustomerOrders(user.getUserId(), cursor, size);
                 return ResponseEntity.ok(orders);
         }
 
         @GetMapping("/seller")
         @PreAuthorize("hasRole('SELLER')")
-        @Operation(summary = "Get seller orders", description = "Retrieve all orders for the authenticated seller's shop")
+        @Operation(summary = "Get seller orders", description = "Retrieve the orders of the authenticated seller's shop, newest first, one page at a time. "
+                        + "Optionally filter by current status. "
+                        + "Omit the cursor for the first page and pass the returned nextCursor to get the next one; nextCursor is null on the last page.")
         @ApiResponses(value = {
                         @ApiResponse(responseCode = "200", description = "Orders retrieved successfully"),
+                        @ApiResponse(responseCode = "400", description = "Invalid status, cursor or page size"),
                         @ApiResponse(responseCode = "403", description = "Unauthorized access"),
                         @ApiResponse(responseCode = "404", description = "User or shop not found")
         })
-        public ResponseEntity<List<SellerOrderResponse>> getSellerOrders() {
+        public ResponseEntity<SellerOrderListResponse> getSellerOrders(
+                        @RequestParam(value = "status", required = false) @Pattern(regexp = "^(Pending|Paid|Shipping|Delivered|Completed)$", message = "Invalid order status") String status,
+                        @RequestParam(value = "cursor", required = false) String cursor,
+                        @RequestParam(value = "size", required = false, defaultValue = "20") @Min(value = 1, message = "Size must be at least 1") @Max(value = 100, message = "Size must not exceed 100") int size) {
                 String userEmail = SecurityContextHolder.getContext().getAuthentication().getName();
 
                 User user = userRepository.findByEmail(userEmail)
@@ -92,7 +147,51 @@ public class OrderController {
                 Shop shop = shopRepository.findByUserUserId(user.getUserId())
                                 .orElseThrow(() -> new ResourceNotFoundException("Shop not found for user"));
 
-                List<SellerOrderResponse> orders = orderService.getSellerOrders(shop.getShopId());
+                SellerOrderListResponse orders = orderService.getSellerOrders(shop.getShopId(), status, cursor, size);
+                return ResponseEntity.ok(orders);
+        }
+
+        @GetMapping("/seller/search")
+        @PreAuthorize("hasRole('SELLER')")
+        @Operation(summary = "Search seller orders", description = "Search the orders of the authenticated seller's shop placed between two dates, inclusive, "
+                        + "by current status, payment method, customer email and final amount range, newest first, one page at a time. "
+                        + "All filters are optional; the dates default to the last 90 days and may span at most 366 days. "
+                        + "Omit the cursor for the first page and pass the returned nextCursor with the same filters to get the next one; nextCursor is null on the last page.")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Orders retrieved successfully"),
+                        @ApiResponse(responseCode = "400", description = "Invalid filter, date range, cursor or page size"),
+                        @ApiResponse(responseCode = "403", description = "Unauthorized access"),
+                        @ApiResponse(responseCode = "404", description = "User or shop not found")
+        })
+        public ResponseEntity<SellerOrderListResponse> searchSellerOrders(
+                        @RequestParam(value = "status", required = false) @Pattern(regexp = "^(Pending|Paid|Shipping|Delivered|Completed|Cancelled)$", message = "Invalid order status") String status,
+                        @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                        @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                        @RequestParam(value = "paymentMethod", required = false) @Pattern(regexp = "^(COD|PAYPAL)$", message = "Payment method must be either COD or PAYPAL") String paymentMethod,
+                        @RequestParam(value = "customerEmail", required = false) @Email(message = "Invalid customer email") String customerEmail,
+                        @RequestParam(value = "minAmount", required = false) @DecimalMin(value = "0", message = "Minimum amount must not be negative") BigDecimal minAmount,
+                        @RequestParam(value = "maxAmount", required = false) @DecimalMin(value = "0", message = "Maximum amount must not be negative") BigDecimal maxAmount,
+                        @RequestParam(value = "cursor", required = false) String cursor,
+                        @RequestParam(value = "size", required = false, defaultValue = "20") @Min(value = 1, message = "Size must be at least 1") @Max(value = 100, message = "Size must not exceed 100") int size) {
+                String userEmail = SecurityContextHolder.getContext().getAuthentication().getName();
+
+                User user = userRepository.findByEmail(userEmail)
+                                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+
+                Shop shop = shopRepository.findByUserUserId(user.getUserId())
+                                .orElseThrow(() -> new ResourceNotFoundException("Shop not found for user"));
+
+                SellerOrderSearchRequest search = SellerOrderSearchRequest.builder()
+                                .status(status)
+                                .from(from)
+                                .to(to)
+                                .paymentMethod(paymentMethod)
+                                .customerEmail(customerEmail != null && !customerEmail.isBlank() ? customerEmail.trim() : null)
+                                .minAmount(minAmount)
+                                .maxAmount(maxAmount)
+                                .build();
+
+                SellerOrderListResponse orders = orderService.searchSellerOrders(shop.getShopId(), search, cursor, size);
                 return ResponseEntity.ok(orders);
         }
 
@@ -1,6 +1,7 @@
 package com.example.DACN.controller;
 
 import com.example.DACN.dto.request.PaypalWebhookRequest;
+import com.example.DACN.service.IdempotencyService;
 import com.example.DACN.service.PaymentService;
 import com.example.DACN.service.ShopService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -16,7 +17,9 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/v1/payment/paypal")
@@ -27,6 +30,7 @@ public class PaymentController {
 
     private final ShopService shopService;
     private final PaymentService paymentService;
+    private final IdempotencyService idempotencyService;
 
     @PostMapping("/webhook")
     @Operation(summary = "Handle PayPal webhook", description = "Processes PayPal webhook events for payment completion")
@@ -96,14 +100,41 @@ public class PaymentController {
     })
     public ResponseEntity<String> paymentSuccess(
             @RequestParam("token") String token,
-            @RequestParam(value = "orderId", required = false) Long orderId) {
+            @RequestParam(value = "orderId", required = false) Long orderId,
+            @RequestParam(value = "orderIds", required = false) List<Long> orderIds) {
 
-        log.info("Payment successful for token: {}, orderId: {}", token, orderId);
+        log.info("Payment successful for token: {}, orderId: {}, orderIds: {}", token, orderId, orderIds);
 
         try {
-            if (orderId != null) {
+            if (orderIds != null && !orderIds.isEmpty()) {
+                // This is for a multi-shop checkout - capture every order at once
+                capture(token, orderIds);
+                String orderList = orderIds.stream().map(id -> "#" + id).collect(Collectors.joining(", "));
+                return ResponseEntity.ok(
+                        "<!DOCTYPE html>" +
+                                "<html>" +
+                                "<head>" +
+                                "  <title>Payment Successful</title>" +
+                                "  <meta charset='UTF-8'>" +
+                                "</head>" +
+                                "<body style='font-family: Arial, sans-serif; text-align: center; padding: 50px; background: linear-gradient(135deg, #667eea 0%, #764ba2 100%); color: white;'>"
+                                +
+                                "  <div style='background: white; color: #333; padding: 40px; border-radius: 10px; max-width: 500px; margin: 0 auto; box-shadow: 0 10px 40px rgba(0,0,0,0.3);'>"
+                                +
+                                "    <div style='font-size: 60px; color: #4CAF50; margin-bottom: 20px;'>✓</div>" +
+                                "    <h1 style='color: #4CAF50; margin: 0 0 20px 0;'>Payment Successful!</h1>" +
+                                "    <p style='font-size: 18px; margin: 20px 0;'>Your orders <strong>" + orderList
+                                + "</strong> have been confirmed.</p>" +
+                                "    <p style='color: #666; margin: 20px 0;'>Thank you for your purchase!</p>" +
+                                "    <p style='color: #999; font-size: 14px;'>This window will close automatically in 3 seconds...</p>"
+                                +
+                                "  </div>" +
+                                "  <script>setTimeout(function(){ window.close(); }, 3000);</script>" +
+                                "</body>" +
+                                "</html>");
+            } else if (orderId != null) {
                 // This is for order payment - capture the payment
-                paymentService.capturePayPalPayment(token, orderId);
+                capture(token, List.of(orderId));
                 return ResponseEntity.ok(
                         "<!DOCTYPE html>" +
                                 "<html>" +
@@ -177,6 +208,17 @@ public class PaymentController {
         }
     }
 
+    /**
+     * Capture once per PayPal token; a repeated redirect waits for or replays
+     * the first capture instead of racing it.
+     */
+    private void capture(String token, List<Long> orderIds) {
+        idempotencyService.execute("paypal-capture", token, orderIds, Boolean.class, () -> {
+            paymentService.capturePayPalCheckout(token, orderIds);
+            return Boolean.TRUE;
+        });
+    }
+
     @GetMapping("/cancel")
     @Operation(summary = "PayPal payment cancelled", description = "Handles cancelled PayPal payment redirect")
     public ResponseEntity<String> paymentCancel(@RequestParam("token") String token) {
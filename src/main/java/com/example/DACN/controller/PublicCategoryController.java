@@ -1,17 +1,25 @@
 package com.example.DACN.controller;
 
+import com.example.DACN.cache.CategoryTreeCache;
+import com.example.DACN.cache.CategoryTreeSnapshot;
 import com.example.DACN.dto.response.CategoryResponse;
 import com.example.DACN.dto.response.CategoryTreeResponse;
 import com.example.DACN.service.CategoryService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -21,25 +29,61 @@ import java.util.List;
 @Tag(name = "Public Category APIs", description = "Public APIs for browsing categories")
 public class PublicCategoryController {
 
+    public static final String VERSION_HEADER = "X-Category-Tree-Version";
+
+    private final CategoryTreeCache categoryTreeCache;
     private final CategoryService categoryService;
 
     @GetMapping
-    @Operation(summary = "Get all categories", description = "Get all categories in tree structure (parent-child hierarchy)")
+    @Operation(summary = "Get all categories", description = "Get all categories in tree structure (parent-child hierarchy). "
+            + "Served from an in-memory snapshot; the " + VERSION_HEADER + " header (also the ETag) changes only when the tree does.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Categories retrieved successfully")
+            @ApiResponse(responseCode = "200", description = "Categories retrieved successfully",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            array = @ArraySchema(schema = @Schema(implementation = CategoryTreeResponse.class)))),
+            @ApiResponse(responseCode = "304", description = "Categories not modified since the cached copy")
     })
-    public ResponseEntity<List<CategoryTreeResponse>> getAllCategories() {
-        List<CategoryTreeResponse> categories = categoryService.getAllCategoriesTree();
-        return ResponseEntity.ok(categories);
+    public ResponseEntity<byte[]> getAllCategories(WebRequest webRequest) {
+        CategoryTreeSnapshot snapshot = categoryTreeCache.get();
+        if (webRequest.checkNotModified(snapshot.getEtag())) {
+            return null;
+        }
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(VERSION_HEADER, snapshot.getVersion())
+                .body(snapshot.getTreeJson());
     }
 
     @GetMapping("/roots")
-    @Operation(summary = "Get root categories", description = "Get all root categories (parent_id IS NULL)")
+    @Operation(summary = "Get root categories", description = "Get all root categories (parent_id IS NULL), served from the same snapshot as the tree")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Root categories retrieved successfully",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            array = @ArraySchema(schema = @Schema(implementation = CategoryResponse.class)))),
+            @ApiResponse(responseCode = "304", description = "Categories not modified since the cached copy")
+    })
+    public ResponseEntity<byte[]> getRootCategories(WebRequest webRequest) {
+        CategoryTreeSnapshot snapshot = categoryTreeCache.get();
+        if (webRequest.checkNotModified(snapshot.getEtag())) {
+            return null;
+        }
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(VERSION_HEADER, snapshot.getVersion())
+                .body(snapshot.getRootsJson());
+    }
+
+    @GetMapping("/{categoryId}/breadcrumb")
+    @Operation(summary = "Get category breadcrumb", description = "Get the ancestors of a category from the root down to the category itself")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Root categories retrieved successfully")
+            @ApiResponse(responseCode = "200", description = "Breadcrumb retrieved successfully",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            array = @ArraySchema(schema = @Schema(implementation = CategoryResponse.class)))),
+            @ApiResponse(responseCode = "404", description = "Category not found or deleted")
     })
-    public ResponseEntity<List<CategoryResponse>> getRootCategories() {
-        List<CategoryResponse> categories = categoryService.getRootCategories();
-        return ResponseEntity.ok(categories);
+    public ResponseEntity<List<CategoryResponse>> getBreadcrumb(@PathVariable Long categoryId) {
+        return ResponseEntity.ok(categoryService.getBreadcrumb(categoryId));
     }
 }
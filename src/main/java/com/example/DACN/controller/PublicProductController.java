@@ -1,19 +1,30 @@
 package com.example.DACN.controller;
 
+import com.example.DACN.dto.request.BatchProductRequest;
 import com.example.DACN.dto.response.ProductDetailResponse;
+import com.example.DACN.dto.response.ProductFacetResponse;
 import com.example.DACN.dto.response.ProductListResponse;
+import com.example.DACN.service.ProductFacetService;
+import com.example.DACN.service.ProductLeaderboardService;
+import com.example.DACN.service.ProductSearchService;
 import com.example.DACN.service.ProductService;
+import com.example.DACN.util.ConditionalGetUtil;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/products")
@@ -23,11 +34,16 @@ import java.math.BigDecimal;
 public class PublicProductController {
 
         private final ProductService productService;
+        private final ProductSearchService productSearchService;
+        private final ProductFacetService productFacetService;
+        private final ProductLeaderboardService productLeaderboardService;
 
         @GetMapping
-        @Operation(summary = "Get products list", description = "Get a paginated list of products with optional filters and sorting")
+        @Operation(summary = "Get products list", description = "Get a paginated list of products with optional filters and sorting. "
+                        + "Pass the cursor parameter (empty for the first page) to use keyset pagination: the response then carries nextCursor instead of totalPage.")
         @ApiResponses(value = {
                         @ApiResponse(responseCode = "200", description = "Products retrieved successfully"),
+                        @ApiResponse(responseCode = "304", description = "Products not modified since the cached copy"),
                         @ApiResponse(responseCode = "400", description = "Invalid request parameters")
         })
         public ResponseEntity<ProductListResponse> getProducts(
@@ -37,24 +53,121 @@ public class PublicProductController {
                         @RequestParam(value = "shop_id", required = false) Long shopId,
                         @RequestParam(value = "sort_by", required = false, defaultValue = "created_at") String sortBy,
                         @RequestParam(value = "page", required = false, defaultValue = "0") @Min(value = 0, message = "Page must be non-negative") int page,
+                        @RequestParam(value = "size", required = false, defaultValue = "20") @Min(value = 1, message = "Size must be at least 1") int size,
+                        @RequestParam(value = "cursor", required = false) String cursor,
+                        WebRequest webRequest) {
+
+                ProductListResponse response = cursor != null
+                                ? productService.getProductsByCursor(
+                                                minPrice, maxPrice, categoryId, shopId, sortBy, cursor, size)
+                                : productService.getProducts(
+                                                minPrice, maxPrice, categoryId, shopId, sortBy, page, size);
+
+                // Tagged from the page itself: versioning the whole filtered set costs more than the page
+                if (ConditionalGetUtil.checkBodyNotModified(webRequest, response)) {
+                        return null;
+                }
+
+                return ResponseEntity.ok(response);
+        }
+
+        @GetMapping("/search")
+        @Operation(summary = "Search products", description = "Full-text search over product name and description, ranked by relevance. "
+                        + "Matching ignores case and Vietnamese diacritics; the listing filters can be combined with the keyword.")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Products retrieved successfully"),
+                        @ApiResponse(responseCode = "400", description = "Invalid request parameters")
+        })
+        public ResponseEntity<ProductListResponse> searchProducts(
+                        @RequestParam("keyword") @NotBlank(message = "Keyword must not be blank") String keyword,
+                        @RequestParam(value = "minPrice", required = false) BigDecimal minPrice,
+                        @RequestParam(value = "maxPrice", required = false) BigDecimal maxPrice,
+                        @RequestParam(value = "category_id", required = false) Long categoryId,
+                        @RequestParam(value = "shop_id", required = false) Long shopId,
+                        @RequestParam(value = "page", required = false, defaultValue = "0") @Min(value = 0, message = "Page must be non-negative") int page,
                         @RequestParam(value = "size", required = false, defaultValue = "20") @Min(value = 1, message = "Size must be at least 1") int size) {
 
-                ProductListResponse response = productService.getProducts(
-                                minPrice, maxPrice, categoryId, shopId, sortBy, page, size);
+                ProductListResponse response = productSearchService.searchProducts(
+                                keyword, minPrice, maxPrice, categoryId, shopId, page, size);
+
+                return ResponseEntity.ok(response);
+        }
+
+        @GetMapping("/facets")
+        @Operation(summary = "Get product facet counts", description = "Product counts per category, per shop and per price range for the given listing filters. "
+                        + "Each facet ignores its own filter, so sibling values keep their counts.")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Facets retrieved successfully"),
+                        @ApiResponse(responseCode = "400", description = "Invalid request parameters")
+        })
+        public ResponseEntity<ProductFacetResponse> getProductFacets(
+                        @RequestParam(value = "minPrice", required = false) BigDecimal minPrice,
+                        @RequestParam(value = "maxPrice", required = false) BigDecimal maxPrice,
+                        @RequestParam(value = "category_id", required = false) Long categoryId,
+                        @RequestParam(value = "shop_id", required = false) Long shopId) {
 
+                ProductFacetResponse response = productFacetService.getFacets(minPrice, maxPrice, categoryId, shopId);
                 return ResponseEntity.ok(response);
         }
 
+        @GetMapping("/best-sellers")
+        @Operation(summary = "Get best-selling products", description = "Top products by sold count, for the whole catalog or for one category or shop")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Products retrieved successfully"),
+                        @ApiResponse(responseCode = "400", description = "Invalid request parameters")
+        })
+        public ResponseEntity<ProductListResponse> getBestSellers(
+                        @RequestParam(value = "category_id", required = false) Long categoryId,
+                        @RequestParam(value = "shop_id", required = false) Long shopId,
+                        @RequestParam(value = "limit", required = false, defaultValue = "10") @Min(value = 1, message = "Limit must be at least 1") @Max(value = ProductLeaderboardService.MAX_LIMIT, message = "Limit must be at most 50") int limit) {
+
+                return ResponseEntity.ok(productLeaderboardService.getBestSellers(categoryId, shopId, limit));
+        }
+
+        @GetMapping("/newest")
+        @Operation(summary = "Get newest products", description = "Most recently listed products, for the whole catalog or for one category or shop")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Products retrieved successfully"),
+                        @ApiResponse(responseCode = "400", description = "Invalid request parameters")
+        })
+        public ResponseEntity<ProductListResponse> getNewestProducts(
+                        @RequestParam(value = "category_id", required = false) Long categoryId,
+                        @RequestParam(value = "shop_id", required = false) Long shopId,
+                        @RequestParam(value = "limit", required = false, defaultValue = "10") @Min(value = 1, message = "Limit must be at least 1") @Max(value = ProductLeaderboardService.MAX_LIMIT, message = "Limit must be at most 50") int limit) {
+
+                return ResponseEntity.ok(productLeaderboardService.getNewestProducts(categoryId, shopId, limit));
+        }
+
+        @PostMapping("/batch")
+        @Operation(summary = "Get product details in batch", description = "Get details of up to 100 products in one call. "
+                        + "Results follow the request order; missing or deleted products are left out.")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Products retrieved successfully"),
+                        @ApiResponse(responseCode = "400", description = "Invalid request data or validation error")
+        })
+        public ResponseEntity<List<ProductDetailResponse>> getProductsByIds(
+                        @Valid @RequestBody BatchProductRequest request) {
+
+                return ResponseEntity.ok(productService.getProductsByIds(request.getProductIds()));
+        }
+
         @GetMapping("/{productId}")
         @Operation(summary = "Get product details", description = "Get detailed information about a specific product including images and shop details")
         @ApiResponses(value = {
                         @ApiResponse(responseCode = "200", description = "Product retrieved successfully"),
+                        @ApiResponse(responseCode = "304", description = "Product not modified since the cached copy"),
                         @ApiResponse(responseCode = "404", description = "Product not found")
         })
         public ResponseEntity<ProductDetailResponse> getProductById(
-                        @PathVariable("productId") Long productId) {
+                        @PathVariable("productId") Long productId,
+                        WebRequest webRequest) {
 
+                // Usually served from the detail cache, so tagged from the response itself
                 ProductDetailResponse response = productService.getProductById(productId);
+                if (ConditionalGetUtil.checkBodyNotModified(webRequest, response)) {
+                        return null;
+                }
+
                 return ResponseEntity.ok(response);
         }
 }
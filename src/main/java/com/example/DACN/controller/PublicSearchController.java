@@ -0,0 +1,40 @@
+package com.example.DACN.controller;
+
+import com.example.DACN.dto.response.SearchSuggestionResponse;
+import com.example.DACN.service.SearchSuggestionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/search")
+@RequiredArgsConstructor
+@Validated
+@Tag(name = "Search (Public)", description = "Public APIs for the search box")
+public class PublicSearchController {
+
+        private final SearchSuggestionService searchSuggestionService;
+
+        @GetMapping("/suggest")
+        @Operation(summary = "Get search suggestions", description = "Typeahead completions for product, category and shop names starting with the query, "
+                        + "ranked by sold count. Matching ignores case and Vietnamese diacritics and works from any word of a name.")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Suggestions retrieved successfully"),
+                        @ApiResponse(responseCode = "400", description = "Invalid request parameters")
+        })
+        public ResponseEntity<SearchSuggestionResponse> suggest(
+                        @RequestParam("q") String query,
+                        @RequestParam(value = "limit", required = false, defaultValue = "5") int limit) {
+
+                SearchSuggestionResponse response = searchSuggestionService.suggest(query, limit);
+                return ResponseEntity.ok(response);
+        }
+}
@@ -1,7 +1,9 @@
 package com.example.DACN.controller;
 
 import com.example.DACN.dto.response.ProductListResponse;
+import com.example.DACN.service.ProductLeaderboardService;
 import com.example.DACN.service.ProductService;
+import com.example.DACN.util.ConditionalGetUtil;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -11,6 +13,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/v1/shops")
@@ -20,19 +23,35 @@ import org.springframework.web.bind.annotation.*;
 public class PublicShopController {
 
     private final ProductService productService;
+    private final ProductLeaderboardService productLeaderboardService;
 
     @GetMapping("/{shopId}/products")
     @Operation(summary = "Get shop products", description = "Get a paginated list of products from a specific shop")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Products retrieved successfully"),
+            @ApiResponse(responseCode = "304", description = "Products not modified since the cached copy"),
             @ApiResponse(responseCode = "400", description = "Invalid request parameters")
     })
     public ResponseEntity<ProductListResponse> getShopProducts(
             @PathVariable("shopId") Long shopId,
             @RequestParam(value = "page", required = false, defaultValue = "0") @Min(value = 0, message = "Page must be non-negative") int page,
-            @RequestParam(value = "size", required = false, defaultValue = "20") @Min(value = 1, message = "Size must be at least 1") int size) {
+            @RequestParam(value = "size", required = false, defaultValue = "20") @Min(value = 1, message = "Size must be at least 1") int size,
+            WebRequest webRequest) {
+
+        if (ConditionalGetUtil.checkNotModified(webRequest, productService.getShopProductsVersion(shopId))) {
+            return null;
+        }
 
         ProductListResponse response = productService.getProductsByShopId(shopId, page, size);
         return ResponseEntity.ok(response);
     }
+
+    @GetMapping("/{shopId}/top-products")
+    @Operation(summary = "Get shop top products", description = "Top 10 best-selling products of a shop")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Products retrieved successfully")
+    })
+    public ResponseEntity<ProductListResponse> getShopTopProducts(@PathVariable("shopId") Long shopId) {
+        return ResponseEntity.ok(productLeaderboardService.getShopTopProducts(shopId));
+    }
 }
@@ -0,0 +1,64 @@
+package com.example.DACN.controller;
+
+import com.example.DACN.dto.response.SellerAnalyticsResponse;
+import com.example.DACN.entity.Shop;
+import com.example.DACN.entity.User;
+import com.example.DACN.exception.ResourceNotFoundException;
+import com.example.DACN.repository.ShopRepository;
+import com.example.DACN.repository.UserRepository;
+import com.example.DACN.service.SalesRollupService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Pattern;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/v1/seller/analytics")
+@RequiredArgsConstructor
+@Validated
+@Tag(name = "Seller Analytics", description = "APIs for sellers to view their shop's sales")
+public class SellerAnalyticsController {
+
+    private final SalesRollupService salesRollupService;
+    private final UserRepository userRepository;
+    private final ShopRepository shopRepository;
+
+    @Operation(summary = "Get shop sales", description = "Order count, GMV, voucher discount, cancellations and deliveries of the seller's shop "
+            + "between two dates, inclusive, as a daily or hourly series with totals and the best-selling products. "
+            + "Orders count on the day they were placed. Ranges are limited to 366 days, or 31 days for hourly series.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Sales retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid date range or granularity"),
+            @ApiResponse(responseCode = "403", description = "Unauthorized access"),
+            @ApiResponse(responseCode = "404", description = "User or shop not found")
+    })
+    @PreAuthorize("hasRole('SELLER')")
+    @GetMapping
+    public ResponseEntity<SellerAnalyticsResponse> getAnalytics(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "granularity", required = false, defaultValue = "DAY") @Pattern(regexp = "^(DAY|HOUR)$", message = "Granularity must be DAY or HOUR") String granularity) {
+        String userEmail = SecurityContextHolder.getContext().getAuthentication().getName();
+
+        User user = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+
+        Shop shop = shopRepository.findByUserUserId(user.getUserId())
+                .orElseThrow(() -> new ResourceNotFoundException("Shop not found for user"));
+
+        return ResponseEntity.ok(salesRollupService.getShopAnalytics(shop.getShopId(), from, to, granularity));
+    }
+}
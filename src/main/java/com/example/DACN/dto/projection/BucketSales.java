@@ -0,0 +1,65 @@
+package com.example.DACN.dto.projection;
+
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * Sales of one shop, or one product of a shop, in one hour of a day, read by
+ * the aggregate queries that rebuild the sales rollups from orders. Metrics
+ * that do not apply to products are zero.
+ */
+@Getter
+public class BucketSales {
+
+    private final Long shopId;
+    private final Long productId;
+    private final int hour;
+    private final long orderCount;
+    private final BigDecimal gmv;
+    private final BigDecimal voucherDiscount;
+    private final long cancelledCount;
+    private final BigDecimal cancelledAmount;
+    private final long deliveredCount;
+    private final long units;
+
+    // Shop sales
+    public BucketSales(Long shopId, Number hour, Number orderCount, Number gmv, Number voucherDiscount,
+            Number cancelledCount, Number cancelledAmount, Number deliveredCount) {
+        this.shopId = shopId;
+        this.productId = null;
+        this.hour = hour.intValue();
+        this.orderCount = longValue(orderCount);
+        this.gmv = decimal(gmv);
+        this.voucherDiscount = decimal(voucherDiscount);
+        this.cancelledCount = longValue(cancelledCount);
+        this.cancelledAmount = decimal(cancelledAmount);
+        this.deliveredCount = longValue(deliveredCount);
+        this.units = 0L;
+    }
+
+    // Product sales; gmv holds the product's revenue
+    public BucketSales(Long shopId, Long productId, Number hour, Number units, Number revenue) {
+        this.shopId = shopId;
+        this.productId = productId;
+        this.hour = hour.intValue();
+        this.orderCount = 0L;
+        this.gmv = decimal(revenue);
+        this.voucherDiscount = BigDecimal.ZERO;
+        this.cancelledCount = 0L;
+        this.cancelledAmount = BigDecimal.ZERO;
+        this.deliveredCount = 0L;
+        this.units = longValue(units);
+    }
+
+    private static long longValue(Number value) {
+        return value != null ? value.longValue() : 0L;
+    }
+
+    private static BigDecimal decimal(Number value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        return value instanceof BigDecimal decimal ? decimal : new BigDecimal(value.toString());
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.DACN.dto.projection;
+
+import lombok.Getter;
+
+/**
+ * An entity ID with a row count, read by aggregate queries that group by the
+ * ID or by counter queries that read a stored count.
+ */
+@Getter
+public class IdCount {
+
+    private final Long id;
+    private final long count;
+
+    public IdCount(Long id, Number count) {
+        this.id = id;
+        this.count = count != null ? count.longValue() : 0L;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.DACN.dto.projection;
+
+import lombok.Getter;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Objects;
+
+/**
+ * Cheap version of a catalog resource, read with a single aggregate query
+ * instead of loading the resource: how many rows it is made of, the highest
+ * row sequence where rows have no timestamp, and the latest update time.
+ * Any write that changes the response changes at least one of them.
+ */
+@Getter
+public class VersionStamp {
+
+    private final long itemCount;
+    private final Long maxSequence;
+    private final LocalDateTime lastModified;
+
+    public VersionStamp(Long itemCount, LocalDateTime lastModified) {
+        this(itemCount, null, lastModified);
+    }
+
+    public VersionStamp(Long itemCount, LocalDateTime first, LocalDateTime second, LocalDateTime third) {
+        this(itemCount, null, latest(first, second, third));
+    }
+
+    public VersionStamp(Long itemCount, Long maxSequence, LocalDateTime first, LocalDateTime second,
+            LocalDateTime third) {
+        this(itemCount, maxSequence, latest(first, second, third));
+    }
+
+    private VersionStamp(Long itemCount, Long maxSequence, LocalDateTime lastModified) {
+        this.itemCount = itemCount != null ? itemCount : 0L;
+        this.maxSequence = maxSequence;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * Strong entity tag (quoted) derived from the stamp.
+     */
+    public String toEtag() {
+        String raw = itemCount + "|" + maxSequence + "|" + lastModified;
+        return "\"" + DigestUtils.md5DigestAsHex(raw.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * Last modification as epoch millis, or -1 when unknown.
+     */
+    public long lastModifiedMillis() {
+        if (lastModified == null) {
+            return -1;
+        }
+        return lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime latest(LocalDateTime... timestamps) {
+        return Arrays.stream(timestamps)
+                .filter(Objects::nonNull)
+                .max(Comparator.naturalOrder())
+                .orElse(null);
+    }
+}
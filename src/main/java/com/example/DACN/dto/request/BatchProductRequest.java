@@ -0,0 +1,25 @@
+package com.example.DACN.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BatchProductRequest {
+
+    @NotEmpty(message = "Product IDs are required")
+    @Size(max = 100, message = "At most 100 product IDs per request")
+    List<@NotNull(message = "Product ID must not be null") Long> productIds;
+}
@@ -0,0 +1,44 @@
+package com.example.DACN.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Schema(description = "Request to check out cart items from one or more shops, creating one order per shop")
+public class CheckoutRequest {
+
+    @NotEmpty(message = "Order items cannot be empty")
+    @Valid
+    @Schema(description = "List of items to order, from any number of shops")
+    List<CreateOrderRequest.OrderItemRequest> items;
+
+    @Schema(description = "Shop voucher IDs, at most one per shop in the checkout", example = "[10, 11]")
+    List<@NotNull(message = "Voucher ID is required") Long> shopVoucherIds;
+
+    @Schema(description = "Platform voucher ID applied across all shops", example = "20")
+    Long platformVoucherId;
+
+    @NotNull(message = "Address ID is required")
+    @Positive(message = "Address ID must be positive")
+    @Schema(description = "Delivery address ID", example = "5")
+    Long addressId;
+
+    @NotNull(message = "Payment method is required")
+    @Pattern(regexp = "COD|PAYPAL", message = "Payment method must be either COD or PAYPAL")
+    @Schema(description = "Payment method", example = "COD", allowableValues = { "COD", "PAYPAL" })
+    String paymentMethod;
+}
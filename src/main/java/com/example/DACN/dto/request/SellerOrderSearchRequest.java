@@ -0,0 +1,47 @@
+package com.example.DACN.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Filters of a seller order search; every filter left null matches all
+ * orders.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Schema(description = "Seller order search filters")
+public class SellerOrderSearchRequest {
+
+    @Schema(description = "Current order status", example = "Paid")
+    String status;
+
+    @Schema(description = "First day orders were placed on, inclusive; defaults to 89 days before the end date",
+            example = "2026-01-01")
+    LocalDate from;
+
+    @Schema(description = "Last day orders were placed on, inclusive; defaults to today", example = "2026-03-31")
+    LocalDate to;
+
+    @Schema(description = "Payment method", example = "PAYPAL")
+    String paymentMethod;
+
+    @Schema(description = "Email of the customer who placed the order", example = "customer@example.com")
+    String customerEmail;
+
+    @Schema(description = "Minimum final amount, inclusive", example = "100000")
+    BigDecimal minAmount;
+
+    @Schema(description = "Maximum final amount, inclusive", example = "500000")
+    BigDecimal maxAmount;
+}
@@ -0,0 +1,23 @@
+package com.example.DACN.dto.response;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class CacheStatsResponse {
+
+    String cacheName;
+    Long size;
+    Long hitCount;
+    Long missCount;
+    Double hitRate;
+    Long evictionCount;
+}
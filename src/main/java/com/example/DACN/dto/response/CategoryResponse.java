@@ -30,4 +30,7 @@ public class CategoryResponse {
 
     @Schema(description = "Whether category is deleted", example = "false")
     private Boolean hasDeleted;
+
+    @Schema(description = "Active products in this category and its subcategories", example = "123")
+    private Integer productCount;
 }
@@ -30,6 +30,9 @@ public class CategoryTreeResponse {
     @Schema(description = "Deletion status", example = "false")
     private Boolean hasDeleted;
 
+    @Schema(description = "Active products in this category and its subcategories", example = "123")
+    private Integer productCount;
+
     @Schema(description = "Child categories")
     private List<CategoryTreeResponse> children;
 }
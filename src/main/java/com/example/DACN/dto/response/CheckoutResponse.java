@@ -0,0 +1,30 @@
+package com.example.DACN.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Schema(description = "Response after checking out, with one order per shop")
+public class CheckoutResponse {
+
+    @Schema(description = "Created order IDs, one per shop, in shop ID order", example = "[100, 101]")
+    List<Long> orderIds;
+
+    @Schema(description = "Amount to pay for all orders after vouchers", example = "1480000")
+    BigDecimal finalAmount;
+
+    @Schema(description = "Payment URL for PayPal covering every order (null if COD)", example = "https://www.sandbox.paypal.com/checkoutnow?token=EC-xxx", nullable = true)
+    String paymentUrl;
+}
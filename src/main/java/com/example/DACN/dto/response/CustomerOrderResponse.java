@@ -48,4 +48,21 @@ public class CustomerOrderResponse {
 
     @Schema(description = "Number of items in order", example = "3")
     private Integer itemCount;
+
+    // Constructor expression target for the order list page queries in OrderRepository
+    public CustomerOrderResponse(Long orderId, Long shopId, String shopName, BigDecimal totalAmount,
+            BigDecimal shippingFee, BigDecimal voucherDiscount, BigDecimal finalAmount, String paymentMethod,
+            String currentStatus, LocalDateTime createdAt, Long itemCount) {
+        this.orderId = orderId;
+        this.shopId = shopId;
+        this.shopName = shopName;
+        this.totalAmount = totalAmount;
+        this.shippingFee = shippingFee;
+        this.voucherDiscount = voucherDiscount;
+        this.finalAmount = finalAmount;
+        this.paymentMethod = paymentMethod;
+        this.currentStatus = currentStatus;
+        this.createdAt = createdAt;
+        this.itemCount = itemCount != null ? itemCount.intValue() : 0;
+    }
 }
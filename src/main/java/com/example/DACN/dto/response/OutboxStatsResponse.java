@@ -0,0 +1,54 @@
+package com.example.DACN.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Schema(description = "Order event outbox backlog and dispatcher metrics of this instance")
+public class OutboxStatsResponse {
+
+    @Schema(description = "Events waiting to be published", example = "3")
+    Long pendingCount;
+
+    @Schema(description = "Events given up on after too many failed attempts", example = "0")
+    Long failedCount;
+
+    @Schema(description = "Age of the oldest waiting event in milliseconds, 0 if none", example = "850")
+    Long oldestPendingAgeMs;
+
+    @Schema(description = "Start of the counters below")
+    LocalDateTime since;
+
+    @Schema(description = "Events published since startup", example = "12840")
+    Long publishedTotal;
+
+    @Schema(description = "Failed delivery attempts since startup", example = "2")
+    Long failedAttemptsTotal;
+
+    @Schema(description = "Mean time from writing an event to publishing it, in milliseconds", example = "640")
+    Long averageLagMs;
+
+    @Schema(description = "Events claimed by the last batch", example = "17")
+    Integer lastBatchSize;
+
+    @Schema(description = "Time the last batch took, in milliseconds", example = "35")
+    Long lastBatchDurationMs;
+
+    @Schema(description = "Longest time from writing to publishing in the last batch, in milliseconds",
+            example = "980")
+    Long lastBatchMaxLagMs;
+
+    @Schema(description = "When the last batch finished")
+    LocalDateTime lastBatchAt;
+}
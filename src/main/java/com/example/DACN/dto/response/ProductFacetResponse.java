@@ -0,0 +1,48 @@
+package com.example.DACN.dto.response;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ProductFacetResponse {
+
+    // Products matching every filter
+    Integer totalProducts;
+
+    List<FacetValue> categories;
+    List<FacetValue> shops;
+    List<PriceRange> priceRanges;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    public static class FacetValue {
+        Long id;
+        String name;
+        Integer count;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    public static class PriceRange {
+        // Inclusive, null for the lowest range
+        BigDecimal minPrice;
+        // Exclusive, null for the highest range
+        BigDecimal maxPrice;
+        Integer count;
+    }
+}
@@ -29,4 +29,23 @@ public class ProductListItemResponse {
     String shopName;
     Long categoryId;
     String categoryName;
+    String mainImageUrl;
+
+    // Constructor expression target for the list projections in ProductRepository (description is not loaded)
+    public ProductListItemResponse(Long productId, String name, BigDecimal price, Integer stockQuantity,
+            Integer soldCount, String status, LocalDateTime createdAt, Long shopId, String shopName,
+            Long categoryId, String categoryName, String mainImageUrl) {
+        this.productId = productId;
+        this.name = name;
+        this.price = price;
+        this.stockQuantity = stockQuantity;
+        this.soldCount = soldCount;
+        this.status = status;
+        this.createdAt = createdAt;
+        this.shopId = shopId;
+        this.shopName = shopName;
+        this.categoryId = categoryId;
+        this.categoryName = categoryName;
+        this.mainImageUrl = mainImageUrl;
+    }
 }
@@ -18,4 +18,7 @@ public class ProductListResponse {
 
     List<ProductListItemResponse> data;
     Integer totalPage;
+
+    // Opaque keyset cursor for the next page (cursor mode only, null on the last page)
+    String nextCursor;
 }
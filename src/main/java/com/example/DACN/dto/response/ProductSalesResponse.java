@@ -0,0 +1,32 @@
+package com.example.DACN.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Schema(description = "Units and revenue of one product over a range, net of cancelled orders")
+public class ProductSalesResponse {
+
+    @Schema(description = "Product ID", example = "1")
+    Long productId;
+
+    @Schema(description = "Product name", example = "iPhone 15 Pro")
+    String productName;
+
+    @Schema(description = "Units sold", example = "42")
+    Long units;
+
+    @Schema(description = "Revenue at purchase prices, before vouchers", example = "1250000")
+    BigDecimal revenue;
+}
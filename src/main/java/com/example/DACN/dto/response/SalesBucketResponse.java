@@ -0,0 +1,42 @@
+package com.example.DACN.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Schema(description = "Sales of orders placed in one hour or day")
+public class SalesBucketResponse {
+
+    @Schema(description = "Start of the hour or day", example = "2026-10-01T00:00:00")
+    LocalDateTime bucketStart;
+
+    @Schema(description = "Orders placed", example = "12")
+    long orderCount;
+
+    @Schema(description = "Final amount of the orders placed, cancelled ones included", example = "3600000")
+    BigDecimal gmv;
+
+    @Schema(description = "Voucher discount given", example = "150000")
+    BigDecimal voucherDiscount;
+
+    @Schema(description = "Orders cancelled since", example = "1")
+    long cancelledCount;
+
+    @Schema(description = "Final amount of the cancelled orders", example = "250000")
+    BigDecimal cancelledAmount;
+
+    @Schema(description = "Orders delivered since", example = "8")
+    long deliveredCount;
+}
@@ -0,0 +1,36 @@
+package com.example.DACN.dto.response;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class SearchSuggestionResponse {
+
+    String query;
+
+    // Each section ranked by sold count, best first
+    List<SuggestionItem> products;
+    List<SuggestionItem> categories;
+    List<SuggestionItem> shops;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    public static class SuggestionItem {
+        Long id;
+        String name;
+        // Categories only
+        String slug;
+    }
+}
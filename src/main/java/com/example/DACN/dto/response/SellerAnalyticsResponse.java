@@ -0,0 +1,42 @@
+package com.example.DACN.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Schema(description = "Sales of the seller's shop over a date range, counted by when orders were placed")
+public class SellerAnalyticsResponse {
+
+    @Schema(description = "Shop ID", example = "1")
+    Long shopId;
+
+    @Schema(description = "First day of the range", example = "2026-10-01")
+    LocalDate from;
+
+    @Schema(description = "Last day of the range, inclusive", example = "2026-10-31")
+    LocalDate to;
+
+    @Schema(description = "Bucket size of the series", example = "DAY")
+    String granularity;
+
+    @Schema(description = "Sums over the whole range; bucketStart is the start of the range")
+    SalesBucketResponse totals;
+
+    @Schema(description = "Buckets with at least one order, oldest first")
+    List<SalesBucketResponse> buckets;
+
+    @Schema(description = "Best-selling products of the range by units")
+    List<ProductSalesResponse> topProducts;
+}
@@ -0,0 +1,23 @@
+package com.example.DACN.dto.response;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class SellerOrderListResponse {
+
+    List<SellerOrderResponse> data;
+
+    // Opaque keyset cursor for the next page, null on the last page
+    String nextCursor;
+}
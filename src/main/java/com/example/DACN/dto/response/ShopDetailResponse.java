@@ -34,6 +34,9 @@ public class ShopDetailResponse {
     @Schema(description = "Whether shop is approved by admin", example = "true")
     private Boolean isApproved;
 
+    @Schema(description = "Number of active products", example = "42")
+    private Integer productCount;
+
     @Schema(description = "Shop creation timestamp")
     private LocalDateTime createdAt;
 
@@ -21,6 +21,7 @@ public class WishlistResponse {
     Long productId;
     String productName;
     BigDecimal productPrice;
+    String productImageUrl;
     LocalDateTime createdAt;
     String message;
 }
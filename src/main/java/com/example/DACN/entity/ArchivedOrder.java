@@ -0,0 +1,75 @@
+package com.example.DACN.entity;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * An order moved out of {@code orders} after it was finished for long enough.
+ * Rows are written only by the archive job and never change afterwards. There
+ * are no foreign keys, so the table and its children can be range partitioned
+ * by creation time.
+ */
+@Entity
+@Table(name = "orders_archive", indexes = {
+        @Index(name = "idx_orders_archive_user_listing", columnList = "user_id, has_deleted, created_at, order_id"),
+        @Index(name = "idx_orders_archive_shop_listing", columnList = "shop_id, has_deleted, created_at, order_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ArchivedOrder {
+
+    // Same ID the order had in the orders table
+    @Id
+    @Column(name = "order_id")
+    Long orderId;
+
+    @Column(name = "user_id", nullable = false, columnDefinition = "BINARY(16)")
+    UUID userId;
+
+    @Column(name = "shop_id", nullable = false)
+    Long shopId;
+
+    @Column(name = "total_amount", nullable = false, precision = 15, scale = 2)
+    BigDecimal totalAmount;
+
+    @Column(name = "shipping_fee", precision = 15, scale = 2)
+    BigDecimal shippingFee;
+
+    @Column(name = "voucher_discount", precision = 15, scale = 2)
+    BigDecimal voucherDiscount;
+
+    @Column(name = "final_amount", nullable = false, precision = 15, scale = 2)
+    BigDecimal finalAmount;
+
+    @Column(name = "payment_method", nullable = false, length = 20)
+    String paymentMethod;
+
+    @Column(columnDefinition = "TEXT")
+    String note;
+
+    @Column(name = "has_deleted", nullable = false)
+    Boolean hasDeleted;
+
+    @Column(name = "current_status", length = 50)
+    String currentStatus;
+
+    @Column(name = "status_updated_at")
+    LocalDateTime statusUpdatedAt;
+
+    // Partitioning key of the archive tables
+    @Column(name = "created_at", nullable = false)
+    LocalDateTime createdAt;
+
+    @Column(name = "archived_at", nullable = false)
+    LocalDateTime archivedAt;
+}
@@ -0,0 +1,45 @@
+package com.example.DACN.entity;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * An order item moved out of {@code order_items} together with its order.
+ */
+@Entity
+@Table(name = "order_items_archive", indexes = {
+        @Index(name = "idx_order_items_archive_order", columnList = "order_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ArchivedOrderItem {
+
+    @Id
+    @Column(name = "order_item_id")
+    Long orderItemId;
+
+    @Column(name = "order_id", nullable = false)
+    Long orderId;
+
+    @Column(name = "product_id", nullable = false)
+    Long productId;
+
+    @Column(nullable = false)
+    Integer quantity;
+
+    @Column(name = "price_at_purchase", nullable = false, precision = 15, scale = 2)
+    BigDecimal priceAtPurchase;
+
+    // Creation time of the order, the partitioning key
+    @Column(name = "order_created_at", nullable = false)
+    LocalDateTime orderCreatedAt;
+}
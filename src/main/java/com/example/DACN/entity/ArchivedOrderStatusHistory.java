@@ -0,0 +1,45 @@
+package com.example.DACN.entity;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+/**
+ * A status history entry moved out of {@code order_status_history} together
+ * with its order.
+ */
+@Entity
+@Table(name = "order_status_history_archive", indexes = {
+        @Index(name = "idx_order_status_history_archive_order", columnList = "order_id, created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ArchivedOrderStatusHistory {
+
+    @Id
+    @Column(name = "history_id")
+    Long historyId;
+
+    @Column(name = "order_id", nullable = false)
+    Long orderId;
+
+    @Column(nullable = false, length = 50)
+    String status;
+
+    @Column(columnDefinition = "TEXT")
+    String description;
+
+    @Column(name = "created_at")
+    LocalDateTime createdAt;
+
+    // Creation time of the order, the partitioning key
+    @Column(name = "order_created_at", nullable = false)
+    LocalDateTime orderCreatedAt;
+}
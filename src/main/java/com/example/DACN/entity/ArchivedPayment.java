@@ -0,0 +1,49 @@
+package com.example.DACN.entity;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A payment moved out of {@code payments} together with its order.
+ */
+@Entity
+@Table(name = "payments_archive", indexes = {
+        @Index(name = "idx_payments_archive_order", columnList = "order_id"),
+        @Index(name = "idx_payments_archive_transaction", columnList = "transaction_code")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ArchivedPayment {
+
+    @Id
+    @Column(name = "payment_id")
+    Long paymentId;
+
+    @Column(name = "order_id", nullable = false)
+    Long orderId;
+
+    @Column(name = "transaction_code", length = 100)
+    String transactionCode;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    BigDecimal amount;
+
+    @Column(nullable = false, length = 20)
+    String status;
+
+    @Column(name = "payment_time")
+    LocalDateTime paymentTime;
+
+    // Creation time of the order, the partitioning key
+    @Column(name = "order_created_at", nullable = false)
+    LocalDateTime orderCreatedAt;
+}
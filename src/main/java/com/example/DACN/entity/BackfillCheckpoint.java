@@ -0,0 +1,44 @@
+package com.example.DACN.entity;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * How far a day-by-day backfill got. The row is written in the same
+ * transaction as each day's work, so a backfill stopped by a crash or a
+ * restart resumes with the day after the last one it finished.
+ */
+@Entity
+@Table(name = "backfill_checkpoints")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BackfillCheckpoint {
+
+    public static final String SALES_ROLLUPS = "sales-rollups";
+
+    @Id
+    @Column(name = "job_name", length = 50)
+    String jobName;
+
+    // First day written live rather than by the backfill; the backfill ends with it
+    @Column(name = "live_from", nullable = false)
+    LocalDate liveFrom;
+
+    // Last day the backfill finished, null before the first one
+    @Column(name = "done_through")
+    LocalDate doneThrough;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    LocalDateTime updatedAt;
+}
@@ -6,11 +6,14 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.LocalDateTime;
 import java.util.Set;
 
 @Entity
-@Table(name = "categories")
+@Table(name = "categories", indexes = @Index(name = "idx_categories_path", columnList = "path"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -36,9 +39,22 @@ public class Category {
     @JoinColumn(name = "parent_id")
     Category parent; // Self-referencing for parent category
 
+    // Materialized path of ancestor IDs including this one, e.g. "/1/5/12/"
+    @Column(length = 255)
+    String path;
+
     @Column(name = "has_deleted", nullable = false)
     Boolean hasDeleted = false;
 
+    // Active products here and in all descendants; only written by counter updates
+    @ColumnDefault("0")
+    @Column(name = "active_product_count", nullable = false, insertable = false, updatable = false)
+    Integer activeProductCount = 0;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    LocalDateTime updatedAt;
+
     @OneToMany(mappedBy = "parent")
     Set<Category> subCategories;
 
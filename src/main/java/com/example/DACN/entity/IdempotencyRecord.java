@@ -0,0 +1,70 @@
+package com.example.DACN.entity;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of a request sent with an idempotency key. The row is inserted
+ * before the request runs, so the unique key lets only one copy of a retried
+ * request through, and the stored response answers every later copy.
+ * An in-progress row is leased to the instance that claimed it.
+ */
+@Entity
+@Table(name = "idempotency_keys", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_idempotency_keys_scope_key", columnNames = { "scope", "idempotency_key" })
+}, indexes = {
+        @Index(name = "idx_idempotency_keys_created", columnList = "created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class IdempotencyRecord {
+
+    public static final String STATUS_IN_PROGRESS = "InProgress";
+    public static final String STATUS_COMPLETED = "Completed";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "record_id")
+    Long recordId;
+
+    // Operation and caller the key belongs to, e.g. "create-order:<userId>"
+    @Column(nullable = false, length = 100)
+    String scope;
+
+    @Column(name = "idempotency_key", nullable = false, length = 100)
+    String idempotencyKey;
+
+    // Hash of the request body, to reject a key reused for a different request
+    @Column(name = "request_hash", nullable = false, length = 32)
+    String requestHash;
+
+    @Column(nullable = false, length = 20)
+    String status;
+
+    @Column(name = "response_body", columnDefinition = "TEXT")
+    String responseBody;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    LocalDateTime createdAt;
+
+    @Column(name = "completed_at")
+    LocalDateTime completedAt;
+
+    // Owner of an in-progress claim and when it was taken; a claim older than
+    // the lease is abandoned and may be taken over
+    @Column(name = "claim_token", length = 36)
+    String claimToken;
+
+    @Column(name = "claimed_at")
+    LocalDateTime claimedAt;
+}
@@ -11,7 +11,9 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_notifications_event_key", columnNames = "event_key")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -36,6 +38,11 @@ public class Notification {
     @Column(length = 50)
     String type;
 
+    // Order event the notification was written for, e.g. "OrderCancelled:42";
+    // unique, so a redelivered event does not notify twice
+    @Column(name = "event_key", length = 100)
+    String eventKey;
+
     @Column(name = "is_read", nullable = false)
     Boolean isRead = false;
 
@@ -13,7 +13,15 @@ import java.time.LocalDateTime;
 import java.util.Set;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_user_listing", columnList = "user_id, has_deleted, created_at, order_id"),
+        @Index(name = "idx_orders_shop_listing", columnList = "shop_id, has_deleted, created_at, order_id"),
+        @Index(name = "idx_orders_shop_status", columnList = "shop_id, current_status, created_at"),
+        @Index(name = "idx_orders_shop_created", columnList = "shop_id, created_at DESC, order_id DESC"),
+        @Index(name = "idx_orders_paypal_order", columnList = "paypal_order_id"),
+        @Index(name = "idx_orders_capture_started", columnList = "capture_started_at"),
+        @Index(name = "idx_orders_status_updated", columnList = "current_status, status_updated_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -58,6 +66,21 @@ public class Order {
     @Column(name = "created_at", updatable = false)
     LocalDateTime createdAt;
 
+    // Copy of the latest order_status_history entry, written with it
+    @Column(name = "current_status", length = 50)
+    String currentStatus;
+
+    @Column(name = "status_updated_at")
+    LocalDateTime statusUpdatedAt;
+
+    // PayPal order created to pay for this order, and when its capture began;
+    // the capture start is cleared once the payment is recorded
+    @Column(name = "paypal_order_id", length = 50)
+    String paypalOrderId;
+
+    @Column(name = "capture_started_at")
+    LocalDateTime captureStartedAt;
+
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL)
     Set<OrderItem> orderItems;
 
@@ -0,0 +1,73 @@
+package com.example.DACN.entity;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * An order event waiting to be published, written in the same transaction as
+ * the order change it describes, so an event exists if and only if the change
+ * committed. A dispatcher claims due rows by setting {@code claimToken} and
+ * pushing {@code availableAt} past a lease; a row whose dispatcher died is due
+ * again once the lease runs out.
+ */
+@Entity
+@Table(name = "outbox_events", indexes = {
+        @Index(name = "idx_outbox_events_status_available", columnList = "status, available_at"),
+        @Index(name = "idx_outbox_events_claim", columnList = "claim_token")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class OutboxEvent {
+
+    public static final String STATUS_PENDING = "Pending";
+    public static final String STATUS_PUBLISHED = "Published";
+    public static final String STATUS_FAILED = "Failed";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "outbox_event_id")
+    Long outboxEventId;
+
+    // Simple class name of the event, e.g. "OrderCreatedEvent"
+    @Column(name = "event_type", nullable = false, length = 100)
+    String eventType;
+
+    // Plain column rather than a foreign key, so events outlive their orders
+    @Column(name = "order_id", nullable = false)
+    Long orderId;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    String payload;
+
+    @Column(nullable = false, length = 20)
+    String status; // Pending/Published/Failed
+
+    @Column(nullable = false)
+    Integer attempts = 0;
+
+    // Not due before this time: the lease of a claim, or the next retry
+    @Column(name = "available_at", nullable = false)
+    LocalDateTime availableAt;
+
+    @Column(name = "claim_token", length = 36)
+    String claimToken;
+
+    @Column(name = "last_error", length = 500)
+    String lastError;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    LocalDateTime createdAt;
+
+    @Column(name = "published_at")
+    LocalDateTime publishedAt;
+}
@@ -7,6 +7,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
@@ -14,7 +15,13 @@ import java.time.LocalDateTime;
 import java.util.Set;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_listing_created", columnList = "has_deleted, status, created_at, product_id"),
+        @Index(name = "idx_products_listing_sold", columnList = "has_deleted, status, sold_count, product_id")
+})
+// Write only changed columns, so editing a product never writes back a stock
+// level that checkouts have since decremented
+@DynamicUpdate
 @lombok.Getter
 @lombok.Setter
 @lombok.ToString
@@ -58,6 +65,11 @@ public class Product {
     @Column(nullable = false, length = 20)
     String status = "Active"; // Active/Inactive/Banned
 
+    // First image by display order, kept in step with product_images so that
+    // list, cart and wishlist responses never read that table
+    @Column(name = "main_image_url")
+    String mainImageUrl;
+
     @Column(name = "has_deleted", nullable = false)
     Boolean hasDeleted = false;
 
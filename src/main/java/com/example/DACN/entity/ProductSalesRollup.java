@@ -0,0 +1,53 @@
+package com.example.DACN.entity;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Units of one product sold over one hour or one day, net of cancelled
+ * orders. The unique key starts with the shop, so it also serves a shop's
+ * top products over a range.
+ */
+@Entity
+@Table(name = "product_sales_rollups", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_product_sales_rollups_bucket",
+                columnNames = { "shop_id", "granularity", "bucket_start", "product_id" })
+}, indexes = {
+        @Index(name = "idx_product_sales_rollups_bucket", columnList = "bucket_start")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ProductSalesRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "rollup_id")
+    Long rollupId;
+
+    @Column(name = "shop_id", nullable = false)
+    Long shopId;
+
+    @Column(name = "product_id", nullable = false)
+    Long productId;
+
+    @Column(nullable = false, length = 10)
+    String granularity;
+
+    @Column(name = "bucket_start", nullable = false)
+    LocalDateTime bucketStart;
+
+    @Column(nullable = false)
+    Long units = 0L;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    BigDecimal revenue = BigDecimal.ZERO;
+}
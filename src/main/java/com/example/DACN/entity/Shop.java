@@ -6,6 +6,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -48,6 +49,11 @@ public class Shop {
     @Column(name = "has_deleted", nullable = false)
     Boolean hasDeleted = false;
 
+    // Active products of the shop; only written by counter updates
+    @ColumnDefault("0")
+    @Column(name = "active_product_count", nullable = false, insertable = false, updatable = false)
+    Integer activeProductCount = 0;
+
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     LocalDateTime createdAt;
@@ -0,0 +1,67 @@
+package com.example.DACN.entity;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Sales of one shop over one hour or one day, counted by when each order was
+ * placed. Rows are only ever added to with an upsert, so concurrent orders
+ * never overwrite each other's counts.
+ */
+@Entity
+@Table(name = "shop_sales_rollups", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_shop_sales_rollups_bucket",
+                columnNames = { "shop_id", "granularity", "bucket_start" })
+}, indexes = {
+        @Index(name = "idx_shop_sales_rollups_bucket", columnList = "bucket_start")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ShopSalesRollup {
+
+    public static final String GRANULARITY_HOUR = "HOUR";
+    public static final String GRANULARITY_DAY = "DAY";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "rollup_id")
+    Long rollupId;
+
+    @Column(name = "shop_id", nullable = false)
+    Long shopId;
+
+    @Column(nullable = false, length = 10)
+    String granularity;
+
+    // Start of the hour or day
+    @Column(name = "bucket_start", nullable = false)
+    LocalDateTime bucketStart;
+
+    @Column(name = "order_count", nullable = false)
+    Long orderCount = 0L;
+
+    // Sum of final amounts of every order placed, cancelled ones included
+    @Column(nullable = false, precision = 15, scale = 2)
+    BigDecimal gmv = BigDecimal.ZERO;
+
+    @Column(name = "voucher_discount", nullable = false, precision = 15, scale = 2)
+    BigDecimal voucherDiscount = BigDecimal.ZERO;
+
+    @Column(name = "cancelled_count", nullable = false)
+    Long cancelledCount = 0L;
+
+    @Column(name = "cancelled_amount", nullable = false, precision = 15, scale = 2)
+    BigDecimal cancelledAmount = BigDecimal.ZERO;
+
+    @Column(name = "delivered_count", nullable = false)
+    Long deliveredCount = 0L;
+}
@@ -0,0 +1,58 @@
+package com.example.DACN.entity;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stock taken by an unpaid order until it is paid or the hold expires. The
+ * quantity is already off {@code products.stock_quantity}; the row records
+ * that it goes back on sale if the order is not paid by {@code expiresAt}.
+ */
+@Entity
+@Table(name = "stock_reservations", indexes = {
+        @Index(name = "idx_stock_reservations_status_expires", columnList = "status, expires_at"),
+        @Index(name = "idx_stock_reservations_order", columnList = "order_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class StockReservation {
+
+    public static final String STATUS_HELD = "Held";
+    public static final String STATUS_CONVERTED = "Converted";
+    public static final String STATUS_RELEASED = "Released";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "reservation_id")
+    Long reservationId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "order_id", nullable = false)
+    Order order;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_id", nullable = false)
+    Product product;
+
+    @Column(nullable = false)
+    Integer quantity;
+
+    @Column(nullable = false, length = 20)
+    String status; // Held/Converted/Released
+
+    @Column(name = "expires_at", nullable = false)
+    LocalDateTime expiresAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    LocalDateTime createdAt;
+}
@@ -0,0 +1,17 @@
+package com.example.DACN.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Published whenever a category row is written, for the same after-commit
+ * listeners as {@link ProductChangedEvent}.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class CategoryChangedEvent {
+
+    private final Long categoryId;
+}
@@ -0,0 +1,23 @@
+package com.example.DACN.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.util.UUID;
+
+/**
+ * An order was cancelled by its customer or seller, or because it was not
+ * paid in time.
+ */
+@Getter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderCancelledEvent implements OrderEvent {
+
+    private Long orderId;
+    private UUID userId;
+    private String reason;
+}
@@ -0,0 +1,29 @@
+package com.example.DACN.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * An order was placed, on its own or as one shop's part of a checkout.
+ */
+@Getter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderCreatedEvent implements OrderEvent {
+
+    private Long orderId;
+    private UUID userId;
+    private Long shopId;
+    private String paymentMethod;
+    private BigDecimal finalAmount;
+    private List<Long> productIds;
+    private LocalDateTime placedAt;
+}
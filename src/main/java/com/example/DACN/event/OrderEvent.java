@@ -0,0 +1,12 @@
+package com.example.DACN.event;
+
+/**
+ * Order lifecycle event. Written to the outbox in the transaction that
+ * changes the order and published to {@code @EventListener}s by the outbox
+ * dispatcher after it commits, at least once: a listener may see the same
+ * event again and must tolerate that.
+ */
+public interface OrderEvent {
+
+    Long getOrderId();
+}
@@ -0,0 +1,24 @@
+package com.example.DACN.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * A PayPal payment of an order was captured.
+ */
+@Getter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderPaidEvent implements OrderEvent {
+
+    private Long orderId;
+    private UUID userId;
+    private BigDecimal amount;
+    private String transactionId;
+}
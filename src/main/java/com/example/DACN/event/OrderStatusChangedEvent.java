@@ -0,0 +1,24 @@
+package com.example.DACN.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.util.UUID;
+
+/**
+ * A seller moved an order to its next status. Payment and cancellation have
+ * their own events.
+ */
+@Getter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusChangedEvent implements OrderEvent {
+
+    private Long orderId;
+    private UUID userId;
+    private String fromStatus;
+    private String toStatus;
+}
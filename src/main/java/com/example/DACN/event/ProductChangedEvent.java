@@ -0,0 +1,27 @@
+package com.example.DACN.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Published whenever a product row is written. In-memory read models (search
+ * index, caches) listen for it after the transaction commits and reload what
+ * they need by ID.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class ProductChangedEvent {
+
+    private final Long productId;
+    private final ChangeType changeType;
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED,
+        STATUS_CHANGED,
+        STOCK_CHANGED
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.DACN.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Published whenever a shop's public details or approval change, for the same
+ * after-commit listeners as {@link ProductChangedEvent}.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class ShopChangedEvent {
+
+    private final Long shopId;
+}
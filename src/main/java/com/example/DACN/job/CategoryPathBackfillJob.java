@@ -0,0 +1,34 @@
+package com.example.DACN.job;
+
+import com.example.DACN.service.CategoryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills {@code categories.path} for categories written before the column
+ * existed, and repairs any path that drifted from the parent links. Runs once
+ * on startup, before category filters are served. The category table is small,
+ * so the whole tree is recomputed in memory and only differing rows are written.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryPathBackfillJob {
+
+    private final CategoryService categoryService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void backfill() {
+        int updated = categoryService.rebuildPaths();
+
+        if (updated > 0) {
+            log.info("Backfilled materialized path for {} categories", updated);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.DACN.job;
+
+import com.example.DACN.cache.CategoryTreeCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebuilds the category tree snapshot when product writes may have moved its
+ * product counts, coalescing every write since the last run into one rebuild.
+ */
+@Component
+@ConditionalOnProperty(name = "cache.category-tree.count-refresh.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryTreeCountRefreshJob {
+
+    private final CategoryTreeCache categoryTreeCache;
+
+    @Scheduled(initialDelayString = "${cache.category-tree.count-refresh.interval-ms:30000}",
+            fixedDelayString = "${cache.category-tree.count-refresh.interval-ms:30000}")
+    public void refresh() {
+        try {
+            categoryTreeCache.refreshCounts();
+        } catch (RuntimeException e) {
+            log.error("Failed to refresh category tree counts", e);
+        }
+    }
+}
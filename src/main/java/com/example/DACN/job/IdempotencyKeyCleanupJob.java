@@ -0,0 +1,42 @@
+package com.example.DACN.job;
+
+import com.example.DACN.service.IdempotencyService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Deletes idempotency keys older than the retention period, after which a
+ * retry with the same key runs as a new request, and in-progress keys whose
+ * claim outlived its lease.
+ */
+@Component
+@ConditionalOnProperty(name = "idempotency.cleanup.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyKeyCleanupJob {
+
+    private final IdempotencyService idempotencyService;
+
+    @Value("${idempotency.retention-hours:24}")
+    private long retentionHours;
+
+    @Scheduled(initialDelayString = "${idempotency.cleanup.initial-delay-ms:300000}",
+            fixedDelayString = "${idempotency.cleanup.interval-ms:3600000}")
+    public void cleanup() {
+        int deleted = idempotencyService.deleteCreatedBefore(LocalDateTime.now().minusHours(retentionHours));
+        if (deleted > 0) {
+            log.info("Deleted {} expired idempotency keys", deleted);
+        }
+
+        int abandoned = idempotencyService.deleteAbandonedClaims();
+        if (abandoned > 0) {
+            log.info("Released {} abandoned idempotency keys", abandoned);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.DACN.job;
+
+import com.example.DACN.service.OrderArchiveService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves orders finished more than {@code order.archive.after-months} ago to
+ * the archive tables. Each batch is its own short transaction and a run stops
+ * after a bounded number of batches, pausing in between, so a large backlog is
+ * worked off over several runs without holding locks on the order tables for
+ * long.
+ */
+@Component
+@ConditionalOnProperty(name = "order.archive.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class OrderArchiveJob {
+
+    private final OrderArchiveService orderArchiveService;
+
+    @Value("${order.archive.after-months:12}")
+    private long afterMonths;
+
+    @Value("${order.archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${order.archive.max-batches-per-run:100}")
+    private int maxBatchesPerRun;
+
+    @Value("${order.archive.pause-ms:200}")
+    private long pauseMs;
+
+    @Scheduled(initialDelayString = "${order.archive.initial-delay-ms:600000}",
+            fixedDelayString = "${order.archive.interval-ms:3600000}")
+    public void archive() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMonths(afterMonths);
+        long started = System.currentTimeMillis();
+        int archived = 0;
+
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            List<Long> orderIds = orderArchiveService.findArchivableIds(cutoff, batchSize);
+            if (orderIds.isEmpty()) {
+                break;
+            }
+            archived += archive(orderIds);
+            if (orderIds.size() < batchSize || !pause()) {
+                break;
+            }
+        }
+
+        if (archived > 0) {
+            log.info("Archived {} orders finished before {} in {} ms", archived, cutoff,
+                    System.currentTimeMillis() - started);
+        }
+    }
+
+    /**
+     * Archive a batch, or its orders one by one if the batch fails, so one
+     * order that cannot be moved does not hold back the rest on every run.
+     */
+    private int archive(List<Long> orderIds) {
+        try {
+            return orderArchiveService.archiveBatch(orderIds);
+        } catch (RuntimeException e) {
+            log.warn("Failed to archive a batch of {} orders, archiving them one by one", orderIds.size(), e);
+        }
+
+        int archived = 0;
+        for (Long orderId : orderIds) {
+            try {
+                archived += orderArchiveService.archiveBatch(List.of(orderId));
+            } catch (RuntimeException e) {
+                log.error("Failed to archive order {}", orderId, e);
+            }
+        }
+        return archived;
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.DACN.job;
+
+import com.example.DACN.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills {@code orders.current_status} for orders written before the column
+ * existed, from their latest status history entry. Runs once on startup in ID
+ * ranges so each UPDATE holds its row locks only briefly. Orders already
+ * filled are skipped, so a run on an up-to-date table is cheap.
+ */
+@Component
+@ConditionalOnProperty(name = "order.status-backfill.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class OrderStatusBackfillJob {
+
+    private static final long BATCH_SIZE = 1000;
+
+    private final OrderRepository orderRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void backfill() {
+        long maxOrderId = orderRepository.findMaxOrderId();
+
+        int updated = 0;
+        for (long fromId = 0; fromId < maxOrderId; fromId += BATCH_SIZE) {
+            updated += orderRepository.backfillCurrentStatus(fromId, Math.min(fromId + BATCH_SIZE, maxOrderId));
+        }
+
+        if (updated > 0) {
+            log.info("Backfilled current status for {} orders", updated);
+        }
+    }
+}
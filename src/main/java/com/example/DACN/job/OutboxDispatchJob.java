@@ -0,0 +1,49 @@
+package com.example.DACN.job;
+
+import com.example.DACN.service.OutboxService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Publishes order events from the outbox. Each run drains the backlog in
+ * batches, so a burst of orders is caught up in one run instead of one batch
+ * per interval. Published events are kept for a while for inspection, then
+ * deleted.
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.dispatch.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxDispatchJob {
+
+    private static final int BATCH_SIZE = 100;
+
+    private final OutboxService outboxService;
+
+    @Value("${outbox.retention-hours:72}")
+    private long retentionHours;
+
+    @Scheduled(initialDelayString = "${outbox.dispatch.initial-delay-ms:10000}",
+            fixedDelayString = "${outbox.dispatch.interval-ms:1000}")
+    public void dispatch() {
+        int found;
+        do {
+            found = outboxService.dispatchBatch(BATCH_SIZE);
+        } while (found == BATCH_SIZE);
+    }
+
+    @Scheduled(initialDelayString = "${outbox.cleanup.initial-delay-ms:300000}",
+            fixedDelayString = "${outbox.cleanup.interval-ms:3600000}")
+    public void cleanup() {
+        int deleted = outboxService.deletePublishedBefore(LocalDateTime.now().minusHours(retentionHours));
+        if (deleted > 0) {
+            log.info("Deleted {} published outbox events", deleted);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.DACN.job;
+
+import com.example.DACN.service.PaymentService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Settles PayPal captures that began but were never recorded, asking PayPal
+ * how each one ended. One batch per run: a capture PayPal cannot answer for
+ * stays claimed and is retried on the next run.
+ */
+@Component
+@ConditionalOnProperty(name = "order.capture-recovery.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class PayPalCaptureRecoveryJob {
+
+    private static final int BATCH_SIZE = 50;
+
+    private final PaymentService paymentService;
+
+    @Scheduled(initialDelayString = "${order.capture-recovery.initial-delay-ms:120000}",
+            fixedDelayString = "${order.capture-recovery.interval-ms:120000}")
+    public void recover() {
+        List<String> tokens = paymentService.findStaleCaptures(BATCH_SIZE);
+        for (String token : tokens) {
+            try {
+                paymentService.recoverCapture(token);
+            } catch (Exception e) {
+                log.warn("Could not recover PayPal capture {}: {}", token, e.getMessage());
+            }
+        }
+
+        if (!tokens.isEmpty()) {
+            log.info("Checked {} stale PayPal captures", tokens.size());
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.DACN.job;
+
+import com.example.DACN.cache.CategoryTreeCache;
+import com.example.DACN.repository.ShopRepository;
+import com.example.DACN.service.ProductCountService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically recounts active products per category and per shop and fixes
+ * counters that drifted, e.g. from writes made outside the services or counters
+ * that predate the columns. Shops are checked in ID ranges, each in its own
+ * short transaction. A counter changed by a concurrent write since it was read
+ * is left for the next run.
+ */
+@Component
+@ConditionalOnProperty(name = "product.count-reconcile.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class ProductCountReconcileJob {
+
+    private static final long BATCH_SIZE = 1000;
+
+    private final ProductCountService productCountService;
+    private final ShopRepository shopRepository;
+    private final CategoryTreeCache categoryTreeCache;
+
+    @Scheduled(initialDelayString = "${product.count-reconcile.initial-delay-ms:60000}",
+            fixedDelayString = "${product.count-reconcile.interval-ms:3600000}")
+    public void reconcile() {
+        int categories = productCountService.reconcileCategories();
+        if (categories > 0) {
+            categoryTreeCache.refresh();
+        }
+
+        long maxShopId = shopRepository.findMaxShopId();
+        int shops = 0;
+        for (long fromId = 0; fromId < maxShopId; fromId += BATCH_SIZE) {
+            shops += productCountService.reconcileShops(fromId, Math.min(fromId + BATCH_SIZE, maxShopId));
+        }
+
+        if (categories > 0 || shops > 0) {
+            log.warn("Corrected active product counts of {} categories and {} shops", categories, shops);
+        }
+    }
+}
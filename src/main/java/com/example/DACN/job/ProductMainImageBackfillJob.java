@@ -0,0 +1,43 @@
+package com.example.DACN.job;
+
+import com.example.DACN.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills {@code products.main_image_url} for rows written before the column
+ * existed. Runs once on startup, ahead of the in-memory read models that copy
+ * the column, in ID ranges so each UPDATE holds its row locks only briefly.
+ * Rows already filled are skipped, so a run on an up-to-date table is cheap.
+ */
+@Component
+@ConditionalOnProperty(name = "product.main-image-backfill.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class ProductMainImageBackfillJob {
+
+    private static final long BATCH_SIZE = 1000;
+
+    private final ProductRepository productRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void backfill() {
+        long maxProductId = productRepository.findMaxProductId();
+
+        int updated = 0;
+        for (long fromId = 0; fromId < maxProductId; fromId += BATCH_SIZE) {
+            updated += productRepository.backfillMainImageUrls(fromId, Math.min(fromId + BATCH_SIZE, maxProductId));
+        }
+
+        if (updated > 0) {
+            log.info("Backfilled main image URL for {} products", updated);
+        }
+    }
+}
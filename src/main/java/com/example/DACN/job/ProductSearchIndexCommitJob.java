@@ -0,0 +1,26 @@
+package com.example.DACN.job;
+
+import com.example.DACN.search.ProductSearchIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Commits the product search index. Product writes only refresh the searcher,
+ * so this bounds how many of them a crash can lose; they are indexed again on
+ * the next startup anyway.
+ */
+@Component
+@ConditionalOnProperty(name = "search.index.commit.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class ProductSearchIndexCommitJob {
+
+    private final ProductSearchIndex productSearchIndex;
+
+    @Scheduled(initialDelayString = "${search.index.commit.interval-ms:30000}",
+            fixedDelayString = "${search.index.commit.interval-ms:30000}")
+    public void commit() {
+        productSearchIndex.commit();
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.DACN.job;
+
+import com.example.DACN.entity.BackfillCheckpoint;
+import com.example.DACN.repository.OrderRepository;
+import com.example.DACN.service.SalesRollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Fills the sales rollups from the orders placed before they were counted
+ * live. Each day is rebuilt in its own transaction together with the
+ * checkpoint, so the orders of one day at a time are read, no lock is held for
+ * the whole run, and a run stopped part way resumes with the next day.
+ * <p>
+ * Only days that are over are rebuilt. The day the rollups went live is mixed:
+ * it is rebuilt by the first run after it ended, which the daily schedule
+ * guarantees. After that every day is counted live and runs do nothing.
+ */
+@Component
+@ConditionalOnProperty(name = "analytics.rollup-backfill.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class SalesRollupBackfillJob {
+
+    private final OrderRepository orderRepository;
+    private final SalesRollupService salesRollupService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${analytics.rollup-backfill.cron:0 15 0 * * *}")
+    public void backfill() {
+        LocalDate today = LocalDate.now();
+        BackfillCheckpoint checkpoint = salesRollupService.findOrStartBackfill(today);
+
+        // 1. Resume after the last finished day, or start with the first order
+        LocalDate from;
+        if (checkpoint.getDoneThrough() != null) {
+            from = checkpoint.getDoneThrough().plusDays(1);
+        } else {
+            LocalDateTime firstOrderAt = orderRepository.findFirstCreatedAt();
+            if (firstOrderAt == null) {
+                return;
+            }
+            from = firstOrderAt.toLocalDate();
+        }
+
+        // 2. Stop at the day the rollups went live, and never go past yesterday
+        LocalDate yesterday = today.minusDays(1);
+        LocalDate to = checkpoint.getLiveFrom().isBefore(yesterday) ? checkpoint.getLiveFrom() : yesterday;
+
+        int days = 0;
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            salesRollupService.backfillDay(day);
+            days++;
+        }
+        if (days > 0) {
+            log.info("Backfilled sales rollups for {} days through {}", days, to);
+        }
+    }
+}
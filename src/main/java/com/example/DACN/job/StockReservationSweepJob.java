@@ -0,0 +1,55 @@
+package com.example.DACN.job;
+
+import com.example.DACN.service.StockReservationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Puts the stock of unpaid PayPal orders back on sale once their holds expire.
+ * Expired orders are picked in batches, oldest first, and each is released in
+ * its own short transaction so product rows are never locked for a whole batch.
+ * An order that fails to release is logged and skipped, like in
+ * {@link OrderArchiveJob}, and tried again on the next run.
+ */
+@Component
+@ConditionalOnProperty(name = "order.reservation.sweep.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class StockReservationSweepJob {
+
+    private static final int BATCH_SIZE = 200;
+
+    private final StockReservationService stockReservationService;
+
+    @Scheduled(initialDelayString = "${order.reservation.sweep.initial-delay-ms:60000}",
+            fixedDelayString = "${order.reservation.sweep.interval-ms:60000}")
+    public void sweep() {
+        int released = 0;
+        int failed = 0;
+        List<Long> orderIds;
+        do {
+            orderIds = stockReservationService.findExpiredOrderIds(BATCH_SIZE);
+            for (Long orderId : orderIds) {
+                try {
+                    if (stockReservationService.releaseExpired(orderId)) {
+                        released++;
+                    }
+                } catch (RuntimeException e) {
+                    failed++;
+                    log.error("Failed to release expired stock reservations of order {}", orderId, e);
+                }
+            }
+            // A failed order stays expired and would be picked again, so stop
+            // after a batch with failures and retry them on the next run
+        } while (orderIds.size() == BATCH_SIZE && failed == 0);
+
+        if (released > 0 || failed > 0) {
+            log.info("Released expired stock reservations of {} orders, {} failed", released, failed);
+        }
+    }
+}
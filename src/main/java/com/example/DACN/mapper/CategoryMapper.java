@@ -15,6 +15,7 @@ public interface CategoryMapper {
     @Mapping(source = "iconUrl", target = "iconUrl")
     @Mapping(source = "parent.categoryId", target = "parentId")
     @Mapping(source = "hasDeleted", target = "hasDeleted")
+    @Mapping(source = "activeProductCount", target = "productCount")
     CategoryResponse toCategoryResponse(Category category);
 
     @Mapping(source = "categoryId", target = "categoryId")
@@ -22,6 +23,7 @@ public interface CategoryMapper {
     @Mapping(source = "slug", target = "slug")
     @Mapping(source = "iconUrl", target = "iconUrl")
     @Mapping(source = "hasDeleted", target = "hasDeleted")
+    @Mapping(source = "activeProductCount", target = "productCount")
     @Mapping(target = "children", ignore = true)
     CategoryTreeResponse toCategoryTreeResponse(Category category);
 }
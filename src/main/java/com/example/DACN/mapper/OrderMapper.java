@@ -4,6 +4,7 @@ import com.example.DACN.dto.response.CreateOrderResponse;
 import com.example.DACN.dto.response.CustomerOrderResponse;
 import com.example.DACN.dto.response.OrderStatusHistoryResponse;
 import com.example.DACN.dto.response.SellerOrderResponse;
+import com.example.DACN.entity.ArchivedOrderStatusHistory;
 import com.example.DACN.entity.Order;
 import com.example.DACN.entity.OrderStatusHistory;
 import org.mapstruct.Mapper;
@@ -31,4 +32,6 @@ public interface OrderMapper {
     SellerOrderResponse toSellerOrderResponse(Order order);
 
     OrderStatusHistoryResponse toOrderStatusHistoryResponse(OrderStatusHistory orderStatusHistory);
+
+    OrderStatusHistoryResponse toArchivedOrderStatusHistoryResponse(ArchivedOrderStatusHistory orderStatusHistory);
 }
@@ -36,6 +36,7 @@ public interface ShopMapper {
     @Mapping(source = "ratingAvg", target = "ratingAvg")
     @Mapping(source = "isApproved", target = "isApproved")
     @Mapping(source = "createdAt", target = "createdAt")
+    @Mapping(source = "activeProductCount", target = "productCount")
     ShopListResponse toShopListResponse(Shop shop);
 
     @Mapping(source = "shopId", target = "shopId")
@@ -46,5 +47,6 @@ public interface ShopMapper {
     @Mapping(source = "isApproved", target = "isApproved")
     @Mapping(source = "createdAt", target = "createdAt")
     @Mapping(source = "updatedAt", target = "updatedAt")
+    @Mapping(source = "activeProductCount", target = "productCount")
     ShopDetailResponse toShopDetailResponse(Shop shop);
 }
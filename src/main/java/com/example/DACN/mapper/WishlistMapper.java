@@ -13,6 +13,7 @@ public interface WishlistMapper {
     @Mapping(target = "productId", source = "product.productId")
     @Mapping(target = "productName", source = "product.name")
     @Mapping(target = "productPrice", source = "product.price")
+    @Mapping(target = "productImageUrl", source = "product.mainImageUrl")
     @Mapping(target = "createdAt", source = "createdAt")
     @Mapping(target = "message", constant = "Added to wishlist successfully")
     WishlistResponse toWishlistResponse(Wishlist wishlist);
@@ -0,0 +1,160 @@
+package com.example.DACN.repository;
+
+import com.example.DACN.dto.response.CustomerOrderResponse;
+import com.example.DACN.dto.response.SellerOrderResponse;
+import com.example.DACN.entity.ArchivedOrder;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Archived orders, and the statements that move a batch of orders with their
+ * items, status history and payments out of the hot tables. The move
+ * statements must run in one transaction.
+ */
+@Repository
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long> {
+
+    Optional<ArchivedOrder> findByOrderIdAndHasDeletedFalse(Long orderId);
+
+    /**
+     * Item count of archived order {@code a}; the creation time lets MySQL
+     * prune the item partitions.
+     */
+    String ITEM_COUNT = "(SELECT COUNT(i) FROM ArchivedOrderItem i " +
+            "WHERE i.orderId = a.orderId AND i.orderCreatedAt = a.createdAt)";
+
+    /**
+     * Same keyset seek as the order list pages, so a page of archived orders
+     * can be merged with a page of live ones.
+     */
+    String AFTER_CURSOR = "AND (:cursorCreatedAt IS NULL OR a.createdAt < :cursorCreatedAt " +
+            "OR (a.createdAt = :cursorCreatedAt AND a.orderId < :cursorOrderId)) " +
+            "ORDER BY a.createdAt DESC, a.orderId DESC";
+
+    @Query("SELECT new com.example.DACN.dto.response.CustomerOrderResponse(a.orderId, s.shopId, s.shopName, " +
+            "a.totalAmount, a.shippingFee, a.voucherDiscount, a.finalAmount, a.paymentMethod, " +
+            "COALESCE(a.currentStatus, 'Unknown'), a.createdAt, " + ITEM_COUNT + ") " +
+            "FROM ArchivedOrder a JOIN Shop s ON s.shopId = a.shopId " +
+            "WHERE a.userId = :userId AND a.hasDeleted = false " +
+            AFTER_CURSOR)
+    List<CustomerOrderResponse> findCustomerOrderPage(@Param("userId") UUID userId,
+            @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+            @Param("cursorOrderId") Long cursorOrderId,
+            Pageable pageable);
+
+    @Query("SELECT new com.example.DACN.dto.response.SellerOrderResponse(a.orderId, u.email, u.fullName, " +
+            "a.totalAmount, a.shippingFee, a.voucherDiscount, a.finalAmount, a.paymentMethod, " +
+            "COALESCE(a.currentStatus, 'Unknown'), a.createdAt, " + ITEM_COUNT + ") " +
+            "FROM ArchivedOrder a JOIN User u ON u.userId = a.userId " +
+            "WHERE a.shopId = :shopId AND a.hasDeleted = false " +
+            "AND (:status IS NULL OR a.currentStatus = :status) " +
+            AFTER_CURSOR)
+    List<SellerOrderResponse> findSellerOrderPage(@Param("shopId") Long shopId,
+            @Param("status") String status,
+            @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+            @Param("cursorOrderId") Long cursorOrderId,
+            Pageable pageable);
+
+    /**
+     * Seller order search over the archive, with the same filters and bounds
+     * as {@link OrderRepository#searchSellerOrders}.
+     */
+    @Query("SELECT new com.example.DACN.dto.response.SellerOrderResponse(a.orderId, u.email, u.fullName, " +
+            "a.totalAmount, a.shippingFee, a.voucherDiscount, a.finalAmount, a.paymentMethod, " +
+            "COALESCE(a.currentStatus, 'Unknown'), a.createdAt, " + ITEM_COUNT + ") " +
+            "FROM ArchivedOrder a JOIN User u ON u.userId = a.userId " +
+            "WHERE a.shopId = :shopId AND a.hasDeleted = false " +
+            "AND a.createdAt >= :fromCreatedAt AND a.createdAt <= :toCreatedAt " +
+            "AND (a.createdAt < :toCreatedAt OR a.orderId < :toOrderId) " +
+            "AND (:status IS NULL OR a.currentStatus = :status) " +
+            "AND (:paymentMethod IS NULL OR a.paymentMethod = :paymentMethod) " +
+            "AND (:minAmount IS NULL OR a.finalAmount >= :minAmount) " +
+            "AND (:maxAmount IS NULL OR a.finalAmount <= :maxAmount) " +
+            "AND (:customerEmail IS NULL OR u.email = :customerEmail) " +
+            "ORDER BY a.createdAt DESC, a.orderId DESC")
+    List<SellerOrderResponse> searchSellerOrders(@Param("shopId") Long shopId,
+            @Param("fromCreatedAt") LocalDateTime fromCreatedAt,
+            @Param("toCreatedAt") LocalDateTime toCreatedAt,
+            @Param("toOrderId") long toOrderId,
+            @Param("status") String status,
+            @Param("paymentMethod") String paymentMethod,
+            @Param("minAmount") BigDecimal minAmount,
+            @Param("maxAmount") BigDecimal maxAmount,
+            @Param("customerEmail") String customerEmail,
+            Pageable pageable);
+
+    // Copy the orders and their children into the archive tables
+
+    @Modifying
+    @Query(value = "INSERT INTO orders_archive (order_id, user_id, shop_id, total_amount, shipping_fee, " +
+            "voucher_discount, final_amount, payment_method, note, has_deleted, current_status, " +
+            "status_updated_at, created_at, archived_at) " +
+            "SELECT o.order_id, o.user_id, o.shop_id, o.total_amount, o.shipping_fee, o.voucher_discount, " +
+            "o.final_amount, o.payment_method, o.note, o.has_deleted, o.current_status, o.status_updated_at, " +
+            "o.created_at, :archivedAt FROM orders o WHERE o.order_id IN (:orderIds)",
+            nativeQuery = true)
+    int copyOrders(@Param("orderIds") Collection<Long> orderIds, @Param("archivedAt") LocalDateTime archivedAt);
+
+    @Modifying
+    @Query(value = "INSERT INTO order_items_archive (order_item_id, order_id, product_id, quantity, " +
+            "price_at_purchase, order_created_at) " +
+            "SELECT i.order_item_id, i.order_id, i.product_id, i.quantity, i.price_at_purchase, o.created_at " +
+            "FROM order_items i JOIN orders o ON o.order_id = i.order_id WHERE i.order_id IN (:orderIds)",
+            nativeQuery = true)
+    int copyOrderItems(@Param("orderIds") Collection<Long> orderIds);
+
+    @Modifying
+    @Query(value = "INSERT INTO order_status_history_archive (history_id, order_id, status, description, " +
+            "created_at, order_created_at) " +
+            "SELECT h.history_id, h.order_id, h.status, h.description, h.created_at, o.created_at " +
+            "FROM order_status_history h JOIN orders o ON o.order_id = h.order_id " +
+            "WHERE h.order_id IN (:orderIds)",
+            nativeQuery = true)
+    int copyStatusHistory(@Param("orderIds") Collection<Long> orderIds);
+
+    @Modifying
+    @Query(value = "INSERT INTO payments_archive (payment_id, order_id, transaction_code, amount, status, " +
+            "payment_time, order_created_at) " +
+            "SELECT p.payment_id, p.order_id, p.transaction_code, p.amount, p.status, p.payment_time, o.created_at " +
+            "FROM payments p JOIN orders o ON o.order_id = p.order_id WHERE p.order_id IN (:orderIds)",
+            nativeQuery = true)
+    int copyPayments(@Param("orderIds") Collection<Long> orderIds);
+
+    // Then remove them from the hot tables, children first
+
+    @Modifying
+    @Query(value = "UPDATE user_vouchers SET used_at_order_id = NULL WHERE used_at_order_id IN (:orderIds)",
+            nativeQuery = true)
+    int detachVouchers(@Param("orderIds") Collection<Long> orderIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM stock_reservations WHERE order_id IN (:orderIds)", nativeQuery = true)
+    int deleteStockReservations(@Param("orderIds") Collection<Long> orderIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM payments WHERE order_id IN (:orderIds)", nativeQuery = true)
+    int deletePayments(@Param("orderIds") Collection<Long> orderIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM order_status_history WHERE order_id IN (:orderIds)", nativeQuery = true)
+    int deleteStatusHistory(@Param("orderIds") Collection<Long> orderIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM order_items WHERE order_id IN (:orderIds)", nativeQuery = true)
+    int deleteOrderItems(@Param("orderIds") Collection<Long> orderIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM orders WHERE order_id IN (:orderIds)", nativeQuery = true)
+    int deleteOrders(@Param("orderIds") Collection<Long> orderIds);
+}
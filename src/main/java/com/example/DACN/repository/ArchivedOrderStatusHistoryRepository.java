@@ -0,0 +1,13 @@
+package com.example.DACN.repository;
+
+import com.example.DACN.entity.ArchivedOrderStatusHistory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ArchivedOrderStatusHistoryRepository extends JpaRepository<ArchivedOrderStatusHistory, Long> {
+
+    List<ArchivedOrderStatusHistory> findByOrderIdOrderByCreatedAtDesc(Long orderId);
+}
@@ -2,9 +2,13 @@ package com.example.DACN.repository;
 
 import com.example.DACN.entity.CartItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,6 +23,12 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
 
     void deleteByCartCartIdAndProductProductId(Long cartId, Long productId);
 
+    @Modifying
+    @Query("DELETE FROM CartItem ci WHERE ci.cart.cartId = :cartId AND ci.product.productId IN :productIds " +
+            "AND ci.createdAt <= :addedBefore")
+    int deleteByCartIdAndProductIdsAddedBefore(@Param("cartId") Long cartId,
+            @Param("productIds") Collection<Long> productIds, @Param("addedBefore") LocalDateTime addedBefore);
+
     @Query("SELECT SUM(ci.quantity) FROM CartItem ci WHERE ci.cart.cartId = :cartId")
     Long countItemsByCartId(Long cartId);
 }
@@ -3,9 +3,13 @@ package com.example.DACN.repository;
 import com.example.DACN.entity.Category;
 import jakarta.persistence.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,4 +26,43 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
     List<Category> findAllRootCategories();
 
     boolean existsBySlug(String slug);
+
+    @Query("SELECT c.path FROM Category c WHERE c.categoryId = :categoryId")
+    Optional<String> findPathByCategoryId(@Param("categoryId") Long categoryId);
+
+    @Query("SELECT c.path FROM Category c WHERE c.updatedAt >= :since AND c.path IS NOT NULL")
+    List<String> findPathsUpdatedSince(@Param("since") LocalDateTime since);
+
+    /**
+     * Move every strict descendant of a category to a new path prefix after the
+     * category itself was moved. One indexed range update, however deep the
+     * subtree is.
+     */
+    @Modifying
+    @Query("UPDATE Category c SET c.path = CONCAT(:newPath, SUBSTRING(c.path, :oldPathLength + 1)), " +
+            "c.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE c.path LIKE :oldPattern AND c.categoryId <> :categoryId")
+    int updateDescendantPaths(@Param("categoryId") Long categoryId,
+            @Param("oldPattern") String oldPattern,
+            @Param("oldPathLength") int oldPathLength,
+            @Param("newPath") String newPath);
+
+    /**
+     * Add {@code delta} to the active product counters of the given categories.
+     * Native so it also writes the counter column the entity treats as read-only.
+     */
+    @Modifying
+    @Query(value = "UPDATE categories SET active_product_count = active_product_count + :delta " +
+            "WHERE category_id IN (:categoryIds)", nativeQuery = true)
+    int adjustActiveProductCount(@Param("categoryIds") Collection<Long> categoryIds, @Param("delta") int delta);
+
+    /**
+     * Correct a drifted counter, only if it still holds the value it was
+     * compared against, so a concurrent adjustment is never overwritten.
+     */
+    @Modifying
+    @Query(value = "UPDATE categories SET active_product_count = :actual " +
+            "WHERE category_id = :categoryId AND active_product_count = :expected", nativeQuery = true)
+    int reconcileActiveProductCount(@Param("categoryId") Long categoryId, @Param("expected") long expected,
+            @Param("actual") long actual);
 }
@@ -0,0 +1,47 @@
+package com.example.DACN.repository;
+
+import com.example.DACN.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    Optional<IdempotencyRecord> findByScopeAndIdempotencyKey(String scope, String idempotencyKey);
+
+    /**
+     * Delete records older than the cutoff. Served by the created_at index.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    /**
+     * Take over an in-progress claim whose lease ran out. Matches only while
+     * the claim still has the stale owner, so one instance wins a race.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyRecord r SET r.claimToken = :claimToken, r.claimedAt = :claimedAt " +
+            "WHERE r.recordId = :recordId AND r.status = 'InProgress' " +
+            "AND COALESCE(r.claimToken, '') = :staleToken")
+    int takeOver(@Param("recordId") Long recordId, @Param("staleToken") String staleToken,
+            @Param("claimToken") String claimToken, @Param("claimedAt") LocalDateTime claimedAt);
+
+    /**
+     * Delete in-progress claims taken before the cutoff, whose owner is gone.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.status = 'InProgress' " +
+            "AND COALESCE(r.claimedAt, r.createdAt) < :cutoff")
+    int deleteInProgressClaimedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
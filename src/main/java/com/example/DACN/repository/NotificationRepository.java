@@ -21,6 +21,8 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
 
     long countByUserUserIdAndIsReadFalse(UUID userId);
 
+    boolean existsByEventKey(String eventKey);
+
     @Modifying
     @Query("UPDATE Notification n SET n.isRead = true WHERE n.user.userId = :userId")
     void markAllAsReadForUser(@Param("userId") UUID userId);
@@ -0,0 +1,14 @@
+package com.example.DACN.repository;
+
+import com.example.DACN.entity.OrderItem;
+
+import java.util.List;
+
+public interface OrderItemRepositoryCustom {
+
+    /**
+     * Insert the items of one order as JDBC batches. The items are not
+     * attached to the persistence context and their IDs are not read back.
+     */
+    void insertAll(List<OrderItem> orderItems);
+}
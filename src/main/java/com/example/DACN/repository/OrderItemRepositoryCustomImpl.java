@@ -0,0 +1,37 @@
+package com.example.DACN.repository;
+
+import com.example.DACN.entity.OrderItem;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * Order items use IDENTITY keys, which make Hibernate insert them one
+ * statement at a time. Checkout writes them through JDBC batches instead,
+ * which the MySQL driver turns into multi-row INSERTs when
+ * rewriteBatchedStatements is on.
+ */
+@RequiredArgsConstructor
+public class OrderItemRepositoryCustomImpl implements OrderItemRepositoryCustom {
+
+    private static final int BATCH_SIZE = 50;
+
+    private static final String INSERT_SQL = "INSERT INTO order_items (order_id, product_id, quantity, " +
+            "price_at_purchase) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(List<OrderItem> orderItems) {
+        if (orderItems.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, orderItems, BATCH_SIZE, (ps, item) -> {
+            ps.setLong(1, item.getOrder().getOrderId());
+            ps.setLong(2, item.getProduct().getProductId());
+            ps.setInt(3, item.getQuantity());
+            ps.setBigDecimal(4, item.getPriceAtPurchase());
+        });
+    }
+}
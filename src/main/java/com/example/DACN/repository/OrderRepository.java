@@ -1,14 +1,21 @@
 package com.example.DACN.repository;
 
+import com.example.DACN.dto.response.CustomerOrderResponse;
+import com.example.DACN.dto.response.SellerOrderResponse;
 import com.example.DACN.entity.Order;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -18,13 +25,94 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
 
         Optional<Order> findByOrderIdAndHasDeletedFalse(Long orderId);
 
+        List<Order> findByPaypalOrderId(String paypalOrderId);
+
+        @Modifying
+        @Query("UPDATE Order o SET o.paypalOrderId = :paypalOrderId WHERE o.orderId IN :orderIds")
+        int linkPaypalOrder(@Param("orderIds") Collection<Long> orderIds,
+                        @Param("paypalOrderId") String paypalOrderId);
+
+        /**
+         * PayPal orders whose capture began before the cutoff and was never
+         * recorded, oldest first.
+         */
+        @Query("SELECT o.paypalOrderId FROM Order o WHERE o.captureStartedAt < :cutoff " +
+                        "GROUP BY o.paypalOrderId ORDER BY MIN(o.captureStartedAt)")
+        List<String> findStaleCaptures(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
         Page<Order> findByUserUserIdAndHasDeletedFalse(UUID userId, Pageable pageable);
 
         Page<Order> findByShopShopIdAndHasDeletedFalse(Long shopId, Pageable pageable);
 
-        List<Order> findByUserUserIdAndHasDeletedFalseOrderByCreatedAtDesc(UUID userId);
+        /**
+         * Current status and item count of order {@code o}. The item count is a
+         * correlated subquery so a whole list page is read in one statement.
+         */
+        String LATEST_STATUS = "COALESCE(o.currentStatus, 'Unknown')";
+        String ITEM_COUNT = "(SELECT COUNT(i) FROM OrderItem i WHERE i.order = o)";
+
+        /**
+         * Keyset seek on (createdAt, orderId) descending; both cursor values null
+         * for the first page.
+         */
+        String AFTER_CURSOR = "AND (:cursorCreatedAt IS NULL OR o.createdAt < :cursorCreatedAt " +
+                        "OR (o.createdAt = :cursorCreatedAt AND o.orderId < :cursorOrderId)) " +
+                        "ORDER BY o.createdAt DESC, o.orderId DESC";
+
+        @Query("SELECT new com.example.DACN.dto.response.CustomerOrderResponse(o.orderId, s.shopId, s.shopName, " +
+                        "o.totalAmount, o.shippingFee, o.voucherDiscount, o.finalAmount, o.paymentMethod, " +
+                        LATEST_STATUS + ", o.createdAt, " + ITEM_COUNT + ") " +
+                        "FROM Order o JOIN o.shop s WHERE o.user.userId = :userId AND o.hasDeleted = false " +
+                        AFTER_CURSOR)
+        Slice<CustomerOrderResponse> findCustomerOrderPage(@Param("userId") UUID userId,
+                        @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                        @Param("cursorOrderId") Long cursorOrderId,
+                        Pageable pageable);
 
-        List<Order> findByShopShopIdAndHasDeletedFalseOrderByCreatedAtDesc(Long shopId);
+        @Query("SELECT new com.example.DACN.dto.response.SellerOrderResponse(o.orderId, u.email, u.fullName, " +
+                        "o.totalAmount, o.shippingFee, o.voucherDiscount, o.finalAmount, o.paymentMethod, " +
+                        LATEST_STATUS + ", o.createdAt, " + ITEM_COUNT + ") " +
+                        "FROM Order o JOIN o.user u WHERE o.shop.shopId = :shopId AND o.hasDeleted = false " +
+                        "AND (:status IS NULL OR o.currentStatus = :status) " +
+                        AFTER_CURSOR)
+        Slice<SellerOrderResponse> findSellerOrderPage(@Param("shopId") Long shopId,
+                        @Param("status") String status,
+                        @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                        @Param("cursorOrderId") Long cursorOrderId,
+                        Pageable pageable);
+
+        /**
+         * Seller order search, newest first. Orders are always bounded by
+         * creation time, so the search is a range scan of
+         * idx_orders_shop_created whatever other filters are given; the other
+         * filters are checked on the rows it returns. The ORDER BY repeats the
+         * shop so it matches the index, which lets the scan stop after one page
+         * instead of sorting the whole range. The upper bound is exclusive for
+         * {@code toOrderId} 0 and otherwise the keyset cursor: orders placed
+         * exactly at {@code toCreatedAt} need a lower ID.
+         */
+        @Query("SELECT new com.example.DACN.dto.response.SellerOrderResponse(o.orderId, u.email, u.fullName, " +
+                        "o.totalAmount, o.shippingFee, o.voucherDiscount, o.finalAmount, o.paymentMethod, " +
+                        LATEST_STATUS + ", o.createdAt, " + ITEM_COUNT + ") " +
+                        "FROM Order o JOIN o.user u WHERE o.shop.shopId = :shopId AND o.hasDeleted = false " +
+                        "AND o.createdAt >= :fromCreatedAt AND o.createdAt <= :toCreatedAt " +
+                        "AND (o.createdAt < :toCreatedAt OR o.orderId < :toOrderId) " +
+                        "AND (:status IS NULL OR o.currentStatus = :status) " +
+                        "AND (:paymentMethod IS NULL OR o.paymentMethod = :paymentMethod) " +
+                        "AND (:minAmount IS NULL OR o.finalAmount >= :minAmount) " +
+                        "AND (:maxAmount IS NULL OR o.finalAmount <= :maxAmount) " +
+                        "AND (:customerEmail IS NULL OR u.email = :customerEmail) " +
+                        "ORDER BY o.shop.shopId, o.createdAt DESC, o.orderId DESC")
+        Slice<SellerOrderResponse> searchSellerOrders(@Param("shopId") Long shopId,
+                        @Param("fromCreatedAt") LocalDateTime fromCreatedAt,
+                        @Param("toCreatedAt") LocalDateTime toCreatedAt,
+                        @Param("toOrderId") long toOrderId,
+                        @Param("status") String status,
+                        @Param("paymentMethod") String paymentMethod,
+                        @Param("minAmount") BigDecimal minAmount,
+                        @Param("maxAmount") BigDecimal maxAmount,
+                        @Param("customerEmail") String customerEmail,
+                        Pageable pageable);
 
         @Query("SELECT o FROM Order o WHERE o.user.userId = :userId AND o.hasDeleted = false AND o.createdAt BETWEEN :startDate AND :endDate")
         List<Order> findUserOrdersByDateRange(@Param("userId") UUID userId,
@@ -37,4 +125,38 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
                         @Param("endDate") LocalDateTime endDate);
 
         long countByShopShopIdAndHasDeletedFalse(Long shopId);
+
+        /**
+         * Orders in one of the given statuses since before the cutoff, oldest
+         * first. Orders referenced by a wallet transaction are left alone.
+         */
+        @Query("SELECT o.orderId FROM Order o WHERE o.currentStatus IN :statuses AND o.statusUpdatedAt < :cutoff " +
+                        "AND NOT EXISTS (SELECT t FROM Transaction t WHERE t.order = o) " +
+                        "ORDER BY o.statusUpdatedAt")
+        List<Long> findArchivableIds(@Param("statuses") Collection<String> statuses,
+                        @Param("cutoff") LocalDateTime cutoff,
+                        Pageable pageable);
+
+        @Query("SELECT COALESCE(MAX(o.orderId), 0) FROM Order o")
+        long findMaxOrderId();
+
+        @Query("SELECT MIN(o.createdAt) FROM Order o")
+        LocalDateTime findFirstCreatedAt();
+
+        /**
+         * Fill current_status and status_updated_at from the latest history entry
+         * for orders in the ID range (exclusive lower, inclusive upper) that do
+         * not have it yet.
+         */
+        @Modifying
+        @Transactional
+        @Query(value = "UPDATE orders o " +
+                        "JOIN (SELECT h.order_id, h.status, h.created_at FROM order_status_history h " +
+                        "WHERE h.order_id > :fromId AND h.order_id <= :toId " +
+                        "AND h.history_id = (SELECT MAX(h2.history_id) FROM order_status_history h2 " +
+                        "WHERE h2.order_id = h.order_id)) latest ON latest.order_id = o.order_id " +
+                        "SET o.current_status = latest.status, o.status_updated_at = latest.created_at " +
+                        "WHERE o.current_status IS NULL AND o.order_id > :fromId AND o.order_id <= :toId",
+                        nativeQuery = true)
+        int backfillCurrentStatus(@Param("fromId") long fromId, @Param("toId") long toId);
 }
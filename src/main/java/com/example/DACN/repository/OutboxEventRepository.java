@@ -0,0 +1,57 @@
+package com.example.DACN.repository;
+
+import com.example.DACN.entity.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Pending events that are due, oldest first. Served by the (status,
+     * available_at) index.
+     */
+    @Query("SELECT e.outboxEventId FROM OutboxEvent e " +
+            "WHERE e.status = 'Pending' AND e.availableAt <= :now ORDER BY e.outboxEventId")
+    List<Long> findDueIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Claim the given events for one dispatch until the lease runs out. Events
+     * another dispatcher claimed since they were read are skipped, so each
+     * claim holds a disjoint set.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboxEvent e SET e.claimToken = :token, e.availableAt = :leaseUntil " +
+            "WHERE e.outboxEventId IN :ids AND e.status = 'Pending' AND e.availableAt <= :now")
+    int claim(@Param("ids") Collection<Long> ids, @Param("token") String token,
+            @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    List<OutboxEvent> findByClaimTokenOrderByOutboxEventId(String claimToken);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboxEvent e SET e.status = 'Published', e.publishedAt = :now, e.claimToken = null " +
+            "WHERE e.outboxEventId IN :ids AND e.claimToken = :token")
+    int markPublished(@Param("ids") Collection<Long> ids, @Param("token") String token,
+            @Param("now") LocalDateTime now);
+
+    long countByStatus(String status);
+
+    @Query("SELECT MIN(e.createdAt) FROM OutboxEvent e WHERE e.status = 'Pending'")
+    LocalDateTime findOldestPendingCreatedAt();
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OutboxEvent e WHERE e.status = 'Published' AND e.publishedAt < :cutoff")
+    int deletePublishedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
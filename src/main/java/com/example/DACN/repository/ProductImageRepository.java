@@ -2,8 +2,11 @@ package com.example.DACN.repository;
 
 import com.example.DACN.entity.ProductImage;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -11,5 +14,9 @@ public interface ProductImageRepository extends JpaRepository<ProductImage, Long
 
     List<ProductImage> findByProductProductIdOrderByDisplayOrderAsc(Long productId);
 
+    @Query("SELECT i FROM ProductImage i WHERE i.product.productId IN :productIds " +
+            "ORDER BY i.product.productId, i.displayOrder")
+    List<ProductImage> findByProductIdsOrderByDisplayOrder(@Param("productIds") Collection<Long> productIds);
+
     void deleteByProductProductId(Long productId);
 }
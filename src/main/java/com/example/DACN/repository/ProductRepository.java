@@ -1,13 +1,21 @@
 package com.example.DACN.repository;
 
+import com.example.DACN.dto.projection.IdCount;
+import com.example.DACN.dto.projection.VersionStamp;
+import com.example.DACN.dto.response.ProductListItemResponse;
 import com.example.DACN.entity.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,34 +24,238 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 
         Optional<Product> findByProductIdAndHasDeletedFalse(Long productId);
 
-        Page<Product> findByShopShopIdAndHasDeletedFalse(Long shopId, Pageable pageable);
+        /**
+         * Products of a checkout, read without locks. Stock is taken by
+         * {@link #decrementStock}, which is the only place rows get locked.
+         */
+        @Query("SELECT p FROM Product p WHERE p.productId IN :productIds AND p.hasDeleted = false " +
+                        "ORDER BY p.productId")
+        List<Product> findAllForCheckout(@Param("productIds") Collection<Long> productIds);
 
-        Page<Product> findByCategoryCategoryIdAndHasDeletedFalse(Long categoryId, Pageable pageable);
+        /**
+         * Take {@code quantity} units of stock if that many are left. The check
+         * and the write are one statement, so concurrent buyers cannot oversell.
+         *
+         * <p>
+         * Clears the persistence context afterwards: products read earlier in
+         * the checkout would otherwise keep the old stock and sold count, and
+         * the after-commit listeners that reload them would see stale values.
+         *
+         * @return 1 if the stock was taken, 0 if the product has too little left
+         */
+        @Modifying(clearAutomatically = true, flushAutomatically = true)
+        @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity - :quantity, " +
+                        "p.soldCount = p.soldCount + :quantity, p.updatedAt = CURRENT_TIMESTAMP " +
+                        "WHERE p.productId = :productId AND p.stockQuantity >= :quantity")
+        int decrementStock(@Param("productId") Long productId, @Param("quantity") int quantity);
+
+        /**
+         * Give back stock taken by {@link #decrementStock}. Clears the
+         * persistence context for the same reason.
+         */
+        @Modifying(clearAutomatically = true, flushAutomatically = true)
+        @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity + :quantity, " +
+                        "p.soldCount = CASE WHEN p.soldCount >= :quantity THEN p.soldCount - :quantity ELSE 0 END, " +
+                        "p.updatedAt = CURRENT_TIMESTAMP WHERE p.productId = :productId")
+        int restoreStock(@Param("productId") Long productId, @Param("quantity") int quantity);
 
         Page<Product> findByStatusAndHasDeletedFalse(String status, Pageable pageable);
 
-        @Query("SELECT p FROM Product p WHERE p.hasDeleted = false AND LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%'))")
-        Page<Product> searchByName(@Param("keyword") String keyword, Pageable pageable);
+        /**
+         * List-item columns only, with shop and category joined in the same
+         * statement, so a page is one select and no product entity is loaded.
+         * Used by the filtered, shop and cursor product listings.
+         * <p>
+         * The filtered listings take {@code categoryPath}, a LIKE pattern over
+         * category materialized paths (see CategoryPathUtil), so filtering by a
+         * category also returns the products of all its descendants.
+         */
+        String LIST_ITEM_SELECT = "SELECT new com.example.DACN.dto.response.ProductListItemResponse(" +
+                        "p.productId, p.name, p.price, p.stockQuantity, p.soldCount, p.status, p.createdAt, " +
+                        "s.shopId, s.shopName, c.categoryId, c.name, p.mainImageUrl) " +
+                        "FROM Product p JOIN p.shop s JOIN p.category c ";
 
-        @Query("SELECT p FROM Product p WHERE p.hasDeleted = false ORDER BY p.soldCount DESC")
-        Page<Product> findBestSellers(Pageable pageable);
+        @Query(value = LIST_ITEM_SELECT + "WHERE p.hasDeleted = false " +
+                        "AND (:productStatus IS NULL OR p.status = :productStatus) " +
+                        "AND (:minPrice IS NULL OR p.price >= :minPrice) " +
+                        "AND (:maxPrice IS NULL OR p.price <= :maxPrice) " +
+                        "AND (:categoryPath IS NULL OR c.path LIKE :categoryPath) " +
+                        "AND (:shopId IS NULL OR s.shopId = :shopId)",
+                        countQuery = "SELECT COUNT(p) FROM Product p WHERE p.hasDeleted = false " +
+                                        "AND (:productStatus IS NULL OR p.status = :productStatus) " +
+                                        "AND (:minPrice IS NULL OR p.price >= :minPrice) " +
+                                        "AND (:maxPrice IS NULL OR p.price <= :maxPrice) " +
+                                        "AND (:categoryPath IS NULL OR p.category.path LIKE :categoryPath) " +
+                                        "AND (:shopId IS NULL OR p.shop.shopId = :shopId)")
+        Page<ProductListItemResponse> findProductListItemsWithFilters(
+                        @Param("minPrice") java.math.BigDecimal minPrice,
+                        @Param("maxPrice") java.math.BigDecimal maxPrice,
+                        @Param("categoryPath") String categoryPath,
+                        @Param("shopId") Long shopId,
+                        @Param("productStatus") String productStatus,
+                        Pageable pageable);
 
-        @Query("SELECT p FROM Product p WHERE p.hasDeleted = false ORDER BY p.createdAt DESC")
-        Page<Product> findNewestProducts(Pageable pageable);
+        @Query(value = LIST_ITEM_SELECT + "WHERE p.hasDeleted = false AND s.shopId = :shopId",
+                        countQuery = "SELECT COUNT(p) FROM Product p WHERE p.hasDeleted = false AND p.shop.shopId = :shopId")
+        Page<ProductListItemResponse> findProductListItemsByShopId(@Param("shopId") Long shopId, Pageable pageable);
 
-        List<Product> findTop10ByShopShopIdAndHasDeletedFalseOrderBySoldCountDesc(Long shopId);
+        /**
+         * Keyset page ordered by (createdAt, productId) descending. Returns a Slice so
+         * no COUNT query is issued.
+         */
+        @Query(LIST_ITEM_SELECT + "WHERE p.hasDeleted = false " +
+                        "AND (:productStatus IS NULL OR p.status = :productStatus) " +
+                        "AND (:minPrice IS NULL OR p.price >= :minPrice) " +
+                        "AND (:maxPrice IS NULL OR p.price <= :maxPrice) " +
+                        "AND (:categoryPath IS NULL OR c.path LIKE :categoryPath) " +
+                        "AND (:shopId IS NULL OR s.shopId = :shopId) " +
+                        "AND (:cursorCreatedAt IS NULL OR p.createdAt < :cursorCreatedAt " +
+                        "OR (p.createdAt = :cursorCreatedAt AND p.productId < :cursorProductId)) " +
+                        "ORDER BY p.createdAt DESC, p.productId DESC")
+        Slice<ProductListItemResponse> findProductsWithFiltersAfterCreatedAt(
+                        @Param("minPrice") java.math.BigDecimal minPrice,
+                        @Param("maxPrice") java.math.BigDecimal maxPrice,
+                        @Param("categoryPath") String categoryPath,
+                        @Param("shopId") Long shopId,
+                        @Param("productStatus") String productStatus,
+                        @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                        @Param("cursorProductId") Long cursorProductId,
+                        Pageable pageable);
 
-        @Query("SELECT p FROM Product p WHERE p.hasDeleted = false " +
+        /**
+         * Keyset page ordered by (soldCount, productId) descending. Returns a Slice so
+         * no COUNT query is issued.
+         */
+        @Query(LIST_ITEM_SELECT + "WHERE p.hasDeleted = false " +
                         "AND (:productStatus IS NULL OR p.status = :productStatus) " +
                         "AND (:minPrice IS NULL OR p.price >= :minPrice) " +
                         "AND (:maxPrice IS NULL OR p.price <= :maxPrice) " +
-                        "AND (:categoryId IS NULL OR p.category.categoryId = :categoryId) " +
-                        "AND (:shopId IS NULL OR p.shop.shopId = :shopId)")
-        Page<Product> findProductsWithFilters(
+                        "AND (:categoryPath IS NULL OR c.path LIKE :categoryPath) " +
+                        "AND (:shopId IS NULL OR s.shopId = :shopId) " +
+                        "AND (:cursorSoldCount IS NULL OR p.soldCount < :cursorSoldCount " +
+                        "OR (p.soldCount = :cursorSoldCount AND p.productId < :cursorProductId)) " +
+                        "ORDER BY p.soldCount DESC, p.productId DESC")
+        Slice<ProductListItemResponse> findProductsWithFiltersAfterSoldCount(
                         @Param("minPrice") java.math.BigDecimal minPrice,
                         @Param("maxPrice") java.math.BigDecimal maxPrice,
-                        @Param("categoryId") Long categoryId,
+                        @Param("categoryPath") String categoryPath,
                         @Param("shopId") Long shopId,
                         @Param("productStatus") String productStatus,
+                        @Param("cursorSoldCount") Integer cursorSoldCount,
+                        @Param("cursorProductId") Long cursorProductId,
                         Pageable pageable);
+
+        @Query("SELECT p FROM Product p JOIN FETCH p.shop JOIN FETCH p.category WHERE p.productId = :productId")
+        Optional<Product> findWithShopAndCategoryByProductId(@Param("productId") Long productId);
+
+        @Query("SELECT p FROM Product p JOIN FETCH p.shop JOIN FETCH p.category " +
+                        "WHERE p.productId IN :productIds AND p.hasDeleted = false")
+        List<Product> findAllWithShopAndCategoryByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
+        /**
+         * Batch of live products after the given ID, used to (re)build in-memory
+         * read models without loading the whole table at once.
+         */
+        @Query("SELECT p FROM Product p JOIN FETCH p.shop JOIN FETCH p.category " +
+                        "WHERE p.hasDeleted = false AND p.productId > :afterId ORDER BY p.productId")
+        List<Product> findBatchWithShopAndCategoryAfterId(@Param("afterId") Long afterId, Pageable pageable);
+
+        /**
+         * Batch of products written since the given time after the given ID,
+         * deleted ones included, used to catch a read model up after a restart.
+         */
+        @Query("SELECT p FROM Product p JOIN FETCH p.shop JOIN FETCH p.category " +
+                        "WHERE p.updatedAt >= :since AND p.productId > :afterId ORDER BY p.productId")
+        List<Product> findBatchWithShopAndCategoryUpdatedSinceAfterId(@Param("since") LocalDateTime since,
+                        @Param("afterId") Long afterId, Pageable pageable);
+
+        /**
+         * Batch of live products in a category subtree after the given ID, used to
+         * refresh the read models that index category paths when a category moves.
+         */
+        @Query("SELECT p FROM Product p JOIN FETCH p.shop JOIN FETCH p.category c " +
+                        "WHERE p.hasDeleted = false AND c.path LIKE :categoryPath AND p.productId > :afterId " +
+                        "ORDER BY p.productId")
+        List<Product> findBatchWithShopAndCategoryByCategoryPathAfterId(@Param("categoryPath") String categoryPath,
+                        @Param("afterId") Long afterId, Pageable pageable);
+
+        /**
+         * Batch of live products of a shop after the given ID, used to refresh the
+         * read models that depend on the shop's state.
+         */
+        @Query("SELECT p FROM Product p JOIN FETCH p.shop s JOIN FETCH p.category " +
+                        "WHERE p.hasDeleted = false AND s.shopId = :shopId AND p.productId > :afterId " +
+                        "ORDER BY p.productId")
+        List<Product> findBatchWithShopAndCategoryByShopIdAfterId(@Param("shopId") Long shopId,
+                        @Param("afterId") Long afterId, Pageable pageable);
+
+        /**
+         * Top active products of approved shops in the pageable's sort order,
+         * optionally within a category subtree or a shop, used to reload a
+         * leaderboard ranking. No COUNT query is issued.
+         */
+        @Query("SELECT p FROM Product p JOIN FETCH p.shop s JOIN FETCH p.category c " +
+                        "WHERE p.hasDeleted = false AND p.status = 'Active' " +
+                        "AND s.hasDeleted = false AND s.isApproved = true " +
+                        "AND (:categoryPath IS NULL OR c.path LIKE :categoryPath) " +
+                        "AND (:shopId IS NULL OR s.shopId = :shopId)")
+        List<Product> findRankedWithShopAndCategory(@Param("categoryPath") String categoryPath,
+                        @Param("shopId") Long shopId, Pageable pageable);
+
+        @Query(LIST_ITEM_SELECT + "WHERE p.productId IN :productIds AND p.hasDeleted = false " +
+                        "AND p.status = 'Active'")
+        List<ProductListItemResponse> findActiveProductListItemsByProductIdIn(
+                        @Param("productIds") Collection<Long> productIds);
+
+        /**
+         * Version of a filtered product listing: row count and latest update time
+         * of the matching products and their shops and categories.
+         */
+        @Query("SELECT new com.example.DACN.dto.projection.VersionStamp(COUNT(p), MAX(p.updatedAt), " +
+                        "MAX(s.updatedAt), MAX(c.updatedAt)) " +
+                        "FROM Product p JOIN p.shop s JOIN p.category c WHERE p.hasDeleted = false " +
+                        "AND (:productStatus IS NULL OR p.status = :productStatus) " +
+                        "AND (:minPrice IS NULL OR p.price >= :minPrice) " +
+                        "AND (:maxPrice IS NULL OR p.price <= :maxPrice) " +
+                        "AND (:categoryPath IS NULL OR c.path LIKE :categoryPath) " +
+                        "AND (:shopId IS NULL OR s.shopId = :shopId)")
+        VersionStamp findListVersion(
+                        @Param("minPrice") java.math.BigDecimal minPrice,
+                        @Param("maxPrice") java.math.BigDecimal maxPrice,
+                        @Param("categoryPath") String categoryPath,
+                        @Param("shopId") Long shopId,
+                        @Param("productStatus") String productStatus);
+
+        @Query("SELECT COALESCE(MAX(p.productId), 0) FROM Product p")
+        long findMaxProductId();
+
+        /**
+         * Fill main_image_url from the first product image for products in the ID
+         * range (exclusive lower, inclusive upper) that do not have it yet.
+         */
+        @Modifying
+        @Transactional
+        @Query(value = "UPDATE products p SET p.main_image_url = (" +
+                        "SELECT pi.image_url FROM product_images pi WHERE pi.product_id = p.product_id " +
+                        "ORDER BY pi.display_order, pi.product_image_id LIMIT 1) " +
+                        "WHERE p.main_image_url IS NULL AND p.product_id > :fromId AND p.product_id <= :toId " +
+                        "AND EXISTS (SELECT 1 FROM product_images i WHERE i.product_id = p.product_id)",
+                        nativeQuery = true)
+        int backfillMainImageUrls(@Param("fromId") long fromId, @Param("toId") long toId);
+
+        boolean existsByCategoryCategoryId(Long categoryId);
+
+        /**
+         * Active products per category, counting each product in its own category
+         * only. Used to reconcile the stored counters.
+         */
+        @Query("SELECT new com.example.DACN.dto.projection.IdCount(p.category.categoryId, COUNT(p)) " +
+                        "FROM Product p WHERE p.hasDeleted = false AND p.status = 'Active' " +
+                        "GROUP BY p.category.categoryId")
+        List<IdCount> countActiveByCategory();
+
+        @Query("SELECT new com.example.DACN.dto.projection.IdCount(p.shop.shopId, COUNT(p)) " +
+                        "FROM Product p WHERE p.hasDeleted = false AND p.status = 'Active' " +
+                        "AND p.shop.shopId > :fromId AND p.shop.shopId <= :toId GROUP BY p.shop.shopId")
+        List<IdCount> countActiveByShopIdRange(@Param("fromId") long fromId, @Param("toId") long toId);
 }
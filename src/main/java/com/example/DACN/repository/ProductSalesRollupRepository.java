@@ -0,0 +1,65 @@
+package com.example.DACN.repository;
+
+import com.example.DACN.dto.projection.BucketSales;
+import com.example.DACN.dto.response.ProductSalesResponse;
+import com.example.DACN.entity.ProductSalesRollup;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ProductSalesRollupRepository extends JpaRepository<ProductSalesRollup, Long> {
+
+    /**
+     * Add to a product's bucket, creating it on first use.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO product_sales_rollups (shop_id, product_id, granularity, bucket_start, " +
+            "units, revenue) VALUES (:shopId, :productId, :granularity, :bucketStart, :units, :revenue) " +
+            "ON DUPLICATE KEY UPDATE units = units + :units, revenue = revenue + :revenue",
+            nativeQuery = true)
+    int increment(@Param("shopId") Long shopId,
+            @Param("productId") Long productId,
+            @Param("granularity") String granularity,
+            @Param("bucketStart") LocalDateTime bucketStart,
+            @Param("units") long units,
+            @Param("revenue") BigDecimal revenue);
+
+    /**
+     * A shop's best-selling products in [from, to) by units, from the
+     * daily buckets. Products whose orders were all cancelled keep a bucket
+     * with no units and are left out, as a rebuild would not write one.
+     */
+    @Query("SELECT new com.example.DACN.dto.response.ProductSalesResponse(r.productId, p.name, " +
+            "SUM(r.units), SUM(r.revenue)) " +
+            "FROM ProductSalesRollup r JOIN Product p ON p.productId = r.productId " +
+            "WHERE r.shopId = :shopId AND r.granularity = 'DAY' " +
+            "AND r.bucketStart >= :from AND r.bucketStart < :to " +
+            "GROUP BY r.productId, p.name HAVING SUM(r.units) > 0 ORDER BY SUM(r.units) DESC, r.productId")
+    List<ProductSalesResponse> findTopProducts(@Param("shopId") Long shopId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM ProductSalesRollup r WHERE r.bucketStart >= :from AND r.bucketStart < :to")
+    int deleteBuckets(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Units and revenue of every product in [from, to) by hour, from the
+     * items of orders that were not cancelled.
+     */
+    @Query("SELECT new com.example.DACN.dto.projection.BucketSales(o.shop.shopId, i.product.productId, " +
+            "EXTRACT(HOUR FROM o.createdAt), SUM(i.quantity), SUM(i.priceAtPurchase * i.quantity)) " +
+            "FROM OrderItem i JOIN i.order o " +
+            "WHERE o.createdAt >= :from AND o.createdAt < :to AND o.hasDeleted = false " +
+            "GROUP BY o.shop.shopId, i.product.productId, EXTRACT(HOUR FROM o.createdAt)")
+    List<BucketSales> sumItemsByHour(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
@@ -1,10 +1,14 @@
 package com.example.DACN.repository;
 
+import com.example.DACN.dto.projection.IdCount;
 import com.example.DACN.entity.Shop;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -14,6 +18,8 @@ public interface ShopRepository extends JpaRepository<Shop, Long> {
 
     Optional<Shop> findByShopIdAndHasDeletedFalse(Long shopId);
 
+    List<Shop> findByShopIdInAndHasDeletedFalse(Collection<Long> shopIds);
+
     List<Shop> findByUserUserIdAndHasDeletedFalse(UUID userId);
 
     List<Shop> findByIsApprovedTrueAndHasDeletedFalse();
@@ -24,4 +30,30 @@ public interface ShopRepository extends JpaRepository<Shop, Long> {
     List<Shop> findTopRatedShops();
 
     Optional<Shop> findByUserUserId(UUID userId);
+
+    @Query("SELECT COALESCE(MAX(s.shopId), 0) FROM Shop s")
+    long findMaxShopId();
+
+    @Query("SELECT new com.example.DACN.dto.projection.IdCount(s.shopId, s.activeProductCount) FROM Shop s " +
+            "WHERE s.shopId > :fromId AND s.shopId <= :toId")
+    List<IdCount> findActiveProductCounts(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    /**
+     * Add {@code delta} to a shop's active product counter. Native so it also
+     * writes the counter column the entity treats as read-only.
+     */
+    @Modifying
+    @Query(value = "UPDATE shops SET active_product_count = active_product_count + :delta WHERE shop_id = :shopId",
+            nativeQuery = true)
+    int adjustActiveProductCount(@Param("shopId") Long shopId, @Param("delta") int delta);
+
+    /**
+     * Correct a drifted counter, only if it still holds the value it was
+     * compared against, so a concurrent adjustment is never overwritten.
+     */
+    @Modifying
+    @Query(value = "UPDATE shops SET active_product_count = :actual " +
+            "WHERE shop_id = :shopId AND active_product_count = :expected", nativeQuery = true)
+    int reconcileActiveProductCount(@Param("shopId") Long shopId, @Param("expected") long expected,
+            @Param("actual") long actual);
 }
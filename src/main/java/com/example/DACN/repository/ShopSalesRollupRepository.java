@@ -0,0 +1,68 @@
+package com.example.DACN.repository;
+
+import com.example.DACN.dto.projection.BucketSales;
+import com.example.DACN.entity.ShopSalesRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ShopSalesRollupRepository extends JpaRepository<ShopSalesRollup, Long> {
+
+    /**
+     * Add to a shop's bucket, creating it on first use. One statement, so
+     * concurrent orders in the same bucket add up instead of racing.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO shop_sales_rollups (shop_id, granularity, bucket_start, order_count, gmv, " +
+            "voucher_discount, cancelled_count, cancelled_amount, delivered_count) " +
+            "VALUES (:shopId, :granularity, :bucketStart, :orderCount, :gmv, :voucherDiscount, " +
+            ":cancelledCount, :cancelledAmount, :deliveredCount) " +
+            "ON DUPLICATE KEY UPDATE order_count = order_count + :orderCount, gmv = gmv + :gmv, " +
+            "voucher_discount = voucher_discount + :voucherDiscount, " +
+            "cancelled_count = cancelled_count + :cancelledCount, " +
+            "cancelled_amount = cancelled_amount + :cancelledAmount, " +
+            "delivered_count = delivered_count + :deliveredCount", nativeQuery = true)
+    int increment(@Param("shopId") Long shopId,
+            @Param("granularity") String granularity,
+            @Param("bucketStart") LocalDateTime bucketStart,
+            @Param("orderCount") long orderCount,
+            @Param("gmv") BigDecimal gmv,
+            @Param("voucherDiscount") BigDecimal voucherDiscount,
+            @Param("cancelledCount") long cancelledCount,
+            @Param("cancelledAmount") BigDecimal cancelledAmount,
+            @Param("deliveredCount") long deliveredCount);
+
+    /**
+     * A shop's buckets in [from, to), oldest first. Served by the unique
+     * key.
+     */
+    @Query("SELECT r FROM ShopSalesRollup r WHERE r.shopId = :shopId AND r.granularity = :granularity " +
+            "AND r.bucketStart >= :from AND r.bucketStart < :to ORDER BY r.bucketStart")
+    List<ShopSalesRollup> findBuckets(@Param("shopId") Long shopId,
+            @Param("granularity") String granularity,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    @Modifying
+    @Query("DELETE FROM ShopSalesRollup r WHERE r.bucketStart >= :from AND r.bucketStart < :to")
+    int deleteBuckets(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Sales of every shop in [from, to) by hour, computed from orders.
+     */
+    @Query("SELECT new com.example.DACN.dto.projection.BucketSales(o.shop.shopId, " +
+            "EXTRACT(HOUR FROM o.createdAt), COUNT(o), SUM(o.finalAmount), SUM(o.voucherDiscount), " +
+            "SUM(CASE WHEN o.hasDeleted = true THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN o.hasDeleted = true THEN o.finalAmount ELSE 0 END), " +
+            "SUM(CASE WHEN o.currentStatus IN ('Delivered', 'Completed') THEN 1 ELSE 0 END)) " +
+            "FROM Order o WHERE o.createdAt >= :from AND o.createdAt < :to " +
+            "GROUP BY o.shop.shopId, EXTRACT(HOUR FROM o.createdAt)")
+    List<BucketSales> sumOrdersByHour(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
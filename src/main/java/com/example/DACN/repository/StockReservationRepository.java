@@ -0,0 +1,59 @@
+package com.example.DACN.repository;
+
+import com.example.DACN.entity.StockReservation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    List<StockReservation> findByOrderOrderId(Long orderId);
+
+    boolean existsByOrderOrderId(Long orderId);
+
+    boolean existsByOrderOrderIdAndStatus(Long orderId, String status);
+
+    /**
+     * Orders with at least one held reservation past its expiry, oldest first.
+     * Served by the (status, expires_at) index.
+     */
+    @Query("SELECT r.order.orderId FROM StockReservation r " +
+            "WHERE r.status = 'Held' AND r.expiresAt <= :now " +
+            "GROUP BY r.order.orderId ORDER BY MIN(r.expiresAt)")
+    List<Long> findExpiredOrderIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Turn the order's held reservations into a sale. Holds past their expiry
+     * still convert as long as the sweeper has not released them, because
+     * their stock has not gone back on sale yet.
+     */
+    @Modifying
+    @Query("UPDATE StockReservation r SET r.status = 'Converted' " +
+            "WHERE r.order.orderId = :orderId AND r.status = 'Held'")
+    int convertHeld(@Param("orderId") Long orderId);
+
+    /**
+     * Turn a sale whose payment capture did not happen back into holds, so
+     * they can expire again.
+     */
+    @Modifying
+    @Query("UPDATE StockReservation r SET r.status = 'Held' " +
+            "WHERE r.order.orderId = :orderId AND r.status = 'Converted'")
+    int revertConverted(@Param("orderId") Long orderId);
+
+    /**
+     * Release the order's holds. Only one of this and {@link #convertHeld} can
+     * win for a given hold, so stock is returned at most once.
+     */
+    @Modifying
+    @Query("UPDATE StockReservation r SET r.status = 'Released' " +
+            "WHERE r.order.orderId = :orderId AND r.status = 'Held'")
+    int releaseHeld(@Param("orderId") Long orderId);
+}
@@ -17,6 +17,8 @@ public interface UserVoucherRepository extends JpaRepository<UserVoucher, Long>
 
     Optional<UserVoucher> findByUserUserIdAndVoucherVoucherIdAndIsUsedFalse(UUID userId, Long voucherId);
 
+    List<UserVoucher> findByUsedAtOrderOrderId(Long orderId);
+
     boolean existsByUserUserIdAndVoucherVoucherId(UUID userId, Long voucherId);
 
     long countByVoucherVoucherIdAndIsUsedTrue(Long voucherId);
@@ -1,6 +1,7 @@
 package com.example.DACN.repository;
 
 import com.example.DACN.entity.Wishlist;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -11,6 +12,7 @@ import java.util.UUID;
 @Repository
 public interface WishlistRepository extends JpaRepository<Wishlist, Long> {
 
+    @EntityGraph(attributePaths = { "product" })
     List<Wishlist> findByUserUserIdOrderByCreatedAtDesc(UUID userId);
 
     Optional<Wishlist> findByUserUserIdAndProductProductId(UUID userId, Long productId);
@@ -0,0 +1,307 @@
+package com.example.DACN.search;
+
+import com.example.DACN.entity.Category;
+import com.example.DACN.entity.Product;
+import com.example.DACN.util.CategoryPathUtil;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Columnar in-memory index of active products used to compute browse facet
+ * counts. Each product occupies a slot; category path, shop and price bucket
+ * are stored as parallel arrays and a bitset marks the live slots, so a full
+ * count is a single scan over primitive arrays.
+ * <p>
+ * A product belongs to its category and every ancestor of it (see
+ * CategoryPathUtil), so filtering by a category matches its whole subtree and
+ * a category's count is what selecting it would return.
+ * <p>
+ * Counts are disjunctive: each facet is counted against every filter except
+ * its own, so selecting a category still shows the counts of the sibling
+ * categories.
+ */
+@Component
+public class ProductFacetIndex {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int NO_FILTER = -1;
+    private static final int UNKNOWN_VALUE = -2;
+    private static final String STATUS_ACTIVE = "Active";
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Upper bounds (exclusive, in cents) of every price bucket but the last
+    private final long[] priceBucketBounds;
+
+    private final Map<Long, Integer> slotByProductId = new HashMap<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private final BitSet live = new BitSet();
+    private int slotCount;
+    // Ordinals of the category path, root first and the product's own category last
+    private int[][] categoryPaths = new int[INITIAL_CAPACITY][];
+    private int[] shopOrdinals = new int[INITIAL_CAPACITY];
+    private long[] priceCents = new long[INITIAL_CAPACITY];
+    private int[] priceBuckets = new int[INITIAL_CAPACITY];
+
+    // Dense ordinals for category and shop IDs, so counts fit in plain arrays
+    private final Map<Long, Integer> categoryOrdinalById = new HashMap<>();
+    private final List<Long> categoryIdByOrdinal = new ArrayList<>();
+    private final Map<Long, Integer> shopOrdinalById = new HashMap<>();
+    private final List<Long> shopIdByOrdinal = new ArrayList<>();
+
+    public ProductFacetIndex(
+            @Value("${facet.price-bucket-bounds:100000,500000,1000000,5000000}") BigDecimal[] priceBucketBounds) {
+        this.priceBucketBounds = Arrays.stream(priceBucketBounds)
+                .mapToLong(bound -> toCents(bound, RoundingMode.HALF_UP))
+                .sorted()
+                .toArray();
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotByProductId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Add or refresh a product. Products that are deleted or not active are
+     * removed, since the browse page never shows them.
+     */
+    public void upsert(Product product) {
+        lock.writeLock().lock();
+        try {
+            upsertLocked(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void upsertAll(Collection<Product> products) {
+        lock.writeLock().lock();
+        try {
+            products.forEach(this::upsertLocked);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            slotByProductId.clear();
+            freeSlots.clear();
+            live.clear();
+            slotCount = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Count matching products and every facet value for the given filters in a
+     * single pass. Any filter may be null.
+     */
+    public FacetCounts count(BigDecimal minPrice, BigDecimal maxPrice, Long categoryId, Long shopId) {
+        long minCents = minPrice != null ? toCents(minPrice, RoundingMode.CEILING) : Long.MIN_VALUE;
+        long maxCents = maxPrice != null ? toCents(maxPrice, RoundingMode.FLOOR) : Long.MAX_VALUE;
+
+        lock.readLock().lock();
+        try {
+            int categoryFilter = filterOrdinal(categoryOrdinalById, categoryId);
+            int shopFilter = filterOrdinal(shopOrdinalById, shopId);
+
+            int[] categoryCounts = new int[categoryIdByOrdinal.size()];
+            int[] shopCounts = new int[shopIdByOrdinal.size()];
+            int[] priceBucketCounts = new int[priceBucketBounds.length + 1];
+            int total = 0;
+
+            for (int slot = live.nextSetBit(0); slot >= 0; slot = live.nextSetBit(slot + 1)) {
+                int[] categoryPath = categoryPaths[slot];
+                boolean categoryMatch = categoryFilter == NO_FILTER || contains(categoryPath, categoryFilter);
+                boolean shopMatch = shopFilter == NO_FILTER || shopOrdinals[slot] == shopFilter;
+                boolean priceMatch = priceCents[slot] >= minCents && priceCents[slot] <= maxCents;
+
+                int misses = (categoryMatch ? 0 : 1) + (shopMatch ? 0 : 1) + (priceMatch ? 0 : 1);
+                if (misses == 0) {
+                    total++;
+                    countPath(categoryCounts, categoryPath);
+                    shopCounts[shopOrdinals[slot]]++;
+                    priceBucketCounts[priceBuckets[slot]]++;
+                } else if (misses == 1) {
+                    // Fails only one filter: counts toward that facet alone
+                    if (!categoryMatch) {
+                        countPath(categoryCounts, categoryPath);
+                    } else if (!shopMatch) {
+                        shopCounts[shopOrdinals[slot]]++;
+                    } else {
+                        priceBucketCounts[priceBuckets[slot]]++;
+                    }
+                }
+            }
+
+            return new FacetCounts(total,
+                    toValueCounts(categoryCounts, categoryIdByOrdinal),
+                    toValueCounts(shopCounts, shopIdByOrdinal),
+                    toPriceBucketCounts(priceBucketCounts));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void upsertLocked(Product product) {
+        if (Boolean.TRUE.equals(product.getHasDeleted()) || !STATUS_ACTIVE.equals(product.getStatus())) {
+            removeLocked(product.getProductId());
+            return;
+        }
+
+        Integer slot = slotByProductId.get(product.getProductId());
+        if (slot == null) {
+            slot = freeSlots.isEmpty() ? slotCount++ : freeSlots.pop();
+            ensureCapacity(slot + 1);
+            slotByProductId.put(product.getProductId(), slot);
+        }
+
+        long cents = toCents(product.getPrice(), RoundingMode.HALF_UP);
+        Category category = product.getCategory();
+        categoryPaths[slot] = CategoryPathUtil.ancestorIds(category.getPath(), category.getCategoryId()).stream()
+                .mapToInt(id -> ordinal(categoryOrdinalById, categoryIdByOrdinal, id))
+                .toArray();
+        shopOrdinals[slot] = ordinal(shopOrdinalById, shopIdByOrdinal, product.getShop().getShopId());
+        priceCents[slot] = cents;
+        priceBuckets[slot] = priceBucket(cents);
+        live.set(slot);
+    }
+
+    private void removeLocked(Long productId) {
+        Integer slot = slotByProductId.remove(productId);
+        if (slot != null) {
+            live.clear(slot);
+            freeSlots.push(slot);
+        }
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= categoryPaths.length) {
+            return;
+        }
+        int capacity = Math.max(required, categoryPaths.length * 2);
+        categoryPaths = Arrays.copyOf(categoryPaths, capacity);
+        shopOrdinals = Arrays.copyOf(shopOrdinals, capacity);
+        priceCents = Arrays.copyOf(priceCents, capacity);
+        priceBuckets = Arrays.copyOf(priceBuckets, capacity);
+    }
+
+    private int ordinal(Map<Long, Integer> ordinalById, List<Long> idByOrdinal, Long id) {
+        return ordinalById.computeIfAbsent(id, key -> {
+            idByOrdinal.add(key);
+            return idByOrdinal.size() - 1;
+        });
+    }
+
+    private boolean contains(int[] ordinals, int ordinal) {
+        for (int value : ordinals) {
+            if (value == ordinal) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void countPath(int[] counts, int[] path) {
+        for (int ordinal : path) {
+            counts[ordinal]++;
+        }
+    }
+
+    private int filterOrdinal(Map<Long, Integer> ordinalById, Long id) {
+        if (id == null) {
+            return NO_FILTER;
+        }
+        return ordinalById.getOrDefault(id, UNKNOWN_VALUE);
+    }
+
+    private int priceBucket(long cents) {
+        int bucket = 0;
+        while (bucket < priceBucketBounds.length && cents >= priceBucketBounds[bucket]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private Map<Long, Integer> toValueCounts(int[] counts, List<Long> idByOrdinal) {
+        Map<Long, Integer> result = new LinkedHashMap<>();
+        for (int ordinal = 0; ordinal < counts.length; ordinal++) {
+            if (counts[ordinal] > 0) {
+                result.put(idByOrdinal.get(ordinal), counts[ordinal]);
+            }
+        }
+        return result;
+    }
+
+    private List<PriceBucketCount> toPriceBucketCounts(int[] counts) {
+        List<PriceBucketCount> result = new ArrayList<>(counts.length);
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            BigDecimal lower = bucket == 0 ? null : fromCents(priceBucketBounds[bucket - 1]);
+            BigDecimal upper = bucket == priceBucketBounds.length ? null : fromCents(priceBucketBounds[bucket]);
+            result.add(new PriceBucketCount(lower, upper, counts[bucket]));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private long toCents(BigDecimal amount, RoundingMode roundingMode) {
+        return amount.movePointRight(2).setScale(0, roundingMode).longValue();
+    }
+
+    private BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class FacetCounts {
+        private final int total;
+        // Facet value ID -> count, zero counts omitted
+        private final Map<Long, Integer> categoryCounts;
+        private final Map<Long, Integer> shopCounts;
+        private final List<PriceBucketCount> priceBucketCounts;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class PriceBucketCount {
+        // Inclusive lower bound, null for the first bucket
+        private final BigDecimal minPrice;
+        // Exclusive upper bound, null for the last bucket
+        private final BigDecimal maxPrice;
+        private final int count;
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.DACN.search;
+
+import com.example.DACN.entity.Product;
+import com.example.DACN.event.CategoryChangedEvent;
+import com.example.DACN.event.ProductChangedEvent;
+import com.example.DACN.repository.CategoryRepository;
+import com.example.DACN.repository.ProductRepository;
+import com.example.DACN.util.CategoryPathUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Loads {@link ProductFacetIndex} from the products table on startup and
+ * applies each product write after it commits.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductFacetIndexer {
+
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    private final ProductFacetIndex productFacetIndex;
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        productFacetIndex.clear();
+
+        long afterId = 0L;
+        while (true) {
+            List<Product> batch = productRepository.findBatchWithShopAndCategoryAfterId(afterId,
+                    PageRequest.of(0, REBUILD_BATCH_SIZE));
+            if (batch.isEmpty()) {
+                break;
+            }
+            productFacetIndex.upsertAll(batch);
+            afterId = batch.get(batch.size() - 1).getProductId();
+        }
+
+        log.info("Product facet index loaded with {} active products", productFacetIndex.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        // Stock and sold count are not faceted
+        if (event.getChangeType() == ProductChangedEvent.ChangeType.STOCK_CHANGED) {
+            return;
+        }
+
+        try {
+            Optional<Product> product = productRepository.findWithShopAndCategoryByProductId(event.getProductId());
+            if (product.isPresent()) {
+                productFacetIndex.upsert(product.get());
+            } else {
+                productFacetIndex.remove(event.getProductId());
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to update facet index for product {}", event.getProductId(), e);
+        }
+    }
+
+    /**
+     * Re-index the products of a category's subtree, whose category paths change
+     * when the category moves.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        try {
+            categoryRepository.findPathByCategoryId(event.getCategoryId())
+                    .ifPresent(path -> reindexSubtree(CategoryPathUtil.subtreePattern(path)));
+        } catch (RuntimeException e) {
+            log.error("Failed to update facet index for category {}", event.getCategoryId(), e);
+        }
+    }
+
+    private void reindexSubtree(String categoryPath) {
+        long afterId = 0L;
+        while (true) {
+            List<Product> batch = productRepository.findBatchWithShopAndCategoryByCategoryPathAfterId(categoryPath,
+                    afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+            if (batch.isEmpty()) {
+                break;
+            }
+            productFacetIndex.upsertAll(batch);
+            afterId = batch.get(batch.size() - 1).getProductId();
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.example.DACN.search;
+
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-memory best-seller and newest rankings of active products, globally, per
+ * category subtree and per shop. Each ranking keeps only the IDs and sort keys
+ * of its top {@link #CAPACITY} products, so memory grows with the number of
+ * categories and shops, not products; callers load the list items for the IDs
+ * they read.
+ * <p>
+ * A ranking holds exactly the best products of its scope: a product is only
+ * admitted ahead of the last one kept. Once a ranking has dropped products and
+ * then falls below {@link #READ_LIMIT} entries, it is reported by
+ * {@link #takeShortScopes} and must be reloaded with {@link #refill}.
+ * <p>
+ * Writes are serialized; reads are lock-free and may briefly miss a product
+ * that is being moved within a ranking.
+ */
+@Component
+public class ProductLeaderboard {
+
+    /** Most entries a read may ask for. */
+    public static final int READ_LIMIT = 50;
+
+    /** Entries kept per ranking; the slack above READ_LIMIT absorbs removals before a refill is needed. */
+    public static final int CAPACITY = 2 * READ_LIMIT;
+
+    public static final Scope GLOBAL = new Scope(null, null);
+
+    private static final Comparator<Entry> BEST_SELLING = Comparator
+            .comparingInt(Entry::soldCount).reversed()
+            .thenComparing(Comparator.comparingLong(Entry::productId).reversed());
+
+    private static final Comparator<Entry> NEWEST = Comparator
+            .comparing(Entry::createdAt, Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder()))
+            .thenComparing(Comparator.comparingLong(Entry::productId).reversed());
+
+    private final Map<Scope, Ranking> bestSelling = new ConcurrentHashMap<>();
+    private final Map<Scope, Ranking> newest = new ConcurrentHashMap<>();
+    private final Set<Scope> shortScopes = new LinkedHashSet<>();
+
+    /**
+     * Ranking scope: a category subtree, a shop, or the whole catalog when both
+     * IDs are null.
+     */
+    public record Scope(Long categoryId, Long shopId) {
+
+        public static Scope category(Long categoryId) {
+            return new Scope(categoryId, null);
+        }
+
+        public static Scope shop(Long shopId) {
+            return new Scope(null, shopId);
+        }
+    }
+
+    /**
+     * Sort keys of an active product and the scopes it is ranked in: its shop
+     * and every category on its path.
+     */
+    public record RankedProduct(long productId, int soldCount, LocalDateTime createdAt, Long shopId,
+            List<Long> categoryIds) {
+
+        List<Scope> scopes() {
+            List<Scope> scopes = new ArrayList<>(categoryIds.size() + 2);
+            scopes.add(GLOBAL);
+            scopes.add(Scope.shop(shopId));
+            categoryIds.forEach(categoryId -> scopes.add(Scope.category(categoryId)));
+            return scopes;
+        }
+    }
+
+    /**
+     * Loads the top products of a scope from the database for {@link #refill}.
+     */
+    @FunctionalInterface
+    public interface Loader {
+
+        List<RankedProduct> load(Scope scope, boolean newest, int limit);
+    }
+
+    /**
+     * Number of scopes with a best-selling ranking.
+     */
+    public int scopeCount() {
+        return bestSelling.size();
+    }
+
+    /**
+     * Place or move a product in every ranking of its scopes.
+     */
+    public synchronized void upsert(RankedProduct product) {
+        removeLocked(product.productId());
+
+        Entry entry = new Entry(product.productId(), product.soldCount(), product.createdAt());
+        for (Scope scope : product.scopes()) {
+            offer(bestSelling, BEST_SELLING, scope, entry);
+            offer(newest, NEWEST, scope, entry);
+        }
+    }
+
+    public synchronized void remove(Long productId) {
+        removeLocked(productId);
+    }
+
+    public synchronized void clear() {
+        bestSelling.clear();
+        newest.clear();
+        shortScopes.clear();
+    }
+
+    /**
+     * Scopes whose rankings lost too many entries since the last call.
+     */
+    public synchronized Set<Scope> takeShortScopes() {
+        Set<Scope> scopes = new LinkedHashSet<>(shortScopes);
+        shortScopes.clear();
+        return scopes;
+    }
+
+    /**
+     * Reload the rankings of the given scopes. The loader runs under the write
+     * lock, so a product write committed after it read is applied after the
+     * reload instead of being overwritten by it.
+     */
+    public synchronized void refill(Set<Scope> scopes, Loader loader) {
+        for (Scope scope : scopes) {
+            replace(bestSelling, BEST_SELLING, scope, loader.load(scope, false, CAPACITY));
+            replace(newest, NEWEST, scope, loader.load(scope, true, CAPACITY));
+            shortScopes.remove(scope);
+        }
+    }
+
+    /**
+     * IDs of the top best-selling products. Pass at most one of categoryId and
+     * shopId to narrow the scope; both null means the whole catalog.
+     */
+    public List<Long> topBestSelling(Long categoryId, Long shopId, int limit) {
+        return top(bestSelling.get(new Scope(categoryId, shopId)), limit);
+    }
+
+    /**
+     * IDs of the most recently created products, scoped like {@link #topBestSelling}.
+     */
+    public List<Long> topNewest(Long categoryId, Long shopId, int limit) {
+        return top(newest.get(new Scope(categoryId, shopId)), limit);
+    }
+
+    private List<Long> top(Ranking ranking, int limit) {
+        if (ranking == null) {
+            return Collections.emptyList();
+        }
+
+        List<Long> result = new ArrayList<>(Math.min(limit, READ_LIMIT));
+        Iterator<Entry> iterator = ranking.entries.iterator();
+        while (iterator.hasNext() && result.size() < limit) {
+            result.add(iterator.next().productId());
+        }
+        return result;
+    }
+
+    private void offer(Map<Scope, Ranking> rankings, Comparator<Entry> order, Scope scope, Entry entry) {
+        // A missing ranking means the scope has no ranked products at all
+        Ranking ranking = rankings.computeIfAbsent(scope, key -> new Ranking(order));
+
+        // Products past the last one kept are unknown, so only admit ahead of it
+        if (ranking.truncated && (ranking.entries.isEmpty() || order.compare(entry, ranking.entries.last()) > 0)) {
+            return;
+        }
+
+        ranking.entries.add(entry);
+        ranking.byProductId.put(entry.productId(), entry);
+        if (ranking.entries.size() > CAPACITY) {
+            Entry dropped = ranking.entries.pollLast();
+            ranking.byProductId.remove(dropped.productId());
+            ranking.truncated = true;
+        }
+    }
+
+    private void removeLocked(Long productId) {
+        removeFrom(bestSelling, productId);
+        removeFrom(newest, productId);
+    }
+
+    private void removeFrom(Map<Scope, Ranking> rankings, Long productId) {
+        Iterator<Map.Entry<Scope, Ranking>> iterator = rankings.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Scope, Ranking> scoped = iterator.next();
+            Ranking ranking = scoped.getValue();
+            Entry existing = ranking.byProductId.remove(productId);
+            if (existing == null) {
+                continue;
+            }
+
+            ranking.entries.remove(existing);
+            if (ranking.truncated && ranking.entries.size() < READ_LIMIT) {
+                shortScopes.add(scoped.getKey());
+            } else if (!ranking.truncated && ranking.entries.isEmpty()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private void replace(Map<Scope, Ranking> rankings, Comparator<Entry> order, Scope scope,
+            List<RankedProduct> top) {
+        if (top.isEmpty()) {
+            rankings.remove(scope);
+            return;
+        }
+
+        Ranking ranking = new Ranking(order);
+        for (RankedProduct product : top.subList(0, Math.min(top.size(), CAPACITY))) {
+            Entry entry = new Entry(product.productId(), product.soldCount(), product.createdAt());
+            ranking.entries.add(entry);
+            ranking.byProductId.put(entry.productId(), entry);
+        }
+        ranking.truncated = top.size() >= CAPACITY;
+        rankings.put(scope, ranking);
+    }
+
+    private static final class Ranking {
+
+        private final NavigableSet<Entry> entries;
+        // Written under the lock only; readers walk entries
+        private final Map<Long, Entry> byProductId = new HashMap<>();
+        // Whether the scope has products past the last entry
+        private boolean truncated;
+
+        private Ranking(Comparator<Entry> order) {
+            this.entries = new ConcurrentSkipListSet<>(order);
+        }
+    }
+
+    private record Entry(long productId, int soldCount, LocalDateTime createdAt) {
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.DACN.search;
+
+import com.example.DACN.entity.Product;
+import com.example.DACN.entity.Shop;
+import com.example.DACN.event.CategoryChangedEvent;
+import com.example.DACN.event.ProductChangedEvent;
+import com.example.DACN.event.ShopChangedEvent;
+import com.example.DACN.repository.CategoryRepository;
+import com.example.DACN.repository.ProductRepository;
+import com.example.DACN.search.ProductLeaderboard.RankedProduct;
+import com.example.DACN.search.ProductLeaderboard.Scope;
+import com.example.DACN.util.CategoryPathUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+/**
+ * Loads {@link ProductLeaderboard} on startup and moves products within it
+ * after each committed write, including sold count changes from orders.
+ * Category moves re-rank the products of the moved subtree, and shop changes
+ * re-rank the shop's products. Rankings left short by removals are reloaded
+ * from the database.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductLeaderboardUpdater {
+
+    private static final int REBUILD_BATCH_SIZE = 500;
+    private static final String STATUS_ACTIVE = "Active";
+
+    private static final Sort BEST_SELLING = Sort.by(Sort.Order.desc("soldCount"), Sort.Order.desc("productId"));
+    private static final Sort NEWEST = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("productId"));
+
+    private final ProductLeaderboard productLeaderboard;
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        productLeaderboard.clear();
+        applyBatches((afterId, page) -> productRepository.findBatchWithShopAndCategoryAfterId(afterId, page));
+        productLeaderboard.takeShortScopes();
+
+        log.info("Product leaderboards loaded for {} scopes", productLeaderboard.scopeCount());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        try {
+            Optional<Product> product = productRepository.findWithShopAndCategoryByProductId(event.getProductId());
+            if (product.isPresent()) {
+                apply(product.get());
+            } else {
+                productLeaderboard.remove(event.getProductId());
+            }
+            refillShortScopes();
+        } catch (RuntimeException e) {
+            log.error("Failed to update leaderboards for product {}", event.getProductId(), e);
+        }
+    }
+
+    /**
+     * Re-rank the products of a category's subtree, whose ancestor scopes
+     * change when the category moves.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        try {
+            categoryRepository.findPathByCategoryId(event.getCategoryId()).ifPresent(path -> {
+                String categoryPath = CategoryPathUtil.subtreePattern(path);
+                applyBatches((afterId, page) -> productRepository
+                        .findBatchWithShopAndCategoryByCategoryPathAfterId(categoryPath, afterId, page));
+            });
+            refillShortScopes();
+        } catch (RuntimeException e) {
+            log.error("Failed to update leaderboards for category {}", event.getCategoryId(), e);
+        }
+    }
+
+    /**
+     * Re-rank a shop's products, which leave every ranking while the shop is
+     * deleted or not approved.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onShopChanged(ShopChangedEvent event) {
+        try {
+            applyBatches((afterId, page) -> productRepository
+                    .findBatchWithShopAndCategoryByShopIdAfterId(event.getShopId(), afterId, page));
+            refillShortScopes();
+        } catch (RuntimeException e) {
+            log.error("Failed to update leaderboards for shop {}", event.getShopId(), e);
+        }
+    }
+
+    private void applyBatches(BiFunction<Long, PageRequest, List<Product>> batchLoader) {
+        long afterId = 0L;
+        while (true) {
+            List<Product> batch = batchLoader.apply(afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+            if (batch.isEmpty()) {
+                break;
+            }
+            batch.forEach(this::apply);
+            afterId = batch.get(batch.size() - 1).getProductId();
+        }
+    }
+
+    private void apply(Product product) {
+        if (!isRanked(product)) {
+            productLeaderboard.remove(product.getProductId());
+            return;
+        }
+        productLeaderboard.upsert(rank(product));
+    }
+
+    private void refillShortScopes() {
+        Set<Scope> scopes = productLeaderboard.takeShortScopes();
+        if (!scopes.isEmpty()) {
+            productLeaderboard.refill(scopes, this::loadTop);
+        }
+    }
+
+    private List<RankedProduct> loadTop(Scope scope, boolean newest, int limit) {
+        String categoryPath = null;
+        if (scope.categoryId() != null) {
+            Optional<String> path = categoryRepository.findPathByCategoryId(scope.categoryId());
+            if (path.isEmpty()) {
+                return Collections.emptyList();
+            }
+            categoryPath = CategoryPathUtil.subtreePattern(path.get());
+        }
+
+        return productRepository.findRankedWithShopAndCategory(categoryPath, scope.shopId(),
+                PageRequest.of(0, limit, newest ? NEWEST : BEST_SELLING)).stream()
+                .map(this::rank)
+                .toList();
+    }
+
+    private boolean isRanked(Product product) {
+        Shop shop = product.getShop();
+        return !Boolean.TRUE.equals(product.getHasDeleted()) && STATUS_ACTIVE.equals(product.getStatus())
+                && !Boolean.TRUE.equals(shop.getHasDeleted()) && Boolean.TRUE.equals(shop.getIsApproved());
+    }
+
+    private RankedProduct rank(Product product) {
+        return new RankedProduct(product.getProductId(),
+                product.getSoldCount() != null ? product.getSoldCount() : 0,
+                product.getCreatedAt(), product.getShop().getShopId(),
+                CategoryPathUtil.ancestorIds(product.getCategory().getPath(), product.getCategory().getCategoryId()));
+    }
+}
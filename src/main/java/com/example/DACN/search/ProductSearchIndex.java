@@ -0,0 +1,331 @@
+package com.example.DACN.search;
+
+import com.example.DACN.entity.Category;
+import com.example.DACN.entity.Product;
+import com.example.DACN.util.CategoryPathUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.QueryBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Embedded Lucene index over product name and description, stored on local
+ * disk. Price, category, shop and status are indexed as filter fields so that a
+ * search can be combined with the listing filters without touching the database.
+ * The category field holds every ID on the category's path, so a category
+ * filter matches its whole subtree like the listing does.
+ * <p>
+ * Writes become visible to searches by reopening a near-real-time reader on
+ * the writer, which needs no fsync. They are made durable by {@link #commit()},
+ * which ProductSearchIndexCommitJob runs on a schedule rather than per write.
+ * Each commit records the index format version and when it was taken, so on
+ * startup writes lost in a crash can be re-applied and an index of an older
+ * format rebuilt.
+ */
+@Component
+@Slf4j
+public class ProductSearchIndex {
+
+    static final String FIELD_ID = "id";
+    static final String FIELD_NAME = "name";
+    static final String FIELD_DESCRIPTION = "description";
+    static final String FIELD_STATUS = "status";
+    static final String FIELD_CATEGORY_ID = "categoryId";
+    static final String FIELD_SHOP_ID = "shopId";
+    static final String FIELD_PRICE_CENTS = "priceCents";
+
+    // Bump when documents change shape, so existing indexes are rebuilt
+    static final String INDEX_VERSION = "2";
+    private static final String COMMIT_VERSION = "version";
+    private static final String COMMIT_SYNCED_AT = "syncedAt";
+
+    private static final String STATUS_ACTIVE = "Active";
+    private static final float NAME_BOOST = 3.0f;
+
+    private final Path indexPath;
+    private final Analyzer analyzer = new VietnameseFoldingAnalyzer();
+
+    private Directory directory;
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+    // Format of the documents in the index; indexes older than the version field count as "1"
+    private volatile String version = INDEX_VERSION;
+    private volatile LocalDateTime syncedAt;
+
+    public ProductSearchIndex(@Value("${search.index.path:data/product-index}") String indexPath) {
+        this.indexPath = Paths.get(indexPath);
+    }
+
+    @PostConstruct
+    public void open() {
+        try {
+            Files.createDirectories(indexPath);
+            directory = FSDirectory.open(indexPath);
+            IndexWriterConfig config = new IndexWriterConfig(analyzer);
+            config.setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+            writer = new IndexWriter(directory, config);
+            searcherManager = new SearcherManager(writer, null);
+            if (DirectoryReader.indexExists(directory)) {
+                Map<String, String> commitData = SegmentInfos.readLatestCommit(directory).getUserData();
+                version = commitData.getOrDefault(COMMIT_VERSION, "1");
+                syncedAt = commitData.containsKey(COMMIT_SYNCED_AT)
+                        ? LocalDateTime.parse(commitData.get(COMMIT_SYNCED_AT))
+                        : null;
+            }
+            log.info("Opened product search index at {} with {} documents", indexPath.toAbsolutePath(), size());
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to open product search index at " + indexPath, e);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        try {
+            commit();
+        } catch (RuntimeException e) {
+            log.warn("Failed to commit product search index before closing", e);
+        }
+        try {
+            searcherManager.close();
+            writer.close();
+            directory.close();
+        } catch (IOException e) {
+            log.warn("Failed to close product search index cleanly", e);
+        }
+    }
+
+    public int size() {
+        return writer.getDocStats().numDocs;
+    }
+
+    /**
+     * Whether the documents are in the current format. An index of an older
+     * format must be rebuilt with {@link #deleteAll()} first.
+     */
+    public boolean isCurrentVersion() {
+        return INDEX_VERSION.equals(version);
+    }
+
+    /**
+     * When the last commit was started: every write applied before then is
+     * durable. Empty if the index was never committed with this information.
+     */
+    public Optional<LocalDateTime> getSyncedAt() {
+        return Optional.ofNullable(syncedAt);
+    }
+
+    /**
+     * Add or replace a single product and make it visible to searches.
+     */
+    public void upsert(Product product) {
+        upsertAll(Collections.singletonList(product));
+        refresh();
+    }
+
+    /**
+     * Add or replace a batch of products without making them visible. Call
+     * {@link #refresh()} or {@link #commit()} once the batch run is finished.
+     */
+    public void upsertAll(Collection<Product> products) {
+        try {
+            for (Product product : products) {
+                writer.updateDocument(new Term(FIELD_ID, String.valueOf(product.getProductId())),
+                        toDocument(product));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to index products", e);
+        }
+    }
+
+    public void delete(Long productId) {
+        try {
+            writer.deleteDocuments(new Term(FIELD_ID, String.valueOf(productId)));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to remove product " + productId + " from search index", e);
+        }
+        refresh();
+    }
+
+    public void deleteAll() {
+        try {
+            writer.deleteAll();
+            version = INDEX_VERSION;
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to clear product search index", e);
+        }
+    }
+
+    /**
+     * Make the writes so far visible to searches without making them durable.
+     */
+    public void refresh() {
+        try {
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to refresh product search index", e);
+        }
+    }
+
+    /**
+     * Make the writes so far durable and visible. Does nothing if there was no
+     * write since the last commit.
+     */
+    public synchronized void commit() {
+        try {
+            if (writer.hasUncommittedChanges()) {
+                LocalDateTime started = LocalDateTime.now();
+                writer.setLiveCommitData(Map.of(
+                        COMMIT_VERSION, version,
+                        COMMIT_SYNCED_AT, started.toString()).entrySet());
+                writer.commit();
+                syncedAt = started;
+            }
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to commit product search index", e);
+        }
+    }
+
+    /**
+     * Rank active products by relevance to the keyword, restricted by the
+     * optional filters. Name matches weigh more than description matches.
+     */
+    public SearchResult search(String keyword, BigDecimal minPrice, BigDecimal maxPrice, Long categoryId,
+            Long shopId, int page, int size) {
+        Query textQuery = buildTextQuery(keyword);
+        if (textQuery == null) {
+            return new SearchResult(Collections.emptyList(), 0);
+        }
+
+        BooleanQuery.Builder builder = new BooleanQuery.Builder()
+                .add(textQuery, BooleanClause.Occur.MUST)
+                .add(new TermQuery(new Term(FIELD_STATUS, STATUS_ACTIVE)), BooleanClause.Occur.FILTER);
+
+        if (categoryId != null) {
+            builder.add(LongPoint.newExactQuery(FIELD_CATEGORY_ID, categoryId), BooleanClause.Occur.FILTER);
+        }
+        if (shopId != null) {
+            builder.add(LongPoint.newExactQuery(FIELD_SHOP_ID, shopId), BooleanClause.Occur.FILTER);
+        }
+        if (minPrice != null || maxPrice != null) {
+            long lower = minPrice != null ? toCents(minPrice, RoundingMode.CEILING) : Long.MIN_VALUE;
+            long upper = maxPrice != null ? toCents(maxPrice, RoundingMode.FLOOR) : Long.MAX_VALUE;
+            builder.add(LongPoint.newRangeQuery(FIELD_PRICE_CENTS, lower, upper), BooleanClause.Occur.FILTER);
+        }
+
+        Query query = builder.build();
+
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                int totalHits = searcher.count(query);
+                long offset = (long) page * size;
+                if (offset >= totalHits) {
+                    return new SearchResult(Collections.emptyList(), totalHits);
+                }
+
+                TopDocs topDocs = searcher.search(query, (int) offset + size);
+                StoredFields storedFields = searcher.storedFields();
+                List<Long> productIds = new ArrayList<>();
+                for (int i = (int) offset; i < topDocs.scoreDocs.length; i++) {
+                    Document doc = storedFields.document(topDocs.scoreDocs[i].doc);
+                    productIds.add(Long.parseLong(doc.get(FIELD_ID)));
+                }
+                return new SearchResult(productIds, totalHits);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to search products", e);
+        }
+    }
+
+    private Query buildTextQuery(String keyword) {
+        if (keyword == null || keyword.isBlank()) {
+            return null;
+        }
+
+        QueryBuilder queryBuilder = new QueryBuilder(analyzer);
+        Query nameQuery = queryBuilder.createBooleanQuery(FIELD_NAME, keyword, BooleanClause.Occur.SHOULD);
+        Query descriptionQuery = queryBuilder.createBooleanQuery(FIELD_DESCRIPTION, keyword,
+                BooleanClause.Occur.SHOULD);
+
+        // Keyword analyzed to nothing (e.g. only punctuation)
+        if (nameQuery == null || descriptionQuery == null) {
+            return null;
+        }
+
+        return new BooleanQuery.Builder()
+                .add(new BoostQuery(nameQuery, NAME_BOOST), BooleanClause.Occur.SHOULD)
+                .add(descriptionQuery, BooleanClause.Occur.SHOULD)
+                .build();
+    }
+
+    private Document toDocument(Product product) {
+        Document doc = new Document();
+        doc.add(new StringField(FIELD_ID, String.valueOf(product.getProductId()), Field.Store.YES));
+        doc.add(new TextField(FIELD_NAME, product.getName(), Field.Store.NO));
+        if (product.getDescription() != null) {
+            doc.add(new TextField(FIELD_DESCRIPTION, product.getDescription(), Field.Store.NO));
+        }
+        doc.add(new StringField(FIELD_STATUS, product.getStatus(), Field.Store.NO));
+        Category category = product.getCategory();
+        for (Long categoryId : CategoryPathUtil.ancestorIds(category.getPath(), category.getCategoryId())) {
+            doc.add(new LongPoint(FIELD_CATEGORY_ID, categoryId));
+        }
+        doc.add(new LongPoint(FIELD_SHOP_ID, product.getShop().getShopId()));
+        doc.add(new LongPoint(FIELD_PRICE_CENTS, toCents(product.getPrice(), RoundingMode.HALF_UP)));
+        return doc;
+    }
+
+    private long toCents(BigDecimal amount, RoundingMode roundingMode) {
+        return amount.movePointRight(2).setScale(0, roundingMode).longValue();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class SearchResult {
+        private final List<Long> productIds;
+        private final long totalHits;
+    }
+}
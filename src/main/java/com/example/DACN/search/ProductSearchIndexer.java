@@ -0,0 +1,156 @@
+package com.example.DACN.search;
+
+import com.example.DACN.entity.Product;
+import com.example.DACN.event.CategoryChangedEvent;
+import com.example.DACN.event.ProductChangedEvent;
+import com.example.DACN.repository.CategoryRepository;
+import com.example.DACN.repository.ProductRepository;
+import com.example.DACN.util.CategoryPathUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Keeps {@link ProductSearchIndex} in sync with the products table: on startup
+ * a full build when the index is empty or of an older format, otherwise the
+ * products and categories written since its last commit are indexed again;
+ * then incremental updates after each product write commits.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSearchIndexer {
+
+    private static final int REBUILD_BATCH_SIZE = 500;
+    // Writes are applied to the index just after their transaction commits, so
+    // one stamped slightly before the last index commit may still be missing
+    private static final Duration RECONCILE_MARGIN = Duration.ofMinutes(5);
+
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void sync() {
+        Optional<LocalDateTime> syncedAt = productSearchIndex.getSyncedAt();
+        if (productSearchIndex.size() == 0 || !productSearchIndex.isCurrentVersion() || syncedAt.isEmpty()) {
+            rebuild();
+        } else {
+            reconcile(syncedAt.get().minus(RECONCILE_MARGIN));
+        }
+    }
+
+    public void rebuild() {
+        log.info("Rebuilding product search index");
+        productSearchIndex.deleteAll();
+
+        long afterId = 0L;
+        int indexed = 0;
+        while (true) {
+            List<Product> batch = productRepository.findBatchWithShopAndCategoryAfterId(afterId,
+                    PageRequest.of(0, REBUILD_BATCH_SIZE));
+            if (batch.isEmpty()) {
+                break;
+            }
+            productSearchIndex.upsertAll(batch);
+            indexed += batch.size();
+            afterId = batch.get(batch.size() - 1).getProductId();
+        }
+
+        productSearchIndex.commit();
+        log.info("Product search index rebuilt with {} products", indexed);
+    }
+
+    /**
+     * Index again every product written since the given time, removing the
+     * deleted ones, and the subtrees of the categories written since, which
+     * covers whatever a crash lost after the last commit.
+     */
+    public void reconcile(LocalDateTime since) {
+        long afterId = 0L;
+        int reindexed = 0;
+        while (true) {
+            List<Product> batch = productRepository.findBatchWithShopAndCategoryUpdatedSinceAfterId(since, afterId,
+                    PageRequest.of(0, REBUILD_BATCH_SIZE));
+            if (batch.isEmpty()) {
+                break;
+            }
+            List<Product> live = new ArrayList<>();
+            for (Product product : batch) {
+                if (Boolean.TRUE.equals(product.getHasDeleted())) {
+                    productSearchIndex.delete(product.getProductId());
+                } else {
+                    live.add(product);
+                }
+            }
+            productSearchIndex.upsertAll(live);
+            reindexed += batch.size();
+            afterId = batch.get(batch.size() - 1).getProductId();
+        }
+
+        List<String> categoryPaths = categoryRepository.findPathsUpdatedSince(since);
+        categoryPaths.forEach(path -> reindexSubtree(CategoryPathUtil.subtreePattern(path)));
+
+        productSearchIndex.commit();
+        log.info("Product search index reconciled with {} products and {} categories written since {}",
+                reindexed, categoryPaths.size(), since);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        // Stock and sold count are not part of the index
+        if (event.getChangeType() == ProductChangedEvent.ChangeType.STOCK_CHANGED) {
+            return;
+        }
+
+        try {
+            Optional<Product> product = productRepository.findWithShopAndCategoryByProductId(event.getProductId());
+            if (product.isEmpty() || Boolean.TRUE.equals(product.get().getHasDeleted())) {
+                productSearchIndex.delete(event.getProductId());
+            } else {
+                productSearchIndex.upsert(product.get());
+            }
+        } catch (RuntimeException e) {
+            // The write already committed; a stale index entry is fixed by the next change or rebuild
+            log.error("Failed to update search index for product {}", event.getProductId(), e);
+        }
+    }
+
+    /**
+     * Re-index the products of a category's subtree, whose category paths change
+     * when the category moves.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        try {
+            categoryRepository.findPathByCategoryId(event.getCategoryId())
+                    .ifPresent(path -> reindexSubtree(CategoryPathUtil.subtreePattern(path)));
+        } catch (RuntimeException e) {
+            log.error("Failed to update search index for category {}", event.getCategoryId(), e);
+        }
+    }
+
+    private void reindexSubtree(String categoryPath) {
+        long afterId = 0L;
+        while (true) {
+            List<Product> batch = productRepository.findBatchWithShopAndCategoryByCategoryPathAfterId(categoryPath,
+                    afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+            if (batch.isEmpty()) {
+                break;
+            }
+            productSearchIndex.upsertAll(batch);
+            afterId = batch.get(batch.size() - 1).getProductId();
+        }
+        productSearchIndex.refresh();
+    }
+}
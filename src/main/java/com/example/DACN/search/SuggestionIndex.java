@@ -0,0 +1,324 @@
+package com.example.DACN.search;
+
+import com.example.DACN.search.SuggestionTrie.Suggestion;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory typeahead over active product names, category names and slugs,
+ * and approved shop names. Each kind lives in its own {@link SuggestionTrie}
+ * so every section of the dropdown gets its own top K. Names are folded
+ * (lowercase, no diacritics) and indexed from every word start, so "thoai"
+ * completes "Điện thoại".
+ * <p>
+ * Products rank by sold count; categories and shops by the total sold count of
+ * their active products. When the estimated size goes over the memory budget
+ * the lowest-ranked products are dropped from the product trie first.
+ */
+@Component
+@Slf4j
+public class SuggestionIndex {
+
+    // Longest folded key kept; longer names are matched on their first characters only
+    static final int MAX_KEY_LENGTH = 64;
+    // Word starts indexed per name, beyond that only the earlier words complete
+    private static final int MAX_WORD_STARTS = 6;
+    // Per-product bookkeeping for category and shop totals
+    private static final long PRODUCT_STATS_BYTES = 64;
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final int topK;
+    private final long memoryBudgetBytes;
+
+    private final SuggestionTrie products;
+    private final SuggestionTrie categories;
+    private final SuggestionTrie shops;
+
+    // Sold count, category and shop of every active product, indexed or not
+    private final Map<Long, ProductStats> productStats = new HashMap<>();
+    private final Map<Long, Long> categorySold = new HashMap<>();
+    private final Map<Long, Long> shopSold = new HashMap<>();
+
+    // Indexed products, lowest score first, for eviction under the budget
+    private final NavigableSet<Suggestion> productsByScore = new TreeSet<>(SuggestionTrie.BY_SCORE.reversed());
+    private boolean budgetWarningLogged;
+
+    public SuggestionIndex(@Value("${suggest.top-k:10}") int topK,
+            @Value("${suggest.memory-budget-mb:64}") long memoryBudgetMb) {
+        this.topK = topK;
+        this.memoryBudgetBytes = memoryBudgetMb * 1024 * 1024;
+        this.products = new SuggestionTrie(topK);
+        this.categories = new SuggestionTrie(topK);
+        this.shops = new SuggestionTrie(topK);
+    }
+
+    public int getTopK() {
+        return topK;
+    }
+
+    public long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            return estimatedBytesLocked();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int productCount() {
+        lock.readLock().lock();
+        try {
+            return products.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Index an active product or move it after a sold count change, and
+     * adjust the totals of its category and shop.
+     */
+    public void upsertProduct(long productId, String name, long categoryId, long shopId, int soldCount) {
+        lock.writeLock().lock();
+        try {
+            ProductStats previous = productStats.put(productId, new ProductStats(categoryId, shopId, soldCount));
+            if (previous != null && previous.categoryId() == categoryId) {
+                adjustCategory(categoryId, soldCount - previous.soldCount());
+            } else {
+                if (previous != null) {
+                    adjustCategory(previous.categoryId(), -previous.soldCount());
+                }
+                adjustCategory(categoryId, soldCount);
+            }
+            if (previous != null && previous.shopId() == shopId) {
+                adjustShop(shopId, soldCount - previous.soldCount());
+            } else {
+                if (previous != null) {
+                    adjustShop(previous.shopId(), -previous.soldCount());
+                }
+                adjustShop(shopId, soldCount);
+            }
+
+            Suggestion indexed = products.get(productId);
+            if (indexed != null) {
+                productsByScore.remove(indexed);
+            }
+            Suggestion suggestion = new Suggestion(productId, name, null, soldCount);
+            products.put(suggestion, keysFor(name));
+            productsByScore.add(suggestion);
+            enforceBudget();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeProduct(long productId) {
+        lock.writeLock().lock();
+        try {
+            removeProductLocked(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void upsertCategory(long categoryId, String name, String slug) {
+        lock.writeLock().lock();
+        try {
+            List<String> keys = keysFor(name);
+            keys.add(truncate(fold(slug)));
+            categories.put(new Suggestion(categoryId, name, slug, categorySold.getOrDefault(categoryId, 0L)), keys);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeCategory(long categoryId) {
+        lock.writeLock().lock();
+        try {
+            categories.remove(categoryId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void upsertShop(long shopId, String shopName) {
+        lock.writeLock().lock();
+        try {
+            shops.put(new Suggestion(shopId, shopName, null, shopSold.getOrDefault(shopId, 0L)), keysFor(shopName));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeShop(long shopId) {
+        lock.writeLock().lock();
+        try {
+            shops.remove(shopId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            products.clear();
+            categories.clear();
+            shops.clear();
+            productStats.clear();
+            categorySold.clear();
+            shopSold.clear();
+            productsByScore.clear();
+            budgetWarningLogged = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Complete a raw query typed by the user. Each section holds at most
+     * {@code limit} suggestions.
+     */
+    public Suggestions suggest(String query, int limit) {
+        String prefix = truncate(fold(query));
+        if (prefix.isEmpty()) {
+            return new Suggestions(List.of(), List.of(), List.of());
+        }
+
+        lock.readLock().lock();
+        try {
+            return new Suggestions(products.complete(prefix, limit), categories.complete(prefix, limit),
+                    shops.complete(prefix, limit));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Lowercase, strip diacritics (including đ) and collapse everything that is
+     * not a letter or digit into single spaces.
+     */
+    static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFD);
+        folded = COMBINING_MARKS.matcher(folded).replaceAll("");
+        folded = folded.replace('đ', 'd').replace('Đ', 'd').toLowerCase(Locale.ROOT);
+        return NON_ALPHANUMERIC.matcher(folded).replaceAll(" ").trim();
+    }
+
+    /**
+     * The folded name and its suffixes starting at each following word.
+     */
+    static List<String> keysFor(String name) {
+        String folded = fold(name);
+        Set<String> keys = new LinkedHashSet<>();
+        if (!folded.isEmpty()) {
+            keys.add(truncate(folded));
+        }
+
+        int wordStarts = 1;
+        int space = folded.indexOf(' ');
+        while (space >= 0 && wordStarts < MAX_WORD_STARTS) {
+            keys.add(truncate(folded.substring(space + 1)));
+            wordStarts++;
+            space = folded.indexOf(' ', space + 1);
+        }
+        return new ArrayList<>(keys);
+    }
+
+    private static String truncate(String key) {
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+    }
+
+    private void removeProductLocked(long productId) {
+        ProductStats previous = productStats.remove(productId);
+        if (previous != null) {
+            adjustCategory(previous.categoryId(), -previous.soldCount());
+            adjustShop(previous.shopId(), -previous.soldCount());
+        }
+
+        Suggestion indexed = products.get(productId);
+        if (indexed != null) {
+            productsByScore.remove(indexed);
+            products.remove(productId);
+        }
+    }
+
+    private void adjustCategory(long categoryId, long delta) {
+        long total = categorySold.merge(categoryId, delta, Long::sum);
+        if (total == 0) {
+            categorySold.remove(categoryId);
+        }
+        rescore(categories, categoryId, total);
+    }
+
+    private void adjustShop(long shopId, long delta) {
+        long total = shopSold.merge(shopId, delta, Long::sum);
+        if (total == 0) {
+            shopSold.remove(shopId);
+        }
+        rescore(shops, shopId, total);
+    }
+
+    private void rescore(SuggestionTrie trie, long id, long score) {
+        Suggestion current = trie.get(id);
+        if (current == null || current.score() == score) {
+            return;
+        }
+        List<String> keys = keysFor(current.text());
+        if (current.slug() != null) {
+            keys.add(truncate(fold(current.slug())));
+        }
+        trie.put(new Suggestion(id, current.text(), current.slug(), score), keys);
+    }
+
+    private void enforceBudget() {
+        while (estimatedBytesLocked() > memoryBudgetBytes && !productsByScore.isEmpty()) {
+            if (!budgetWarningLogged) {
+                log.warn("Suggestion index reached its memory budget of {} bytes, dropping lowest-ranked products",
+                        memoryBudgetBytes);
+                budgetWarningLogged = true;
+            }
+            Suggestion lowest = productsByScore.pollFirst();
+            products.remove(lowest.id());
+        }
+    }
+
+    private long estimatedBytesLocked() {
+        return products.estimatedBytes() + categories.estimatedBytes() + shops.estimatedBytes()
+                + productStats.size() * PRODUCT_STATS_BYTES;
+    }
+
+    private record ProductStats(long categoryId, long shopId, int soldCount) {
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Suggestions {
+        private final List<Suggestion> products;
+        private final List<Suggestion> categories;
+        private final List<Suggestion> shops;
+    }
+}
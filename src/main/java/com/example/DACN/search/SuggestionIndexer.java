@@ -0,0 +1,131 @@
+package com.example.DACN.search;
+
+import com.example.DACN.entity.Category;
+import com.example.DACN.entity.Product;
+import com.example.DACN.entity.Shop;
+import com.example.DACN.event.CategoryChangedEvent;
+import com.example.DACN.event.ProductChangedEvent;
+import com.example.DACN.event.ShopChangedEvent;
+import com.example.DACN.repository.CategoryRepository;
+import com.example.DACN.repository.ProductRepository;
+import com.example.DACN.repository.ShopRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Loads {@link SuggestionIndex} on startup and keeps it in step with product,
+ * category and shop writes after they commit.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SuggestionIndexer {
+
+    private static final int REBUILD_BATCH_SIZE = 500;
+    private static final String STATUS_ACTIVE = "Active";
+
+    private final SuggestionIndex suggestionIndex;
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final ShopRepository shopRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        suggestionIndex.clear();
+
+        // Products first, so category and shop totals are complete when those are added
+        long afterId = 0L;
+        while (true) {
+            List<Product> batch = productRepository.findBatchWithShopAndCategoryAfterId(afterId,
+                    PageRequest.of(0, REBUILD_BATCH_SIZE));
+            if (batch.isEmpty()) {
+                break;
+            }
+            batch.forEach(this::apply);
+            afterId = batch.get(batch.size() - 1).getProductId();
+        }
+
+        categoryRepository.findAll().forEach(this::apply);
+        shopRepository.findByIsApprovedTrueAndHasDeletedFalse().forEach(this::apply);
+
+        log.info("Suggestion index loaded with {} products, about {} KB", suggestionIndex.productCount(),
+                suggestionIndex.estimatedBytes() / 1024);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        try {
+            Optional<Product> product = productRepository.findWithShopAndCategoryByProductId(event.getProductId());
+            if (product.isPresent()) {
+                apply(product.get());
+            } else {
+                suggestionIndex.removeProduct(event.getProductId());
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to update suggestions for product {}", event.getProductId(), e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        try {
+            Optional<Category> category = categoryRepository.findById(event.getCategoryId());
+            if (category.isPresent()) {
+                apply(category.get());
+            } else {
+                suggestionIndex.removeCategory(event.getCategoryId());
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to update suggestions for category {}", event.getCategoryId(), e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onShopChanged(ShopChangedEvent event) {
+        try {
+            Optional<Shop> shop = shopRepository.findById(event.getShopId());
+            if (shop.isPresent()) {
+                apply(shop.get());
+            } else {
+                suggestionIndex.removeShop(event.getShopId());
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to update suggestions for shop {}", event.getShopId(), e);
+        }
+    }
+
+    private void apply(Product product) {
+        if (Boolean.TRUE.equals(product.getHasDeleted()) || !STATUS_ACTIVE.equals(product.getStatus())) {
+            suggestionIndex.removeProduct(product.getProductId());
+            return;
+        }
+
+        suggestionIndex.upsertProduct(product.getProductId(), product.getName(),
+                product.getCategory().getCategoryId(), product.getShop().getShopId(),
+                product.getSoldCount() != null ? product.getSoldCount() : 0);
+    }
+
+    private void apply(Category category) {
+        if (Boolean.TRUE.equals(category.getHasDeleted())) {
+            suggestionIndex.removeCategory(category.getCategoryId());
+            return;
+        }
+        suggestionIndex.upsertCategory(category.getCategoryId(), category.getName(), category.getSlug());
+    }
+
+    private void apply(Shop shop) {
+        if (Boolean.TRUE.equals(shop.getHasDeleted()) || !Boolean.TRUE.equals(shop.getIsApproved())) {
+            suggestionIndex.removeShop(shop.getShopId());
+            return;
+        }
+        suggestionIndex.upsertShop(shop.getShopId(), shop.getShopName());
+    }
+}
@@ -0,0 +1,375 @@
+package com.example.DACN.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compressed (radix) trie from folded keys to suggestions. Every node keeps the
+ * top K suggestions of its subtree by score, so completing a prefix is a walk
+ * down at most one node per edge followed by a copy of that node's list,
+ * regardless of how many suggestions share the prefix.
+ * <p>
+ * A suggestion may be stored under several keys (e.g. one per word of its
+ * name). Not thread-safe; {@link SuggestionIndex} serializes access.
+ */
+public class SuggestionTrie {
+
+    // Rough per-object costs on a 64-bit JVM with compressed references
+    private static final long NODE_BYTES = 64;
+    private static final long REFERENCE_BYTES = 4;
+    private static final long ENTRY_BYTES = 80;
+
+    private static final Suggestion[] NO_SUGGESTIONS = new Suggestion[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    static final Comparator<Suggestion> BY_SCORE = Comparator
+            .comparingLong(Suggestion::score).reversed()
+            .thenComparingLong(Suggestion::id);
+
+    private final int topK;
+    private final Node root = new Node("");
+    private final Map<Long, Entry> entriesById = new HashMap<>();
+
+    private long nodeCount = 1;
+    private long labelChars;
+    private long entryChars;
+
+    public SuggestionTrie(int topK) {
+        this.topK = topK;
+    }
+
+    public int size() {
+        return entriesById.size();
+    }
+
+    public Suggestion get(long id) {
+        Entry entry = entriesById.get(id);
+        return entry != null ? entry.suggestion() : null;
+    }
+
+    /**
+     * Approximate heap used by the trie nodes, their top-K lists and the
+     * stored suggestions.
+     */
+    public long estimatedBytes() {
+        return nodeCount * (NODE_BYTES + topK * REFERENCE_BYTES)
+                + labelChars * 2
+                + entriesById.size() * ENTRY_BYTES
+                + entryChars * 2;
+    }
+
+    /**
+     * Add a suggestion under the given folded keys, replacing any previous
+     * suggestion with the same ID.
+     */
+    public void put(Suggestion suggestion, Collection<String> keys) {
+        remove(suggestion.id());
+
+        List<String> distinctKeys = new ArrayList<>(new LinkedHashSet<>(keys));
+        distinctKeys.removeIf(String::isEmpty);
+        if (distinctKeys.isEmpty()) {
+            return;
+        }
+
+        for (String key : distinctKeys) {
+            insert(key, suggestion);
+        }
+        entriesById.put(suggestion.id(), new Entry(suggestion, distinctKeys));
+        entryChars += textLength(suggestion) + distinctKeys.stream().mapToInt(String::length).sum();
+    }
+
+    public boolean remove(long id) {
+        Entry entry = entriesById.remove(id);
+        if (entry == null) {
+            return false;
+        }
+
+        for (String key : entry.keys()) {
+            delete(key, id);
+        }
+        entryChars -= textLength(entry.suggestion()) + entry.keys().stream().mapToInt(String::length).sum();
+        return true;
+    }
+
+    public void clear() {
+        root.children = NO_CHILDREN;
+        root.terminals = null;
+        root.top = NO_SUGGESTIONS;
+        entriesById.clear();
+        nodeCount = 1;
+        labelChars = 0;
+        entryChars = 0;
+    }
+
+    /**
+     * Best suggestions having a key that starts with the folded prefix, highest
+     * score first. At most {@code min(limit, topK)} are returned.
+     */
+    public List<Suggestion> complete(String prefix, int limit) {
+        Node node = root;
+        int position = 0;
+        while (position < prefix.length()) {
+            Node child = node.child(prefix.charAt(position));
+            if (child == null) {
+                return Collections.emptyList();
+            }
+
+            int common = commonPrefixLength(child.label, prefix, position);
+            if (position + common == prefix.length()) {
+                // Prefix ends on or inside this edge: the whole subtree matches
+                node = child;
+                break;
+            }
+            if (common < child.label.length()) {
+                return Collections.emptyList();
+            }
+            node = child;
+            position += common;
+        }
+
+        int count = Math.min(limit, node.top.length);
+        return List.of(Arrays.copyOf(node.top, count));
+    }
+
+    private void insert(String key, Suggestion suggestion) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+
+        int position = 0;
+        while (position < key.length()) {
+            Node child = node.child(key.charAt(position));
+            if (child == null) {
+                Node leaf = new Node(key.substring(position));
+                node.addChild(leaf);
+                nodeCount++;
+                labelChars += leaf.label.length();
+                node = leaf;
+                path.add(node);
+                break;
+            }
+
+            int common = commonPrefixLength(child.label, key, position);
+            if (common < child.label.length()) {
+                // Split the edge; the new middle node inherits the child's ranking
+                Node middle = new Node(child.label.substring(0, common));
+                middle.top = child.top;
+                node.replaceChild(middle);
+                child.label = child.label.substring(common);
+                middle.addChild(child);
+                nodeCount++;
+                child = middle;
+            }
+            node = child;
+            path.add(node);
+            position += common;
+        }
+
+        node.addTerminal(suggestion);
+        for (Node onPath : path) {
+            offer(onPath, suggestion);
+        }
+    }
+
+    private void delete(String key, long id) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+
+        int position = 0;
+        while (position < key.length()) {
+            Node child = node.child(key.charAt(position));
+            if (child == null || !key.startsWith(child.label, position)) {
+                return;
+            }
+            node = child;
+            path.add(node);
+            position += child.label.length();
+        }
+
+        if (!node.removeTerminal(id)) {
+            return;
+        }
+
+        // Walk back up: drop empty nodes, merge single-child pass-through nodes,
+        // and re-rank any node whose top list contained the suggestion
+        for (int depth = path.size() - 1; depth >= 1; depth--) {
+            Node current = path.get(depth);
+            Node parent = path.get(depth - 1);
+            if (current.terminals == null && current.children.length == 0) {
+                parent.removeChild(current.label.charAt(0));
+                nodeCount--;
+                labelChars -= current.label.length();
+            } else if (current.terminals == null && current.children.length == 1) {
+                Node only = current.children[0];
+                only.label = current.label + only.label;
+                parent.replaceChild(only);
+                nodeCount--;
+            } else if (current.topContains(id)) {
+                rerank(current);
+            }
+        }
+        if (root.topContains(id)) {
+            rerank(root);
+        }
+    }
+
+    private void offer(Node node, Suggestion suggestion) {
+        if (node.topContains(suggestion.id())) {
+            return;
+        }
+
+        Suggestion[] top = node.top;
+        if (top.length == topK && BY_SCORE.compare(suggestion, top[top.length - 1]) >= 0) {
+            return;
+        }
+
+        int insertAt = 0;
+        while (insertAt < top.length && BY_SCORE.compare(top[insertAt], suggestion) < 0) {
+            insertAt++;
+        }
+
+        int length = Math.min(top.length + 1, topK);
+        Suggestion[] updated = new Suggestion[length];
+        System.arraycopy(top, 0, updated, 0, insertAt);
+        updated[insertAt] = suggestion;
+        System.arraycopy(top, insertAt, updated, insertAt + 1, length - insertAt - 1);
+        node.top = updated;
+    }
+
+    private void rerank(Node node) {
+        List<Suggestion> candidates = new ArrayList<>();
+        if (node.terminals != null) {
+            candidates.addAll(node.terminals);
+        }
+        for (Node child : node.children) {
+            candidates.addAll(Arrays.asList(child.top));
+        }
+        candidates.sort(BY_SCORE);
+
+        Set<Long> seen = new HashSet<>();
+        List<Suggestion> top = new ArrayList<>(topK);
+        for (Suggestion candidate : candidates) {
+            if (top.size() == topK) {
+                break;
+            }
+            if (seen.add(candidate.id())) {
+                top.add(candidate);
+            }
+        }
+        node.top = top.toArray(NO_SUGGESTIONS);
+    }
+
+    private static int commonPrefixLength(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int length = 0;
+        while (length < max && label.charAt(length) == key.charAt(offset + length)) {
+            length++;
+        }
+        return length;
+    }
+
+    private static int textLength(Suggestion suggestion) {
+        return suggestion.text().length() + (suggestion.slug() != null ? suggestion.slug().length() : 0);
+    }
+
+    /**
+     * A completion candidate. Slug is only set for categories.
+     */
+    public record Suggestion(long id, String text, String slug, long score) {
+    }
+
+    private record Entry(Suggestion suggestion, List<String> keys) {
+    }
+
+    private static final class Node {
+
+        String label;
+        // Children sorted by the first character of their label
+        Node[] children = NO_CHILDREN;
+        List<Suggestion> terminals;
+        Suggestion[] top = NO_SUGGESTIONS;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        Node child(char first) {
+            int index = indexOf(first);
+            return index >= 0 ? children[index] : null;
+        }
+
+        void addChild(Node child) {
+            int index = -(indexOf(child.label.charAt(0)) + 1);
+            Node[] updated = new Node[children.length + 1];
+            System.arraycopy(children, 0, updated, 0, index);
+            updated[index] = child;
+            System.arraycopy(children, index, updated, index + 1, children.length - index);
+            children = updated;
+        }
+
+        void replaceChild(Node child) {
+            children[indexOf(child.label.charAt(0))] = child;
+        }
+
+        void removeChild(char first) {
+            int index = indexOf(first);
+            Node[] updated = new Node[children.length - 1];
+            System.arraycopy(children, 0, updated, 0, index);
+            System.arraycopy(children, index + 1, updated, index, children.length - index - 1);
+            children = updated.length == 0 ? NO_CHILDREN : updated;
+        }
+
+        void addTerminal(Suggestion suggestion) {
+            if (terminals == null) {
+                terminals = new ArrayList<>(1);
+            }
+            terminals.add(suggestion);
+        }
+
+        boolean removeTerminal(long id) {
+            if (terminals == null || !terminals.removeIf(suggestion -> suggestion.id() == id)) {
+                return false;
+            }
+            if (terminals.isEmpty()) {
+                terminals = null;
+            }
+            return true;
+        }
+
+        boolean topContains(long id) {
+            for (Suggestion suggestion : top) {
+                if (suggestion.id() == id) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private int indexOf(char first) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char midChar = children[mid].label.charAt(0);
+                if (midChar < first) {
+                    low = mid + 1;
+                } else if (midChar > first) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+    }
+}
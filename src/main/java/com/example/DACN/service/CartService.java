@@ -6,6 +6,7 @@ import com.example.DACN.entity.Cart;
 import com.example.DACN.entity.CartItem;
 import com.example.DACN.entity.Product;
 import com.example.DACN.entity.User;
+import com.example.DACN.event.OrderCreatedEvent;
 import com.example.DACN.exception.ResourceNotFoundException;
 import com.example.DACN.mapper.CartMapper;
 import com.example.DACN.repository.CartItemRepository;
@@ -14,6 +15,7 @@ import com.example.DACN.repository.ProductRepository;
 import com.example.DACN.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -163,4 +165,19 @@ public class CartService {
 
                 return cartMapper.toCartItemResponse(savedItem);
         }
+
+        /**
+         * Remove ordered products from the customer's cart once the order has
+         * committed. Only items already in the cart when the order was placed
+         * are removed, so a redelivered event never takes out items added
+         * since.
+         */
+        @EventListener
+        public void onOrderCreated(OrderCreatedEvent event) {
+                cartRepository.findByUserUserId(event.getUserId()).ifPresent(cart -> {
+                        int removed = cartItemRepository.deleteByCartIdAndProductIdsAddedBefore(cart.getCartId(),
+                                        event.getProductIds(), event.getPlacedAt());
+                        log.info("Removed {} products of order {} from cart", removed, event.getOrderId());
+                });
+        }
 }
@@ -5,12 +5,16 @@ import com.example.DACN.dto.request.UpdateCategoryRequest;
 import com.example.DACN.dto.response.CategoryResponse;
 import com.example.DACN.dto.response.CategoryTreeResponse;
 import com.example.DACN.entity.Category;
+import com.example.DACN.event.CategoryChangedEvent;
 import com.example.DACN.exception.DuplicateResourceException;
 import com.example.DACN.exception.ResourceNotFoundException;
 import com.example.DACN.mapper.CategoryMapper;
 import com.example.DACN.repository.CategoryRepository;
+import com.example.DACN.repository.ProductRepository;
+import com.example.DACN.util.CategoryPathUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -20,6 +24,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,6 +35,9 @@ public class CategoryService {
     private final CategoryRepository categoryRepository;
     private final CloudinaryService cloudinaryService;
     private final CategoryMapper categoryMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductRepository productRepository;
+    private final ProductCountService productCountService;
 
     /**
      * Create a new category with optional icon upload
@@ -71,9 +79,13 @@ public class CategoryService {
             log.info("Icon uploaded successfully: {}", iconUrl);
         }
 
-        // Save category
+        // Save category, then derive its path from the generated ID
         Category savedCategory = categoryRepository.save(category);
+        savedCategory.setPath(CategoryPathUtil.childPath(
+                category.getParent() != null ? category.getParent().getPath() : null,
+                savedCategory.getCategoryId()));
         log.info("Category created successfully with ID: {}", savedCategory.getCategoryId());
+        eventPublisher.publishEvent(new CategoryChangedEvent(savedCategory.getCategoryId()));
 
         // Map to response
         return categoryMapper.toCategoryResponse(savedCategory);
@@ -125,9 +137,29 @@ public class CategoryService {
             if (parentCategory.getCategoryId().equals(categoryId)) {
                 throw new IllegalArgumentException("Category cannot be its own parent");
             }
+            if (category.getPath() != null && parentCategory.getPath() != null
+                    && parentCategory.getPath().startsWith(category.getPath())) {
+                throw new IllegalArgumentException("Category cannot be moved under its own subcategory");
+            }
 
+            boolean moved = category.getParent() == null
+                    || !category.getParent().getCategoryId().equals(parentCategory.getCategoryId());
             category.setParent(parentCategory);
             log.info("Updated parent category ID to: {}", request.getParentId());
+
+            // Re-root the category and its whole subtree under the new parent's path
+            if (moved) {
+                String oldPath = category.getPath();
+                String newPath = CategoryPathUtil.childPath(parentCategory.getPath(), categoryId);
+                category.setPath(newPath);
+                if (oldPath != null) {
+                    int descendants = categoryRepository.updateDescendantPaths(categoryId,
+                            CategoryPathUtil.subtreePattern(oldPath), oldPath.length(), newPath);
+                    log.info("Moved {} subcategories from path {} to {}", descendants, oldPath, newPath);
+                    productCountService.moveCategory(oldPath, newPath,
+                            category.getActiveProductCount() != null ? category.getActiveProductCount() : 0);
+                }
+            }
         }
 
         // Upload new icon to Cloudinary if provided
@@ -148,6 +180,7 @@ public class CategoryService {
         // Save updated category
         Category updatedCategory = categoryRepository.save(category);
         log.info("Category updated successfully with ID: {}", updatedCategory.getCategoryId());
+        eventPublisher.publishEvent(new CategoryChangedEvent(updatedCategory.getCategoryId()));
 
         // Map to response
         return categoryMapper.toCategoryResponse(updatedCategory);
@@ -168,9 +201,9 @@ public class CategoryService {
             throw new ResourceNotFoundException("Category has already been deleted");
         }
 
-        // Check if category has products
-        if (category.getProducts() != null && !category.getProducts().isEmpty()) {
-            log.warn("Cannot delete category ID {} - has {} products", categoryId, category.getProducts().size());
+        // Check if category has products (an indexed existence probe, not a collection load)
+        if (productRepository.existsByCategoryCategoryId(categoryId)) {
+            log.warn("Cannot delete category ID {} - has products", categoryId);
             throw new IllegalStateException("Cannot delete category with existing products");
         }
 
@@ -178,11 +211,89 @@ public class CategoryService {
         category.setHasDeleted(true);
         Category deletedCategory = categoryRepository.save(category);
         log.info("Category soft deleted successfully with ID: {}", deletedCategory.getCategoryId());
+        eventPublisher.publishEvent(new CategoryChangedEvent(deletedCategory.getCategoryId()));
 
         // Map to response
         return categoryMapper.toCategoryResponse(deletedCategory);
     }
 
+    /**
+     * Ancestors of a category from the root down to the category itself, read
+     * off its materialized path with one lookup however deep it sits.
+     */
+    @Transactional(readOnly = true)
+    public List<CategoryResponse> getBreadcrumb(Long categoryId) {
+        Category category = categoryRepository.findById(categoryId)
+                .orElseThrow(() -> new ResourceNotFoundException("Category not found"));
+
+        if (category.getHasDeleted()) {
+            throw new ResourceNotFoundException("Category has been deleted");
+        }
+        if (category.getPath() == null) {
+            return List.of(categoryMapper.toCategoryResponse(category));
+        }
+
+        List<Long> ancestorIds = CategoryPathUtil.ancestorIds(category.getPath());
+        Map<Long, Category> ancestors = new HashMap<>();
+        categoryRepository.findAllById(ancestorIds.subList(0, ancestorIds.size() - 1))
+                .forEach(ancestor -> ancestors.put(ancestor.getCategoryId(), ancestor));
+        ancestors.put(categoryId, category);
+
+        return ancestorIds.stream()
+                .map(ancestors::get)
+                .filter(Objects::nonNull)
+                .map(categoryMapper::toCategoryResponse)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Recompute every category's materialized path from the parent links and
+     * store the ones that differ. Used on startup to fill paths for categories
+     * created before the column existed.
+     *
+     * @return number of categories whose path changed
+     */
+    @Transactional
+    public int rebuildPaths() {
+        List<Category> allCategories = categoryRepository.findAll();
+        Map<Long, Category> byId = new HashMap<>();
+        allCategories.forEach(category -> byId.put(category.getCategoryId(), category));
+
+        Map<Long, String> paths = new HashMap<>();
+        List<Category> changed = new ArrayList<>();
+        for (Category category : allCategories) {
+            String path = resolvePath(category, byId, paths);
+            if (!path.equals(category.getPath())) {
+                category.setPath(path);
+                changed.add(category);
+            }
+        }
+
+        categoryRepository.saveAll(changed);
+        return changed.size();
+    }
+
+    private String resolvePath(Category category, Map<Long, Category> byId, Map<Long, String> paths) {
+        // Walk up to the nearest ancestor with a known path, then fill in paths on the way back down
+        List<Category> chain = new ArrayList<>();
+        Category current = category;
+        while (current != null && !paths.containsKey(current.getCategoryId())) {
+            if (chain.size() > byId.size()) {
+                throw new IllegalStateException("Category " + category.getCategoryId() + " has a parent cycle");
+            }
+            chain.add(current);
+            current = current.getParent() != null ? byId.get(current.getParent().getCategoryId()) : null;
+        }
+
+        String path = current != null ? paths.get(current.getCategoryId()) : null;
+        for (int i = chain.size() - 1; i >= 0; i--) {
+            Long id = chain.get(i).getCategoryId();
+            path = CategoryPathUtil.childPath(path, id);
+            paths.put(id, path);
+        }
+        return path;
+    }
+
     /**
      * Get all categories in tree structure
      */
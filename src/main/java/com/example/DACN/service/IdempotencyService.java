@@ -0,0 +1,280 @@
+package com.example.DACN.service;
+
+import com.example.DACN.entity.IdempotencyRecord;
+import com.example.DACN.exception.DuplicateResourceException;
+import com.example.DACN.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request at most once per idempotency key and answers retries with
+ * the first response. Completed responses are kept in a bounded in-memory LRU
+ * in front of the {@code idempotency_keys} table; a retry arriving while the
+ * first copy still runs on this instance waits for its result. The first copy
+ * claims the key by inserting its row, so copies racing on different
+ * instances are told to retry instead of running twice.
+ * <p>
+ * A request that fails releases its key, so the client can retry it. A claim
+ * is leased: if its instance dies mid-request, the first retry after the lease
+ * runs out takes the key over instead of being told to retry until the row
+ * expires.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    private static final long POLL_INTERVAL_MS = 100;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final Cache<String, IdempotencyRecord> completed;
+    private final ConcurrentMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final long waitTimeoutMs;
+    private final Duration lease;
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+            ObjectMapper objectMapper,
+            @Value("${idempotency.cache.max-size:10000}") long maxSize,
+            @Value("${idempotency.retention-hours:24}") long retentionHours,
+            @Value("${idempotency.wait-timeout-seconds:30}") long waitTimeoutSeconds,
+            @Value("${idempotency.lease-seconds:300}") long leaseSeconds) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofHours(retentionHours))
+                .build();
+        this.waitTimeoutMs = TimeUnit.SECONDS.toMillis(waitTimeoutSeconds);
+        this.lease = Duration.ofSeconds(leaseSeconds);
+    }
+
+    /**
+     * Run the action once for the key and return its result, or the result of
+     * the first run if the key was seen before. Requests without a key always
+     * run. Reusing a key for a different request is rejected.
+     *
+     * @param scope   operation and caller the key belongs to, so keys of
+     *                different users or endpoints never collide
+     * @param request request body, compared with the first request's
+     */
+    public <T> T execute(String scope, String key, Object request, Class<T> responseType, Supplier<T> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        String cacheKey = scope + ":" + key;
+        String requestHash = hash(request);
+
+        // 1. Answer from memory
+        IdempotencyRecord cached = completed.getIfPresent(cacheKey);
+        if (cached != null) {
+            return replay(cached, requestHash, responseType);
+        }
+
+        // 2. Wait for a copy already running on this instance
+        CompletableFuture<String> mine = new CompletableFuture<>();
+        InFlight running = inFlight.putIfAbsent(cacheKey, new InFlight(requestHash, mine));
+        if (running != null) {
+            checkSameRequest(running.requestHash(), requestHash);
+            log.info("Waiting for the first request with idempotency key {}", cacheKey);
+            return read(await(running.response()), responseType);
+        }
+
+        try {
+            // 3. Answer from the table, or claim the key
+            String claimToken = UUID.randomUUID().toString();
+            Optional<IdempotencyRecord> stored = claim(scope, key, requestHash, claimToken);
+            if (stored.isPresent()) {
+                completed.put(cacheKey, stored.get());
+                mine.complete(stored.get().getResponseBody());
+                return replay(stored.get(), requestHash, responseType);
+            }
+
+            // 4. Run the request and store its response
+            T response;
+            try {
+                response = action.get();
+            } catch (RuntimeException e) {
+                idempotencyRecordRepository.findByScopeAndIdempotencyKey(scope, key)
+                        .filter(record -> claimToken.equals(record.getClaimToken()))
+                        .ifPresent(idempotencyRecordRepository::delete);
+                mine.completeExceptionally(e);
+                throw e;
+            }
+
+            String responseBody = write(response);
+            complete(scope, key, claimToken, responseBody).ifPresent(record -> completed.put(cacheKey, record));
+            mine.complete(responseBody);
+            return response;
+        } catch (RuntimeException e) {
+            // Never leave waiters hanging, e.g. if storing the response failed
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(cacheKey);
+        }
+    }
+
+    public int deleteCreatedBefore(LocalDateTime cutoff) {
+        return idempotencyRecordRepository.deleteCreatedBefore(cutoff);
+    }
+
+    /**
+     * Delete in-progress claims whose lease ran out, left by instances that
+     * died mid-request.
+     */
+    public int deleteAbandonedClaims() {
+        return idempotencyRecordRepository.deleteInProgressClaimedBefore(LocalDateTime.now().minus(lease));
+    }
+
+    /**
+     * Insert the in-progress row for the key. Returns the stored record if the
+     * key already completed; a copy still running elsewhere is waited for up
+     * to the timeout, and a claim whose lease ran out is taken over.
+     */
+    private Optional<IdempotencyRecord> claim(String scope, String key, String requestHash, String claimToken) {
+        long deadline = System.currentTimeMillis() + waitTimeoutMs;
+        while (true) {
+            Optional<IdempotencyRecord> existing = idempotencyRecordRepository.findByScopeAndIdempotencyKey(scope, key);
+            if (existing.isEmpty()) {
+                IdempotencyRecord record = new IdempotencyRecord();
+                record.setScope(scope);
+                record.setIdempotencyKey(key);
+                record.setRequestHash(requestHash);
+                record.setStatus(IdempotencyRecord.STATUS_IN_PROGRESS);
+                record.setClaimToken(claimToken);
+                record.setClaimedAt(LocalDateTime.now());
+                try {
+                    idempotencyRecordRepository.saveAndFlush(record);
+                    return Optional.empty();
+                } catch (DataIntegrityViolationException e) {
+                    // Another instance claimed the key first
+                    log.debug("Idempotency key {}:{} claimed concurrently", scope, key);
+                }
+            } else if (IdempotencyRecord.STATUS_COMPLETED.equals(existing.get().getStatus())) {
+                return existing;
+            } else if (isAbandoned(existing.get())) {
+                IdempotencyRecord abandoned = existing.get();
+                checkSameRequest(abandoned.getRequestHash(), requestHash);
+                String staleToken = abandoned.getClaimToken() != null ? abandoned.getClaimToken() : "";
+                if (idempotencyRecordRepository.takeOver(abandoned.getRecordId(), staleToken, claimToken,
+                        LocalDateTime.now()) > 0) {
+                    log.warn("Took over abandoned idempotency key {}:{} claimed at {}", scope, key,
+                            abandoned.getClaimedAt());
+                    return Optional.empty();
+                }
+            }
+
+            if (System.currentTimeMillis() >= deadline) {
+                throw new DuplicateResourceException(
+                        "A request with this Idempotency-Key is still being processed, retry later");
+            }
+            sleep();
+        }
+    }
+
+    private boolean isAbandoned(IdempotencyRecord record) {
+        LocalDateTime claimedAt = record.getClaimedAt() != null ? record.getClaimedAt() : record.getCreatedAt();
+        return claimedAt != null && claimedAt.isBefore(LocalDateTime.now().minus(lease));
+    }
+
+    /**
+     * Store the response on the key. Empty if the claim outlived its lease and
+     * was taken over; the new owner's response is the one kept.
+     */
+    private Optional<IdempotencyRecord> complete(String scope, String key, String claimToken, String responseBody) {
+        IdempotencyRecord record = idempotencyRecordRepository.findByScopeAndIdempotencyKey(scope, key)
+                .orElseThrow(() -> new IllegalStateException("Idempotency key " + key + " was released"));
+        if (!claimToken.equals(record.getClaimToken())) {
+            log.warn("Idempotency key {}:{} was taken over before its request completed", scope, key);
+            return Optional.empty();
+        }
+        record.setStatus(IdempotencyRecord.STATUS_COMPLETED);
+        record.setResponseBody(responseBody);
+        record.setCompletedAt(LocalDateTime.now());
+        return Optional.of(idempotencyRecordRepository.save(record));
+    }
+
+    private <T> T replay(IdempotencyRecord record, String requestHash, Class<T> responseType) {
+        checkSameRequest(record.getRequestHash(), requestHash);
+        log.info("Replaying stored response for idempotency key {}:{}", record.getScope(),
+                record.getIdempotencyKey());
+        return read(record.getResponseBody(), responseType);
+    }
+
+    private void checkSameRequest(String firstHash, String requestHash) {
+        if (!firstHash.equals(requestHash)) {
+            throw new IllegalArgumentException("Idempotency-Key was already used for a different request");
+        }
+    }
+
+    private String await(CompletableFuture<String> running) {
+        try {
+            return running.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            // The first request failed; fail the same way
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Request failed: " + e.getCause().getMessage());
+        } catch (TimeoutException e) {
+            throw new DuplicateResourceException(
+                    "A request with this Idempotency-Key is still being processed, retry later");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the first request");
+        }
+    }
+
+    private void sleep() {
+        try {
+            Thread.sleep(POLL_INTERVAL_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the first request");
+        }
+    }
+
+    private String hash(Object request) {
+        return DigestUtils.md5DigestAsHex(write(request).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String write(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize idempotent response", e);
+        }
+    }
+
+    private <T> T read(String json, Class<T> responseType) {
+        try {
+            return objectMapper.readValue(json, responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to read stored idempotent response", e);
+        }
+    }
+
+    // Request hash and pending response of a request running on this instance
+    private record InFlight(String requestHash, CompletableFuture<String> response) {
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.DACN.service;
+
+import com.example.DACN.entity.Notification;
+import com.example.DACN.entity.User;
+import com.example.DACN.event.OrderCancelledEvent;
+import com.example.DACN.event.OrderCreatedEvent;
+import com.example.DACN.event.OrderPaidEvent;
+import com.example.DACN.event.OrderStatusChangedEvent;
+import com.example.DACN.repository.NotificationRepository;
+import com.example.DACN.repository.ShopRepository;
+import com.example.DACN.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * In-app notifications about orders, written from the order events after the
+ * order change committed: sellers hear about new orders, customers about
+ * everything that happens to theirs.
+ * <p>
+ * The outbox delivers an event again whenever any of its listeners failed, so
+ * each notification carries a key naming the event it was written for and an
+ * event that was already notified is skipped. The key is unique, so of two
+ * dispatchers racing on the same event one fails and skips on its retry.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationService {
+
+    private static final String TYPE_ORDER = "Order";
+
+    private final NotificationRepository notificationRepository;
+    private final UserRepository userRepository;
+    private final ShopRepository shopRepository;
+
+    @EventListener
+    @Transactional
+    public void onOrderCreated(OrderCreatedEvent event) {
+        String eventKey = "OrderCreated:" + event.getOrderId();
+        if (notificationRepository.existsByEventKey(eventKey)) {
+            return;
+        }
+        shopRepository.findById(event.getShopId()).ifPresent(shop -> notify(eventKey, shop.getUser(),
+                "New order #" + event.getOrderId(),
+                "You received order #" + event.getOrderId() + " of " + event.getFinalAmount()
+                        + " paid by " + event.getPaymentMethod() + "."));
+    }
+
+    @EventListener
+    @Transactional
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        // An order reaches each status once
+        String eventKey = "OrderStatusChanged:" + event.getOrderId() + ":" + event.getToStatus();
+        if (notificationRepository.existsByEventKey(eventKey)) {
+            return;
+        }
+        notify(eventKey, userRepository.getReferenceById(event.getUserId()),
+                "Order #" + event.getOrderId() + " is " + event.getToStatus(),
+                "Your order #" + event.getOrderId() + " moved from " + event.getFromStatus() + " to "
+                        + event.getToStatus() + ".");
+    }
+
+    @EventListener
+    @Transactional
+    public void onOrderCancelled(OrderCancelledEvent event) {
+        String eventKey = "OrderCancelled:" + event.getOrderId();
+        if (notificationRepository.existsByEventKey(eventKey)) {
+            return;
+        }
+        notify(eventKey, userRepository.getReferenceById(event.getUserId()),
+                "Order #" + event.getOrderId() + " cancelled",
+                event.getReason());
+    }
+
+    @EventListener
+    @Transactional
+    public void onOrderPaid(OrderPaidEvent event) {
+        String eventKey = "OrderPaid:" + event.getOrderId();
+        if (notificationRepository.existsByEventKey(eventKey)) {
+            return;
+        }
+        notify(eventKey, userRepository.getReferenceById(event.getUserId()),
+                "Payment received for order #" + event.getOrderId(),
+                "We received your payment of " + event.getAmount() + ". Transaction ID: "
+                        + event.getTransactionId());
+    }
+
+    private void notify(String eventKey, User user, String title, String content) {
+        Notification notification = new Notification();
+        notification.setEventKey(eventKey);
+        notification.setUser(user);
+        notification.setTitle(title);
+        notification.setContent(content);
+        notification.setType(TYPE_ORDER);
+        notification.setIsRead(false);
+        notificationRepository.save(notification);
+    }
+}
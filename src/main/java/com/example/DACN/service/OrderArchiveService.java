@@ -0,0 +1,152 @@
+package com.example.DACN.service;
+
+import com.example.DACN.dto.request.SellerOrderSearchRequest;
+import com.example.DACN.dto.response.CustomerOrderResponse;
+import com.example.DACN.dto.response.OrderStatusHistoryResponse;
+import com.example.DACN.dto.response.SellerOrderResponse;
+import com.example.DACN.entity.ArchivedOrder;
+import com.example.DACN.entity.User;
+import com.example.DACN.mapper.OrderMapper;
+import com.example.DACN.repository.ArchivedOrderRepository;
+import com.example.DACN.repository.ArchivedOrderStatusHistoryRepository;
+import com.example.DACN.repository.OrderRepository;
+import com.example.DACN.repository.ShopRepository;
+import com.example.DACN.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Moves orders that were finished long ago out of the hot order tables into
+ * the archive tables, and reads them back for the order history endpoints.
+ * Every batch moves orders together with their items, status history and
+ * payments in one transaction, so an order is always wholly in one place.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderArchiveService {
+
+    // Statuses an order never leaves
+    public static final List<String> FINAL_STATUSES = List.of("Delivered", "Completed", "Cancelled");
+
+    private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final ArchivedOrderStatusHistoryRepository archivedOrderStatusHistoryRepository;
+    private final UserRepository userRepository;
+    private final ShopRepository shopRepository;
+    private final OrderMapper orderMapper;
+
+    /**
+     * Up to {@code batchSize} orders that have been in a final status since
+     * before the cutoff, longest finished first.
+     */
+    @Transactional(readOnly = true)
+    public List<Long> findArchivableIds(LocalDateTime cutoff, int batchSize) {
+        return orderRepository.findArchivableIds(FINAL_STATUSES, cutoff, PageRequest.of(0, batchSize));
+    }
+
+    /**
+     * Move the given orders to the archive tables. Returns how many orders
+     * were moved.
+     */
+    @Transactional
+    public int archiveBatch(List<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+
+        // 1. Copy the orders and their children while the joins to orders still work
+        int orders = archivedOrderRepository.copyOrders(orderIds, LocalDateTime.now());
+        archivedOrderRepository.copyOrderItems(orderIds);
+        archivedOrderRepository.copyStatusHistory(orderIds);
+        archivedOrderRepository.copyPayments(orderIds);
+
+        // 2. Drop the references that have no archive copy; used vouchers stay used
+        archivedOrderRepository.detachVouchers(orderIds);
+        archivedOrderRepository.deleteStockReservations(orderIds);
+
+        // 3. Delete from the hot tables, children first
+        archivedOrderRepository.deletePayments(orderIds);
+        archivedOrderRepository.deleteStatusHistory(orderIds);
+        archivedOrderRepository.deleteOrderItems(orderIds);
+        archivedOrderRepository.deleteOrders(orderIds);
+
+        log.debug("Archived {} orders", orders);
+        return orders;
+    }
+
+    /**
+     * Status history of an archived order, or empty if the order is not in the
+     * archive. Only the customer and the seller of the order may see it.
+     */
+    @Transactional(readOnly = true)
+    public Optional<List<OrderStatusHistoryResponse>> findOrderHistory(Long orderId, String userEmail) {
+        Optional<ArchivedOrder> found = archivedOrderRepository.findByOrderIdAndHasDeletedFalse(orderId);
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        ArchivedOrder order = found.get();
+
+        UUID viewerId = userRepository.findByEmail(userEmail).map(User::getUserId).orElse(null);
+        boolean isCustomer = order.getUserId().equals(viewerId);
+        boolean isSeller = viewerId != null && shopRepository.findById(order.getShopId())
+                .map(shop -> viewerId.equals(shop.getUser().getUserId()))
+                .orElse(false);
+        if (!isCustomer && !isSeller) {
+            throw new IllegalArgumentException("You do not have permission to view this order history");
+        }
+
+        return Optional.of(archivedOrderStatusHistoryRepository.findByOrderIdOrderByCreatedAtDesc(orderId).stream()
+                .map(orderMapper::toArchivedOrderStatusHistoryResponse)
+                .toList());
+    }
+
+    /**
+     * Up to {@code limit} archived orders of a customer after the keyset
+     * cursor, newest first.
+     */
+    @Transactional(readOnly = true)
+    public List<CustomerOrderResponse> findCustomerOrders(UUID userId, LocalDateTime cursorCreatedAt,
+            Long cursorOrderId, int limit) {
+        return archivedOrderRepository.findCustomerOrderPage(userId, cursorCreatedAt, cursorOrderId,
+                PageRequest.of(0, limit));
+    }
+
+    /**
+     * Up to {@code limit} archived orders of a shop after the keyset cursor,
+     * newest first. Archived orders are all in a final status, so other
+     * status filters do not touch the archive.
+     */
+    @Transactional(readOnly = true)
+    public List<SellerOrderResponse> findSellerOrders(Long shopId, String status, LocalDateTime cursorCreatedAt,
+            Long cursorOrderId, int limit) {
+        if (status != null && !FINAL_STATUSES.contains(status)) {
+            return List.of();
+        }
+        return archivedOrderRepository.findSellerOrderPage(shopId, status, cursorCreatedAt, cursorOrderId,
+                PageRequest.of(0, limit));
+    }
+
+    /**
+     * Up to {@code limit} archived orders of a shop matching a seller order
+     * search, within the bounds the live search used.
+     */
+    @Transactional(readOnly = true)
+    public List<SellerOrderResponse> searchSellerOrders(Long shopId, SellerOrderSearchRequest search,
+            LocalDateTime fromCreatedAt, LocalDateTime toCreatedAt, long toOrderId, int limit) {
+        if (search.getStatus() != null && !FINAL_STATUSES.contains(search.getStatus())) {
+            return List.of();
+        }
+        return archivedOrderRepository.searchSellerOrders(shopId, fromCreatedAt, toCreatedAt, toOrderId,
+                search.getStatus(), search.getPaymentMethod(), search.getMinAmount(), search.getMaxAmount(),
+                search.getCustomerEmail(), PageRequest.of(0, limit));
+    }
+}
@@ -1,27 +1,57 @@
 package com.example.DACN.service;
 
+import com.example.DACN.dto.request.CheckoutRequest;
 import com.example.DACN.dto.request.CreateOrderRequest;
+import com.example.DACN.dto.request.SellerOrderSearchRequest;
+import com.example.DACN.dto.response.CheckoutResponse;
 import com.example.DACN.dto.response.CreateOrderResponse;
+import com.example.DACN.dto.response.CustomerOrderListResponse;
+import com.example.DACN.dto.response.CustomerOrderResponse;
+import com.example.DACN.dto.response.SellerOrderListResponse;
+import com.example.DACN.dto.response.SellerOrderResponse;
 import com.example.DACN.entity.*;
+import com.example.DACN.event.OrderCancelledEvent;
+import com.example.DACN.event.OrderCreatedEvent;
+import com.example.DACN.event.OrderStatusChangedEvent;
+import com.example.DACN.event.ProductChangedEvent;
 import com.example.DACN.exception.ResourceNotFoundException;
 import com.example.DACN.mapper.OrderMapper;
 import com.example.DACN.repository.*;
+import com.example.DACN.util.CursorUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class OrderService {
 
+    private static final long SEARCH_DEFAULT_DAYS = 90;
+    private static final long SEARCH_MAX_DAYS = 366;
+
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
     private final OrderStatusHistoryRepository orderStatusHistoryRepository;
@@ -29,15 +59,58 @@ public class OrderService {
     private final ShopRepository shopRepository;
     private final UserVoucherRepository userVoucherRepository;
     private final UserAddressRepository userAddressRepository;
-    private final CartItemRepository cartItemRepository;
-    private final CartRepository cartRepository;
     private final PaypalService paypalService;
+    private final StockReservationService stockReservationService;
+    private final SalesRollupService salesRollupService;
+    private final OutboxService outboxService;
+    private final OrderArchiveService orderArchiveService;
     private final OrderMapper orderMapper;
-
-    @Transactional
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Create an order. The order and its stock are committed before PayPal is
+     * called, so no database connection waits on PayPal; if PayPal fails, the
+     * order is cancelled again in a second transaction. A PayPal order is only
+     * announced, clearing the cart and notifying the seller, once its payment
+     * was created.
+     */
     public CreateOrderResponse createOrder(CreateOrderRequest request, UUID userId) {
         log.info("Creating order for user: {} from shop: {}", userId, request.getShopId());
 
+        // 1-9. Create the order
+        List<OrderCreatedEvent> created = new ArrayList<>();
+        Order savedOrder = transactionTemplate.execute(status -> placeOrder(request, userId, created));
+
+        // 11. Create PayPal payment if payment method is PAYPAL
+        CreateOrderResponse response = orderMapper.toCreateOrderResponse(savedOrder);
+
+        if ("PAYPAL".equals(request.getPaymentMethod())) {
+            java.util.Map<String, String> paypalResult;
+            try {
+                log.info("Creating PayPal payment for order: {}", savedOrder.getOrderId());
+                // Pass orderId to PayPal for tracking and callback
+                paypalResult = paypalService.createOrder(savedOrder.getFinalAmount(), savedOrder.getOrderId());
+                String approvalUrl = paypalResult.get("approvalUrl");
+                response.setPaymentUrl(approvalUrl);
+                log.info("PayPal payment created successfully with approval URL");
+            } catch (Exception e) {
+                log.error("Failed to create PayPal payment for order: {}", savedOrder.getOrderId(), e);
+                abandonOrders(List.of(savedOrder.getOrderId()));
+                throw new IllegalStateException("Failed to create PayPal payment: " + e.getMessage());
+            }
+            linkPayPalOrder(List.of(savedOrder.getOrderId()), paypalResult.get("orderId"), created);
+        } else {
+            // COD payment - no payment URL needed
+            response.setPaymentUrl(null);
+            log.info("COD payment selected - no payment URL required");
+        }
+
+        return response;
+    }
+
+    private Order placeOrder(CreateOrderRequest request, UUID userId, List<OrderCreatedEvent> created) {
+
         // 1. Validate shop exists and is active
         Shop shop = shopRepository.findByShopIdAndHasDeletedFalse(request.getShopId())
                 .orElseThrow(() -> new ResourceNotFoundException("Shop not found with ID: " + request.getShopId()));
@@ -63,10 +136,18 @@ public class OrderService {
         List<OrderItemData> orderItemsData = new ArrayList<>();
         BigDecimal totalAmount = BigDecimal.ZERO;
 
+        // Read every product of the order in one statement
+        Map<Long, Integer> quantities = new TreeMap<>();
+        request.getItems().forEach(item -> quantities.merge(item.getProductId(), item.getQty(), Integer::sum));
+        Map<Long, Product> products = new HashMap<>();
+        productRepository.findAllForCheckout(quantities.keySet())
+                .forEach(product -> products.put(product.getProductId(), product));
+
         for (CreateOrderRequest.OrderItemRequest item : request.getItems()) {
-            Product product = productRepository.findByProductIdAndHasDeletedFalse(item.getProductId())
-                    .orElseThrow(
-                            () -> new ResourceNotFoundException("Product not found with ID: " + item.getProductId()));
+            Product product = products.get(item.getProductId());
+            if (product == null) {
+                throw new ResourceNotFoundException("Product not found with ID: " + item.getProductId());
+            }
 
             // Validate product belongs to the shop
             if (!product.getShop().getShopId().equals(request.getShopId())) {
@@ -79,7 +160,8 @@ public class OrderService {
                 throw new IllegalArgumentException("Product " + product.getName() + " is not active");
             }
 
-            // Validate stock
+            // Validate stock; this read is only a fast path, the conditional
+            // decrement below decides
             if (product.getStockQuantity() < item.getQty()) {
                 throw new IllegalArgumentException("Insufficient stock for product: " + product.getName() +
                         ". Available: " + product.getStockQuantity() + ", Requested: " + item.getQty());
@@ -92,6 +174,8 @@ public class OrderService {
             orderItemsData.add(new OrderItemData(product, item.getQty(), product.getPrice()));
         }
 
+        takeStock(quantities, products);
+
         // 4. Apply voucher discount if provided
         BigDecimal voucherDiscount = BigDecimal.ZERO;
         UserVoucher userVoucher = null;
@@ -101,44 +185,7 @@ public class OrderService {
                     .findByUserUserIdAndVoucherVoucherIdAndIsUsedFalse(userId, request.getVoucherId())
                     .orElseThrow(() -> new ResourceNotFoundException("Voucher not found or already used"));
 
-            Voucher voucher = userVoucher.getVoucher();
-
-            // Validate voucher is not deleted
-            if (voucher.getHasDeleted()) {
-                throw new IllegalArgumentException("Voucher has been deleted");
-            }
-
-            // Validate voucher date range
-            LocalDateTime now = LocalDateTime.now();
-            if (now.isBefore(voucher.getStartDate()) || now.isAfter(voucher.getEndDate())) {
-                throw new IllegalArgumentException("Voucher is not valid at this time");
-            }
-
-            // Validate minimum order value
-            if (voucher.getMinOrderValue() != null && totalAmount.compareTo(voucher.getMinOrderValue()) < 0) {
-                throw new IllegalArgumentException("Order total does not meet minimum order value for voucher");
-            }
-
-            // Validate voucher belongs to shop or is platform voucher
-            if (voucher.getShop() != null && !voucher.getShop().getShopId().equals(request.getShopId())) {
-                throw new IllegalArgumentException("Voucher does not belong to this shop");
-            }
-
-            // Calculate discount
-            if ("PERCENT".equals(voucher.getDiscountType())) {
-                voucherDiscount = totalAmount.multiply(voucher.getDiscountValue()).divide(BigDecimal.valueOf(100));
-                if (voucher.getMaxDiscountAmount() != null
-                        && voucherDiscount.compareTo(voucher.getMaxDiscountAmount()) > 0) {
-                    voucherDiscount = voucher.getMaxDiscountAmount();
-                }
-            } else if ("FIXED".equals(voucher.getDiscountType())) {
-                voucherDiscount = voucher.getDiscountValue();
-            }
-
-            // Ensure discount doesn't exceed total
-            if (voucherDiscount.compareTo(totalAmount) > 0) {
-                voucherDiscount = totalAmount;
-            }
+            voucherDiscount = calculateVoucherDiscount(userVoucher.getVoucher(), totalAmount, request.getShopId());
         }
 
         // 5. Calculate final amount
@@ -153,27 +200,31 @@ public class OrderService {
         order.setFinalAmount(finalAmount);
         order.setPaymentMethod(request.getPaymentMethod());
         order.setHasDeleted(false);
+        order.setCurrentStatus("Pending");
+        order.setStatusUpdatedAt(LocalDateTime.now());
 
         Order savedOrder = orderRepository.save(order);
         log.info("Order created with ID: {}", savedOrder.getOrderId());
 
-        // 7. Create order items and update product stock
+        // 7. Create order items; stock was taken in step 3
+        List<OrderItem> orderItems = new ArrayList<>();
         for (OrderItemData itemData : orderItemsData) {
             OrderItem orderItem = new OrderItem();
             orderItem.setOrder(savedOrder);
             orderItem.setProduct(itemData.getProduct());
             orderItem.setQuantity(itemData.getQuantity());
             orderItem.setPriceAtPurchase(itemData.getPrice());
-            orderItemRepository.save(orderItem);
+            orderItems.add(orderItem);
+        }
+        orderItemRepository.insertAll(orderItems);
+        salesRollupService.recordOrderPlaced(savedOrder, orderItems);
 
-            // Update product stock and sold count
-            Product product = itemData.getProduct();
-            product.setStockQuantity(product.getStockQuantity() - itemData.getQuantity());
-            product.setSoldCount(product.getSoldCount() + itemData.getQuantity());
-            productRepository.save(product);
-            log.info("Updated product {} - Stock: {}, Sold: {}",
-                    product.getProductId(), product.getStockQuantity(), product.getSoldCount());
+        // Unpaid PayPal orders only hold the stock until they are paid or expire
+        if ("PAYPAL".equals(request.getPaymentMethod())) {
+            stockReservationService.hold(savedOrder, quantities, products);
         }
+        quantities.keySet().forEach(productId -> eventPublisher.publishEvent(
+                new ProductChangedEvent(productId, ProductChangedEvent.ChangeType.STOCK_CHANGED)));
 
         // 8. Create order status history
         OrderStatusHistory statusHistory = new OrderStatusHistory();
@@ -183,6 +234,11 @@ public class OrderService {
         orderStatusHistoryRepository.save(statusHistory);
         log.info("Order status history created: Pending");
 
+        // Cart cleanup and notifications follow from the event after commit
+        announce(new OrderCreatedEvent(savedOrder.getOrderId(), userId, shop.getShopId(),
+                savedOrder.getPaymentMethod(), savedOrder.getFinalAmount(), new ArrayList<>(quantities.keySet()),
+                LocalDateTime.now()), request.getPaymentMethod(), created);
+
         // 9. Mark voucher as used if applicable
         if (userVoucher != null) {
             userVoucher.setIsUsed(true);
@@ -191,40 +247,287 @@ public class OrderService {
             log.info("Voucher {} marked as used", request.getVoucherId());
         }
 
-        // 10. Delete cart items for ordered products
-        Cart cart = cartRepository.findByUserUserId(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cart not found for user"));
-
-        for (CreateOrderRequest.OrderItemRequest item : request.getItems()) {
-            cartItemRepository.deleteByCartCartIdAndProductProductId(
-                    cart.getCartId(),
-                    item.getProductId());
-            log.info("Removed product {} from cart", item.getProductId());
-        }
-
-        // 11. Create PayPal payment if payment method is PAYPAL
-        CreateOrderResponse response = orderMapper.toCreateOrderResponse(savedOrder);
+        return savedOrder;
+    }
 
+    /**
+     * Check out items from any number of shops in one call, creating one order
+     * per shop in one transaction, so a failure in any shop creates no order.
+     * Shop vouchers apply to their own shop's order. A platform voucher is
+     * checked against the combined total and its discount is split across the
+     * orders in proportion to their totals. A PayPal checkout gets a single
+     * PayPal order with one purchase unit per order, created after the orders
+     * are committed like in {@link #createOrder}.
+     */
+    public CheckoutResponse checkout(CheckoutRequest request, UUID userId) {
+        log.info("Checking out {} items for user: {}", request.getItems().size(), userId);
+
+        // 1-8. Create the orders
+        List<OrderCreatedEvent> created = new ArrayList<>();
+        Map<Long, BigDecimal> amountsByOrderId = transactionTemplate
+                .execute(status -> placeCheckout(request, userId, created));
+        List<Long> orderIds = new ArrayList<>(amountsByOrderId.keySet());
+
+        // 10. Create one PayPal payment covering every order
+        BigDecimal finalAmount = amountsByOrderId.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+        String paymentUrl = null;
         if ("PAYPAL".equals(request.getPaymentMethod())) {
+            Map<String, String> paypalResult;
             try {
-                log.info("Creating PayPal payment for order: {}", savedOrder.getOrderId());
-                // Pass orderId to PayPal for tracking and callback
-                java.util.Map<String, String> paypalResult = paypalService.createOrder(finalAmount,
-                        savedOrder.getOrderId());
-                String approvalUrl = paypalResult.get("approvalUrl");
-                response.setPaymentUrl(approvalUrl);
-                log.info("PayPal payment created successfully with approval URL");
+                log.info("Creating PayPal payment for orders: {}", orderIds);
+                paypalResult = paypalService.createCheckoutOrder(amountsByOrderId);
+                paymentUrl = paypalResult.get("approvalUrl");
             } catch (Exception e) {
-                log.error("Failed to create PayPal payment for order: {}", savedOrder.getOrderId(), e);
+                log.error("Failed to create PayPal payment for orders: {}", orderIds, e);
+                abandonOrders(orderIds);
                 throw new IllegalStateException("Failed to create PayPal payment: " + e.getMessage());
             }
+            linkPayPalOrder(orderIds, paypalResult.get("orderId"), created);
+        }
+
+        return CheckoutResponse.builder()
+                .orderIds(orderIds)
+                .finalAmount(finalAmount)
+                .paymentUrl(paymentUrl)
+                .build();
+    }
+
+    private Map<Long, BigDecimal> placeCheckout(CheckoutRequest request, UUID userId,
+            List<OrderCreatedEvent> created) {
+
+        // 1. Validate address exists and belongs to user
+        UserAddress address = userAddressRepository.findById(request.getAddressId())
+                .orElseThrow(
+                        () -> new ResourceNotFoundException("Address not found with ID: " + request.getAddressId()));
+
+        if (!address.getUser().getUserId().equals(userId)) {
+            throw new IllegalArgumentException("Address does not belong to the user");
+        }
+
+        if (address.getHasDeleted()) {
+            throw new IllegalArgumentException("Address has been deleted");
+        }
+
+        // 2. Read every product in one statement and group the lines by shop
+        Map<Long, Integer> quantities = new TreeMap<>();
+        request.getItems().forEach(item -> quantities.merge(item.getProductId(), item.getQty(), Integer::sum));
+        Map<Long, Product> products = new HashMap<>();
+        productRepository.findAllForCheckout(quantities.keySet())
+                .forEach(product -> products.put(product.getProductId(), product));
+
+        Map<Long, CheckoutGroup> groups = new TreeMap<>();
+        quantities.forEach((productId, quantity) -> {
+            Product product = products.get(productId);
+            if (product == null) {
+                throw new ResourceNotFoundException("Product not found with ID: " + productId);
+            }
+            if (!"Active".equals(product.getStatus())) {
+                throw new IllegalArgumentException("Product " + product.getName() + " is not active");
+            }
+            if (product.getStockQuantity() < quantity) {
+                throw new IllegalArgumentException("Insufficient stock for product: " + product.getName() +
+                        ". Available: " + product.getStockQuantity() + ", Requested: " + quantity);
+            }
+            groups.computeIfAbsent(product.getShop().getShopId(), shopId -> new CheckoutGroup())
+                    .add(product, quantity);
+        });
+
+        // PayPal pays each shop's order as a purchase unit and caps their number
+        if ("PAYPAL".equals(request.getPaymentMethod()) && groups.size() > PaypalService.MAX_PURCHASE_UNITS) {
+            throw new IllegalArgumentException("A PayPal checkout can include at most "
+                    + PaypalService.MAX_PURCHASE_UNITS + " shops");
+        }
+
+        // 3. Validate every shop in one statement
+        shopRepository.findByShopIdInAndHasDeletedFalse(groups.keySet())
+                .forEach(shop -> groups.get(shop.getShopId()).shop = shop);
+        groups.forEach((shopId, group) -> {
+            if (group.shop == null) {
+                throw new ResourceNotFoundException("Shop not found with ID: " + shopId);
+            }
+            if (!group.shop.getIsApproved()) {
+                throw new IllegalArgumentException("Shop " + group.shop.getShopName() + " is not approved");
+            }
+        });
+
+        // 4. Apply each shop voucher to its shop's order
+        List<UserVoucher> usedVouchers = new ArrayList<>();
+        if (request.getShopVoucherIds() != null) {
+            for (Long voucherId : new LinkedHashSet<>(request.getShopVoucherIds())) {
+                UserVoucher userVoucher = userVoucherRepository
+                        .findByUserUserIdAndVoucherVoucherIdAndIsUsedFalse(userId, voucherId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Voucher not found or already used"));
+
+                Shop voucherShop = userVoucher.getVoucher().getShop();
+                CheckoutGroup group = voucherShop != null ? groups.get(voucherShop.getShopId()) : null;
+                if (group == null) {
+                    throw new IllegalArgumentException(
+                            "Voucher " + voucherId + " does not belong to a shop in this checkout");
+                }
+                if (group.voucher != null) {
+                    throw new IllegalArgumentException("Only one voucher can be applied per shop");
+                }
+
+                group.discount = calculateVoucherDiscount(userVoucher.getVoucher(), group.total,
+                        voucherShop.getShopId());
+                group.voucher = userVoucher;
+                usedVouchers.add(userVoucher);
+            }
+        }
+
+        // 5. Split a platform voucher across the orders
+        UserVoucher platformVoucher = null;
+        if (request.getPlatformVoucherId() != null) {
+            platformVoucher = userVoucherRepository
+                    .findByUserUserIdAndVoucherVoucherIdAndIsUsedFalse(userId, request.getPlatformVoucherId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Voucher not found or already used"));
+
+            if (platformVoucher.getVoucher().getShop() != null) {
+                throw new IllegalArgumentException("Voucher is not a platform voucher");
+            }
+
+            BigDecimal combined = groups.values().stream()
+                    .map(CheckoutGroup::finalAmount)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            BigDecimal discount = calculateVoucherDiscount(platformVoucher.getVoucher(), combined, null);
+            if (discount.signum() > 0) {
+                // Round each share down and give the remainder to the last order
+                BigDecimal remaining = discount;
+                int left = groups.size();
+                for (CheckoutGroup group : groups.values()) {
+                    BigDecimal share = --left == 0 ? remaining
+                            : discount.multiply(group.finalAmount()).divide(combined, 2, RoundingMode.DOWN);
+                    share = share.min(group.finalAmount());
+                    group.discount = group.discount.add(share);
+                    remaining = remaining.subtract(share);
+                }
+            }
+            usedVouchers.add(platformVoucher);
+        }
+
+        // 6. Take the stock of every shop, in product ID order
+        takeStock(quantities, products);
+
+        // 7. Create one order per shop with its items and status history
+        List<OrderItem> orderItems = new ArrayList<>();
+        List<OrderStatusHistory> statusHistories = new ArrayList<>();
+        List<Long> orderIds = new ArrayList<>();
+        Map<Long, BigDecimal> amountsByOrderId = new LinkedHashMap<>();
+        for (CheckoutGroup group : groups.values()) {
+            Order order = new Order();
+            order.setUser(address.getUser());
+            order.setShop(group.shop);
+            order.setTotalAmount(group.total);
+            order.setVoucherDiscount(group.discount);
+            order.setFinalAmount(group.finalAmount());
+            order.setPaymentMethod(request.getPaymentMethod());
+            order.setHasDeleted(false);
+            order.setCurrentStatus("Pending");
+            order.setStatusUpdatedAt(LocalDateTime.now());
+            group.order = orderRepository.save(order);
+            orderIds.add(group.order.getOrderId());
+            amountsByOrderId.put(group.order.getOrderId(), group.order.getFinalAmount());
+
+            List<OrderItem> groupItems = new ArrayList<>();
+            for (OrderItemData itemData : group.lines) {
+                OrderItem orderItem = new OrderItem();
+                orderItem.setOrder(group.order);
+                orderItem.setProduct(itemData.getProduct());
+                orderItem.setQuantity(itemData.getQuantity());
+                orderItem.setPriceAtPurchase(itemData.getPrice());
+                groupItems.add(orderItem);
+            }
+            orderItems.addAll(groupItems);
+            salesRollupService.recordOrderPlaced(group.order, groupItems);
+
+            OrderStatusHistory statusHistory = new OrderStatusHistory();
+            statusHistory.setOrder(group.order);
+            statusHistory.setStatus("Pending");
+            statusHistory.setDescription("Order created and pending confirmation");
+            statusHistories.add(statusHistory);
+
+            announce(new OrderCreatedEvent(group.order.getOrderId(), userId, group.shop.getShopId(),
+                    group.order.getPaymentMethod(), group.order.getFinalAmount(),
+                    new ArrayList<>(group.quantities.keySet()), LocalDateTime.now()),
+                    request.getPaymentMethod(), created);
+
+            if ("PAYPAL".equals(request.getPaymentMethod())) {
+                stockReservationService.hold(group.order, group.quantities, products);
+            }
+        }
+        orderItemRepository.insertAll(orderItems);
+        orderStatusHistoryRepository.saveAll(statusHistories);
+        quantities.keySet().forEach(productId -> eventPublisher.publishEvent(
+                new ProductChangedEvent(productId, ProductChangedEvent.ChangeType.STOCK_CHANGED)));
+        log.info("Created orders {} for user: {}", orderIds, userId);
+
+        // 8. Mark vouchers as used; the platform voucher is recorded on the first order
+        for (CheckoutGroup group : groups.values()) {
+            if (group.voucher != null) {
+                group.voucher.setIsUsed(true);
+                group.voucher.setUsedAtOrder(group.order);
+            }
+        }
+        if (platformVoucher != null) {
+            platformVoucher.setIsUsed(true);
+            platformVoucher.setUsedAtOrder(groups.values().iterator().next().order);
+        }
+        userVoucherRepository.saveAll(usedVouchers);
+
+        return amountsByOrderId;
+    }
+
+    /**
+     * Record that an order was placed, in the order's transaction. PayPal
+     * orders are only collected into {@code created}, to be recorded by
+     * {@link #recordCreated} once their payment exists.
+     */
+    private void announce(OrderCreatedEvent event, String paymentMethod, List<OrderCreatedEvent> created) {
+        if ("PAYPAL".equals(paymentMethod)) {
+            created.add(event);
         } else {
-            // COD payment - no payment URL needed
-            response.setPaymentUrl(null);
-            log.info("COD payment selected - no payment URL required");
+            outboxService.record(event);
         }
+    }
 
-        return response;
+    /**
+     * Link orders to the PayPal order created to pay for them, so the capture
+     * finds them by its token, and record their events. Orders that cannot be
+     * linked could never be captured, so they are abandoned instead.
+     */
+    private void linkPayPalOrder(List<Long> orderIds, String paypalOrderId, List<OrderCreatedEvent> created) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                orderRepository.linkPaypalOrder(orderIds, paypalOrderId);
+                created.forEach(outboxService::record);
+            });
+        } catch (Exception e) {
+            log.error("Failed to link orders {} to PayPal order {}", orderIds, paypalOrderId, e);
+            abandonOrders(orderIds);
+            throw new IllegalStateException("Failed to create PayPal payment: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Cancel orders whose PayPal payment could not be created, putting their
+     * stock back on sale and giving their vouchers back to the user. Failures
+     * are only logged: the unpaid holds still expire on their own.
+     */
+    private void abandonOrders(List<Long> orderIds) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> orderIds.forEach(orderId -> {
+                orderRepository.findByOrderIdAndHasDeletedFalse(orderId)
+                        .ifPresent(order -> cancel(order, "PayPal payment could not be created"));
+
+                userVoucherRepository.findByUsedAtOrderOrderId(orderId).forEach(userVoucher -> {
+                    userVoucher.setIsUsed(false);
+                    userVoucher.setUsedAtOrder(null);
+                    userVoucherRepository.save(userVoucher);
+                });
+            }));
+        } catch (Exception e) {
+            log.error("Failed to cancel orders {} after PayPal failure", orderIds, e);
+        }
     }
 
     @Transactional
@@ -246,110 +549,226 @@ public class OrderService {
         }
 
         // 3. Get latest order status
-        OrderStatusHistory latestStatus = orderStatusHistoryRepository
-                .findTopByOrderOrderIdOrderByCreatedAtDesc(orderId)
-                .orElseThrow(() -> new ResourceNotFoundException("Order status not found"));
+        String currentStatus = currentStatusOf(order);
 
         // 4. Check if order can be cancelled (not yet Shipping)
-        String currentStatus = latestStatus.getStatus();
         if ("Shipping".equals(currentStatus) || "Delivered".equals(currentStatus)
                 || "Completed".equals(currentStatus)) {
             throw new IllegalStateException("Cannot cancel order with status: " + currentStatus);
         }
 
+        // 5-7. Cancel the order and restore its stock
+        cancel(order, "Order cancelled by " + (isCustomer ? "customer" : "seller"));
+
+        log.info("Order {} cancelled successfully", orderId);
+    }
+
+    private void cancel(Order order, String description) {
+        Long orderId = order.getOrderId();
+
         // 5. Mark order as deleted
         order.setHasDeleted(true);
+        order.setCurrentStatus("Cancelled");
+        order.setStatusUpdatedAt(LocalDateTime.now());
         orderRepository.save(order);
         log.info("Marked order {} as deleted", orderId);
 
-        // 6. Restore product stock
-        orderItemRepository.findByOrderOrderId(orderId).forEach(orderItem -> {
-            Product product = orderItem.getProduct();
-            int quantity = orderItem.getQuantity();
-
-            // Restore stock
-            product.setStockQuantity(product.getStockQuantity() + quantity);
-            // Decrease sold count
-            product.setSoldCount(product.getSoldCount() - quantity);
-            productRepository.save(product);
+        // 6. Restore product stock, in product ID order like checkout, unless
+        // expired holds already put it back on sale
+        Map<Long, Integer> restored = new TreeMap<>();
+        if (!stockReservationService.releaseOnCancel(orderId)) {
+            orderItemRepository.findByOrderOrderId(orderId).forEach(orderItem -> restored
+                    .merge(orderItem.getProduct().getProductId(), orderItem.getQuantity(), Integer::sum));
+        }
+        restored.forEach((productId, quantity) -> {
+            productRepository.restoreStock(productId, quantity);
 
-            log.info("Restored stock for product {}: +{} units", product.getProductId(), quantity);
+            log.info("Restored stock for product {}: +{} units", productId, quantity);
+            eventPublisher.publishEvent(
+                    new ProductChangedEvent(productId, ProductChangedEvent.ChangeType.STOCK_CHANGED));
         });
 
         // 7. Create status history for cancellation
         OrderStatusHistory cancelHistory = new OrderStatusHistory();
         cancelHistory.setOrder(order);
         cancelHistory.setStatus("Cancelled");
-        cancelHistory.setDescription("Order cancelled by " + (isCustomer ? "customer" : "seller"));
+        cancelHistory.setDescription(description);
         orderStatusHistoryRepository.save(cancelHistory);
 
-        log.info("Order {} cancelled successfully", orderId);
+        salesRollupService.recordOrderCancelled(order);
+        outboxService.record(new OrderCancelledEvent(orderId, order.getUser().getUserId(), description));
     }
 
+    /**
+     * One keyset page of a customer's orders, newest first. Current status and
+     * item count come from the same statement, so the cost of a page does not
+     * depend on how many orders the customer has. An empty or null cursor
+     * starts from the first page.
+     */
     @Transactional(readOnly = true)
-    public List<com.example.DACN.dto.response.CustomerOrderResponse> getCustomerOrders(UUID userId) {
-        log.info("Retrieving orders for customer: {}", userId);
-
-        // Get all orders for customer
-        List<Order> orders = orderRepository.findByUserUserIdAndHasDeletedFalseOrderByCreatedAtDesc(userId);
-
-        // Map to response DTOs
-        return orders.stream()
-                .map(order -> {
-                    com.example.DACN.dto.response.CustomerOrderResponse response = orderMapper
-                            .toCustomerOrderResponse(order);
-
-                    // Get latest status
-                    OrderStatusHistory latestStatus = orderStatusHistoryRepository
-                            .findTopByOrderOrderIdOrderByCreatedAtDesc(order.getOrderId())
-                            .orElse(null);
-
-                    if (latestStatus != null) {
-                        response.setCurrentStatus(latestStatus.getStatus());
-                    } else {
-                        response.setCurrentStatus("Unknown");
-                    }
-
-                    // Get item count
-                    List<OrderItem> items = orderItemRepository.findByOrderOrderId(order.getOrderId());
-                    response.setItemCount(items.size());
-
-                    return response;
-                })
-                .collect(java.util.stream.Collectors.toList());
+    public CustomerOrderListResponse getCustomerOrders(UUID userId, String cursor, int size) {
+        log.info("Retrieving orders for customer: {}, size: {}", userId, size);
+
+        LocalDateTime cursorCreatedAt = null;
+        Long cursorOrderId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = CursorUtil.decode(cursor, 2);
+            cursorCreatedAt = parseCursorDateTime(parts[0]);
+            cursorOrderId = parseCursorLong(parts[1]);
+        }
+
+        Slice<CustomerOrderResponse> page = orderRepository.findCustomerOrderPage(userId, cursorCreatedAt,
+                cursorOrderId, PageRequest.of(0, size));
+
+        // Archived orders continue the same keyset order; one more than needed
+        // tells whether there is a next page
+        List<CustomerOrderResponse> rows = mergeNewestFirst(page.getContent(),
+                orderArchiveService.findCustomerOrders(userId, cursorCreatedAt, cursorOrderId, size + 1),
+                CustomerOrderResponse::getCreatedAt, CustomerOrderResponse::getOrderId);
+        boolean hasNext = page.hasNext() || rows.size() > size;
+        List<CustomerOrderResponse> data = rows.size() > size ? rows.subList(0, size) : rows;
+
+        String nextCursor = null;
+        if (hasNext && !data.isEmpty()) {
+            CustomerOrderResponse last = data.get(data.size() - 1);
+            nextCursor = CursorUtil.encode(last.getCreatedAt(), last.getOrderId());
+        }
+
+        return CustomerOrderListResponse.builder()
+                .data(data)
+                .nextCursor(nextCursor)
+                .build();
     }
 
+    /**
+     * One keyset page of a shop's orders, newest first, optionally only those
+     * in the given current status. See
+     * {@link #getCustomerOrders(UUID, String, int)}.
+     */
     @Transactional(readOnly = true)
-    public List<com.example.DACN.dto.response.SellerOrderResponse> getSellerOrders(Long shopId) {
-        log.info("Retrieving orders for shop: {}", shopId);
-
-        // Get all orders for shop
-        List<Order> orders = orderRepository.findByShopShopIdAndHasDeletedFalseOrderByCreatedAtDesc(shopId);
-
-        // Map to response DTOs
-        return orders.stream()
-                .map(order -> {
-                    com.example.DACN.dto.response.SellerOrderResponse response = orderMapper
-                            .toSellerOrderResponse(order);
-
-                    // Get latest status
-                    OrderStatusHistory latestStatus = orderStatusHistoryRepository
-                            .findTopByOrderOrderIdOrderByCreatedAtDesc(order.getOrderId())
-                            .orElse(null);
-
-                    if (latestStatus != null) {
-                        response.setCurrentStatus(latestStatus.getStatus());
-                    } else {
-                        response.setCurrentStatus("Unknown");
-                    }
-
-                    // Get item count
-                    List<OrderItem> items = orderItemRepository.findByOrderOrderId(order.getOrderId());
-                    response.setItemCount(items.size());
-
-                    return response;
-                })
-                .collect(java.util.stream.Collectors.toList());
+    public SellerOrderListResponse getSellerOrders(Long shopId, String status, String cursor, int size) {
+        log.info("Retrieving orders for shop: {}, status: {}, size: {}", shopId, status, size);
+
+        LocalDateTime cursorCreatedAt = null;
+        Long cursorOrderId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = CursorUtil.decode(cursor, 2);
+            cursorCreatedAt = parseCursorDateTime(parts[0]);
+            cursorOrderId = parseCursorLong(parts[1]);
+        }
+
+        Slice<SellerOrderResponse> page = orderRepository.findSellerOrderPage(shopId, status, cursorCreatedAt,
+                cursorOrderId, PageRequest.of(0, size));
+
+        return toSellerOrderList(page,
+                orderArchiveService.findSellerOrders(shopId, status, cursorCreatedAt, cursorOrderId, size + 1),
+                size);
+    }
+
+    /**
+     * Seller order search: the orders of a shop placed between two dates,
+     * inclusive, that match every filter given, newest first, one keyset page
+     * at a time. The dates default to the last 90 days and may span at most
+     * 366 days, so a search never reads more than that range of the shop's
+     * orders, and all filters are applied in one statement.
+     */
+    @Transactional(readOnly = true)
+    public SellerOrderListResponse searchSellerOrders(Long shopId, SellerOrderSearchRequest search, String cursor,
+            int size) {
+        log.info("Searching orders for shop: {}, filters: {}, size: {}", shopId, search, size);
+
+        // 1. Validate the filters and bound the search by creation time
+        LocalDate to = search.getTo() != null ? search.getTo() : LocalDate.now();
+        LocalDate from = search.getFrom() != null ? search.getFrom() : to.minusDays(SEARCH_DEFAULT_DAYS - 1);
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("The end date must not be before the start date");
+        }
+        if (ChronoUnit.DAYS.between(from, to) + 1 > SEARCH_MAX_DAYS) {
+            throw new IllegalArgumentException("The range must not exceed " + SEARCH_MAX_DAYS + " days");
+        }
+        if (search.getMinAmount() != null && search.getMaxAmount() != null
+                && search.getMaxAmount().compareTo(search.getMinAmount()) < 0) {
+            throw new IllegalArgumentException("The maximum amount must not be below the minimum amount");
+        }
+        LocalDateTime fromCreatedAt = from.atStartOfDay();
+        LocalDateTime toCreatedAt = to.plusDays(1).atStartOfDay();
+        long toOrderId = 0;
+
+        // 2. A cursor moves the upper bound to the last order of the previous page
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = CursorUtil.decode(cursor, 2);
+            LocalDateTime cursorCreatedAt = parseCursorDateTime(parts[0]);
+            long cursorOrderId = parseCursorLong(parts[1]);
+            if (cursorCreatedAt.isBefore(toCreatedAt)) {
+                toCreatedAt = cursorCreatedAt;
+                toOrderId = cursorOrderId;
+            }
+        }
+
+        // 3. Search live and archived orders
+        Slice<SellerOrderResponse> page = orderRepository.searchSellerOrders(shopId, fromCreatedAt, toCreatedAt,
+                toOrderId, search.getStatus(), search.getPaymentMethod(), search.getMinAmount(),
+                search.getMaxAmount(), search.getCustomerEmail(), PageRequest.of(0, size));
+
+        return toSellerOrderList(page,
+                orderArchiveService.searchSellerOrders(shopId, search, fromCreatedAt, toCreatedAt, toOrderId,
+                        size + 1),
+                size);
+    }
+
+    /**
+     * One page of seller orders from a page of live orders and the archived
+     * ones after the same cursor.
+     */
+    private SellerOrderListResponse toSellerOrderList(Slice<SellerOrderResponse> page,
+            List<SellerOrderResponse> archived, int size) {
+        List<SellerOrderResponse> rows = mergeNewestFirst(page.getContent(), archived,
+                SellerOrderResponse::getCreatedAt, SellerOrderResponse::getOrderId);
+        boolean hasNext = page.hasNext() || rows.size() > size;
+        List<SellerOrderResponse> data = rows.size() > size ? rows.subList(0, size) : rows;
+
+        String nextCursor = null;
+        if (hasNext && !data.isEmpty()) {
+            SellerOrderResponse last = data.get(data.size() - 1);
+            nextCursor = CursorUtil.encode(last.getCreatedAt(), last.getOrderId());
+        }
+
+        return SellerOrderListResponse.builder()
+                .data(data)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Merge a page of live orders with a page of archived ones after the same
+     * cursor, newest first.
+     */
+    private <T> List<T> mergeNewestFirst(List<T> live, List<T> archived, Function<T, LocalDateTime> createdAt,
+            Function<T, Long> orderId) {
+        if (archived.isEmpty()) {
+            return live;
+        }
+        List<T> rows = new ArrayList<>(live.size() + archived.size());
+        rows.addAll(live);
+        rows.addAll(archived);
+        rows.sort(Comparator.comparing(createdAt).thenComparing(orderId).reversed());
+        return rows;
+    }
+
+    private long parseCursorLong(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private LocalDateTime parseCursorDateTime(String value) {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
     }
 
     @Transactional
@@ -367,12 +786,9 @@ public class OrderService {
         }
 
         // 3. Get current status
-        OrderStatusHistory currentStatus = orderStatusHistoryRepository
-                .findTopByOrderOrderIdOrderByCreatedAtDesc(orderId)
-                .orElseThrow(() -> new ResourceNotFoundException("Order status not found"));
+        String currentStatusValue = currentStatusOf(order);
 
         // 4. Validate status transition
-        String currentStatusValue = currentStatus.getStatus();
         validateStatusTransition(currentStatusValue, newStatus);
 
         // 5. Create new status history entry
@@ -382,6 +798,16 @@ public class OrderService {
         newStatusHistory.setDescription(generateStatusDescription(newStatus));
         OrderStatusHistory savedHistory = orderStatusHistoryRepository.save(newStatusHistory);
 
+        order.setCurrentStatus(newStatus);
+        order.setStatusUpdatedAt(LocalDateTime.now());
+        orderRepository.save(order);
+
+        if ("Delivered".equals(newStatus)) {
+            salesRollupService.recordOrderDelivered(order);
+        }
+        outboxService.record(new OrderStatusChangedEvent(orderId, order.getUser().getUserId(),
+                currentStatusValue, newStatus));
+
         log.info("Order {} status updated from {} to {}", orderId, currentStatusValue, newStatus);
 
         // 6. Build response
@@ -394,6 +820,73 @@ public class OrderService {
                 .build();
     }
 
+    /**
+     * Take the stock with one conditional UPDATE per product, in product ID
+     * order so concurrent checkouts lock shared rows in the same order.
+     */
+    private void takeStock(Map<Long, Integer> quantities, Map<Long, Product> products) {
+        quantities.forEach((productId, quantity) -> {
+            if (productRepository.decrementStock(productId, quantity) == 0) {
+                throw new IllegalArgumentException("Insufficient stock for product: "
+                        + products.get(productId).getName() + ". Requested: " + quantity);
+            }
+        });
+    }
+
+    /**
+     * Validate a voucher against an order total and return its discount, capped
+     * at the total. A shop voucher must belong to {@code shopId}.
+     */
+    private BigDecimal calculateVoucherDiscount(Voucher voucher, BigDecimal totalAmount, Long shopId) {
+        // Validate voucher is not deleted
+        if (voucher.getHasDeleted()) {
+            throw new IllegalArgumentException("Voucher has been deleted");
+        }
+
+        // Validate voucher date range
+        LocalDateTime now = LocalDateTime.now();
+        if (now.isBefore(voucher.getStartDate()) || now.isAfter(voucher.getEndDate())) {
+            throw new IllegalArgumentException("Voucher is not valid at this time");
+        }
+
+        // Validate minimum order value
+        if (voucher.getMinOrderValue() != null && totalAmount.compareTo(voucher.getMinOrderValue()) < 0) {
+            throw new IllegalArgumentException("Order total does not meet minimum order value for voucher");
+        }
+
+        // Validate voucher belongs to shop or is platform voucher
+        if (voucher.getShop() != null && !voucher.getShop().getShopId().equals(shopId)) {
+            throw new IllegalArgumentException("Voucher does not belong to this shop");
+        }
+
+        // Calculate discount
+        BigDecimal discount = BigDecimal.ZERO;
+        if ("PERCENT".equals(voucher.getDiscountType())) {
+            discount = totalAmount.multiply(voucher.getDiscountValue()).divide(BigDecimal.valueOf(100));
+            if (voucher.getMaxDiscountAmount() != null && discount.compareTo(voucher.getMaxDiscountAmount()) > 0) {
+                discount = voucher.getMaxDiscountAmount();
+            }
+        } else if ("FIXED".equals(voucher.getDiscountType())) {
+            discount = voucher.getDiscountValue();
+        }
+
+        // Ensure discount doesn't exceed total
+        return discount.compareTo(totalAmount) > 0 ? totalAmount : discount;
+    }
+
+    /**
+     * Current status from the order row. Orders written before the column
+     * existed and not yet backfilled fall back to the latest history entry.
+     */
+    private String currentStatusOf(Order order) {
+        if (order.getCurrentStatus() != null) {
+            return order.getCurrentStatus();
+        }
+        return orderStatusHistoryRepository.findTopByOrderOrderIdOrderByCreatedAtDesc(order.getOrderId())
+                .map(OrderStatusHistory::getStatus)
+                .orElseThrow(() -> new ResourceNotFoundException("Order status not found"));
+    }
+
     private void validateStatusTransition(String currentStatus, String newStatus) {
         // Valid transitions:
         // Pending/Paid -> Shipping
@@ -433,9 +926,12 @@ public class OrderService {
             String userEmail) {
         log.info("Retrieving order history for order: {} by user: {}", orderId, userEmail);
 
-        // 1. Find order
-        Order order = orderRepository.findByOrderIdAndHasDeletedFalse(orderId)
-                .orElseThrow(() -> new ResourceNotFoundException("Order not found with ID: " + orderId));
+        // 1. Find order; orders finished long ago are in the archive
+        Order order = orderRepository.findByOrderIdAndHasDeletedFalse(orderId).orElse(null);
+        if (order == null) {
+            return orderArchiveService.findOrderHistory(orderId, userEmail)
+                    .orElseThrow(() -> new ResourceNotFoundException("Order not found with ID: " + orderId));
+        }
 
         // 2. Verify user has permission to view (customer or seller)
         boolean isCustomer = order.getUser().getEmail().equals(userEmail);
@@ -455,6 +951,27 @@ public class OrderService {
                 .collect(java.util.stream.Collectors.toList());
     }
 
+    // Lines, totals and voucher of one shop's order during checkout
+    private static class CheckoutGroup {
+        private final List<OrderItemData> lines = new ArrayList<>();
+        private final Map<Long, Integer> quantities = new TreeMap<>();
+        private BigDecimal total = BigDecimal.ZERO;
+        private BigDecimal discount = BigDecimal.ZERO;
+        private Shop shop;
+        private UserVoucher voucher;
+        private Order order;
+
+        void add(Product product, int quantity) {
+            lines.add(new OrderItemData(product, quantity, product.getPrice()));
+            quantities.put(product.getProductId(), quantity);
+            total = total.add(product.getPrice().multiply(BigDecimal.valueOf(quantity)));
+        }
+
+        BigDecimal finalAmount() {
+            return total.subtract(discount);
+        }
+    }
+
     // Helper class to hold order item data
     private static class OrderItemData {
         private final Product product;
@@ -0,0 +1,223 @@
+package com.example.DACN.service;
+
+import com.example.DACN.dto.response.OutboxStatsResponse;
+import com.example.DACN.entity.OutboxEvent;
+import com.example.DACN.event.OrderCancelledEvent;
+import com.example.DACN.event.OrderCreatedEvent;
+import com.example.DACN.event.OrderEvent;
+import com.example.DACN.event.OrderPaidEvent;
+import com.example.DACN.event.OrderStatusChangedEvent;
+import com.example.DACN.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Transactional outbox of order events. {@link #record} writes an event in the
+ * caller's transaction; {@link #dispatchBatch} later claims a batch of due
+ * events and publishes each to the {@code @EventListener}s of its type on the
+ * dispatcher's thread, so listeners run after the order committed and outside
+ * the request.
+ * <p>
+ * Delivery is at least once: an event is marked published only after every
+ * listener returned, a failed event is retried with exponential backoff, and
+ * events of a dispatcher that died are claimed again when their lease runs
+ * out. Events that keep failing are parked as Failed.
+ */
+@Service
+@Slf4j
+public class OutboxService {
+
+    private static final Map<String, Class<? extends OrderEvent>> EVENT_TYPES = Map.of(
+            OrderCreatedEvent.class.getSimpleName(), OrderCreatedEvent.class,
+            OrderStatusChangedEvent.class.getSimpleName(), OrderStatusChangedEvent.class,
+            OrderCancelledEvent.class.getSimpleName(), OrderCancelledEvent.class,
+            OrderPaidEvent.class.getSimpleName(), OrderPaidEvent.class);
+    private static final long MAX_RETRY_DELAY_SECONDS = 3600;
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long leaseSeconds;
+    private final int maxAttempts;
+    private final long retryDelaySeconds;
+
+    // Dispatcher metrics of this instance since startup
+    private final LocalDateTime since = LocalDateTime.now();
+    private final LongAdder publishedTotal = new LongAdder();
+    private final LongAdder failedAttemptsTotal = new LongAdder();
+    private final LongAdder lagMsTotal = new LongAdder();
+    private volatile BatchStats lastBatch;
+
+    public OutboxService(OutboxEventRepository outboxEventRepository,
+            ObjectMapper objectMapper,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${outbox.dispatch.lease-seconds:300}") long leaseSeconds,
+            @Value("${outbox.dispatch.max-attempts:10}") int maxAttempts,
+            @Value("${outbox.dispatch.retry-delay-seconds:5}") long retryDelaySeconds) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.leaseSeconds = leaseSeconds;
+        this.maxAttempts = maxAttempts;
+        this.retryDelaySeconds = retryDelaySeconds;
+    }
+
+    /**
+     * Write the event in the current transaction; it is published only if that
+     * transaction commits.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(OrderEvent event) {
+        OutboxEvent outboxEvent = new OutboxEvent();
+        outboxEvent.setEventType(event.getClass().getSimpleName());
+        outboxEvent.setOrderId(event.getOrderId());
+        outboxEvent.setPayload(write(event));
+        outboxEvent.setStatus(OutboxEvent.STATUS_PENDING);
+        outboxEvent.setAttempts(0);
+        outboxEvent.setAvailableAt(LocalDateTime.now());
+        outboxEventRepository.save(outboxEvent);
+    }
+
+    /**
+     * Claim up to {@code batchSize} due events, oldest first, and publish them.
+     * Returns how many due events were found, so the caller can keep going
+     * while there is a backlog.
+     */
+    public int dispatchBatch(int batchSize) {
+        LocalDateTime now = LocalDateTime.now();
+
+        // 1. Claim the due events
+        List<Long> dueIds = outboxEventRepository.findDueIds(now, PageRequest.of(0, batchSize));
+        if (dueIds.isEmpty()) {
+            return 0;
+        }
+        String token = UUID.randomUUID().toString();
+        outboxEventRepository.claim(dueIds, token, now, now.plusSeconds(leaseSeconds));
+        List<OutboxEvent> claimed = outboxEventRepository.findByClaimTokenOrderByOutboxEventId(token);
+
+        // 2. Publish each event; a failure only holds back that event
+        long started = System.nanoTime();
+        List<Long> delivered = new ArrayList<>();
+        long maxLagMs = 0;
+        for (OutboxEvent outboxEvent : claimed) {
+            try {
+                eventPublisher.publishEvent(read(outboxEvent));
+                delivered.add(outboxEvent.getOutboxEventId());
+
+                long lagMs = Duration.between(outboxEvent.getCreatedAt(), LocalDateTime.now()).toMillis();
+                lagMsTotal.add(lagMs);
+                maxLagMs = Math.max(maxLagMs, lagMs);
+            } catch (RuntimeException e) {
+                failed(outboxEvent, e);
+            }
+        }
+
+        // 3. Mark the delivered events published, unless the lease ran out and
+        // another dispatcher claimed them since
+        LocalDateTime publishedAt = LocalDateTime.now();
+        if (!delivered.isEmpty()) {
+            outboxEventRepository.markPublished(delivered, token, publishedAt);
+        }
+        publishedTotal.add(delivered.size());
+        lastBatch = new BatchStats(claimed.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started),
+                maxLagMs, publishedAt);
+
+        return dueIds.size();
+    }
+
+    public OutboxStatsResponse stats() {
+        LocalDateTime oldestPending = outboxEventRepository.findOldestPendingCreatedAt();
+        long published = publishedTotal.sum();
+        BatchStats batch = lastBatch;
+        return OutboxStatsResponse.builder()
+                .pendingCount(outboxEventRepository.countByStatus(OutboxEvent.STATUS_PENDING))
+                .failedCount(outboxEventRepository.countByStatus(OutboxEvent.STATUS_FAILED))
+                .oldestPendingAgeMs(oldestPending != null
+                        ? Duration.between(oldestPending, LocalDateTime.now()).toMillis()
+                        : 0L)
+                .since(since)
+                .publishedTotal(published)
+                .failedAttemptsTotal(failedAttemptsTotal.sum())
+                .averageLagMs(published > 0 ? lagMsTotal.sum() / published : 0L)
+                .lastBatchSize(batch != null ? batch.size() : 0)
+                .lastBatchDurationMs(batch != null ? batch.durationMs() : 0L)
+                .lastBatchMaxLagMs(batch != null ? batch.maxLagMs() : 0L)
+                .lastBatchAt(batch != null ? batch.finishedAt() : null)
+                .build();
+    }
+
+    public int deletePublishedBefore(LocalDateTime cutoff) {
+        return outboxEventRepository.deletePublishedBefore(cutoff);
+    }
+
+    /**
+     * Schedule the next attempt of an event, doubling the delay each time, or
+     * park it once it has failed too often.
+     */
+    private void failed(OutboxEvent outboxEvent, RuntimeException e) {
+        failedAttemptsTotal.increment();
+        int attempts = outboxEvent.getAttempts() + 1;
+        String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+
+        outboxEvent.setAttempts(attempts);
+        outboxEvent.setLastError(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+        outboxEvent.setClaimToken(null);
+        if (attempts >= maxAttempts) {
+            outboxEvent.setStatus(OutboxEvent.STATUS_FAILED);
+            log.error("Giving up on outbox event {} of order {} after {} attempts",
+                    outboxEvent.getOutboxEventId(), outboxEvent.getOrderId(), attempts, e);
+        } else {
+            long delay = Math.min(retryDelaySeconds << Math.min(attempts - 1, 20), MAX_RETRY_DELAY_SECONDS);
+            outboxEvent.setAvailableAt(LocalDateTime.now().plusSeconds(delay));
+            log.warn("Outbox event {} of order {} failed, retrying in {}s: {}",
+                    outboxEvent.getOutboxEventId(), outboxEvent.getOrderId(), delay, error);
+        }
+
+        try {
+            outboxEventRepository.save(outboxEvent);
+        } catch (RuntimeException saveFailure) {
+            // The claim lease still runs out, so the event is retried anyway
+            log.error("Failed to record failure of outbox event {}", outboxEvent.getOutboxEventId(), saveFailure);
+        }
+    }
+
+    private OrderEvent read(OutboxEvent outboxEvent) {
+        Class<? extends OrderEvent> type = EVENT_TYPES.get(outboxEvent.getEventType());
+        if (type == null) {
+            throw new IllegalStateException("Unknown outbox event type: " + outboxEvent.getEventType());
+        }
+        try {
+            return objectMapper.readValue(outboxEvent.getPayload(), type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to read outbox event " + outboxEvent.getOutboxEventId(), e);
+        }
+    }
+
+    private String write(OrderEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize order event", e);
+        }
+    }
+
+    private record BatchStats(int size, long durationMs, long maxLagMs, LocalDateTime finishedAt) {
+    }
+}
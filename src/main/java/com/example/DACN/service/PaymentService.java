@@ -2,20 +2,27 @@ package com.example.DACN.service;
 
 import com.example.DACN.constant.RoleConstants;
 import com.example.DACN.entity.*;
+import com.example.DACN.event.OrderPaidEvent;
+import com.example.DACN.event.ShopChangedEvent;
 import com.example.DACN.exception.ResourceNotFoundException;
 import com.example.DACN.repository.*;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -29,82 +36,195 @@ public class PaymentService {
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final PaypalService paypalService;
-    private final RestTemplate restTemplate = new RestTemplate();
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final StockReservationService stockReservationService;
+    private final OutboxService outboxService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${order.capture-recovery.stale-after-minutes:5}")
+    private long staleAfterMinutes;
 
-    @Transactional
     public void capturePayPalPayment(String token, Long orderId) {
-        log.info("Capturing PayPal payment for token: {} and order: {}", token, orderId);
+        capturePayPalCheckout(token, List.of(orderId));
+    }
 
-        try {
-            // 1. Get order
-            Order order = orderRepository.findByOrderIdAndHasDeletedFalse(orderId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Order not found with ID: " + orderId));
+    /**
+     * Capture a PayPal order paying one or more customer orders and record a
+     * payment for each from its own capture. The orders are those linked to
+     * the PayPal order when it was created; the order IDs from the redirect
+     * must be among them. Captures are matched to orders by their custom_id;
+     * a single-order payment needs no match.
+     * <p>
+     * No database connection is held while PayPal answers: a short transaction
+     * claims the orders, the capture call runs with no transaction open and a
+     * second short transaction records the result. Orders left claimed by a
+     * failure between the two are settled by {@link #recoverCapture}.
+     */
+    public void capturePayPalCheckout(String token, List<Long> orderIds) {
+        log.info("Capturing PayPal payment for token: {} and orders: {}", token, orderIds);
 
-            // 2. Verify payment method
-            if (!"PAYPAL".equals(order.getPaymentMethod())) {
-                throw new IllegalArgumentException("Order payment method is not PAYPAL");
+        try {
+            // 1-4. Claim the orders for capture
+            if (!Boolean.TRUE.equals(transactionTemplate.execute(status -> claimForCapture(token, orderIds)))) {
+                return;
             }
 
-            // 3. Check if payment already exists
-            if (paymentRepository.findByOrderOrderId(orderId).isPresent()) {
-                log.warn("Payment already exists for order: {}", orderId);
-                return;
+            // 5. Capture payment from PayPal
+            JsonNode jsonNode = paypalService.captureOrder(token);
+            String status = jsonNode.get("status").asText();
+
+            if (!"COMPLETED".equals(status)) {
+                throw new IllegalStateException("PayPal payment status is not COMPLETED: " + status);
             }
 
-            // 4. Capture payment from PayPal
-            String accessToken = paypalService.getAccessToken();
-            String captureUrl = getPayPalApiBase() + "/v2/checkout/orders/" + token + "/capture";
+            // 6-7. Record the payments
+            transactionTemplate.executeWithoutResult(
+                    tx -> recordCaptures(token, jsonNode, "Payment confirmed via PayPal. Transaction ID: "));
+        } catch (Exception e) {
+            log.error("Error capturing PayPal payment for orders: {}", orderIds, e);
+            throw new IllegalStateException("Failed to capture PayPal payment: " + e.getMessage());
+        }
+    }
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.setBearerAuth(accessToken);
+    /**
+     * Settle orders whose capture began but was never recorded, e.g. after a
+     * PayPal timeout or a crash before the second transaction. A capture PayPal
+     * completed is recorded; otherwise the orders go back to awaiting payment,
+     * so the buyer can retry and unpaid stock holds can expire.
+     */
+    public void recoverCapture(String token) {
+        log.info("Recovering PayPal capture for token: {}", token);
 
-            HttpEntity<String> request = new HttpEntity<>("{}", headers);
-            ResponseEntity<String> response = restTemplate.postForEntity(captureUrl, request, String.class);
+        try {
+            JsonNode paypalOrder = paypalService.getOrder(token);
+            String status = paypalOrder.get("status").asText();
 
-            if (response.getStatusCode() == HttpStatus.CREATED && response.getBody() != null) {
-                JsonNode jsonNode = objectMapper.readTree(response.getBody());
-                String status = jsonNode.get("status").asText();
+            if ("COMPLETED".equals(status)) {
+                transactionTemplate.executeWithoutResult(
+                        tx -> recordCaptures(token, paypalOrder, "Payment recovered from PayPal. Transaction ID: "));
+            } else {
+                transactionTemplate.executeWithoutResult(tx -> releaseCaptureClaim(token));
+                log.info("PayPal order {} is {}, released its capture claim", token, status);
+            }
+        } catch (Exception e) {
+            log.error("Error recovering PayPal capture for token: {}", token, e);
+            throw new IllegalStateException("Failed to recover PayPal capture: " + e.getMessage());
+        }
+    }
 
-                if ("COMPLETED".equals(status)) {
-                    // Extract transaction details
-                    JsonNode purchaseUnits = jsonNode.get("purchase_units");
-                    JsonNode payments = purchaseUnits.get(0).get("payments");
-                    JsonNode captures = payments.get("captures");
-                    JsonNode capture = captures.get(0);
+    /**
+     * PayPal orders whose capture began more than the configured time ago and
+     * was never recorded, oldest first.
+     */
+    @Transactional(readOnly = true)
+    public List<String> findStaleCaptures(int limit) {
+        return orderRepository.findStaleCaptures(LocalDateTime.now().minusMinutes(staleAfterMinutes),
+                PageRequest.of(0, limit));
+    }
 
-                    String transactionId = capture.get("id").asText();
-                    BigDecimal amount = new BigDecimal(capture.get("amount").get("value").asText());
+    private boolean claimForCapture(String token, List<Long> orderIds) {
+        // 1. Get the orders the PayPal order was created for; the order IDs
+        // in the redirect are only checked against them
+        List<Order> orders = orderRepository.findByPaypalOrderId(token);
+        if (orders.isEmpty()) {
+            throw new ResourceNotFoundException("No orders found for PayPal order: " + token);
+        }
+        Set<Long> linkedIds = orders.stream().map(Order::getOrderId).collect(Collectors.toSet());
+        for (Long orderId : orderIds) {
+            if (!linkedIds.contains(orderId)) {
+                throw new IllegalArgumentException("Order " + orderId + " is not paid by PayPal order " + token);
+            }
+        }
 
-                    // 5. Create payment record
-                    Payment payment = new Payment();
-                    payment.setOrder(order);
-                    payment.setTransactionCode(transactionId);
-                    payment.setAmount(order.getFinalAmount());
-                    payment.setStatus("Success");
-                    payment.setPaymentTime(LocalDateTime.now());
-                    paymentRepository.save(payment);
+        // 2. Verify payment method
+        for (Order order : orders) {
+            if (Boolean.TRUE.equals(order.getHasDeleted())) {
+                throw new ResourceNotFoundException("Order not found with ID: " + order.getOrderId());
+            }
+            if (!"PAYPAL".equals(order.getPaymentMethod())) {
+                throw new IllegalArgumentException("Order payment method is not PAYPAL");
+            }
+        }
 
-                    log.info("Payment record created for order: {} with transaction: {}", orderId, transactionId);
+        // 3. Skip the orders whose payment already exists, e.g. from the capture webhook
+        List<Order> unpaid = orders.stream()
+                .filter(order -> paymentRepository.findByOrderOrderId(order.getOrderId()).isEmpty())
+                .toList();
+        if (unpaid.isEmpty()) {
+            log.warn("Payment already exists for orders: {}", linkedIds);
+            return false;
+        }
 
-                    // 6. Update order status
-                    OrderStatusHistory statusHistory = new OrderStatusHistory();
-                    statusHistory.setOrder(order);
-                    statusHistory.setStatus("Paid");
-                    statusHistory.setDescription("Payment confirmed via PayPal. Transaction ID: " + transactionId);
-                    orderStatusHistoryRepository.save(statusHistory);
+        // 4. Turn the stock holds into sales and mark the orders as being captured
+        for (Order order : unpaid) {
+            if (!stockReservationService.convert(order.getOrderId())) {
+                throw new IllegalStateException("Stock reservation for order " + order.getOrderId() + " has expired");
+            }
+            order.setCaptureStartedAt(LocalDateTime.now());
+            orderRepository.save(order);
+        }
+        return true;
+    }
 
-                    log.info("Order status updated to Paid for order: {}", orderId);
-                } else {
-                    throw new IllegalStateException("PayPal payment status is not COMPLETED: " + status);
-                }
-            } else {
-                throw new IllegalStateException("Failed to capture PayPal payment");
+    private void recordCaptures(String token, JsonNode paypalOrder, String description) {
+        Map<Long, Order> orders = new LinkedHashMap<>();
+        orderRepository.findByPaypalOrderId(token).forEach(order -> orders.put(order.getOrderId(), order));
+
+        // Extract transaction details, one capture per purchase unit
+        for (JsonNode purchaseUnit : paypalOrder.get("purchase_units")) {
+            JsonNode capture = purchaseUnit.get("payments").get("captures").get(0);
+            JsonNode customId = capture.get("custom_id");
+            Order order = customId != null && !customId.isNull()
+                    ? orders.get(Long.parseLong(customId.asText()))
+                    : orders.values().stream().findFirst().orElse(null);
+            if (order == null) {
+                throw new IllegalStateException("PayPal capture for unknown order: " + token);
             }
-        } catch (Exception e) {
-            log.error("Error capturing PayPal payment for order: {}", orderId, e);
-            throw new IllegalStateException("Failed to capture PayPal payment: " + e.getMessage());
+
+            // Already recorded, e.g. by the capture webhook
+            if (paymentRepository.findByOrderOrderId(order.getOrderId()).isPresent()) {
+                continue;
+            }
+
+            String transactionId = capture.get("id").asText();
+
+            // 6. Create payment record
+            Payment payment = new Payment();
+            payment.setOrder(order);
+            payment.setTransactionCode(transactionId);
+            payment.setAmount(order.getFinalAmount());
+            payment.setStatus("Success");
+            payment.setPaymentTime(LocalDateTime.now());
+            paymentRepository.save(payment);
+
+            log.info("Payment record created for order: {} with transaction: {}", order.getOrderId(), transactionId);
+
+            // 7. Update order status
+            OrderStatusHistory statusHistory = new OrderStatusHistory();
+            statusHistory.setOrder(order);
+            statusHistory.setStatus("Paid");
+            statusHistory.setDescription(description + transactionId);
+            orderStatusHistoryRepository.save(statusHistory);
+
+            order.setCurrentStatus("Paid");
+            order.setStatusUpdatedAt(LocalDateTime.now());
+            order.setCaptureStartedAt(null);
+            orderRepository.save(order);
+            outboxService.record(new OrderPaidEvent(order.getOrderId(), order.getUser().getUserId(),
+                    payment.getAmount(), transactionId));
+
+            log.info("Order status updated to Paid for order: {}", order.getOrderId());
+        }
+    }
+
+    private void releaseCaptureClaim(String token) {
+        for (Order order : orderRepository.findByPaypalOrderId(token)) {
+            if (order.getCaptureStartedAt() == null || !"Pending".equals(order.getCurrentStatus())) {
+                continue;
+            }
+            stockReservationService.revertConversion(order.getOrderId());
+            order.setCaptureStartedAt(null);
+            orderRepository.save(order);
         }
     }
 
@@ -133,6 +253,11 @@ public class PaymentService {
                     Order order = orderRepository.findByOrderIdAndHasDeletedFalse(orderId)
                             .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
 
+                    // PayPal has already taken the money, so convert even late holds
+                    if (!stockReservationService.convert(orderId)) {
+                        log.error("Order {} was paid after its stock reservation was released", orderId);
+                    }
+
                     // Create payment record
                     Map<String, Object> amountData = (Map<String, Object>) resource.get("amount");
                     BigDecimal amount = new BigDecimal((String) amountData.get("value"));
@@ -153,6 +278,13 @@ public class PaymentService {
                             .setDescription("Payment confirmed via PayPal webhook. Transaction ID: " + transactionId);
                     orderStatusHistoryRepository.save(statusHistory);
 
+                    order.setCurrentStatus("Paid");
+                    order.setStatusUpdatedAt(LocalDateTime.now());
+                    order.setCaptureStartedAt(null);
+                    orderRepository.save(order);
+                    outboxService.record(new OrderPaidEvent(orderId, order.getUser().getUserId(), amount,
+                            transactionId));
+
                     log.info("Webhook processed successfully for order: {}", orderId);
                 }
             }
@@ -162,93 +294,82 @@ public class PaymentService {
         }
     }
 
-    @Transactional
+    /**
+     * Capture a shop registration payment, then approve the shop. The capture
+     * call runs with no transaction open; if the approval is lost after PayPal
+     * took the money, the capture webhook approves the shop instead.
+     */
     public void captureShopRegistrationPayment(String token) {
         log.info("Capturing PayPal payment for shop registration with token: {}", token);
 
         try {
             // 1. Capture payment from PayPal
-            String accessToken = paypalService.getAccessToken();
-            String captureUrl = getPayPalApiBase() + "/v2/checkout/orders/" + token + "/capture";
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.setBearerAuth(accessToken);
-
-            HttpEntity<String> request = new HttpEntity<>("{}", headers);
-            ResponseEntity<String> response = restTemplate.postForEntity(captureUrl, request, String.class);
-
-            if (response.getStatusCode() == HttpStatus.CREATED && response.getBody() != null) {
-                JsonNode jsonNode = objectMapper.readTree(response.getBody());
-                String status = jsonNode.get("status").asText();
-
-                if ("COMPLETED".equals(status)) {
-                    // Extract transaction details
-                    JsonNode purchaseUnits = jsonNode.get("purchase_units");
-                    JsonNode payments = purchaseUnits.get(0).get("payments");
-                    JsonNode captures = payments.get("captures");
-                    JsonNode capture = captures.get(0);
-
-                    String transactionId = capture.get("id").asText();
-
-                    // 2. Find payment record by PayPal order ID (token)
-                    Payment payment = paymentRepository.findByTransactionCode(token)
-                            .orElseThrow(() -> new ResourceNotFoundException(
-                                    "Payment not found for PayPal order: " + token));
-
-                    // Check if already processed
-                    if ("SUCCESS".equals(payment.getStatus())) {
-                        log.info("Payment already processed for token: {}", token);
-                        return;
-                    }
-
-                    // 3. Update payment record
-                    payment.setTransactionCode(transactionId); // Update with actual transaction ID
-                    payment.setStatus("SUCCESS");
-                    payment.setPaymentTime(LocalDateTime.now());
-                    paymentRepository.save(payment);
-
-                    log.info("Payment record updated for shop registration with transaction: {}", transactionId);
-
-                    // 4. Find and approve the most recent unapproved shop
-                    // Since Payment doesn't have shop_id, we find the latest unapproved shop
-                    Shop shop = shopRepository.findByIsApprovedFalseAndHasDeletedFalse().stream()
-                            .max((s1, s2) -> s1.getCreatedAt().compareTo(s2.getCreatedAt()))
-                            .orElseThrow(() -> new ResourceNotFoundException("No pending shop found for approval"));
-
-                    // Verify shop has a user
-                    if (shop.getUser() == null) {
-                        throw new ResourceNotFoundException("Shop has no associated user");
-                    }
+            JsonNode jsonNode = paypalService.captureOrder(token);
+            String status = jsonNode.get("status").asText();
 
-                    // 5. Approve the shop
-                    shop.setIsApproved(true);
-                    shopRepository.save(shop);
-                    log.info("Approved shop with ID: {} for user: {}", shop.getShopId(), shop.getUser().getEmail());
+            if (!"COMPLETED".equals(status)) {
+                throw new IllegalStateException("PayPal payment status is not COMPLETED: " + status);
+            }
 
-                    // 6. Update user role to SELLER
-                    User user = shop.getUser();
-                    Role sellerRole = roleRepository.findByRoleName(RoleConstants.SELLER)
-                            .orElseThrow(() -> new ResourceNotFoundException("Seller role not found"));
+            // Extract transaction details
+            JsonNode purchaseUnits = jsonNode.get("purchase_units");
+            JsonNode payments = purchaseUnits.get(0).get("payments");
+            JsonNode captures = payments.get("captures");
+            JsonNode capture = captures.get(0);
 
-                    user.setRole(sellerRole);
-                    userRepository.save(user);
-                    log.info("Updated user {} role to SELLER", user.getUserId());
+            String transactionId = capture.get("id").asText();
 
-                } else {
-                    throw new IllegalStateException("PayPal payment status is not COMPLETED: " + status);
-                }
-            } else {
-                throw new IllegalStateException("Failed to capture PayPal payment");
-            }
+            transactionTemplate.executeWithoutResult(tx -> approveRegisteredShop(token, transactionId));
         } catch (Exception e) {
             log.error("Error capturing PayPal payment for shop registration", e);
             throw new IllegalStateException("Failed to capture PayPal payment: " + e.getMessage());
         }
     }
 
-    private String getPayPalApiBase() {
-        // This should match PaypalService mode configuration
-        return "https://api-m.sandbox.paypal.com";
+    private void approveRegisteredShop(String token, String transactionId) {
+        // 2. Find payment record by PayPal order ID (token)
+        Payment payment = paymentRepository.findByTransactionCode(token)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Payment not found for PayPal order: " + token));
+
+        // Check if already processed
+        if ("SUCCESS".equals(payment.getStatus())) {
+            log.info("Payment already processed for token: {}", token);
+            return;
+        }
+
+        // 3. Update payment record
+        payment.setTransactionCode(transactionId); // Update with actual transaction ID
+        payment.setStatus("SUCCESS");
+        payment.setPaymentTime(LocalDateTime.now());
+        paymentRepository.save(payment);
+
+        log.info("Payment record updated for shop registration with transaction: {}", transactionId);
+
+        // 4. Find and approve the most recent unapproved shop
+        // Since Payment doesn't have shop_id, we find the latest unapproved shop
+        Shop shop = shopRepository.findByIsApprovedFalseAndHasDeletedFalse().stream()
+                .max((s1, s2) -> s1.getCreatedAt().compareTo(s2.getCreatedAt()))
+                .orElseThrow(() -> new ResourceNotFoundException("No pending shop found for approval"));
+
+        // Verify shop has a user
+        if (shop.getUser() == null) {
+            throw new ResourceNotFoundException("Shop has no associated user");
+        }
+
+        // 5. Approve the shop
+        shop.setIsApproved(true);
+        shopRepository.save(shop);
+        log.info("Approved shop with ID: {} for user: {}", shop.getShopId(), shop.getUser().getEmail());
+        eventPublisher.publishEvent(new ShopChangedEvent(shop.getShopId()));
+
+        // 6. Update user role to SELLER
+        User user = shop.getUser();
+        Role sellerRole = roleRepository.findByRoleName(RoleConstants.SELLER)
+                .orElseThrow(() -> new ResourceNotFoundException("Seller role not found"));
+
+        user.setRole(sellerRole);
+        userRepository.save(user);
+        log.info("Updated user {} role to SELLER", user.getUserId());
     }
 }
@@ -11,6 +11,7 @@ import org.springframework.web.client.RestTemplate;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.*;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
@@ -32,6 +33,9 @@ public class PaypalService {
     private static final String SANDBOX_API_BASE = "https://api-m.sandbox.paypal.com";
     private static final String LIVE_API_BASE = "https://api-m.paypal.com";
 
+    /** Most purchase units PayPal accepts in one order. */
+    public static final int MAX_PURCHASE_UNITS = 10;
+
     private final RestTemplate restTemplate = new RestTemplate();
     private final ObjectMapper objectMapper = new ObjectMapper();
 
@@ -70,32 +74,81 @@ public class PaypalService {
      * Create PayPal order for shop registration
      */
     public Map<String, String> createOrder(BigDecimal amountVND) {
+        Map<String, Object> purchaseUnit = new HashMap<>();
+        purchaseUnit.put("amount", usdAmount(amountVND));
+        purchaseUnit.put("description", "Shop Registration Fee");
+
+        return createPaypalOrder(Collections.singletonList(purchaseUnit),
+                "http://localhost:7979/api/v1/payment/paypal/success", "shop registration");
+    }
+
+    /**
+     * Create PayPal order for customer order payment
+     */
+    public Map<String, String> createOrder(BigDecimal amountVND, Long orderId) {
+        Map<String, Object> purchaseUnit = new HashMap<>();
+        purchaseUnit.put("amount", usdAmount(amountVND));
+        purchaseUnit.put("description", "Order #" + orderId + " Payment");
+        purchaseUnit.put("custom_id", orderId.toString()); // Important for webhook processing
+
+        // Include orderId in return URL for payment capture
+        return createPaypalOrder(Collections.singletonList(purchaseUnit),
+                "http://localhost:7979/api/v1/payment/paypal/success?orderId=" + orderId,
+                "customer order " + orderId);
+    }
+
+    /**
+     * Create one PayPal order paying several customer orders, one purchase unit
+     * per order so each gets its own capture. PayPal accepts at most
+     * {@link #MAX_PURCHASE_UNITS} units per order.
+     */
+    public Map<String, String> createCheckoutOrder(Map<Long, BigDecimal> amountsByOrderId) {
+        if (amountsByOrderId.size() > MAX_PURCHASE_UNITS) {
+            throw new IllegalArgumentException(
+                    "A PayPal payment can cover at most " + MAX_PURCHASE_UNITS + " orders");
+        }
+
+        List<Map<String, Object>> purchaseUnits = new ArrayList<>();
+        amountsByOrderId.forEach((orderId, amountVND) -> {
+            Map<String, Object> purchaseUnit = new HashMap<>();
+            purchaseUnit.put("amount", usdAmount(amountVND));
+            purchaseUnit.put("reference_id", orderId.toString());
+            purchaseUnit.put("description", "Order #" + orderId + " Payment");
+            purchaseUnit.put("custom_id", orderId.toString()); // Important for webhook processing
+            purchaseUnits.add(purchaseUnit);
+        });
+
+        String orderIds = amountsByOrderId.keySet().stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining(","));
+
+        // Include every orderId in return URL for payment capture
+        return createPaypalOrder(purchaseUnits,
+                "http://localhost:7979/api/v1/payment/paypal/success?orderIds=" + orderIds,
+                "customer orders " + orderIds);
+    }
+
+    /**
+     * Create a PayPal order for the purchase units and return its ID and
+     * approval URL
+     */
+    private Map<String, String> createPaypalOrder(List<Map<String, Object>> purchaseUnits, String returnUrl,
+            String paidFor) {
         try {
             String accessToken = getAccessToken();
             String apiBase = getApiBase();
             String url = apiBase + "/v2/checkout/orders";
 
-            // Convert VND to USD
-            BigDecimal amountUSD = convertVNDtoUSD(amountVND);
-
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_JSON);
             headers.setBearerAuth(accessToken);
 
             Map<String, Object> orderRequest = new HashMap<>();
             orderRequest.put("intent", "CAPTURE");
-
-            Map<String, Object> purchaseUnit = new HashMap<>();
-            Map<String, Object> amount = new HashMap<>();
-            amount.put("currency_code", "USD");
-            amount.put("value", amountUSD.toString());
-            purchaseUnit.put("amount", amount);
-            purchaseUnit.put("description", "Shop Registration Fee");
-
-            orderRequest.put("purchase_units", Collections.singletonList(purchaseUnit));
+            orderRequest.put("purchase_units", purchaseUnits);
 
             Map<String, Object> applicationContext = new HashMap<>();
-            applicationContext.put("return_url", "http://localhost:7979/api/v1/payment/paypal/success");
+            applicationContext.put("return_url", returnUrl);
             applicationContext.put("cancel_url", "http://localhost:7979/api/v1/payment/paypal/cancel");
             orderRequest.put("application_context", applicationContext);
 
@@ -106,7 +159,7 @@ public class PaypalService {
 
             if (response.getStatusCode() == HttpStatus.CREATED && response.getBody() != null) {
                 JsonNode jsonNode = objectMapper.readTree(response.getBody());
-                String orderId = jsonNode.get("id").asText();
+                String paypalOrderId = jsonNode.get("id").asText();
 
                 // Extract approval URL
                 String approvalUrl = null;
@@ -125,93 +178,77 @@ public class PaypalService {
                 }
 
                 Map<String, String> result = new HashMap<>();
-                result.put("orderId", orderId);
+                result.put("orderId", paypalOrderId);
                 result.put("approvalUrl", approvalUrl);
 
-                log.info("Successfully created PayPal order: {}", orderId);
+                log.info("Successfully created PayPal order {} for {}", paypalOrderId, paidFor);
                 return result;
             } else {
                 throw new RuntimeException("Failed to create PayPal order");
             }
         } catch (Exception e) {
-            log.error("Error creating PayPal order", e);
+            log.error("Error creating PayPal order for {}", paidFor, e);
             throw new RuntimeException("Failed to create PayPal order: " + e.getMessage());
         }
     }
 
+    private Map<String, Object> usdAmount(BigDecimal amountVND) {
+        Map<String, Object> amount = new HashMap<>();
+        amount.put("currency_code", "USD");
+        amount.put("value", convertVNDtoUSD(amountVND).toString());
+        return amount;
+    }
+
     /**
-     * Create PayPal order for customer order payment
+     * Capture the payment of an approved PayPal order
      */
-    public Map<String, String> createOrder(BigDecimal amountVND, Long orderId) {
+    public JsonNode captureOrder(String paypalOrderId) {
         try {
             String accessToken = getAccessToken();
             String apiBase = getApiBase();
-            String url = apiBase + "/v2/checkout/orders";
-
-            // Convert VND to USD
-            BigDecimal amountUSD = convertVNDtoUSD(amountVND);
+            String url = apiBase + "/v2/checkout/orders/" + paypalOrderId + "/capture";
 
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_JSON);
             headers.setBearerAuth(accessToken);
 
-            Map<String, Object> orderRequest = new HashMap<>();
-            orderRequest.put("intent", "CAPTURE");
-
-            Map<String, Object> purchaseUnit = new HashMap<>();
-            Map<String, Object> amount = new HashMap<>();
-            amount.put("currency_code", "USD");
-            amount.put("value", amountUSD.toString());
-            purchaseUnit.put("amount", amount);
-            purchaseUnit.put("description", "Order #" + orderId + " Payment");
-            purchaseUnit.put("custom_id", orderId.toString()); // Important for webhook processing
-
-            orderRequest.put("purchase_units", Collections.singletonList(purchaseUnit));
-
-            Map<String, Object> applicationContext = new HashMap<>();
-            // Include orderId in return URL for payment capture
-            applicationContext.put("return_url",
-                    "http://localhost:7979/api/v1/payment/paypal/success?orderId=" + orderId);
-            applicationContext.put("cancel_url", "http://localhost:7979/api/v1/payment/paypal/cancel");
-            orderRequest.put("application_context", applicationContext);
-
-            String requestBody = objectMapper.writeValueAsString(orderRequest);
-            HttpEntity<String> request = new HttpEntity<>(requestBody, headers);
-
+            HttpEntity<String> request = new HttpEntity<>("{}", headers);
             ResponseEntity<String> response = restTemplate.postForEntity(url, request, String.class);
 
             if (response.getStatusCode() == HttpStatus.CREATED && response.getBody() != null) {
-                JsonNode jsonNode = objectMapper.readTree(response.getBody());
-                String paypalOrderId = jsonNode.get("id").asText();
+                return objectMapper.readTree(response.getBody());
+            } else {
+                throw new RuntimeException("Failed to capture PayPal order");
+            }
+        } catch (Exception e) {
+            log.error("Error capturing PayPal order: {}", paypalOrderId, e);
+            throw new RuntimeException("Failed to capture PayPal order: " + e.getMessage());
+        }
+    }
 
-                // Extract approval URL
-                String approvalUrl = null;
-                JsonNode links = jsonNode.get("links");
-                if (links != null && links.isArray()) {
-                    for (JsonNode link : links) {
-                        if ("approve".equals(link.get("rel").asText())) {
-                            approvalUrl = link.get("href").asText();
-                            break;
-                        }
-                    }
-                }
+    /**
+     * Get a PayPal order, e.g. to learn whether its capture completed
+     */
+    public JsonNode getOrder(String paypalOrderId) {
+        try {
+            String accessToken = getAccessToken();
+            String apiBase = getApiBase();
+            String url = apiBase + "/v2/checkout/orders/" + paypalOrderId;
 
-                if (approvalUrl == null) {
-                    throw new RuntimeException("Approval URL not found in PayPal response");
-                }
+            HttpHeaders headers = new HttpHeaders();
+            headers.setBearerAuth(accessToken);
 
-                Map<String, String> result = new HashMap<>();
-                result.put("orderId", paypalOrderId);
-                result.put("approvalUrl", approvalUrl);
+            ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.GET,
+                    new HttpEntity<>(headers), String.class);
 
-                log.info("Successfully created PayPal order for customer order: {}", orderId);
-                return result;
+            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
+                return objectMapper.readTree(response.getBody());
             } else {
-                throw new RuntimeException("Failed to create PayPal order");
+                throw new RuntimeException("Failed to get PayPal order");
             }
         } catch (Exception e) {
-            log.error("Error creating PayPal order for customer order: {}", orderId, e);
-            throw new RuntimeException("Failed to create PayPal order: " + e.getMessage());
+            log.error("Error getting PayPal order: {}", paypalOrderId, e);
+            throw new RuntimeException("Failed to get PayPal order: " + e.getMessage());
         }
     }
 
@@ -0,0 +1,187 @@
+package com.example.DACN.service;
+
+import com.example.DACN.dto.projection.IdCount;
+import com.example.DACN.entity.Category;
+import com.example.DACN.entity.Product;
+import com.example.DACN.repository.CategoryRepository;
+import com.example.DACN.repository.ProductRepository;
+import com.example.DACN.repository.ShopRepository;
+import com.example.DACN.util.CategoryPathUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the active product counters on categories and shops. A product counts
+ * while it is not deleted and its status is Active. A category counter also
+ * includes the products of all its descendants, so a change adjusts every
+ * category on the product's category path.
+ * <p>
+ * Writers take a {@link Snapshot} before changing a product and pass it with
+ * the snapshot after to {@link #apply}, inside the same transaction, so the
+ * counters commit or roll back with the product. Counters are adjusted in
+ * place with relative updates and periodically checked against the product
+ * table by {@link #reconcileCategories} and {@link #reconcileShops}.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProductCountService {
+
+    private static final String STATUS_ACTIVE = "Active";
+
+    private final CategoryRepository categoryRepository;
+    private final ShopRepository shopRepository;
+    private final ProductRepository productRepository;
+
+    /**
+     * Where a product is counted, if anywhere.
+     */
+    public record Snapshot(Long categoryId, String categoryPath, Long shopId, boolean counted) {
+
+        public static Snapshot of(Product product) {
+            Category category = product.getCategory();
+            return new Snapshot(
+                    category != null ? category.getCategoryId() : null,
+                    category != null ? category.getPath() : null,
+                    product.getShop() != null ? product.getShop().getShopId() : null,
+                    !Boolean.TRUE.equals(product.getHasDeleted()) && STATUS_ACTIVE.equals(product.getStatus()));
+        }
+
+        private List<Long> categoryIds() {
+            if (categoryPath != null) {
+                return CategoryPathUtil.ancestorIds(categoryPath);
+            }
+            return categoryId != null ? List.of(categoryId) : List.of();
+        }
+    }
+
+    /**
+     * Move the counters from where the product was counted to where it is
+     * counted now. Either snapshot may be null for a product that did not or
+     * no longer exists. Categories shared by both paths are left untouched.
+     */
+    public void apply(Snapshot before, Snapshot after) {
+        Map<Long, Integer> categoryDeltas = new HashMap<>();
+        Map<Long, Integer> shopDeltas = new HashMap<>();
+        collect(before, -1, categoryDeltas, shopDeltas);
+        collect(after, 1, categoryDeltas, shopDeltas);
+
+        List<Long> decremented = new ArrayList<>();
+        List<Long> incremented = new ArrayList<>();
+        categoryDeltas.forEach((categoryId, delta) -> {
+            if (delta < 0) {
+                decremented.add(categoryId);
+            } else if (delta > 0) {
+                incremented.add(categoryId);
+            }
+        });
+        if (!decremented.isEmpty()) {
+            categoryRepository.adjustActiveProductCount(decremented, -1);
+        }
+        if (!incremented.isEmpty()) {
+            categoryRepository.adjustActiveProductCount(incremented, 1);
+        }
+
+        shopDeltas.forEach((shopId, delta) -> {
+            if (delta != 0) {
+                shopRepository.adjustActiveProductCount(shopId, delta);
+            }
+        });
+    }
+
+    /**
+     * Carry a moved category's subtree count from its old ancestors to its new
+     * ones. {@code oldPath} and {@code newPath} are the category's own paths.
+     */
+    public void moveCategory(String oldPath, String newPath, int subtreeCount) {
+        if (subtreeCount == 0 || oldPath == null || oldPath.equals(newPath)) {
+            return;
+        }
+
+        List<Long> oldAncestors = new ArrayList<>(CategoryPathUtil.ancestorIds(oldPath));
+        List<Long> newAncestors = new ArrayList<>(CategoryPathUtil.ancestorIds(newPath));
+        // The category itself keeps its count; so do ancestors it stays under
+        oldAncestors.remove(oldAncestors.size() - 1);
+        newAncestors.remove(newAncestors.size() - 1);
+        List<Long> left = new ArrayList<>(oldAncestors);
+        left.removeAll(newAncestors);
+        newAncestors.removeAll(oldAncestors);
+
+        if (!left.isEmpty()) {
+            categoryRepository.adjustActiveProductCount(left, -subtreeCount);
+        }
+        if (!newAncestors.isEmpty()) {
+            categoryRepository.adjustActiveProductCount(newAncestors, subtreeCount);
+        }
+    }
+
+    /**
+     * Recount every category from the product table and correct counters that
+     * drifted. Category trees are small, so the roll-up is done in memory from
+     * one grouped count.
+     *
+     * @return number of counters corrected
+     */
+    @Transactional
+    public int reconcileCategories() {
+        Map<Long, Long> actual = new HashMap<>();
+        List<Category> categories = categoryRepository.findAll();
+        Map<Long, String> paths = new HashMap<>();
+        categories.forEach(category -> paths.put(category.getCategoryId(), category.getPath()));
+
+        for (IdCount count : productRepository.countActiveByCategory()) {
+            String path = paths.get(count.getId());
+            List<Long> ids = path != null ? CategoryPathUtil.ancestorIds(path) : List.of(count.getId());
+            ids.forEach(id -> actual.merge(id, count.getCount(), Long::sum));
+        }
+
+        int corrected = 0;
+        for (Category category : categories) {
+            long stored = category.getActiveProductCount() != null ? category.getActiveProductCount() : 0;
+            long expected = actual.getOrDefault(category.getCategoryId(), 0L);
+            if (stored != expected) {
+                corrected += categoryRepository.reconcileActiveProductCount(category.getCategoryId(), stored,
+                        expected);
+            }
+        }
+        return corrected;
+    }
+
+    /**
+     * Recount the shops in an ID range (exclusive lower, inclusive upper) and
+     * correct counters that drifted.
+     *
+     * @return number of counters corrected
+     */
+    @Transactional
+    public int reconcileShops(long fromId, long toId) {
+        Map<Long, Long> actual = new HashMap<>();
+        productRepository.countActiveByShopIdRange(fromId, toId)
+                .forEach(count -> actual.put(count.getId(), count.getCount()));
+
+        int corrected = 0;
+        for (IdCount stored : shopRepository.findActiveProductCounts(fromId, toId)) {
+            long expected = actual.getOrDefault(stored.getId(), 0L);
+            if (stored.getCount() != expected) {
+                corrected += shopRepository.reconcileActiveProductCount(stored.getId(), stored.getCount(), expected);
+            }
+        }
+        return corrected;
+    }
+
+    private static void collect(Snapshot snapshot, int delta, Map<Long, Integer> categoryDeltas,
+            Map<Long, Integer> shopDeltas) {
+        if (snapshot == null || !snapshot.counted()) {
+            return;
+        }
+        snapshot.categoryIds().forEach(id -> categoryDeltas.merge(id, delta, Integer::sum));
+        if (snapshot.shopId() != null) {
+            shopDeltas.merge(snapshot.shopId(), delta, Integer::sum);
+        }
+    }
+}
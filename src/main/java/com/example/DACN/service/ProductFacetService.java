@@ -0,0 +1,74 @@
+package com.example.DACN.service;
+
+import com.example.DACN.dto.response.ProductFacetResponse;
+import com.example.DACN.entity.Category;
+import com.example.DACN.entity.Shop;
+import com.example.DACN.repository.CategoryRepository;
+import com.example.DACN.repository.ShopRepository;
+import com.example.DACN.search.ProductFacetIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductFacetService {
+
+    private final ProductFacetIndex productFacetIndex;
+    private final CategoryRepository categoryRepository;
+    private final ShopRepository shopRepository;
+
+    /**
+     * Facet counts for the public product listing under the given filters.
+     * Counts come from the in-memory facet index; only the names of the
+     * returned categories and shops are read from the database.
+     */
+    @Transactional(readOnly = true)
+    public ProductFacetResponse getFacets(BigDecimal minPrice, BigDecimal maxPrice, Long categoryId, Long shopId) {
+        log.info("Getting product facets - minPrice: {}, maxPrice: {}, categoryId: {}, shopId: {}",
+                minPrice, maxPrice, categoryId, shopId);
+
+        // 1. Count in one pass over the index
+        ProductFacetIndex.FacetCounts counts = productFacetIndex.count(minPrice, maxPrice, categoryId, shopId);
+
+        // 2. Resolve names of the facet values present
+        Map<Long, String> categoryNames = categoryRepository.findAllById(counts.getCategoryCounts().keySet())
+                .stream()
+                .collect(Collectors.toMap(Category::getCategoryId, Category::getName));
+        Map<Long, String> shopNames = shopRepository.findAllById(counts.getShopCounts().keySet())
+                .stream()
+                .collect(Collectors.toMap(Shop::getShopId, Shop::getShopName));
+
+        // 3. Build response
+        List<ProductFacetResponse.PriceRange> priceRanges = counts.getPriceBucketCounts().stream()
+                .map(bucket -> new ProductFacetResponse.PriceRange(
+                        bucket.getMinPrice(), bucket.getMaxPrice(), bucket.getCount()))
+                .collect(Collectors.toList());
+
+        return ProductFacetResponse.builder()
+                .totalProducts(counts.getTotal())
+                .categories(toFacetValues(counts.getCategoryCounts(), categoryNames::get))
+                .shops(toFacetValues(counts.getShopCounts(), shopNames::get))
+                .priceRanges(priceRanges)
+                .build();
+    }
+
+    private List<ProductFacetResponse.FacetValue> toFacetValues(Map<Long, Integer> counts,
+            Function<Long, String> nameLookup) {
+        return counts.entrySet().stream()
+                .map(entry -> new ProductFacetResponse.FacetValue(
+                        entry.getKey(), nameLookup.apply(entry.getKey()), entry.getValue()))
+                .sorted(Comparator.comparing(ProductFacetResponse.FacetValue::getCount).reversed()
+                        .thenComparing(ProductFacetResponse.FacetValue::getId))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.DACN.service;
+
+import com.example.DACN.dto.response.ProductListItemResponse;
+import com.example.DACN.dto.response.ProductListResponse;
+import com.example.DACN.repository.ProductRepository;
+import com.example.DACN.search.ProductLeaderboard;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductLeaderboardService {
+
+    public static final int MAX_LIMIT = ProductLeaderboard.READ_LIMIT;
+    private static final int SHOP_TOP_PRODUCTS_LIMIT = 10;
+
+    private final ProductLeaderboard productLeaderboard;
+    private final ProductRepository productRepository;
+
+    public ProductListResponse getBestSellers(Long categoryId, Long shopId, int limit) {
+        log.info("Getting best sellers - categoryId: {}, shopId: {}, limit: {}", categoryId, shopId, limit);
+
+        validateScope(categoryId, shopId, limit);
+        List<ProductListItemResponse> products = project(productLeaderboard.topBestSelling(categoryId, shopId, limit));
+
+        return ProductListResponse.builder()
+                .data(products)
+                .build();
+    }
+
+    public ProductListResponse getNewestProducts(Long categoryId, Long shopId, int limit) {
+        log.info("Getting newest products - categoryId: {}, shopId: {}, limit: {}", categoryId, shopId, limit);
+
+        validateScope(categoryId, shopId, limit);
+        List<ProductListItemResponse> products = project(productLeaderboard.topNewest(categoryId, shopId, limit));
+
+        return ProductListResponse.builder()
+                .data(products)
+                .build();
+    }
+
+    public ProductListResponse getShopTopProducts(Long shopId) {
+        log.info("Getting top products for shop ID: {}", shopId);
+
+        List<ProductListItemResponse> products = project(productLeaderboard.topBestSelling(null, shopId,
+                SHOP_TOP_PRODUCTS_LIMIT));
+
+        return ProductListResponse.builder()
+                .data(products)
+                .build();
+    }
+
+    /**
+     * Load the list items of ranked products in one query, keeping the ranking
+     * order. Products deactivated since they were ranked are left out.
+     */
+    private List<ProductListItemResponse> project(List<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<Long, ProductListItemResponse> itemsById = productRepository
+                .findActiveProductListItemsByProductIdIn(productIds).stream()
+                .collect(Collectors.toMap(ProductListItemResponse::getProductId, Function.identity()));
+        return productIds.stream()
+                .map(itemsById::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private void validateScope(Long categoryId, Long shopId, int limit) {
+        if (categoryId != null && shopId != null) {
+            throw new IllegalArgumentException("Filter by either category_id or shop_id, not both");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+    }
+}
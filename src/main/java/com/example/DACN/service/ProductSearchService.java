@@ -0,0 +1,68 @@
+package com.example.DACN.service;
+
+import com.example.DACN.dto.response.ProductListItemResponse;
+import com.example.DACN.dto.response.ProductListResponse;
+import com.example.DACN.entity.Product;
+import com.example.DACN.mapper.ProductMapper;
+import com.example.DACN.repository.ProductRepository;
+import com.example.DACN.search.ProductSearchIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSearchService {
+
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+
+    /**
+     * Full-text product search. Ranking and filtering happen in the search index;
+     * the database is only hit for the IDs on the requested page.
+     */
+    @Transactional(readOnly = true)
+    public ProductListResponse searchProducts(String keyword, BigDecimal minPrice, BigDecimal maxPrice,
+            Long categoryId, Long shopId, int page, int size) {
+        log.info("Searching products - keyword: {}, minPrice: {}, maxPrice: {}, categoryId: {}, shopId: {}, page: {}, size: {}",
+                keyword, minPrice, maxPrice, categoryId, shopId, page, size);
+
+        // Rank matching product IDs
+        ProductSearchIndex.SearchResult result = productSearchIndex.search(
+                keyword, minPrice, maxPrice, categoryId, shopId, page, size);
+
+        // Load the page of products in one query
+        List<Long> productIds = result.getProductIds();
+        Map<Long, Product> productsById = productIds.isEmpty()
+                ? Collections.emptyMap()
+                : productRepository.findAllWithShopAndCategoryByProductIdIn(productIds).stream()
+                        .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+
+        // Keep the index rank order; skip rows deleted since they were indexed
+        List<ProductListItemResponse> productList = productIds.stream()
+                .map(productsById::get)
+                .filter(Objects::nonNull)
+                .map(productMapper::toProductListItemResponse)
+                .collect(Collectors.toList());
+
+        int totalPages = (int) ((result.getTotalHits() + size - 1) / size);
+
+        log.info("Search matched {} products, returning {}", result.getTotalHits(), productList.size());
+
+        return ProductListResponse.builder()
+                .data(productList)
+                .totalPage(totalPages)
+                .build();
+    }
+}
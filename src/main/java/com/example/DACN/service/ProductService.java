@@ -1,6 +1,8 @@
 package com.example.DACN.service;
 
+import com.example.DACN.cache.ProductDetailCache;
 import com.example.DACN.constant.RoleConstants;
+import com.example.DACN.dto.projection.VersionStamp;
 import com.example.DACN.dto.request.CreateProductRequest;
 import com.example.DACN.dto.request.UpdateProductRequest;
 import com.example.DACN.dto.request.UpdateProductStatusRequest;
@@ -12,15 +14,20 @@ import com.example.DACN.dto.response.ProductListResponse;
 import com.example.DACN.dto.response.UpdateProductResponse;
 import com.example.DACN.dto.response.UpdateProductStatusResponse;
 import com.example.DACN.entity.*;
+import com.example.DACN.event.ProductChangedEvent;
 import com.example.DACN.exception.ResourceNotFoundException;
 import com.example.DACN.exception.UnauthorizedException;
 import com.example.DACN.mapper.ProductMapper;
 import com.example.DACN.repository.*;
+import com.example.DACN.util.CategoryPathUtil;
+import com.example.DACN.util.CursorUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -28,7 +35,15 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -43,8 +58,13 @@ public class ProductService {
     private final UserRepository userRepository;
     private final CloudinaryService cloudinaryService;
     private final ProductMapper productMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductDetailCache productDetailCache;
+    private final ProductCountService productCountService;
 
     private static final int MAX_IMAGES = 9;
+    private static final String SORT_CREATED_AT = "created_at";
+    private static final String SORT_SOLD_COUNT = "sold_count";
 
     @Transactional
     public CreateProductResponse createProduct(String email, CreateProductRequest request, List<MultipartFile> images)
@@ -101,6 +121,7 @@ public class ProductService {
         product.setSoldCount(0);
         product.setStatus("Active");
         product.setHasDeleted(false);
+        product.setMainImageUrl(imageUrls != null && !imageUrls.isEmpty() ? imageUrls.get(0) : null);
 
         // Save product
         Product savedProduct = productRepository.save(product);
@@ -118,6 +139,11 @@ public class ProductService {
             log.info("Created {} product images", imageUrls.size());
         }
 
+        productCountService.apply(null, ProductCountService.Snapshot.of(savedProduct));
+
+        eventPublisher.publishEvent(
+                new ProductChangedEvent(savedProduct.getProductId(), ProductChangedEvent.ChangeType.CREATED));
+
         return productMapper.toCreateProductResponse(savedProduct);
     }
 
@@ -148,6 +174,7 @@ public class ProductService {
         if (!product.getShop().getShopId().equals(shop.getShopId())) {
             throw new UnauthorizedException("You can only update your own products");
         }
+        ProductCountService.Snapshot countedBefore = ProductCountService.Snapshot.of(product);
 
         // Validate category if provided
         if (request.getCategoryId() != null) {
@@ -193,6 +220,7 @@ public class ProductService {
                 productImage.setDisplayOrder(i);
                 productImageRepository.save(productImage);
             }
+            product.setMainImageUrl(imageUrls.isEmpty() ? null : imageUrls.get(0));
             log.info("Updated {} product images", imageUrls.size());
         }
 
@@ -216,6 +244,10 @@ public class ProductService {
         // Save updated product
         Product updatedProduct = productRepository.save(product);
         log.info("Product updated with ID: {}", updatedProduct.getProductId());
+        productCountService.apply(countedBefore, ProductCountService.Snapshot.of(updatedProduct));
+
+        eventPublisher.publishEvent(
+                new ProductChangedEvent(updatedProduct.getProductId(), ProductChangedEvent.ChangeType.UPDATED));
 
         return productMapper.toUpdateProductResponse(updatedProduct);
     }
@@ -247,9 +279,14 @@ public class ProductService {
         }
 
         // Soft delete the product
+        ProductCountService.Snapshot countedBefore = ProductCountService.Snapshot.of(product);
         product.setHasDeleted(true);
         Product deletedProduct = productRepository.save(product);
         log.info("Product soft deleted with ID: {}", deletedProduct.getProductId());
+        productCountService.apply(countedBefore, ProductCountService.Snapshot.of(deletedProduct));
+
+        eventPublisher.publishEvent(
+                new ProductChangedEvent(deletedProduct.getProductId(), ProductChangedEvent.ChangeType.DELETED));
 
         return productMapper.toDeleteProductResponse(deletedProduct);
     }
@@ -276,14 +313,11 @@ public class ProductService {
         // Create pageable
         Pageable pageable = PageRequest.of(page, size, sort);
 
-        // Get products with filters
-        Page<Product> productPage = productRepository.findProductsWithFilters(
-                minPrice, maxPrice, categoryId, shopId, "Active", pageable);
+        // Get products with filters (list-item projection, shop and category joined)
+        Page<ProductListItemResponse> productPage = productRepository.findProductListItemsWithFilters(
+                minPrice, maxPrice, categorySubtreePattern(categoryId), shopId, "Active", pageable);
 
-        // Map to response
-        List<ProductListItemResponse> productList = productPage.getContent().stream()
-                .map(productMapper::toProductListItemResponse)
-                .collect(Collectors.toList());
+        List<ProductListItemResponse> productList = productPage.getContent();
 
         int totalPages = productPage.getTotalPages();
 
@@ -295,9 +329,109 @@ public class ProductService {
                 .build();
     }
 
+    /**
+     * Keyset (seek) pagination over the public product listing. Seeks on
+     * (createdAt, productId) or (soldCount, productId) so page cost does not grow
+     * with depth, and never issues a COUNT query. An empty or null cursor starts
+     * from the first page; any other sort_by is rejected.
+     */
+    public ProductListResponse getProductsByCursor(
+            BigDecimal minPrice,
+            BigDecimal maxPrice,
+            Long categoryId,
+            Long shopId,
+            String sortBy,
+            String cursor,
+            int size) {
+
+        log.info(
+                "Getting products by cursor - minPrice: {}, maxPrice: {}, categoryId: {}, shopId: {}, sortBy: {}, size: {}",
+                minPrice, maxPrice, categoryId, shopId, sortBy, size);
+
+        boolean bySoldCount = SORT_SOLD_COUNT.equalsIgnoreCase(sortBy);
+        if (!bySoldCount && sortBy != null && !SORT_CREATED_AT.equalsIgnoreCase(sortBy)) {
+            throw new IllegalArgumentException("Cursor pagination supports sort_by created_at or sold_count only");
+        }
+        String sortKey = bySoldCount ? SORT_SOLD_COUNT : SORT_CREATED_AT;
+        Pageable pageable = PageRequest.of(0, size);
+
+        Long cursorProductId = null;
+        String cursorValue = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = CursorUtil.decode(cursor, 3);
+            if (!sortKey.equals(parts[0])) {
+                throw new IllegalArgumentException("Cursor does not match sort_by");
+            }
+            cursorValue = parts[1];
+            cursorProductId = parseCursorLong(parts[2]);
+        }
+
+        String categoryPath = categorySubtreePattern(categoryId);
+        Slice<ProductListItemResponse> productSlice;
+        if (bySoldCount) {
+            Integer cursorSoldCount = cursorValue != null ? (int) parseCursorLong(cursorValue) : null;
+            productSlice = productRepository.findProductsWithFiltersAfterSoldCount(
+                    minPrice, maxPrice, categoryPath, shopId, "Active", cursorSoldCount, cursorProductId, pageable);
+        } else {
+            LocalDateTime cursorCreatedAt = cursorValue != null ? parseCursorDateTime(cursorValue) : null;
+            productSlice = productRepository.findProductsWithFiltersAfterCreatedAt(
+                    minPrice, maxPrice, categoryPath, shopId, "Active", cursorCreatedAt, cursorProductId, pageable);
+        }
+
+        List<ProductListItemResponse> productList = productSlice.getContent();
+
+        String nextCursor = null;
+        if (productSlice.hasNext() && !productList.isEmpty()) {
+            ProductListItemResponse last = productList.get(productList.size() - 1);
+            Object lastValue = bySoldCount ? last.getSoldCount() : last.getCreatedAt();
+            nextCursor = CursorUtil.encode(sortKey, lastValue, last.getProductId());
+        }
+
+        log.info("Found {} products, has next page: {}", productList.size(), nextCursor != null);
+
+        return ProductListResponse.builder()
+                .data(productList)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Path pattern matching a category and all of its descendants, or null when
+     * there is no category filter. An unknown category gets a pattern no path
+     * can match, so the listing is empty as before.
+     */
+    private String categorySubtreePattern(Long categoryId) {
+        if (categoryId == null) {
+            return null;
+        }
+        String path = categoryRepository.findPathByCategoryId(categoryId)
+                .orElseGet(() -> CategoryPathUtil.childPath(null, categoryId));
+        return CategoryPathUtil.subtreePattern(path);
+    }
+
+    private long parseCursorLong(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private LocalDateTime parseCursorDateTime(String value) {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
     public ProductDetailResponse getProductById(Long productId) {
         log.info("Getting product details for ID: {}", productId);
 
+        return productDetailCache.get(productId, this::loadProductDetail);
+    }
+
+    private ProductDetailResponse loadProductDetail(Long productId) {
         // Find product by ID and ensure it's not deleted
         Product product = productRepository.findByProductIdAndHasDeletedFalse(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
@@ -319,6 +453,57 @@ public class ProductService {
         return response;
     }
 
+    public VersionStamp getShopProductsVersion(Long shopId) {
+        return productRepository.findListVersion(null, null, null, shopId, null);
+    }
+
+    /**
+     * Product details for up to 100 IDs, in request order. Cached entries are
+     * reused; the rest are loaded with one product query and one image query.
+     * Missing or deleted products are left out.
+     */
+    public List<ProductDetailResponse> getProductsByIds(List<Long> productIds) {
+        log.info("Getting product details for {} IDs", productIds.size());
+
+        List<Long> distinctIds = productIds.stream().distinct().collect(Collectors.toList());
+        Map<Long, ProductDetailResponse> responsesById = productDetailCache.getAll(distinctIds,
+                this::loadProductDetails);
+
+        List<ProductDetailResponse> responses = distinctIds.stream()
+                .map(responsesById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+
+        log.info("Found {} of {} requested products", responses.size(), distinctIds.size());
+
+        return responses;
+    }
+
+    private Map<Long, ProductDetailResponse> loadProductDetails(Set<? extends Long> productIds) {
+        List<Long> ids = List.copyOf(productIds);
+
+        // Products with shop and category in one query
+        List<Product> products = productRepository.findAllWithShopAndCategoryByProductIdIn(ids);
+        if (products.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        // Images of all products in one query, grouped by product
+        Map<Long, List<String>> imageUrlsByProductId = productImageRepository
+                .findByProductIdsOrderByDisplayOrder(ids)
+                .stream()
+                .collect(Collectors.groupingBy(image -> image.getProduct().getProductId(),
+                        Collectors.mapping(ProductImage::getImageUrl, Collectors.toList())));
+
+        Map<Long, ProductDetailResponse> responses = new HashMap<>();
+        for (Product product : products) {
+            ProductDetailResponse response = productMapper.toProductDetailResponse(product);
+            response.setImages(imageUrlsByProductId.getOrDefault(product.getProductId(), new ArrayList<>()));
+            responses.put(product.getProductId(), response);
+        }
+        return responses;
+    }
+
     public ProductListResponse getProductsByShopId(Long shopId, int page, int size) {
         log.info("Getting products for shop ID: {}, page: {}, size: {}", shopId, page, size);
 
@@ -326,13 +511,10 @@ public class ProductService {
         Sort sort = Sort.by(Sort.Direction.DESC, "createdAt");
         Pageable pageable = PageRequest.of(page, size, sort);
 
-        // Get products for the shop
-        Page<Product> productPage = productRepository.findByShopShopIdAndHasDeletedFalse(shopId, pageable);
+        // Get products for the shop (list-item projection, shop and category joined)
+        Page<ProductListItemResponse> productPage = productRepository.findProductListItemsByShopId(shopId, pageable);
 
-        // Map to response
-        List<ProductListItemResponse> productList = productPage.getContent().stream()
-                .map(productMapper::toProductListItemResponse)
-                .collect(Collectors.toList());
+        List<ProductListItemResponse> productList = productPage.getContent();
 
         int totalPages = productPage.getTotalPages();
 
@@ -344,6 +526,7 @@ public class ProductService {
                 .build();
     }
 
+    @Transactional
     public UpdateProductStatusResponse updateProductStatus(Long productId, UpdateProductStatusRequest request) {
         log.info("Updating status for product ID: {}", productId);
 
@@ -356,11 +539,16 @@ public class ProductService {
         }
 
         // Update status
+        ProductCountService.Snapshot countedBefore = ProductCountService.Snapshot.of(product);
         product.setStatus(request.getStatus());
 
         // Save updated product
         Product updatedProduct = productRepository.save(product);
         log.info("Product status updated to {} for ID: {}", updatedProduct.getStatus(), updatedProduct.getProductId());
+        productCountService.apply(countedBefore, ProductCountService.Snapshot.of(updatedProduct));
+
+        eventPublisher.publishEvent(new ProductChangedEvent(updatedProduct.getProductId(),
+                ProductChangedEvent.ChangeType.STATUS_CHANGED));
 
         return productMapper.toUpdateProductStatusResponse(updatedProduct);
     }
@@ -0,0 +1,251 @@
+package com.example.DACN.service;
+
+import com.example.DACN.dto.projection.BucketSales;
+import com.example.DACN.dto.response.ProductSalesResponse;
+import com.example.DACN.dto.response.SalesBucketResponse;
+import com.example.DACN.dto.response.SellerAnalyticsResponse;
+import com.example.DACN.entity.BackfillCheckpoint;
+import com.example.DACN.entity.Order;
+import com.example.DACN.entity.OrderItem;
+import com.example.DACN.entity.ShopSalesRollup;
+import com.example.DACN.repository.BackfillCheckpointRepository;
+import com.example.DACN.repository.OrderItemRepository;
+import com.example.DACN.repository.ProductSalesRollupRepository;
+import com.example.DACN.repository.ShopSalesRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Hourly and daily sales rollups per shop and per product, so seller
+ * dashboards read a few pre-summed rows instead of every order. Every order
+ * counts in the buckets of the time it was placed: placing it adds to them,
+ * and cancelling or delivering it later updates the same buckets.
+ * <p>
+ * The record methods run in the transaction that changes the order, so a
+ * rollup never counts an order that was rolled back.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SalesRollupService {
+
+    private static final List<String> GRANULARITIES = List.of(ShopSalesRollup.GRANULARITY_HOUR,
+            ShopSalesRollup.GRANULARITY_DAY);
+    private static final int TOP_PRODUCTS = 10;
+    private static final long MAX_DAYS = 366;
+    private static final long MAX_HOURLY_DAYS = 31;
+
+    private final ShopSalesRollupRepository shopSalesRollupRepository;
+    private final ProductSalesRollupRepository productSalesRollupRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final BackfillCheckpointRepository backfillCheckpointRepository;
+
+    public void recordOrderPlaced(Order order, Collection<OrderItem> items) {
+        LocalDateTime placedAt = placedAt(order);
+        for (String granularity : GRANULARITIES) {
+            shopSalesRollupRepository.increment(order.getShop().getShopId(), granularity,
+                    bucketStart(placedAt, granularity), 1, order.getFinalAmount(), order.getVoucherDiscount(),
+                    0, BigDecimal.ZERO, 0);
+        }
+        addUnits(order, items, 1);
+    }
+
+    /**
+     * Count a cancelled order and take its units back out of the product
+     * buckets.
+     */
+    public void recordOrderCancelled(Order order) {
+        LocalDateTime placedAt = placedAt(order);
+        for (String granularity : GRANULARITIES) {
+            shopSalesRollupRepository.increment(order.getShop().getShopId(), granularity,
+                    bucketStart(placedAt, granularity), 0, BigDecimal.ZERO, BigDecimal.ZERO,
+                    1, order.getFinalAmount(), 0);
+        }
+        addUnits(order, orderItemRepository.findByOrderOrderId(order.getOrderId()), -1);
+    }
+
+    public void recordOrderDelivered(Order order) {
+        LocalDateTime placedAt = placedAt(order);
+        for (String granularity : GRANULARITIES) {
+            shopSalesRollupRepository.increment(order.getShop().getShopId(), granularity,
+                    bucketStart(placedAt, granularity), 0, BigDecimal.ZERO, BigDecimal.ZERO,
+                    0, BigDecimal.ZERO, 1);
+        }
+    }
+
+    /**
+     * Recompute every bucket of one day from its orders, replacing what the
+     * rollups held. Used to fill the rollups for orders placed before they
+     * existed. Only for days that are over: orders placed while a day is
+     * rebuilt could be counted twice or not at all.
+     */
+    @Transactional
+    public void rebuildDay(LocalDate day) {
+        LocalDateTime from = day.atStartOfDay();
+        LocalDateTime to = from.plusDays(1);
+
+        // 1. Drop the day's buckets
+        shopSalesRollupRepository.deleteBuckets(from, to);
+        productSalesRollupRepository.deleteBuckets(from, to);
+
+        // 2. Write the hourly buckets and sum them into the daily ones
+        Set<Long> shopIds = new HashSet<>();
+        for (BucketSales hour : shopSalesRollupRepository.sumOrdersByHour(from, to)) {
+            shopSalesRollupRepository.increment(hour.getShopId(), ShopSalesRollup.GRANULARITY_HOUR,
+                    from.plusHours(hour.getHour()), hour.getOrderCount(), hour.getGmv(), hour.getVoucherDiscount(),
+                    hour.getCancelledCount(), hour.getCancelledAmount(), hour.getDeliveredCount());
+            shopSalesRollupRepository.increment(hour.getShopId(), ShopSalesRollup.GRANULARITY_DAY, from,
+                    hour.getOrderCount(), hour.getGmv(), hour.getVoucherDiscount(),
+                    hour.getCancelledCount(), hour.getCancelledAmount(), hour.getDeliveredCount());
+            shopIds.add(hour.getShopId());
+        }
+        for (BucketSales hour : productSalesRollupRepository.sumItemsByHour(from, to)) {
+            productSalesRollupRepository.increment(hour.getShopId(), hour.getProductId(),
+                    ShopSalesRollup.GRANULARITY_HOUR, from.plusHours(hour.getHour()), hour.getUnits(), hour.getGmv());
+            productSalesRollupRepository.increment(hour.getShopId(), hour.getProductId(),
+                    ShopSalesRollup.GRANULARITY_DAY, from, hour.getUnits(), hour.getGmv());
+        }
+
+        if (!shopIds.isEmpty()) {
+            log.info("Rebuilt sales rollups of {} for {} shops", day, shopIds.size());
+        }
+    }
+
+    /**
+     * Checkpoint of the rollup backfill, created on the first call. Orders
+     * placed from {@code today} on are counted live, so that is the last day
+     * the backfill has to rebuild.
+     */
+    @Transactional
+    public BackfillCheckpoint findOrStartBackfill(LocalDate today) {
+        return backfillCheckpointRepository.findById(BackfillCheckpoint.SALES_ROLLUPS).orElseGet(() -> {
+            BackfillCheckpoint checkpoint = new BackfillCheckpoint();
+            checkpoint.setJobName(BackfillCheckpoint.SALES_ROLLUPS);
+            checkpoint.setLiveFrom(today);
+            return backfillCheckpointRepository.save(checkpoint);
+        });
+    }
+
+    /**
+     * Rebuild one day for the backfill and move its checkpoint past it, in one
+     * transaction.
+     */
+    @Transactional
+    public void backfillDay(LocalDate day) {
+        rebuildDay(day);
+
+        BackfillCheckpoint checkpoint = backfillCheckpointRepository.findById(BackfillCheckpoint.SALES_ROLLUPS)
+                .orElseThrow(() -> new IllegalStateException("Sales rollup backfill was not started"));
+        checkpoint.setDoneThrough(day);
+        backfillCheckpointRepository.save(checkpoint);
+    }
+
+    /**
+     * Sales of a shop from the first to the last day of the range, inclusive,
+     * read only from the rollups.
+     */
+    @Transactional(readOnly = true)
+    public SellerAnalyticsResponse getShopAnalytics(Long shopId, LocalDate from, LocalDate to,
+            String granularity) {
+        // 1. Validate the range
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("The end date must not be before the start date");
+        }
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        if (days > MAX_DAYS) {
+            throw new IllegalArgumentException("The range must not exceed " + MAX_DAYS + " days");
+        }
+        if (ShopSalesRollup.GRANULARITY_HOUR.equals(granularity) && days > MAX_HOURLY_DAYS) {
+            throw new IllegalArgumentException("Hourly ranges must not exceed " + MAX_HOURLY_DAYS + " days");
+        }
+
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+
+        // 2. Read the series and sum it
+        List<SalesBucketResponse> buckets = new ArrayList<>();
+        SalesBucketResponse totals = SalesBucketResponse.builder()
+                .bucketStart(start)
+                .gmv(BigDecimal.ZERO)
+                .voucherDiscount(BigDecimal.ZERO)
+                .cancelledAmount(BigDecimal.ZERO)
+                .build();
+        for (ShopSalesRollup rollup : shopSalesRollupRepository.findBuckets(shopId, granularity, start, end)) {
+            buckets.add(SalesBucketResponse.builder()
+                    .bucketStart(rollup.getBucketStart())
+                    .orderCount(rollup.getOrderCount())
+                    .gmv(rollup.getGmv())
+                    .voucherDiscount(rollup.getVoucherDiscount())
+                    .cancelledCount(rollup.getCancelledCount())
+                    .cancelledAmount(rollup.getCancelledAmount())
+                    .deliveredCount(rollup.getDeliveredCount())
+                    .build());
+            totals.setOrderCount(totals.getOrderCount() + rollup.getOrderCount());
+            totals.setGmv(totals.getGmv().add(rollup.getGmv()));
+            totals.setVoucherDiscount(totals.getVoucherDiscount().add(rollup.getVoucherDiscount()));
+            totals.setCancelledCount(totals.getCancelledCount() + rollup.getCancelledCount());
+            totals.setCancelledAmount(totals.getCancelledAmount().add(rollup.getCancelledAmount()));
+            totals.setDeliveredCount(totals.getDeliveredCount() + rollup.getDeliveredCount());
+        }
+
+        // 3. Read the best-selling products
+        List<ProductSalesResponse> topProducts = productSalesRollupRepository.findTopProducts(shopId, start, end,
+                PageRequest.of(0, TOP_PRODUCTS));
+
+        return SellerAnalyticsResponse.builder()
+                .shopId(shopId)
+                .from(from)
+                .to(to)
+                .granularity(granularity)
+                .totals(totals)
+                .buckets(buckets)
+                .topProducts(topProducts)
+                .build();
+    }
+
+    // Units are summed per product first, so an order lists each product once
+    private void addUnits(Order order, Collection<OrderItem> items, int sign) {
+        Map<Long, Long> units = new TreeMap<>();
+        Map<Long, BigDecimal> revenue = new TreeMap<>();
+        for (OrderItem item : items) {
+            Long productId = item.getProduct().getProductId();
+            units.merge(productId, item.getQuantity().longValue(), Long::sum);
+            revenue.merge(productId, item.getPriceAtPurchase().multiply(BigDecimal.valueOf(item.getQuantity())),
+                    BigDecimal::add);
+        }
+
+        LocalDateTime placedAt = placedAt(order);
+        units.forEach((productId, quantity) -> {
+            for (String granularity : GRANULARITIES) {
+                productSalesRollupRepository.increment(order.getShop().getShopId(), productId, granularity,
+                        bucketStart(placedAt, granularity), sign * quantity,
+                        revenue.get(productId).multiply(BigDecimal.valueOf(sign)));
+            }
+        });
+    }
+
+    private LocalDateTime placedAt(Order order) {
+        return order.getCreatedAt() != null ? order.getCreatedAt() : LocalDateTime.now();
+    }
+
+    private LocalDateTime bucketStart(LocalDateTime time, String granularity) {
+        return ShopSalesRollup.GRANULARITY_HOUR.equals(granularity)
+                ? time.truncatedTo(ChronoUnit.HOURS)
+                : time.truncatedTo(ChronoUnit.DAYS);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.DACN.service;
+
+import com.example.DACN.dto.response.SearchSuggestionResponse;
+import com.example.DACN.search.SuggestionIndex;
+import com.example.DACN.search.SuggestionTrie;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SearchSuggestionService {
+
+    public static final int MAX_QUERY_LENGTH = 100;
+
+    private final SuggestionIndex suggestionIndex;
+
+    /**
+     * Typeahead suggestions for the search box, answered from the in-memory
+     * suggestion index without touching the database.
+     */
+    public SearchSuggestionResponse suggest(String query, int limit) {
+        log.debug("Getting search suggestions - query: {}, limit: {}", query, limit);
+
+        // 1. Validate input
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Query must not be blank");
+        }
+        if (query.length() > MAX_QUERY_LENGTH) {
+            throw new IllegalArgumentException("Query must be at most " + MAX_QUERY_LENGTH + " characters");
+        }
+        if (limit < 1 || limit > suggestionIndex.getTopK()) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + suggestionIndex.getTopK());
+        }
+
+        // 2. Complete the prefix in every section
+        SuggestionIndex.Suggestions suggestions = suggestionIndex.suggest(query, limit);
+
+        return SearchSuggestionResponse.builder()
+                .query(query)
+                .products(toItems(suggestions.getProducts()))
+                .categories(toItems(suggestions.getCategories()))
+                .shops(toItems(suggestions.getShops()))
+                .build();
+    }
+
+    private List<SearchSuggestionResponse.SuggestionItem> toItems(List<SuggestionTrie.Suggestion> suggestions) {
+        return suggestions.stream()
+                .map(suggestion -> new SearchSuggestionResponse.SuggestionItem(suggestion.id(), suggestion.text(),
+                        suggestion.slug()))
+                .toList();
+    }
+}
@@ -11,6 +11,7 @@ import com.example.DACN.entity.Payment;
 import com.example.DACN.entity.Role;
 import com.example.DACN.entity.Shop;
 import com.example.DACN.entity.User;
+import com.example.DACN.event.ShopChangedEvent;
 import com.example.DACN.exception.DuplicateResourceException;
 import com.example.DACN.exception.ResourceNotFoundException;
 import com.example.DACN.exception.UnauthorizedException;
@@ -20,6 +21,7 @@ import com.example.DACN.repository.ShopRepository;
 import com.example.DACN.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -43,6 +45,7 @@ public class ShopService {
     private final PaypalService paypalService;
     private final CloudinaryService cloudinaryService;
     private final com.example.DACN.mapper.ShopMapper shopMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     private static final BigDecimal SHOP_REGISTRATION_FEE_VND = new BigDecimal("50000");
     private static final String PAYMENT_STATUS_PENDING = "PENDING";
@@ -202,6 +205,7 @@ public class ShopService {
         shop.setIsApproved(true);
         shopRepository.save(shop);
         log.info("Approved shop with ID: {}", shop.getShopId());
+        eventPublisher.publishEvent(new ShopChangedEvent(shop.getShopId()));
 
         // Update user role to SELLER
         User user = shop.getUser();
@@ -265,6 +269,7 @@ public class ShopService {
         // Save shop
         Shop updatedShop = shopRepository.save(shop);
         log.info("Shop updated successfully with ID: {}", updatedShop.getShopId());
+        eventPublisher.publishEvent(new ShopChangedEvent(updatedShop.getShopId()));
 
         // Map to response using ShopMapper
         return shopMapper.toUpdateShopResponse(updatedShop);
@@ -0,0 +1,164 @@
+package com.example.DACN.service;
+
+import com.example.DACN.entity.Order;
+import com.example.DACN.entity.OrderStatusHistory;
+import com.example.DACN.entity.Product;
+import com.example.DACN.entity.StockReservation;
+import com.example.DACN.event.OrderCancelledEvent;
+import com.example.DACN.event.ProductChangedEvent;
+import com.example.DACN.repository.OrderRepository;
+import com.example.DACN.repository.OrderStatusHistoryRepository;
+import com.example.DACN.repository.ProductRepository;
+import com.example.DACN.repository.StockReservationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Time-limited holds on the stock of unpaid PayPal orders. Checkout takes the
+ * stock as usual and records a hold per product; capturing the payment turns
+ * the holds into a sale, and holds still unpaid after the TTL are released by
+ * the sweeper, which puts the stock back on sale and cancels the order.
+ * <p>
+ * Every hold changes state with a conditional UPDATE from Held, so a capture
+ * and a release racing on the same order cannot both win.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockReservationService {
+
+    private final StockReservationRepository stockReservationRepository;
+    private final OrderRepository orderRepository;
+    private final OrderStatusHistoryRepository orderStatusHistoryRepository;
+    private final ProductRepository productRepository;
+    private final SalesRollupService salesRollupService;
+    private final OutboxService outboxService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${order.reservation.ttl-minutes:30}")
+    private long ttlMinutes;
+
+    /**
+     * Record holds for the stock an unpaid order has just taken. Runs in the
+     * checkout transaction.
+     */
+    public void hold(Order order, Map<Long, Integer> quantities, Map<Long, Product> products) {
+        LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(ttlMinutes);
+
+        List<StockReservation> reservations = new ArrayList<>();
+        quantities.forEach((productId, quantity) -> {
+            StockReservation reservation = new StockReservation();
+            reservation.setOrder(order);
+            reservation.setProduct(products.get(productId));
+            reservation.setQuantity(quantity);
+            reservation.setStatus(StockReservation.STATUS_HELD);
+            reservation.setExpiresAt(expiresAt);
+            reservations.add(reservation);
+        });
+        stockReservationRepository.saveAll(reservations);
+        log.info("Held {} products for order {} until {}", reservations.size(), order.getOrderId(), expiresAt);
+    }
+
+    /**
+     * Turn the order's holds into a sale. Returns false if the holds were
+     * already released and their stock is back on sale; orders placed without
+     * holds always convert.
+     */
+    public boolean convert(Long orderId) {
+        if (stockReservationRepository.convertHeld(orderId) > 0) {
+            return true;
+        }
+        return !stockReservationRepository.existsByOrderOrderIdAndStatus(orderId,
+                StockReservation.STATUS_RELEASED);
+    }
+
+    /**
+     * Undo {@link #convert} for an order whose payment capture did not go
+     * through. The holds keep their original expiry.
+     */
+    public void revertConversion(Long orderId) {
+        stockReservationRepository.revertConverted(orderId);
+    }
+
+    /**
+     * Release the holds of an order being cancelled. Returns true if they had
+     * already been released by the sweeper, in which case their stock is back
+     * on sale and must not be restored again.
+     */
+    public boolean releaseOnCancel(Long orderId) {
+        if (stockReservationRepository.releaseHeld(orderId) > 0) {
+            return false;
+        }
+        return stockReservationRepository.existsByOrderOrderIdAndStatus(orderId,
+                StockReservation.STATUS_RELEASED);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Long> findExpiredOrderIds(int limit) {
+        return stockReservationRepository.findExpiredOrderIds(LocalDateTime.now(), PageRequest.of(0, limit));
+    }
+
+    /**
+     * Release the expired holds of one order, put their stock back on sale and
+     * cancel the order. An order the seller has moved past Pending keeps its
+     * stock instead. Returns false if there was nothing to release, e.g. the
+     * payment was captured since the order was picked.
+     */
+    @Transactional
+    public boolean releaseExpired(Long orderId) {
+        // 1. Keep the stock of orders that are no longer waiting for payment
+        Optional<Order> order = orderRepository.findByOrderIdAndHasDeletedFalse(orderId);
+        if (order.isPresent() && !"Pending".equals(order.get().getCurrentStatus())) {
+            stockReservationRepository.convertHeld(orderId);
+            return false;
+        }
+
+        // 2. Claim the holds
+        if (stockReservationRepository.releaseHeld(orderId) == 0) {
+            return false;
+        }
+
+        // 3. Restore product stock, in product ID order like checkout
+        Map<Long, Integer> restored = new TreeMap<>();
+        stockReservationRepository.findByOrderOrderId(orderId).forEach(reservation -> restored
+                .merge(reservation.getProduct().getProductId(), reservation.getQuantity(), Integer::sum));
+        restored.forEach((productId, quantity) -> {
+            productRepository.restoreStock(productId, quantity);
+            eventPublisher.publishEvent(
+                    new ProductChangedEvent(productId, ProductChangedEvent.ChangeType.STOCK_CHANGED));
+        });
+
+        // 4. Cancel the unpaid order
+        order.ifPresent(unpaid -> {
+            unpaid.setHasDeleted(true);
+            unpaid.setCurrentStatus("Cancelled");
+            unpaid.setStatusUpdatedAt(LocalDateTime.now());
+            orderRepository.save(unpaid);
+
+            OrderStatusHistory cancelHistory = new OrderStatusHistory();
+            cancelHistory.setOrder(unpaid);
+            cancelHistory.setStatus("Cancelled");
+            cancelHistory.setDescription("Payment not received in time, reserved stock released");
+            orderStatusHistoryRepository.save(cancelHistory);
+
+            salesRollupService.recordOrderCancelled(unpaid);
+            outboxService.record(new OrderCancelledEvent(orderId, unpaid.getUser().getUserId(),
+                    cancelHistory.getDescription()));
+        });
+
+        log.info("Released expired stock reservation of order {} for {} products", orderId, restored.size());
+        return true;
+    }
+}
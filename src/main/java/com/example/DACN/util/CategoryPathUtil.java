@@ -0,0 +1,78 @@
+package com.example.DACN.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds and reads category materialized paths. A path lists the IDs from the
+ * root down to the category itself, each followed by '/', e.g. "/1/5/12/".
+ * Every descendant's path starts with its ancestor's path, so a subtree is a
+ * single prefix match.
+ */
+public final class CategoryPathUtil {
+
+    private static final char SEPARATOR = '/';
+
+    private CategoryPathUtil() {
+    }
+
+    /**
+     * Path of a category under the given parent path, or a root path when the
+     * parent path is null.
+     */
+    public static String childPath(String parentPath, Long categoryId) {
+        return (parentPath != null ? parentPath : String.valueOf(SEPARATOR)) + categoryId + SEPARATOR;
+    }
+
+    /**
+     * LIKE pattern matching the category with this path and all of its
+     * descendants. Paths hold only digits and separators, so nothing needs
+     * escaping.
+     */
+    public static String subtreePattern(String path) {
+        return path + "%";
+    }
+
+    /**
+     * IDs along the category's path, or only its own ID while the path is not
+     * backfilled yet.
+     *
+     * @throws IllegalArgumentException if the path is malformed
+     */
+    public static List<Long> ancestorIds(String path, Long categoryId) {
+        if (path == null || path.isEmpty()) {
+            List<Long> ids = new ArrayList<>();
+            ids.add(categoryId);
+            return ids;
+        }
+        return ancestorIds(path);
+    }
+
+    /**
+     * IDs along the path, root first and the category itself last.
+     *
+     * @throws IllegalArgumentException if the path is malformed
+     */
+    public static List<Long> ancestorIds(String path) {
+        List<Long> ids = new ArrayList<>();
+        if (path == null || path.isEmpty()) {
+            return ids;
+        }
+        if (path.charAt(0) != SEPARATOR || path.charAt(path.length() - 1) != SEPARATOR) {
+            throw new IllegalArgumentException("Invalid category path: " + path);
+        }
+
+        int start = 1;
+        for (int i = 1; i < path.length(); i++) {
+            if (path.charAt(i) == SEPARATOR) {
+                try {
+                    ids.add(Long.parseLong(path.substring(start, i)));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid category path: " + path);
+                }
+                start = i + 1;
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.DACN.util;
+
+import com.example.DACN.dto.projection.VersionStamp;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Conditional GET support for catalog endpoints. Sets ETag and Last-Modified
+ * from a {@link VersionStamp} and evaluates If-None-Match / If-Modified-Since,
+ * so a controller can answer 304 before building the response body. Responses
+ * that cost no more to build than to version are tagged from the body instead.
+ */
+public final class ConditionalGetUtil {
+
+    private static final ObjectMapper OBJECT_MAPPER = JsonMapper.builder().findAndAddModules().build();
+
+    private ConditionalGetUtil() {
+    }
+
+    /**
+     * @return true if the client copy is current; the response is then already
+     *         set to 304 and the controller should return null
+     */
+    public static boolean checkNotModified(WebRequest request, VersionStamp stamp) {
+        if (stamp == null) {
+            return false;
+        }
+        return request.checkNotModified(stamp.toEtag(), stamp.lastModifiedMillis());
+    }
+
+    /**
+     * Tag an already built response with a strong ETag digested from its JSON
+     * form and evaluate If-None-Match against it. No Last-Modified is set.
+     *
+     * @return true if the client copy is current; the response is then already
+     *         set to 304 and the controller should return null
+     */
+    public static boolean checkBodyNotModified(WebRequest request, Object body) {
+        byte[] json;
+        try {
+            json = OBJECT_MAPPER.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            return false;
+        }
+        return request.checkNotModified("\"" + DigestUtils.md5DigestAsHex(json) + "\"");
+    }
+}
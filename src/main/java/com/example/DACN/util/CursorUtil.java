@@ -0,0 +1,46 @@
+package com.example.DACN.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes and decodes opaque keyset pagination cursors.
+ * A cursor is a URL-safe Base64 string of its parts joined by '|'.
+ */
+public final class CursorUtil {
+
+    private static final String SEPARATOR = "|";
+
+    private CursorUtil() {
+    }
+
+    public static String encode(Object... parts) {
+        StringBuilder raw = new StringBuilder();
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                raw.append(SEPARATOR);
+            }
+            raw.append(parts[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor into exactly {@code expectedParts} parts.
+     *
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static String[] decode(String cursor, int expectedParts) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != expectedParts) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
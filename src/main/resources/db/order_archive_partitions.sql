@@ -0,0 +1,57 @@
+-- Range partitioning of the order archive tables by order creation time (MySQL 8).
+--
+-- Run once, after the application has created the *_archive tables and before
+-- the archive job has moved many rows. MySQL requires the partitioning column
+-- in every unique key, so the primary keys are widened to include it; the
+-- application still looks rows up by their own ID.
+--
+-- The hot tables (orders, order_items, order_status_history, payments) are not
+-- partitioned: InnoDB does not support foreign keys on partitioned tables, and
+-- the archive job already keeps them small.
+--
+-- Each year, split the catch-all partition before the new year starts, e.g.:
+--   ALTER TABLE orders_archive REORGANIZE PARTITION p_future INTO (
+--       PARTITION p2028 VALUES LESS THAN ('2029-01-01'),
+--       PARTITION p_future VALUES LESS THAN (MAXVALUE));
+-- and the same for the other three tables. An old year is dropped at once
+-- with ALTER TABLE ... DROP PARTITION.
+
+ALTER TABLE orders_archive
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (order_id, created_at)
+    PARTITION BY RANGE COLUMNS (created_at) (
+        PARTITION p_old VALUES LESS THAN ('2025-01-01'),
+        PARTITION p2025 VALUES LESS THAN ('2026-01-01'),
+        PARTITION p2026 VALUES LESS THAN ('2027-01-01'),
+        PARTITION p2027 VALUES LESS THAN ('2028-01-01'),
+        PARTITION p_future VALUES LESS THAN (MAXVALUE));
+
+ALTER TABLE order_items_archive
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (order_item_id, order_created_at)
+    PARTITION BY RANGE COLUMNS (order_created_at) (
+        PARTITION p_old VALUES LESS THAN ('2025-01-01'),
+        PARTITION p2025 VALUES LESS THAN ('2026-01-01'),
+        PARTITION p2026 VALUES LESS THAN ('2027-01-01'),
+        PARTITION p2027 VALUES LESS THAN ('2028-01-01'),
+        PARTITION p_future VALUES LESS THAN (MAXVALUE));
+
+ALTER TABLE order_status_history_archive
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (history_id, order_created_at)
+    PARTITION BY RANGE COLUMNS (order_created_at) (
+        PARTITION p_old VALUES LESS THAN ('2025-01-01'),
+        PARTITION p2025 VALUES LESS THAN ('2026-01-01'),
+        PARTITION p2026 VALUES LESS THAN ('2027-01-01'),
+        PARTITION p2027 VALUES LESS THAN ('2028-01-01'),
+        PARTITION p_future VALUES LESS THAN (MAXVALUE));
+
+ALTER TABLE payments_archive
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (payment_id, order_created_at)
+    PARTITION BY RANGE COLUMNS (order_created_at) (
+        PARTITION p_old VALUES LESS THAN ('2025-01-01'),
+        PARTITION p2025 VALUES LESS THAN ('2026-01-01'),
+        PARTITION p2026 VALUES LESS THAN ('2027-01-01'),
+        PARTITION p2027 VALUES LESS THAN ('2028-01-01'),
+        PARTITION p_future VALUES LESS THAN (MAXVALUE));
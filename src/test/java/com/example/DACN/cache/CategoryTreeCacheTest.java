@@ -0,0 +1,131 @@
+package com.example.DACN.cache;
+
+import com.example.DACN.dto.response.CategoryResponse;
+import com.example.DACN.dto.response.CategoryTreeResponse;
+import com.example.DACN.event.CategoryChangedEvent;
+import com.example.DACN.event.ProductChangedEvent;
+import com.example.DACN.service.CategoryService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CategoryTreeCache Tests")
+class CategoryTreeCacheTest {
+
+    @Mock
+    private CategoryService categoryService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private CategoryTreeCache categoryTreeCache;
+
+    private CategoryTreeResponse electronics;
+
+    @BeforeEach
+    void setUp() {
+        electronics = CategoryTreeResponse.builder()
+                .categoryId(1L)
+                .name("Electronics")
+                .slug("electronics")
+                .hasDeleted(false)
+                .children(List.of(CategoryTreeResponse.builder()
+                        .categoryId(2L)
+                        .name("Phones")
+                        .slug("phones")
+                        .hasDeleted(false)
+                        .build()))
+                .build();
+
+        when(categoryService.getAllCategoriesTree()).thenReturn(List.of(electronics));
+        when(categoryService.getRootCategories()).thenReturn(List.of(
+                CategoryResponse.builder().categoryId(1L).name("Electronics").slug("electronics").build()));
+    }
+
+    @Test
+    @DisplayName("Should build once and serve the same snapshot without reloading")
+    void testSnapshotServedFromMemory() {
+        CategoryTreeSnapshot first = categoryTreeCache.get();
+        CategoryTreeSnapshot second = categoryTreeCache.get();
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.getCategoryCount()).isEqualTo(2);
+        assertThat(new String(first.getTreeJson(), StandardCharsets.UTF_8)).contains("\"name\":\"Phones\"");
+        assertThat(new String(first.getRootsJson(), StandardCharsets.UTF_8)).contains("\"slug\":\"electronics\"");
+        assertThat(first.getEtag()).isEqualTo("\"" + first.getVersion() + "\"");
+        verify(categoryService, times(1)).getAllCategoriesTree();
+    }
+
+    @Test
+    @DisplayName("Should keep the version when a rebuild yields the same tree")
+    void testVersionStableForSameContent() {
+        String version = categoryTreeCache.refresh().getVersion();
+
+        categoryTreeCache.onCategoryChanged(new CategoryChangedEvent(1L));
+
+        assertThat(categoryTreeCache.get().getVersion()).isEqualTo(version);
+    }
+
+    @Test
+    @DisplayName("Should swap in a new version after a category change")
+    void testVersionChangesWithContent() {
+        CategoryTreeSnapshot before = categoryTreeCache.refresh();
+
+        electronics.setName("Electronics & Gadgets");
+        categoryTreeCache.onCategoryChanged(new CategoryChangedEvent(1L));
+
+        CategoryTreeSnapshot after = categoryTreeCache.get();
+        assertThat(after.getVersion()).isNotEqualTo(before.getVersion());
+        assertThat(new String(after.getTreeJson(), StandardCharsets.UTF_8)).contains("Electronics & Gadgets");
+    }
+
+    @Test
+    @DisplayName("Should keep serving the old snapshot when a rebuild fails")
+    void testFailedRebuildKeepsSnapshot() {
+        CategoryTreeSnapshot before = categoryTreeCache.refresh();
+
+        when(categoryService.getAllCategoriesTree()).thenThrow(new IllegalStateException("Database unavailable"));
+        categoryTreeCache.onCategoryChanged(new CategoryChangedEvent(1L));
+
+        assertThat(categoryTreeCache.get()).isSameAs(before);
+    }
+
+    @Test
+    @DisplayName("Should coalesce product writes into one scheduled rebuild")
+    void testProductChangesCoalesced() {
+        categoryTreeCache.refresh();
+
+        categoryTreeCache.onProductChanged(new ProductChangedEvent(10L, ProductChangedEvent.ChangeType.CREATED));
+        categoryTreeCache.onProductChanged(new ProductChangedEvent(11L, ProductChangedEvent.ChangeType.DELETED));
+        verify(categoryService, times(1)).getAllCategoriesTree();
+
+        categoryTreeCache.refreshCounts();
+        categoryTreeCache.refreshCounts();
+        verify(categoryService, times(2)).getAllCategoriesTree();
+    }
+
+    @Test
+    @DisplayName("Should not rebuild for stock changes, which leave the counts alone")
+    void testStockChangeDoesNotMarkCounts() {
+        categoryTreeCache.refresh();
+
+        categoryTreeCache.onProductChanged(new ProductChangedEvent(10L, ProductChangedEvent.ChangeType.STOCK_CHANGED));
+        categoryTreeCache.refreshCounts();
+
+        verify(categoryService, times(1)).getAllCategoriesTree();
+    }
+}
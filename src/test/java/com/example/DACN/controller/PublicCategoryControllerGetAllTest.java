@@ -1,5 +1,6 @@
 package com.example.DACN.controller;
 
+import com.example.DACN.cache.CategoryTreeCache;
 import com.example.DACN.dto.response.CategoryTreeResponse;
 import com.example.DACN.service.CategoryService;
 import org.junit.jupiter.api.BeforeEach;
@@ -29,6 +30,9 @@ class PublicCategoryControllerGetAllTest {
     @MockBean
     private CategoryService categoryService;
 
+    @Autowired
+    private CategoryTreeCache categoryTreeCache;
+
     private List<CategoryTreeResponse> categoryTree;
 
     @BeforeEach
@@ -56,6 +60,7 @@ class PublicCategoryControllerGetAllTest {
     void testGetAllCategoriesSuccess() throws Exception {
         // Given
         when(categoryService.getAllCategoriesTree()).thenReturn(categoryTree);
+        categoryTreeCache.refresh();
 
         // When & Then
         mockMvc.perform(get("/api/v1/categories"))
@@ -73,6 +78,7 @@ class PublicCategoryControllerGetAllTest {
     void testGetAllCategoriesEmpty() throws Exception {
         // Given
         when(categoryService.getAllCategoriesTree()).thenReturn(new ArrayList<>());
+        categoryTreeCache.refresh();
 
         // When & Then
         mockMvc.perform(get("/api/v1/categories"))
@@ -88,6 +94,7 @@ class PublicCategoryControllerGetAllTest {
     void testGetAllCategoriesPublicAccess() throws Exception {
         // Given
         when(categoryService.getAllCategoriesTree()).thenReturn(categoryTree);
+        categoryTreeCache.refresh();
 
         // When & Then - No authentication required
         mockMvc.perform(get("/api/v1/categories"))
@@ -101,6 +108,7 @@ class PublicCategoryControllerGetAllTest {
     void testGetAllCategoriesContentType() throws Exception {
         // Given
         when(categoryService.getAllCategoriesTree()).thenReturn(categoryTree);
+        categoryTreeCache.refresh();
 
         // When & Then
         mockMvc.perform(get("/api/v1/categories"))
@@ -1,5 +1,6 @@
 package com.example.DACN.controller;
 
+import com.example.DACN.cache.CategoryTreeCache;
 import com.example.DACN.dto.response.CategoryResponse;
 import com.example.DACN.service.CategoryService;
 import org.junit.jupiter.api.DisplayName;
@@ -28,6 +29,9 @@ class PublicCategoryControllerGetRootsTest {
     @MockBean
     private CategoryService categoryService;
 
+    @Autowired
+    private CategoryTreeCache categoryTreeCache;
+
     @Test
     @DisplayName("Should return 200 with root categories for public access")
     void testGetRootCategoriesSuccess() throws Exception {
@@ -36,6 +40,7 @@ class PublicCategoryControllerGetRootsTest {
                 CategoryResponse.builder().categoryId(1L).name("Electronics").slug("electronics").build(),
                 CategoryResponse.builder().categoryId(2L).name("Fashion").slug("fashion").build());
         when(categoryService.getRootCategories()).thenReturn(roots);
+        categoryTreeCache.refresh();
 
         // When & Then
         mockMvc.perform(get("/api/v1/categories/roots"))
@@ -53,6 +58,7 @@ class PublicCategoryControllerGetRootsTest {
     void testGetRootCategoriesEmpty() throws Exception {
         // Given
         when(categoryService.getRootCategories()).thenReturn(new ArrayList<>());
+        categoryTreeCache.refresh();
 
         // When & Then
         mockMvc.perform(get("/api/v1/categories/roots"))
@@ -68,6 +74,7 @@ class PublicCategoryControllerGetRootsTest {
     void testGetRootCategoriesPublicAccess() throws Exception {
         // Given
         when(categoryService.getRootCategories()).thenReturn(new ArrayList<>());
+        categoryTreeCache.refresh();
 
         // When & Then - No authentication required
         mockMvc.perform(get("/api/v1/categories/roots"))
@@ -81,6 +88,7 @@ class PublicCategoryControllerGetRootsTest {
     void testGetRootCategoriesContentType() throws Exception {
         // Given
         when(categoryService.getRootCategories()).thenReturn(new ArrayList<>());
+        categoryTreeCache.refresh();
 
         // When & Then
         mockMvc.perform(get("/api/v1/categories/roots"))
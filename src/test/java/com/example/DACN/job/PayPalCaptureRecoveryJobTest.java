@@ -0,0 +1,48 @@
+package com.example.DACN.job;
+
+import com.example.DACN.service.PaymentService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PayPalCaptureRecoveryJob Tests")
+class PayPalCaptureRecoveryJobTest {
+
+    @Mock
+    private PaymentService paymentService;
+
+    @InjectMocks
+    private PayPalCaptureRecoveryJob payPalCaptureRecoveryJob;
+
+    @Test
+    @DisplayName("Should keep recovering the rest of a batch after one capture fails")
+    void testFailedCaptureDoesNotAbortBatch() {
+        when(paymentService.findStaleCaptures(anyInt())).thenReturn(List.of("PAYPAL-1", "PAYPAL-2", "PAYPAL-3"));
+        doThrow(new IllegalStateException("PayPal unavailable")).when(paymentService).recoverCapture("PAYPAL-2");
+
+        payPalCaptureRecoveryJob.recover();
+
+        verify(paymentService).recoverCapture("PAYPAL-1");
+        verify(paymentService).recoverCapture("PAYPAL-2");
+        verify(paymentService).recoverCapture("PAYPAL-3");
+    }
+
+    @Test
+    @DisplayName("Should do nothing when no capture is stale")
+    void testNoStaleCaptures() {
+        when(paymentService.findStaleCaptures(anyInt())).thenReturn(List.of());
+
+        payPalCaptureRecoveryJob.recover();
+
+        verify(paymentService, never()).recoverCapture(any());
+    }
+}
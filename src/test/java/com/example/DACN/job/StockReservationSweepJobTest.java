@@ -0,0 +1,69 @@
+package com.example.DACN.job;
+
+import com.example.DACN.service.StockReservationService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("StockReservationSweepJob Tests")
+class StockReservationSweepJobTest {
+
+    @Mock
+    private StockReservationService stockReservationService;
+
+    @InjectMocks
+    private StockReservationSweepJob stockReservationSweepJob;
+
+    @Test
+    @DisplayName("Should keep releasing the rest of a batch after one order fails")
+    void testFailedOrderDoesNotAbortBatch() {
+        when(stockReservationService.findExpiredOrderIds(anyInt())).thenReturn(List.of(1L, 2L, 3L));
+        when(stockReservationService.releaseExpired(2L)).thenThrow(new IllegalStateException("Deadlock"));
+        when(stockReservationService.releaseExpired(1L)).thenReturn(true);
+        when(stockReservationService.releaseExpired(3L)).thenReturn(true);
+
+        stockReservationSweepJob.sweep();
+
+        verify(stockReservationService).releaseExpired(1L);
+        verify(stockReservationService).releaseExpired(3L);
+        verify(stockReservationService, times(1)).findExpiredOrderIds(anyInt());
+    }
+
+    @Test
+    @DisplayName("Should stop after a full batch with failures instead of picking it again")
+    void testFullBatchWithFailureEndsRun() {
+        List<Long> fullBatch = LongStream.rangeClosed(1, 200).boxed().toList();
+        when(stockReservationService.findExpiredOrderIds(anyInt())).thenReturn(fullBatch);
+        when(stockReservationService.releaseExpired(anyLong())).thenReturn(true);
+        when(stockReservationService.releaseExpired(7L)).thenThrow(new IllegalStateException("Deadlock"));
+
+        stockReservationSweepJob.sweep();
+
+        verify(stockReservationService, times(1)).findExpiredOrderIds(anyInt());
+        verify(stockReservationService, times(200)).releaseExpired(anyLong());
+    }
+
+    @Test
+    @DisplayName("Should go on to the next batch while full batches succeed")
+    void testFullBatchesContinue() {
+        List<Long> fullBatch = LongStream.rangeClosed(1, 200).boxed().toList();
+        when(stockReservationService.findExpiredOrderIds(anyInt())).thenReturn(fullBatch, List.of(201L));
+        when(stockReservationService.releaseExpired(anyLong())).thenReturn(true);
+
+        stockReservationSweepJob.sweep();
+
+        verify(stockReservationService, times(2)).findExpiredOrderIds(anyInt());
+        verify(stockReservationService, times(201)).releaseExpired(anyLong());
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.DACN.repository;
+
+import com.example.DACN.entity.Role;
+import com.example.DACN.entity.Shop;
+import com.example.DACN.entity.User;
+import com.example.DACN.mapper.OrderMapperImpl;
+import com.example.DACN.service.OrderArchiveService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latency of the hot order queries before and after archiving the orders
+ * finished long ago. Slow, so it only runs with {@code -Dbenchmark=true}:
+ * <pre>
+ * mvn test -Dtest=OrderArchiveBenchmarkTest -Dbenchmark=true
+ * </pre>
+ * H2 only shows the trend; measure on MySQL for real numbers.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@DisplayName("Order Archive Benchmark")
+class OrderArchiveBenchmarkTest {
+
+    private static final int OLD_ORDERS = 45_000;
+    private static final int LIVE_ORDERS = 5_000;
+    private static final int BATCH_SIZE = 500;
+    private static final int WARMUP_RUNS = 20;
+    private static final int MEASURED_RUNS = 200;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    private ArchivedOrderStatusHistoryRepository archivedOrderStatusHistoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ShopRepository shopRepository;
+
+    private OrderArchiveService orderArchiveService;
+    private User customer;
+    private Shop shop;
+
+    @BeforeEach
+    void setUp() {
+        orderArchiveService = new OrderArchiveService(orderRepository, archivedOrderRepository,
+                archivedOrderStatusHistoryRepository, userRepository, shopRepository, new OrderMapperImpl());
+
+        Role role = new Role();
+        role.setRoleName("Customer");
+        entityManager.persist(role);
+
+        customer = new User();
+        customer.setEmail("benchmark@example.com");
+        customer.setPasswordHash("hash");
+        customer.setRole(role);
+        entityManager.persist(customer);
+
+        shop = new Shop();
+        shop.setUser(customer);
+        shop.setShopName("Benchmark Shop");
+        shop.setIsApproved(true);
+        shop.setHasDeleted(false);
+        entityManager.persist(shop);
+        entityManager.flush();
+
+        // Delivered two to three years ago, then a recent tail of live orders
+        insertOrders(OLD_ORDERS, "Delivered", "DATEADD('DAY', -730 - MOD(x, 365), CURRENT_TIMESTAMP)");
+        insertOrders(LIVE_ORDERS, "Pending", "DATEADD('MINUTE', -x, CURRENT_TIMESTAMP)");
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("Should report hot-table query latency before and after archiving")
+    void benchmarkArchive() {
+        Map<String, double[]> results = new LinkedHashMap<>();
+        measure(results, 0);
+
+        long started = System.nanoTime();
+        LocalDateTime cutoff = LocalDateTime.now().minusMonths(12);
+        int archived = 0;
+        List<Long> orderIds;
+        while (!(orderIds = orderArchiveService.findArchivableIds(cutoff, BATCH_SIZE)).isEmpty()) {
+            archived += orderArchiveService.archiveBatch(orderIds);
+            entityManager.clear();
+        }
+        long archiveMs = (System.nanoTime() - started) / 1_000_000;
+
+        measure(results, 1);
+
+        System.out.printf("%nArchived %d of %d orders in %d ms (batches of %d)%n", archived,
+                OLD_ORDERS + LIVE_ORDERS, archiveMs, BATCH_SIZE);
+        System.out.printf("%-32s %14s %14s%n", "Query (median)", "before [us]", "after [us]");
+        results.forEach((query, micros) -> System.out.printf("%-32s %14.1f %14.1f%n", query, micros[0], micros[1]));
+
+        assertThat(archived).isEqualTo(OLD_ORDERS);
+        assertThat(orderRepository.count()).isEqualTo(LIVE_ORDERS);
+    }
+
+    private void measure(Map<String, double[]> results, int column) {
+        time(results, column, "customer first page", () -> orderRepository.findCustomerOrderPage(
+                customer.getUserId(), null, null, PageRequest.of(0, 20)));
+        time(results, column, "seller Pending page", () -> orderRepository.findSellerOrderPage(
+                shop.getShopId(), "Pending", null, null, PageRequest.of(0, 20)));
+        time(results, column, "shop order count", () -> orderRepository.countByShopShopIdAndHasDeletedFalse(
+                shop.getShopId()));
+        time(results, column, "archivable ids", () -> orderRepository.findArchivableIds(
+                OrderArchiveService.FINAL_STATUSES, LocalDateTime.now().minusMonths(12), PageRequest.of(0, 1)));
+    }
+
+    private void time(Map<String, double[]> results, int column, String query, Supplier<?> run) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            run.get();
+        }
+        long[] nanos = new long[MEASURED_RUNS];
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long started = System.nanoTime();
+            run.get();
+            nanos[i] = System.nanoTime() - started;
+            entityManager.clear();
+        }
+        Arrays.sort(nanos);
+        results.computeIfAbsent(query, key -> new double[2])[column] = nanos[MEASURED_RUNS / 2] / 1000.0;
+    }
+
+    private void insertOrders(int count, String status, String createdAt) {
+        entityManager.getEntityManager()
+                .createNativeQuery("INSERT INTO orders (user_id, shop_id, total_amount, shipping_fee, "
+                        + "voucher_discount, final_amount, payment_method, has_deleted, created_at, "
+                        + "current_status, status_updated_at) "
+                        + "SELECT u.user_id, :shopId, 100.00, 0, 0, 100.00, 'COD', FALSE, " + createdAt + ", "
+                        + ":status, " + createdAt + " "
+                        + "FROM SYSTEM_RANGE(1, :count) JOIN users u ON u.email = :email")
+                .setParameter("shopId", shop.getShopId())
+                .setParameter("status", status)
+                .setParameter("count", count)
+                .setParameter("email", customer.getEmail())
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,259 @@
+package com.example.DACN.repository;
+
+import com.example.DACN.dto.response.CustomerOrderResponse;
+import com.example.DACN.dto.response.OrderStatusHistoryResponse;
+import com.example.DACN.dto.response.SellerOrderResponse;
+import com.example.DACN.entity.ArchivedOrder;
+import com.example.DACN.entity.Category;
+import com.example.DACN.entity.Order;
+import com.example.DACN.entity.OrderItem;
+import com.example.DACN.entity.OrderStatusHistory;
+import com.example.DACN.entity.Payment;
+import com.example.DACN.entity.Product;
+import com.example.DACN.entity.Role;
+import com.example.DACN.entity.Shop;
+import com.example.DACN.entity.StockReservation;
+import com.example.DACN.entity.User;
+import com.example.DACN.mapper.OrderMapperImpl;
+import com.example.DACN.service.OrderArchiveService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DisplayName("Order Archive Query Tests")
+class OrderArchiveQueryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    private ArchivedOrderStatusHistoryRepository archivedOrderStatusHistoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ShopRepository shopRepository;
+
+    private OrderArchiveService orderArchiveService;
+    private LocalDateTime cutoff;
+    private User customer;
+    private Shop shop;
+    private Order oldDelivered;
+    private Order oldCancelled;
+    private Order recentDelivered;
+    private Order oldShipping;
+
+    @BeforeEach
+    void setUp() {
+        orderArchiveService = new OrderArchiveService(orderRepository, archivedOrderRepository,
+                archivedOrderStatusHistoryRepository, userRepository, shopRepository, new OrderMapperImpl());
+        LocalDateTime now = LocalDateTime.now();
+        cutoff = now.minusMonths(12);
+
+        Role role = new Role();
+        role.setRoleName("Customer");
+        entityManager.persist(role);
+
+        customer = new User();
+        customer.setEmail("customer@example.com");
+        customer.setFullName("Test Customer");
+        customer.setPasswordHash("hash");
+        customer.setRole(role);
+        entityManager.persist(customer);
+
+        User seller = new User();
+        seller.setEmail("seller@example.com");
+        seller.setPasswordHash("hash");
+        seller.setRole(role);
+        entityManager.persist(seller);
+
+        shop = new Shop();
+        shop.setUser(seller);
+        shop.setShopName("Test Shop");
+        shop.setIsApproved(true);
+        shop.setHasDeleted(false);
+        entityManager.persist(shop);
+
+        Category category = new Category();
+        category.setName("Test Category");
+        category.setSlug("test-category");
+        entityManager.persist(category);
+
+        Product product = new Product();
+        product.setShop(shop);
+        product.setCategory(category);
+        product.setName("Product");
+        product.setPrice(new BigDecimal("10.00"));
+        product.setStockQuantity(100);
+        product.setStatus("Active");
+        product.setHasDeleted(false);
+        entityManager.persist(product);
+
+        oldDelivered = order(product, 2, "Delivered", now.minusMonths(14));
+        oldCancelled = order(product, 1, "Cancelled", now.minusMonths(13));
+        recentDelivered = order(product, 1, "Delivered", now.minusDays(3));
+        oldShipping = order(product, 1, "Shipping", now.minusMonths(13));
+
+        Payment payment = new Payment();
+        payment.setOrder(oldDelivered);
+        payment.setTransactionCode("TX-OLD");
+        payment.setAmount(oldDelivered.getFinalAmount());
+        payment.setStatus("Success");
+        payment.setPaymentTime(now.minusMonths(15));
+        entityManager.persist(payment);
+
+        StockReservation reservation = new StockReservation();
+        reservation.setOrder(oldCancelled);
+        reservation.setProduct(product);
+        reservation.setQuantity(1);
+        reservation.setStatus("Released");
+        reservation.setExpiresAt(now.minusMonths(13));
+        entityManager.persist(reservation);
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("Should find only orders in a final status since before the cutoff")
+    void testFindArchivableIds() {
+        List<Long> ids = orderArchiveService.findArchivableIds(cutoff, 10);
+
+        assertThat(ids).containsExactly(oldDelivered.getOrderId(), oldCancelled.getOrderId());
+        assertThat(orderArchiveService.findArchivableIds(cutoff, 1)).containsExactly(oldDelivered.getOrderId());
+    }
+
+    @Test
+    @DisplayName("Should move orders with their items, history and payments out of the hot tables")
+    void testArchiveBatch() {
+        List<Long> ids = orderArchiveService.findArchivableIds(cutoff, 10);
+
+        int archived = orderArchiveService.archiveBatch(ids);
+        entityManager.clear();
+
+        assertThat(archived).isEqualTo(2);
+        assertThat(orderRepository.findAllById(ids)).isEmpty();
+        assertThat(orderRepository.findAll()).extracting(Order::getOrderId)
+                .containsExactlyInAnyOrder(recentDelivered.getOrderId(), oldShipping.getOrderId());
+        assertThat(count("order_items")).isEqualTo(2);
+        assertThat(count("payments")).isZero();
+        assertThat(count("stock_reservations")).isZero();
+
+        ArchivedOrder order = archivedOrderRepository.findById(oldDelivered.getOrderId()).orElseThrow();
+        assertThat(order.getUserId()).isEqualTo(customer.getUserId());
+        assertThat(order.getShopId()).isEqualTo(shop.getShopId());
+        assertThat(order.getCurrentStatus()).isEqualTo("Delivered");
+        assertThat(order.getArchivedAt()).isNotNull();
+        assertThat(count("order_items_archive")).isEqualTo(3);
+        assertThat(count("order_status_history_archive")).isEqualTo(4);
+        assertThat(count("payments_archive")).isEqualTo(1);
+        assertThat(orderArchiveService.findArchivableIds(cutoff, 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should read archived orders back through the list pages and history")
+    void testReadArchivedOrders() {
+        orderArchiveService.archiveBatch(orderArchiveService.findArchivableIds(cutoff, 10));
+        entityManager.clear();
+
+        List<CustomerOrderResponse> customerPage = orderArchiveService.findCustomerOrders(customer.getUserId(),
+                null, null, 10);
+        assertThat(customerPage).extracting(CustomerOrderResponse::getOrderId)
+                .containsExactly(oldCancelled.getOrderId(), oldDelivered.getOrderId());
+        assertThat(customerPage.get(1).getItemCount()).isEqualTo(2);
+        assertThat(customerPage.get(1).getShopName()).isEqualTo("Test Shop");
+
+        CustomerOrderResponse first = customerPage.get(0);
+        assertThat(orderArchiveService.findCustomerOrders(customer.getUserId(), first.getCreatedAt(),
+                first.getOrderId(), 10)).extracting(CustomerOrderResponse::getOrderId)
+                .containsExactly(oldDelivered.getOrderId());
+
+        List<SellerOrderResponse> cancelled = orderArchiveService.findSellerOrders(shop.getShopId(), "Cancelled",
+                null, null, 10);
+        assertThat(cancelled).extracting(SellerOrderResponse::getOrderId).containsExactly(oldCancelled.getOrderId());
+        assertThat(cancelled.get(0).getCustomerEmail()).isEqualTo("customer@example.com");
+        assertThat(orderArchiveService.findSellerOrders(shop.getShopId(), "Pending", null, null, 10)).isEmpty();
+
+        List<OrderStatusHistoryResponse> history = orderArchiveService
+                .findOrderHistory(oldDelivered.getOrderId(), "seller@example.com").orElseThrow();
+        assertThat(history).extracting(OrderStatusHistoryResponse::getStatus).containsExactly("Delivered", "Pending");
+        assertThat(orderArchiveService.findOrderHistory(recentDelivered.getOrderId(), "customer@example.com"))
+                .isEmpty();
+        assertThatThrownBy(() -> orderArchiveService.findOrderHistory(oldDelivered.getOrderId(), "other@example.com"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private Order order(Product product, int items, String status, LocalDateTime statusUpdatedAt) {
+        Order order = new Order();
+        order.setUser(customer);
+        order.setShop(shop);
+        order.setTotalAmount(new BigDecimal("10.00").multiply(BigDecimal.valueOf(items)));
+        order.setFinalAmount(order.getTotalAmount());
+        order.setPaymentMethod("COD");
+        order.setHasDeleted(false);
+        order.setCurrentStatus(status);
+        order.setStatusUpdatedAt(statusUpdatedAt);
+        entityManager.persist(order);
+
+        for (int i = 0; i < items; i++) {
+            OrderItem item = new OrderItem();
+            item.setOrder(order);
+            item.setProduct(product);
+            item.setQuantity(1);
+            item.setPriceAtPurchase(new BigDecimal("10.00"));
+            entityManager.persist(item);
+        }
+        history(order, "Pending", statusUpdatedAt.minusDays(2));
+        history(order, status, statusUpdatedAt);
+        entityManager.flush();
+
+        // Orders are placed before their status changes; created_at is not updatable through the entity
+        entityManager.getEntityManager()
+                .createNativeQuery("UPDATE orders SET created_at = :createdAt WHERE order_id = :orderId")
+                .setParameter("createdAt", statusUpdatedAt.minusDays(2))
+                .setParameter("orderId", order.getOrderId())
+                .executeUpdate();
+        return order;
+    }
+
+    private void history(Order order, String status, LocalDateTime createdAt) {
+        OrderStatusHistory history = new OrderStatusHistory();
+        history.setOrder(order);
+        history.setStatus(status);
+        entityManager.persist(history);
+        entityManager.flush();
+        entityManager.getEntityManager()
+                .createNativeQuery("UPDATE order_status_history SET created_at = :createdAt WHERE history_id = :id")
+                .setParameter("createdAt", createdAt)
+                .setParameter("id", history.getHistoryId())
+                .executeUpdate();
+    }
+
+    private long count(String table) {
+        return ((Number) entityManager.getEntityManager()
+                .createNativeQuery("SELECT COUNT(*) FROM " + table)
+                .getSingleResult()).longValue();
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.DACN.repository;
+
+import com.example.DACN.dto.response.CustomerOrderResponse;
+import com.example.DACN.dto.response.SellerOrderResponse;
+import com.example.DACN.entity.Category;
+import com.example.DACN.entity.Order;
+import com.example.DACN.entity.OrderItem;
+import com.example.DACN.entity.OrderStatusHistory;
+import com.example.DACN.entity.Product;
+import com.example.DACN.entity.Role;
+import com.example.DACN.entity.Shop;
+import com.example.DACN.entity.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DisplayName("OrderRepository - Order List Page Query Tests")
+class OrderListPageQueryTest {
+
+    private static final int ORDER_COUNT = 5;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private User customer;
+    private Shop shop;
+    private List<Order> orders;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        Role role = new Role();
+        role.setRoleName("Customer");
+        entityManager.persist(role);
+
+        customer = new User();
+        customer.setEmail("customer@example.com");
+        customer.setFullName("Test Customer");
+        customer.setPasswordHash("hash");
+        customer.setRole(role);
+        entityManager.persist(customer);
+
+        User seller = new User();
+        seller.setEmail("seller@example.com");
+        seller.setPasswordHash("hash");
+        seller.setRole(role);
+        entityManager.persist(seller);
+
+        shop = new Shop();
+        shop.setUser(seller);
+        shop.setShopName("Test Shop");
+        shop.setIsApproved(true);
+        shop.setHasDeleted(false);
+        entityManager.persist(shop);
+
+        Category category = new Category();
+        category.setName("Test Category");
+        category.setSlug("test-category");
+        entityManager.persist(category);
+
+        Product product = new Product();
+        product.setShop(shop);
+        product.setCategory(category);
+        product.setName("Product");
+        product.setPrice(new BigDecimal("10.00"));
+        product.setStockQuantity(100);
+        product.setStatus("Active");
+        product.setHasDeleted(false);
+        entityManager.persist(product);
+
+        orders = new ArrayList<>();
+        for (int i = 1; i <= ORDER_COUNT; i++) {
+            Order order = new Order();
+            order.setUser(customer);
+            order.setShop(shop);
+            order.setTotalAmount(new BigDecimal("10.00").multiply(BigDecimal.valueOf(i)));
+            order.setFinalAmount(order.getTotalAmount());
+            order.setPaymentMethod("COD");
+            order.setHasDeleted(false);
+            entityManager.persist(order);
+            orders.add(order);
+
+            // Order i has i items and moved from Pending to Confirmed when i is even
+            for (int j = 0; j < i; j++) {
+                OrderItem item = new OrderItem();
+                item.setOrder(order);
+                item.setProduct(product);
+                item.setQuantity(1);
+                item.setPriceAtPurchase(new BigDecimal("10.00"));
+                entityManager.persist(item);
+            }
+            persistStatus(order, "Pending");
+            if (i % 2 == 0) {
+                persistStatus(order, "Confirmed");
+            }
+        }
+
+        Order deleted = new Order();
+        deleted.setUser(customer);
+        deleted.setShop(shop);
+        deleted.setTotalAmount(BigDecimal.TEN);
+        deleted.setFinalAmount(BigDecimal.TEN);
+        deleted.setPaymentMethod("COD");
+        deleted.setHasDeleted(true);
+        entityManager.persist(deleted);
+
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("Should read a customer page with status and item count in one statement")
+    void testCustomerPageStatementCount() {
+        Slice<CustomerOrderResponse> page = orderRepository.findCustomerOrderPage(customer.getUserId(), null, null,
+                PageRequest.of(0, ORDER_COUNT));
+
+        assertThat(page.getContent()).hasSize(ORDER_COUNT);
+        assertThat(page.hasNext()).isFalse();
+        for (CustomerOrderResponse row : page.getContent()) {
+            int i = orders.stream().map(Order::getOrderId).toList().indexOf(row.getOrderId()) + 1;
+            assertThat(row.getItemCount()).isEqualTo(i);
+            assertThat(row.getCurrentStatus()).isEqualTo(i % 2 == 0 ? "Confirmed" : "Pending");
+            assertThat(row.getShopName()).isEqualTo("Test Shop");
+        }
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should walk every order exactly once, newest first, by keyset cursor")
+    void testCustomerKeysetWalk() {
+        List<Long> seen = new ArrayList<>();
+        LocalDateTime cursorCreatedAt = null;
+        Long cursorOrderId = null;
+        Slice<CustomerOrderResponse> page;
+        do {
+            page = orderRepository.findCustomerOrderPage(customer.getUserId(), cursorCreatedAt, cursorOrderId,
+                    PageRequest.of(0, 2));
+            page.getContent().forEach(row -> seen.add(row.getOrderId()));
+            CustomerOrderResponse last = page.getContent().get(page.getNumberOfElements() - 1);
+            cursorCreatedAt = last.getCreatedAt();
+            cursorOrderId = last.getOrderId();
+        } while (page.hasNext());
+
+        assertThat(seen).containsExactlyElementsOf(
+                orders.reversed().stream().map(Order::getOrderId).toList());
+    }
+
+    @Test
+    @DisplayName("Should read a seller page with customer details in one statement")
+    void testSellerPageStatementCount() {
+        Slice<SellerOrderResponse> page = orderRepository.findSellerOrderPage(shop.getShopId(), null, null, null,
+                PageRequest.of(0, 2));
+
+        assertThat(page.getContent()).hasSize(2);
+        assertThat(page.hasNext()).isTrue();
+        assertThat(page.getContent().get(0).getOrderId()).isEqualTo(orders.get(ORDER_COUNT - 1).getOrderId());
+        assertThat(page.getContent().get(0).getCustomerEmail()).isEqualTo("customer@example.com");
+        assertThat(page.getContent().get(0).getItemCount()).isEqualTo(ORDER_COUNT);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should filter a seller page by current status")
+    void testSellerStatusFilter() {
+        Slice<SellerOrderResponse> confirmed = orderRepository.findSellerOrderPage(shop.getShopId(), "Confirmed",
+                null, null, PageRequest.of(0, ORDER_COUNT));
+        Slice<SellerOrderResponse> pending = orderRepository.findSellerOrderPage(shop.getShopId(), "Pending",
+                null, null, PageRequest.of(0, ORDER_COUNT));
+
+        assertThat(confirmed.getContent()).extracting(SellerOrderResponse::getOrderId)
+                .containsExactly(orders.get(3).getOrderId(), orders.get(1).getOrderId());
+        assertThat(pending.getContent()).extracting(SellerOrderResponse::getCurrentStatus)
+                .hasSize(3)
+                .containsOnly("Pending");
+    }
+
+    private void persistStatus(Order order, String status) {
+        OrderStatusHistory history = new OrderStatusHistory();
+        history.setOrder(order);
+        history.setStatus(status);
+        entityManager.persist(history);
+        order.setCurrentStatus(status);
+        order.setStatusUpdatedAt(LocalDateTime.now());
+    }
+}
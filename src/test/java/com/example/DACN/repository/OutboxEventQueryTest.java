@@ -0,0 +1,105 @@
+package com.example.DACN.repository;
+
+import com.example.DACN.entity.OutboxEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DisplayName("Outbox Event Query Tests")
+class OutboxEventQueryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    private LocalDateTime now;
+    private OutboxEvent first;
+    private OutboxEvent second;
+    private OutboxEvent notDue;
+
+    @BeforeEach
+    void setUp() {
+        // Whole seconds, so the stored times compare equal to the ones the test passes
+        now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        first = event(now.minusSeconds(10));
+        second = event(now.minusSeconds(5));
+        notDue = event(now.plusMinutes(1));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("Should find only due pending events, oldest first")
+    void testFindDueIds() {
+        List<Long> due = outboxEventRepository.findDueIds(now, PageRequest.of(0, 10));
+
+        assertThat(due).containsExactly(first.getOutboxEventId(), second.getOutboxEventId());
+        assertThat(outboxEventRepository.findDueIds(now, PageRequest.of(0, 1)))
+                .containsExactly(first.getOutboxEventId());
+    }
+
+    @Test
+    @DisplayName("Should let only one dispatcher claim an event until its lease runs out")
+    void testClaimIsExclusive() {
+        List<Long> due = outboxEventRepository.findDueIds(now, PageRequest.of(0, 10));
+
+        int claimedByA = outboxEventRepository.claim(due, "token-a", now, now.plusMinutes(5));
+        int claimedByB = outboxEventRepository.claim(due, "token-b", now, now.plusMinutes(5));
+        entityManager.clear();
+
+        assertThat(claimedByA).isEqualTo(2);
+        assertThat(claimedByB).isZero();
+        assertThat(outboxEventRepository.findByClaimTokenOrderByOutboxEventId("token-a"))
+                .extracting(OutboxEvent::getOutboxEventId)
+                .containsExactly(first.getOutboxEventId(), second.getOutboxEventId());
+        assertThat(outboxEventRepository.findDueIds(now.plusMinutes(1), PageRequest.of(0, 10)))
+                .containsExactly(notDue.getOutboxEventId());
+
+        // Once the lease is over the events are due again
+        int reclaimed = outboxEventRepository.claim(due, "token-b", now.plusMinutes(6), now.plusMinutes(11));
+        assertThat(reclaimed).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should mark events published only for the dispatcher holding the claim")
+    void testMarkPublished() {
+        List<Long> due = outboxEventRepository.findDueIds(now, PageRequest.of(0, 10));
+        outboxEventRepository.claim(due, "token-a", now, now.plusMinutes(5));
+
+        assertThat(outboxEventRepository.markPublished(due, "token-stale", now)).isZero();
+        assertThat(outboxEventRepository.markPublished(due, "token-a", now)).isEqualTo(2);
+        entityManager.clear();
+
+        assertThat(outboxEventRepository.countByStatus(OutboxEvent.STATUS_PUBLISHED)).isEqualTo(2);
+        assertThat(outboxEventRepository.countByStatus(OutboxEvent.STATUS_PENDING)).isEqualTo(1);
+        assertThat(outboxEventRepository.deletePublishedBefore(now.plusSeconds(1))).isEqualTo(2);
+    }
+
+    private OutboxEvent event(LocalDateTime availableAt) {
+        OutboxEvent event = new OutboxEvent();
+        event.setEventType("OrderCancelledEvent");
+        event.setOrderId(100L);
+        event.setPayload("{\"orderId\":100}");
+        event.setStatus(OutboxEvent.STATUS_PENDING);
+        event.setAttempts(0);
+        event.setAvailableAt(availableAt);
+        return entityManager.persist(event);
+    }
+}
@@ -0,0 +1,328 @@
+package com.example.DACN.repository;
+
+import com.example.DACN.dto.response.ProductListItemResponse;
+import com.example.DACN.entity.Category;
+import com.example.DACN.entity.Product;
+import com.example.DACN.entity.ProductImage;
+import com.example.DACN.entity.Role;
+import com.example.DACN.entity.Shop;
+import com.example.DACN.entity.User;
+import com.example.DACN.util.CategoryPathUtil;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DisplayName("ProductRepository - List Projection Query Tests")
+class ProductListProjectionQueryTest {
+
+    private static final int PRODUCT_COUNT = 25;
+    private static final int PAGE_SIZE = 20;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private Shop shop;
+    private Category category;
+    private Product bestSeller;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        Role role = new Role();
+        role.setRoleName("Seller");
+        entityManager.persist(role);
+
+        User seller = new User();
+        seller.setEmail("seller@example.com");
+        seller.setPasswordHash("hash");
+        seller.setRole(role);
+        entityManager.persist(seller);
+
+        shop = new Shop();
+        shop.setUser(seller);
+        shop.setShopName("Test Shop");
+        shop.setIsApproved(true);
+        shop.setHasDeleted(false);
+        entityManager.persist(shop);
+
+        category = new Category();
+        category.setName("Test Category");
+        category.setSlug("test-category");
+        entityManager.persist(category);
+        category.setPath(CategoryPathUtil.childPath(null, category.getCategoryId()));
+
+        for (int i = 1; i <= PRODUCT_COUNT; i++) {
+            Product product = new Product();
+            product.setShop(shop);
+            product.setCategory(category);
+            product.setName("Product " + i);
+            product.setDescription("Long description " + i);
+            product.setPrice(new BigDecimal("10.00").add(BigDecimal.valueOf(i)));
+            product.setStockQuantity(100);
+            product.setSoldCount(i);
+            product.setStatus("Active");
+            product.setHasDeleted(false);
+            entityManager.persist(product);
+            bestSeller = product;
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("Should load a filtered page in one select plus one count")
+    void testFilteredPageStatementCount() {
+        Page<ProductListItemResponse> page = productRepository.findProductListItemsWithFilters(
+                null, null, CategoryPathUtil.subtreePattern(category.getPath()), null, "Active",
+                PageRequest.of(0, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "soldCount")));
+
+        assertThat(page.getContent()).hasSize(PAGE_SIZE);
+        assertThat(page.getTotalElements()).isEqualTo(PRODUCT_COUNT);
+        assertThat(page.getContent().get(0).getSoldCount()).isEqualTo(PRODUCT_COUNT);
+        assertThat(page.getContent()).allSatisfy(item -> {
+            assertThat(item.getShopName()).isEqualTo("Test Shop");
+            assertThat(item.getCategoryName()).isEqualTo("Test Category");
+            assertThat(item.getDescription()).isNull();
+        });
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should include products of descendant categories but not of siblings")
+    void testCategorySubtreeFilter() {
+        Category child = persistCategory("Child", category);
+        Category grandchild = persistCategory("Grandchild", child);
+        Category sibling = persistCategory("Sibling", null);
+        persistProduct(child, 1000);
+        persistProduct(grandchild, 2000);
+        persistProduct(sibling, 3000);
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        Page<ProductListItemResponse> subtree = productRepository.findProductListItemsWithFilters(
+                null, null, CategoryPathUtil.subtreePattern(category.getPath()), null, "Active",
+                PageRequest.of(0, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "soldCount")));
+        Page<ProductListItemResponse> childOnly = productRepository.findProductListItemsWithFilters(
+                null, null, CategoryPathUtil.subtreePattern(child.getPath()), null, "Active",
+                PageRequest.of(0, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "soldCount")));
+
+        assertThat(subtree.getTotalElements()).isEqualTo(PRODUCT_COUNT + 2);
+        assertThat(subtree.getContent()).extracting(ProductListItemResponse::getCategoryName)
+                .startsWith("Grandchild", "Child", "Test Category");
+        assertThat(childOnly.getContent()).extracting(ProductListItemResponse::getSoldCount)
+                .containsExactly(2000, 1000);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+        assertThat(productRepository.findBatchWithShopAndCategoryByCategoryPathAfterId(
+                CategoryPathUtil.subtreePattern(child.getPath()), 0L, PageRequest.of(0, PAGE_SIZE)))
+                .extracting(Product::getSoldCount)
+                .containsExactly(1000, 2000);
+    }
+
+    @Test
+    @DisplayName("Should find products and categories written since a time, deleted products included")
+    void testFindUpdatedSince() {
+        LocalDateTime since = LocalDateTime.now().minusHours(1);
+        bestSeller = productRepository.findById(bestSeller.getProductId()).orElseThrow();
+        bestSeller.setHasDeleted(true);
+        productRepository.saveAndFlush(bestSeller);
+        entityManager.clear();
+
+        List<Product> firstBatch = productRepository.findBatchWithShopAndCategoryUpdatedSinceAfterId(since, 0L,
+                PageRequest.of(0, PAGE_SIZE));
+        List<Product> lastBatch = productRepository.findBatchWithShopAndCategoryUpdatedSinceAfterId(since,
+                firstBatch.get(PAGE_SIZE - 1).getProductId(), PageRequest.of(0, PAGE_SIZE));
+
+        assertThat(lastBatch).hasSize(PRODUCT_COUNT - PAGE_SIZE);
+        assertThat(lastBatch.get(lastBatch.size() - 1).getHasDeleted()).isTrue();
+        assertThat(lastBatch.get(0).getShop().getShopName()).isEqualTo("Test Shop");
+        assertThat(productRepository.findBatchWithShopAndCategoryUpdatedSinceAfterId(
+                LocalDateTime.now().plusHours(1), 0L, PageRequest.of(0, PAGE_SIZE))).isEmpty();
+        assertThat(categoryRepository.findPathsUpdatedSince(since)).containsExactly(category.getPath());
+    }
+
+    @Test
+    @DisplayName("Should move a whole subtree with one update")
+    void testUpdateDescendantPaths() {
+        Category child = persistCategory("Child", category);
+        Category grandchild = persistCategory("Grandchild", child);
+        Category newRoot = persistCategory("New Root", null);
+        entityManager.flush();
+
+        String oldPath = child.getPath();
+        String newPath = CategoryPathUtil.childPath(newRoot.getPath(), child.getCategoryId());
+        int updated = categoryRepository.updateDescendantPaths(child.getCategoryId(),
+                CategoryPathUtil.subtreePattern(oldPath), oldPath.length(), newPath);
+        entityManager.clear();
+
+        assertThat(updated).isEqualTo(1);
+        assertThat(categoryRepository.findPathByCategoryId(grandchild.getCategoryId()))
+                .contains(newPath + grandchild.getCategoryId() + "/");
+        assertThat(categoryRepository.findPathByCategoryId(child.getCategoryId())).contains(oldPath);
+    }
+
+    @Test
+    @DisplayName("Should adjust and reconcile active product counters")
+    void testActiveProductCounters() {
+        Category child = persistCategory("Child", category);
+        entityManager.flush();
+
+        categoryRepository.adjustActiveProductCount(List.of(category.getCategoryId(),
+                child.getCategoryId()), 1);
+        int stale = categoryRepository.reconcileActiveProductCount(category.getCategoryId(), 0, PRODUCT_COUNT);
+        int reconciled = categoryRepository.reconcileActiveProductCount(category.getCategoryId(), 1, PRODUCT_COUNT);
+        entityManager.clear();
+
+        assertThat(stale).isZero();
+        assertThat(reconciled).isEqualTo(1);
+        assertThat(categoryRepository.findById(category.getCategoryId()).orElseThrow().getActiveProductCount())
+                .isEqualTo(PRODUCT_COUNT);
+        assertThat(categoryRepository.findById(child.getCategoryId()).orElseThrow().getActiveProductCount())
+                .isEqualTo(1);
+        assertThat(productRepository.countActiveByCategory())
+                .singleElement()
+                .satisfies(count -> assertThat(count.getCount()).isEqualTo(PRODUCT_COUNT));
+        assertThat(productRepository.existsByCategoryCategoryId(child.getCategoryId())).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should load a shop page in one select plus one count")
+    void testShopPageStatementCount() {
+        Page<ProductListItemResponse> page = productRepository.findProductListItemsByShopId(
+                shop.getShopId(), PageRequest.of(0, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "createdAt")));
+
+        assertThat(page.getContent()).hasSize(PAGE_SIZE);
+        assertThat(page.getTotalPages()).isEqualTo(2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should skip the count query on the last partial page")
+    void testLastPageSkipsCount() {
+        Page<ProductListItemResponse> page = productRepository.findProductListItemsByShopId(
+                shop.getShopId(), PageRequest.of(1, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "createdAt")));
+
+        assertThat(page.getContent()).hasSize(PRODUCT_COUNT - PAGE_SIZE);
+        assertThat(page.getTotalElements()).isEqualTo(PRODUCT_COUNT);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should load a cursor page in one select without loading products")
+    void testCursorPageStatementCount() {
+        Slice<ProductListItemResponse> first = productRepository.findProductsWithFiltersAfterSoldCount(
+                null, null, CategoryPathUtil.subtreePattern(category.getPath()), shop.getShopId(), "Active",
+                null, null, PageRequest.of(0, PAGE_SIZE));
+        ProductListItemResponse last = first.getContent().get(PAGE_SIZE - 1);
+        Slice<ProductListItemResponse> second = productRepository.findProductsWithFiltersAfterSoldCount(
+                null, null, CategoryPathUtil.subtreePattern(category.getPath()), shop.getShopId(), "Active",
+                last.getSoldCount(), last.getProductId(), PageRequest.of(0, PAGE_SIZE));
+        Slice<ProductListItemResponse> newest = productRepository.findProductsWithFiltersAfterCreatedAt(
+                null, null, null, null, "Active", null, null, PageRequest.of(0, PAGE_SIZE));
+
+        assertThat(first.hasNext()).isTrue();
+        assertThat(first.getContent().get(0).getSoldCount()).isEqualTo(PRODUCT_COUNT);
+        assertThat(first.getContent()).allSatisfy(item -> {
+            assertThat(item.getShopName()).isEqualTo("Test Shop");
+            assertThat(item.getCategoryName()).isEqualTo("Test Category");
+        });
+        assertThat(second.getContent()).extracting(ProductListItemResponse::getSoldCount)
+                .containsExactly(5, 4, 3, 2, 1);
+        assertThat(second.hasNext()).isFalse();
+        assertThat(newest.getContent()).hasSize(PAGE_SIZE);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should backfill the main image and serve it without reading product images")
+    void testMainImageBackfill() {
+        persistImage(bestSeller, "https://cdn.example.com/second.jpg", 1);
+        persistImage(bestSeller, "https://cdn.example.com/first.jpg", 0);
+        entityManager.flush();
+        entityManager.clear();
+
+        int updated = productRepository.backfillMainImageUrls(0, productRepository.findMaxProductId());
+        // Running again leaves filled rows alone
+        int updatedAgain = productRepository.backfillMainImageUrls(0, productRepository.findMaxProductId());
+        entityManager.clear();
+        statistics.clear();
+
+        Page<ProductListItemResponse> page = productRepository.findProductListItemsWithFilters(
+                null, null, null, null, "Active",
+                PageRequest.of(0, 1, Sort.by(Sort.Direction.DESC, "soldCount")));
+
+        assertThat(updated).isEqualTo(1);
+        assertThat(updatedAgain).isZero();
+        assertThat(page.getContent().get(0).getMainImageUrl()).isEqualTo("https://cdn.example.com/first.jpg");
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    private Category persistCategory(String name, Category parent) {
+        Category created = new Category();
+        created.setName(name);
+        created.setSlug(name.toLowerCase().replace(' ', '-'));
+        created.setParent(parent != null ? entityManager.find(Category.class, parent.getCategoryId()) : null);
+        entityManager.persist(created);
+        created.setPath(CategoryPathUtil.childPath(parent != null ? parent.getPath() : null,
+                created.getCategoryId()));
+        return created;
+    }
+
+    private void persistProduct(Category productCategory, int soldCount) {
+        Product product = new Product();
+        product.setShop(entityManager.find(Shop.class, shop.getShopId()));
+        product.setCategory(productCategory);
+        product.setName(productCategory.getName() + " product");
+        product.setPrice(new BigDecimal("10.00"));
+        product.setStockQuantity(100);
+        product.setSoldCount(soldCount);
+        product.setStatus("Active");
+        product.setHasDeleted(false);
+        entityManager.persist(product);
+    }
+
+    private void persistImage(Product product, String url, int displayOrder) {
+        ProductImage image = new ProductImage();
+        image.setProduct(entityManager.find(Product.class, product.getProductId()));
+        image.setImageUrl(url);
+        image.setDisplayOrder(displayOrder);
+        entityManager.persist(image);
+    }
+}
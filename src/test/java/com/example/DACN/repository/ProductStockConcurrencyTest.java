@@ -0,0 +1,199 @@
+package com.example.DACN.repository;
+
+import com.example.DACN.entity.Category;
+import com.example.DACN.entity.Product;
+import com.example.DACN.entity.Role;
+import com.example.DACN.entity.Shop;
+import com.example.DACN.entity.User;
+import com.example.DACN.event.ProductChangedEvent;
+import com.example.DACN.search.ProductLeaderboard;
+import com.example.DACN.search.ProductLeaderboardUpdater;
+import com.example.DACN.service.ProductLeaderboardService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs real concurrent transactions, so the test itself is not transactional
+ * and cleans up the rows it committed.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ ProductLeaderboard.class, ProductLeaderboardUpdater.class, ProductLeaderboardService.class })
+@DisplayName("ProductRepository - Concurrent Stock Decrement Tests")
+class ProductStockConcurrencyTest {
+
+    private static final int STOCK = 100;
+    private static final int BUYERS = 500;
+    private static final int THREADS = 32;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ProductLeaderboardService productLeaderboardService;
+
+    private TransactionTemplate transactionTemplate;
+    private List<Object> created;
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        created = new ArrayList<>();
+
+        productId = transactionTemplate.execute(status -> {
+            Role role = new Role();
+            role.setRoleName("Seller");
+            persist(role);
+
+            User seller = new User();
+            seller.setEmail("stock-seller@example.com");
+            seller.setPasswordHash("hash");
+            seller.setRole(role);
+            persist(seller);
+
+            Shop shop = new Shop();
+            shop.setUser(seller);
+            shop.setShopName("Flash Sale Shop");
+            shop.setIsApproved(true);
+            shop.setHasDeleted(false);
+            persist(shop);
+
+            Category category = new Category();
+            category.setName("Flash Sale");
+            category.setSlug("flash-sale");
+            persist(category);
+
+            Product product = new Product();
+            product.setShop(shop);
+            product.setCategory(category);
+            product.setName("Limited Item");
+            product.setPrice(new BigDecimal("9.99"));
+            product.setStockQuantity(STOCK);
+            product.setStatus("Active");
+            product.setHasDeleted(false);
+            persist(product);
+            return product.getProductId();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = created.size() - 1; i >= 0; i--) {
+                Object entity = created.get(i);
+                entityManager.remove(entityManager.contains(entity) ? entity : entityManager.merge(entity));
+            }
+        });
+    }
+
+    @Test
+    @DisplayName("Should sell exactly the available stock to 500 concurrent buyers of 100 units")
+    void testNoOversell() throws Exception {
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        try {
+            List<Future<?>> buyers = new ArrayList<>();
+            for (int i = 0; i < BUYERS; i++) {
+                buyers.add(executor.submit(() -> {
+                    start.await();
+                    Integer updated = transactionTemplate.execute(
+                            status -> productRepository.decrementStock(productId, 1));
+                    (updated != null && updated == 1 ? sold : rejected).incrementAndGet();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> buyer : buyers) {
+                buyer.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Product product = productRepository.findById(productId).orElseThrow();
+        assertThat(sold.get()).isEqualTo(STOCK);
+        assertThat(rejected.get()).isEqualTo(BUYERS - STOCK);
+        assertThat(product.getStockQuantity()).isZero();
+        assertThat(product.getSoldCount()).isEqualTo(STOCK);
+    }
+
+    @Test
+    @DisplayName("Should refuse a decrement larger than the stock and restore taken stock")
+    void testDecrementAndRestore() {
+        Integer tooMany = transactionTemplate.execute(
+                status -> productRepository.decrementStock(productId, STOCK + 1));
+        Integer taken = transactionTemplate.execute(status -> productRepository.decrementStock(productId, 30));
+        transactionTemplate.executeWithoutResult(status -> productRepository.restoreStock(productId, 10));
+
+        Product product = productRepository.findById(productId).orElseThrow();
+        assertThat(tooMany).isZero();
+        assertThat(taken).isEqualTo(1);
+        assertThat(product.getStockQuantity()).isEqualTo(STOCK - 20);
+        assertThat(product.getSoldCount()).isEqualTo(20);
+    }
+
+    @Test
+    @DisplayName("Should show the new sold count on the leaderboard once a checkout commits")
+    void testLeaderboardAfterCheckout() {
+        transactionTemplate.executeWithoutResult(status -> {
+            // Like checkout: read the products, take the stock, then announce the change
+            Product product = productRepository.findAllForCheckout(List.of(productId)).get(0);
+            assertThat(product.getSoldCount()).isZero();
+            productRepository.decrementStock(productId, 3);
+            eventPublisher.publishEvent(
+                    new ProductChangedEvent(productId, ProductChangedEvent.ChangeType.STOCK_CHANGED));
+        });
+
+        assertThat(productLeaderboardService.getBestSellers(null, null, 1).getData()).singleElement().satisfies(item -> {
+            assertThat(item.getProductId()).isEqualTo(productId);
+            assertThat(item.getSoldCount()).isEqualTo(3);
+            assertThat(item.getStockQuantity()).isEqualTo(STOCK - 3);
+        });
+    }
+
+    private <T> T persist(T entity) {
+        entityManager.persist(entity);
+        created.add(entity);
+        return entity;
+    }
+}
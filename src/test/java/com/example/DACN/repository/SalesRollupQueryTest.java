@@ -0,0 +1,288 @@
+package com.example.DACN.repository;
+
+import com.example.DACN.dto.response.SellerAnalyticsResponse;
+import com.example.DACN.entity.BackfillCheckpoint;
+import com.example.DACN.entity.Category;
+import com.example.DACN.entity.Order;
+import com.example.DACN.entity.OrderItem;
+import com.example.DACN.entity.Product;
+import com.example.DACN.entity.ProductSalesRollup;
+import com.example.DACN.entity.Role;
+import com.example.DACN.entity.Shop;
+import com.example.DACN.entity.ShopSalesRollup;
+import com.example.DACN.entity.User;
+import com.example.DACN.service.SalesRollupService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DisplayName("Sales Rollup Query Tests")
+class SalesRollupQueryTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 10, 1);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ShopSalesRollupRepository shopSalesRollupRepository;
+
+    @Autowired
+    private ProductSalesRollupRepository productSalesRollupRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private BackfillCheckpointRepository backfillCheckpointRepository;
+
+    private SalesRollupService salesRollupService;
+    private User customer;
+    private Shop shop;
+    private Product product1;
+    private Product product2;
+
+    @BeforeEach
+    void setUp() {
+        salesRollupService = new SalesRollupService(shopSalesRollupRepository, productSalesRollupRepository,
+                orderItemRepository, backfillCheckpointRepository);
+
+        Role role = new Role();
+        role.setRoleName("Customer");
+        entityManager.persist(role);
+
+        customer = new User();
+        customer.setEmail("customer@example.com");
+        customer.setFullName("Customer");
+        customer.setPasswordHash("hash");
+        customer.setRole(role);
+        entityManager.persist(customer);
+
+        User seller = new User();
+        seller.setEmail("seller@example.com");
+        seller.setFullName("Seller");
+        seller.setPasswordHash("hash");
+        seller.setRole(role);
+        entityManager.persist(seller);
+
+        shop = new Shop();
+        shop.setUser(seller);
+        shop.setShopName("Test Shop");
+        shop.setIsApproved(true);
+        shop.setHasDeleted(false);
+        entityManager.persist(shop);
+
+        Category category = new Category();
+        category.setName("Test Category");
+        category.setSlug("test-category");
+        entityManager.persist(category);
+
+        product1 = product(category, "Product 1");
+        product2 = product(category, "Product 2");
+    }
+
+    @Test
+    @DisplayName("Should add concurrent increments of one bucket into a single row")
+    void testIncrementUpserts() {
+        LocalDateTime bucket = DAY.atTime(10, 0);
+
+        shopSalesRollupRepository.increment(shop.getShopId(), ShopSalesRollup.GRANULARITY_HOUR, bucket,
+                1, new BigDecimal("100.00"), new BigDecimal("10.00"), 0, BigDecimal.ZERO, 0);
+        shopSalesRollupRepository.increment(shop.getShopId(), ShopSalesRollup.GRANULARITY_HOUR, bucket,
+                1, new BigDecimal("50.00"), BigDecimal.ZERO, 1, new BigDecimal("50.00"), 0);
+        entityManager.clear();
+
+        List<ShopSalesRollup> rows = shopSalesRollupRepository.findAll();
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0).getOrderCount()).isEqualTo(2);
+        assertThat(rows.get(0).getGmv()).isEqualByComparingTo("150.00");
+        assertThat(rows.get(0).getVoucherDiscount()).isEqualByComparingTo("10.00");
+        assertThat(rows.get(0).getCancelledCount()).isEqualTo(1);
+        assertThat(rows.get(0).getCancelledAmount()).isEqualByComparingTo("50.00");
+    }
+
+    @Test
+    @DisplayName("Should rebuild hourly and daily buckets of a day from its orders")
+    void testRebuildDay() {
+        order(DAY.atTime(10, 15), "100.00", false, "Delivered", item(product1, 2, "50.00"));
+        order(DAY.atTime(10, 45), "80.00", false, "Pending", item(product1, 1, "50.00"), item(product2, 1, "30.00"));
+        order(DAY.atTime(14, 5), "30.00", true, "Cancelled", item(product2, 1, "30.00"));
+        order(DAY.plusDays(1).atTime(0, 5), "999.00", false, "Pending", item(product1, 9, "111.00"));
+        entityManager.flush();
+
+        salesRollupService.rebuildDay(DAY);
+        entityManager.clear();
+
+        List<ShopSalesRollup> hours = shopSalesRollupRepository.findBuckets(shop.getShopId(),
+                ShopSalesRollup.GRANULARITY_HOUR, DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay());
+        assertThat(hours).extracting(ShopSalesRollup::getBucketStart)
+                .containsExactly(DAY.atTime(10, 0), DAY.atTime(14, 0));
+        assertThat(hours.get(0).getOrderCount()).isEqualTo(2);
+        assertThat(hours.get(0).getGmv()).isEqualByComparingTo("180.00");
+        assertThat(hours.get(0).getDeliveredCount()).isEqualTo(1);
+        assertThat(hours.get(1).getCancelledCount()).isEqualTo(1);
+
+        List<ShopSalesRollup> days = shopSalesRollupRepository.findBuckets(shop.getShopId(),
+                ShopSalesRollup.GRANULARITY_DAY, DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay());
+        assertThat(days).hasSize(1);
+        assertThat(days.get(0).getOrderCount()).isEqualTo(3);
+        assertThat(days.get(0).getGmv()).isEqualByComparingTo("210.00");
+        assertThat(days.get(0).getCancelledAmount()).isEqualByComparingTo("30.00");
+
+        // Units are net of the cancelled order
+        List<ProductSalesRollup> products = productSalesRollupRepository.findAll().stream()
+                .filter(r -> ShopSalesRollup.GRANULARITY_DAY.equals(r.getGranularity()))
+                .sorted(Comparator.comparing(ProductSalesRollup::getProductId))
+                .toList();
+        assertThat(products).extracting(ProductSalesRollup::getUnits).containsExactly(3L, 1L);
+        assertThat(products.get(0).getRevenue()).isEqualByComparingTo("150.00");
+    }
+
+    @Test
+    @DisplayName("Should give the same buckets incrementally as a rebuild does")
+    void testIncrementalMatchesRebuild() {
+        Order placed = order(DAY.atTime(9, 30), "100.00", false, "Pending", item(product1, 2, "50.00"));
+        Order cancelled = order(DAY.atTime(9, 40), "30.00", false, "Pending", item(product2, 1, "30.00"));
+        entityManager.flush();
+        entityManager.clear();
+
+        salesRollupService.recordOrderPlaced(placed, orderItemRepository.findByOrderOrderId(placed.getOrderId()));
+        salesRollupService.recordOrderPlaced(cancelled,
+                orderItemRepository.findByOrderOrderId(cancelled.getOrderId()));
+        // Cancel with an update rather than merging the detached order, whose
+        // Lombok hashCode would walk into its lazy shop and collections
+        entityManager.getEntityManager()
+                .createNativeQuery("UPDATE orders SET has_deleted = TRUE WHERE order_id = :orderId")
+                .setParameter("orderId", cancelled.getOrderId())
+                .executeUpdate();
+        cancelled.setHasDeleted(true);
+        salesRollupService.recordOrderCancelled(cancelled);
+        entityManager.flush();
+        entityManager.clear();
+
+        SellerAnalyticsResponse incremental = salesRollupService.getShopAnalytics(shop.getShopId(), DAY, DAY,
+                ShopSalesRollup.GRANULARITY_HOUR);
+
+        salesRollupService.rebuildDay(DAY);
+        entityManager.clear();
+
+        SellerAnalyticsResponse rebuilt = salesRollupService.getShopAnalytics(shop.getShopId(), DAY, DAY,
+                ShopSalesRollup.GRANULARITY_HOUR);
+
+        assertThat(incremental.getTotals().getOrderCount()).isEqualTo(2);
+        assertThat(incremental.getTotals().getCancelledCount()).isEqualTo(1);
+        assertThat(rebuilt.getTotals().getOrderCount()).isEqualTo(incremental.getTotals().getOrderCount());
+        assertThat(rebuilt.getTotals().getGmv()).isEqualByComparingTo(incremental.getTotals().getGmv());
+        assertThat(rebuilt.getTotals().getCancelledAmount())
+                .isEqualByComparingTo(incremental.getTotals().getCancelledAmount());
+        assertThat(rebuilt.getTopProducts()).extracting(p -> p.getUnits())
+                .containsExactlyElementsOf(incremental.getTopProducts().stream().map(p -> p.getUnits()).toList());
+    }
+
+    @Test
+    @DisplayName("Should keep the backfill checkpoint with each rebuilt day")
+    void testBackfillCheckpoint() {
+        order(DAY.atTime(10, 0), "100.00", false, "Pending", item(product1, 2, "50.00"));
+        entityManager.flush();
+
+        BackfillCheckpoint started = salesRollupService.findOrStartBackfill(DAY.plusDays(3));
+        assertThat(started.getLiveFrom()).isEqualTo(DAY.plusDays(3));
+        assertThat(started.getDoneThrough()).isNull();
+
+        salesRollupService.backfillDay(DAY);
+        entityManager.flush();
+        entityManager.clear();
+
+        // A later start keeps the day the rollups went live and resumes after DAY
+        BackfillCheckpoint resumed = salesRollupService.findOrStartBackfill(DAY.plusDays(5));
+        assertThat(resumed.getLiveFrom()).isEqualTo(DAY.plusDays(3));
+        assertThat(resumed.getDoneThrough()).isEqualTo(DAY);
+        assertThat(shopSalesRollupRepository.findBuckets(shop.getShopId(), ShopSalesRollup.GRANULARITY_DAY,
+                DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay())).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Should answer a range with totals, a daily series and top products from rollups")
+    void testShopAnalytics() {
+        order(DAY.atTime(10, 0), "100.00", false, "Pending", item(product1, 2, "50.00"));
+        order(DAY.plusDays(2).atTime(12, 0), "90.00", false, "Pending", item(product2, 3, "30.00"));
+        entityManager.flush();
+        salesRollupService.rebuildDay(DAY);
+        salesRollupService.rebuildDay(DAY.plusDays(2));
+        entityManager.clear();
+
+        SellerAnalyticsResponse response = salesRollupService.getShopAnalytics(shop.getShopId(), DAY,
+                DAY.plusDays(6), ShopSalesRollup.GRANULARITY_DAY);
+
+        assertThat(response.getBuckets()).extracting(b -> b.getBucketStart())
+                .containsExactly(DAY.atStartOfDay(), DAY.plusDays(2).atStartOfDay());
+        assertThat(response.getTotals().getOrderCount()).isEqualTo(2);
+        assertThat(response.getTotals().getGmv()).isEqualByComparingTo("190.00");
+        assertThat(response.getTopProducts()).extracting(p -> p.getProductName())
+                .containsExactly("Product 2", "Product 1");
+    }
+
+    private Product product(Category category, String name) {
+        Product product = new Product();
+        product.setShop(shop);
+        product.setCategory(category);
+        product.setName(name);
+        product.setPrice(new BigDecimal("50.00"));
+        product.setStockQuantity(100);
+        product.setStatus("Active");
+        product.setHasDeleted(false);
+        entityManager.persist(product);
+        return product;
+    }
+
+    private OrderItem item(Product product, int quantity, String price) {
+        OrderItem item = new OrderItem();
+        item.setProduct(product);
+        item.setQuantity(quantity);
+        item.setPriceAtPurchase(new BigDecimal(price));
+        return item;
+    }
+
+    private Order order(LocalDateTime createdAt, String finalAmount, boolean cancelled, String status,
+            OrderItem... items) {
+        Order order = new Order();
+        order.setUser(customer);
+        order.setShop(shop);
+        order.setTotalAmount(new BigDecimal(finalAmount));
+        order.setFinalAmount(new BigDecimal(finalAmount));
+        order.setPaymentMethod("COD");
+        order.setHasDeleted(cancelled);
+        order.setCurrentStatus(status);
+        entityManager.persist(order);
+        for (OrderItem item : items) {
+            item.setOrder(order);
+            entityManager.persist(item);
+        }
+        entityManager.flush();
+
+        // created_at is set on insert and not updatable through the entity
+        entityManager.getEntityManager()
+                .createNativeQuery("UPDATE orders SET created_at = :createdAt WHERE order_id = :orderId")
+                .setParameter("createdAt", createdAt)
+                .setParameter("orderId", order.getOrderId())
+                .executeUpdate();
+        order.setCreatedAt(createdAt);
+        return order;
+    }
+}
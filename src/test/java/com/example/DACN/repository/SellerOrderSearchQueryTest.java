@@ -0,0 +1,227 @@
+package com.example.DACN.repository;
+
+import com.example.DACN.dto.response.SellerOrderResponse;
+import com.example.DACN.entity.Order;
+import com.example.DACN.entity.Role;
+import com.example.DACN.entity.Shop;
+import com.example.DACN.entity.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.example.DACN.repository.SellerOrderSearchQueryTest$CapturingStatementInspector")
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DisplayName("OrderRepository - Seller Order Search Query Tests")
+class SellerOrderSearchQueryTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 3, 1, 0, 0);
+    private static final int DAYS = 30;
+
+    // Index used to read orders, and the conditions it was searched with
+    private static final Pattern ORDERS_INDEX = Pattern.compile(
+            "\"?orders\"?\\s+\"?\\w+\"?\\s*/\\*\\s*\"?public\"?\\.\"?(\\w+)\"?:\\s*([^*]*)\\*/");
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private User alice;
+    private Shop shop;
+    private List<Order> orders;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        Role role = new Role();
+        role.setRoleName("Customer");
+        entityManager.persist(role);
+
+        alice = user("alice@example.com", role);
+        User bob = user("bob@example.com", role);
+        User seller = user("seller@example.com", role);
+
+        shop = new Shop();
+        shop.setUser(seller);
+        shop.setShopName("Search Shop");
+        shop.setIsApproved(true);
+        shop.setHasDeleted(false);
+        entityManager.persist(shop);
+
+        // One order a day: even days Alice pays by PayPal, odd days Bob pays cash;
+        // the amount grows by 10 a day
+        orders = new ArrayList<>();
+        for (int day = 0; day < DAYS; day++) {
+            boolean even = day % 2 == 0;
+            orders.add(order(even ? alice : bob, even ? "PAYPAL" : "COD", even ? "Paid" : "Pending",
+                    new BigDecimal(10 * (day + 1)), START.plusDays(day).plusHours(12)));
+        }
+        entityManager.clear();
+
+        CapturingStatementInspector.STATEMENTS.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("Should compose every filter into one statement")
+    void testSearchAllFilters() {
+        Slice<SellerOrderResponse> page = orderRepository.searchSellerOrders(shop.getShopId(), START.plusDays(5),
+                START.plusDays(20), 0L, "Paid", "PAYPAL", new BigDecimal("80"), new BigDecimal("160"),
+                "alice@example.com", PageRequest.of(0, 10));
+
+        // Even days from 5 to 19 with an amount from 80 to 160
+        assertThat(page.getContent()).extracting(SellerOrderResponse::getOrderId)
+                .containsExactly(id(14), id(12), id(10), id(8));
+        assertThat(page.getContent()).allSatisfy(row -> {
+            assertThat(row.getCustomerEmail()).isEqualTo("alice@example.com");
+            assertThat(row.getPaymentMethod()).isEqualTo("PAYPAL");
+            assertThat(row.getCurrentStatus()).isEqualTo("Paid");
+        });
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should walk every order in the range exactly once using the upper bound as cursor")
+    void testSearchKeysetWalk() {
+        List<Long> seen = new ArrayList<>();
+        LocalDateTime toCreatedAt = START.plusDays(DAYS);
+        long toOrderId = 0;
+        Slice<SellerOrderResponse> page;
+        do {
+            page = orderRepository.searchSellerOrders(shop.getShopId(), START, toCreatedAt, toOrderId, null, "COD",
+                    null, null, null, PageRequest.of(0, 4));
+            page.getContent().forEach(row -> seen.add(row.getOrderId()));
+            SellerOrderResponse last = page.getContent().get(page.getNumberOfElements() - 1);
+            toCreatedAt = last.getCreatedAt();
+            toOrderId = last.getOrderId();
+        } while (page.hasNext());
+
+        List<Long> expected = new ArrayList<>();
+        for (int day = DAYS - 1; day >= 0; day--) {
+            if (day % 2 == 1) {
+                expected.add(id(day));
+            }
+        }
+        assertThat(seen).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    @DisplayName("Should read orders in order by an index range scan on shop and creation time")
+    void testSearchUsesIndexRangeScan() {
+        orderRepository.searchSellerOrders(shop.getShopId(), START, START.plusDays(7), 0L, "Paid", "PAYPAL",
+                BigDecimal.ONE, BigDecimal.TEN, "alice@example.com", PageRequest.of(0, 20));
+        assertThat(CapturingStatementInspector.STATEMENTS).hasSize(1);
+
+        String plan = explain(CapturingStatementInspector.STATEMENTS.get(0));
+
+        Matcher matcher = ORDERS_INDEX.matcher(plan);
+        assertThat(matcher.find()).as("orders read by index in plan:%n%s", plan).isTrue();
+        assertThat(matcher.group(1)).isEqualTo("idx_orders_shop_created");
+        assertThat(matcher.group(2)).contains("shop_id =").contains("created_at >=").contains("created_at <=");
+        // Rows come in ORDER BY order, so no sort of the whole range
+        assertThat(plan).contains("/* index sorted */");
+    }
+
+    /**
+     * Plan of a statement as H2 would run it. The plan is made when the
+     * statement is prepared, so the parameter values do not matter.
+     */
+    private String explain(String sql) {
+        return entityManager.getEntityManager().unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                int parameters = statement.getParameterMetaData().getParameterCount();
+                for (int i = 1; i <= parameters; i++) {
+                    statement.setNull(i, Types.NULL);
+                }
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    resultSet.next();
+                    return resultSet.getString(1).toLowerCase(Locale.ROOT);
+                }
+            }
+        });
+    }
+
+    private Long id(int day) {
+        return orders.get(day).getOrderId();
+    }
+
+    private User user(String email, Role role) {
+        User user = new User();
+        user.setEmail(email);
+        user.setFullName(email);
+        user.setPasswordHash("hash");
+        user.setRole(role);
+        return entityManager.persist(user);
+    }
+
+    private Order order(User customer, String paymentMethod, String status, BigDecimal amount,
+            LocalDateTime createdAt) {
+        Order order = new Order();
+        order.setUser(customer);
+        order.setShop(shop);
+        order.setTotalAmount(amount);
+        order.setFinalAmount(amount);
+        order.setPaymentMethod(paymentMethod);
+        order.setHasDeleted(false);
+        order.setCurrentStatus(status);
+        order.setStatusUpdatedAt(createdAt);
+        entityManager.persist(order);
+        entityManager.flush();
+
+        // created_at is not updatable through the entity
+        entityManager.getEntityManager()
+                .createNativeQuery("UPDATE orders SET created_at = :createdAt WHERE order_id = :orderId")
+                .setParameter("createdAt", createdAt)
+                .setParameter("orderId", order.getOrderId())
+                .executeUpdate();
+        return order;
+    }
+
+    /**
+     * Keeps the SQL Hibernate sends, so its plan can be checked.
+     */
+    public static class CapturingStatementInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
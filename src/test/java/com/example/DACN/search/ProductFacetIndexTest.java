@@ -0,0 +1,157 @@
+package com.example.DACN.search;
+
+import com.example.DACN.entity.Category;
+import com.example.DACN.entity.Product;
+import com.example.DACN.entity.Shop;
+import com.example.DACN.util.CategoryPathUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+@DisplayName("ProductFacetIndex Tests")
+class ProductFacetIndexTest {
+
+    private ProductFacetIndex facetIndex;
+
+    @BeforeEach
+    void setUp() {
+        facetIndex = new ProductFacetIndex(new BigDecimal[] { new BigDecimal("100"), new BigDecimal("500") });
+
+        facetIndex.upsertAll(Arrays.asList(
+                product(1L, "50.00", 10L, 100L, "Active"),
+                product(2L, "150.00", 10L, 100L, "Active"),
+                product(3L, "600.00", 10L, 200L, "Active"),
+                product(4L, "80.00", 11L, 200L, "Active"),
+                product(5L, "90.00", 11L, 100L, "Inactive")));
+    }
+
+    @Test
+    @DisplayName("Should count every facet without filters")
+    void testCountWithoutFilters() {
+        ProductFacetIndex.FacetCounts counts = facetIndex.count(null, null, null, null);
+
+        assertThat(counts.getTotal()).isEqualTo(4);
+        assertThat(counts.getCategoryCounts()).containsOnly(entry(10L, 3), entry(11L, 1));
+        assertThat(counts.getShopCounts()).containsOnly(entry(100L, 2), entry(200L, 2));
+        assertThat(counts.getPriceBucketCounts())
+                .extracting(ProductFacetIndex.PriceBucketCount::getCount)
+                .containsExactly(2, 1, 1);
+    }
+
+    @Test
+    @DisplayName("Should keep sibling counts for the selected facet")
+    void testDisjunctiveCounts() {
+        ProductFacetIndex.FacetCounts counts = facetIndex.count(null, null, 10L, 200L);
+
+        assertThat(counts.getTotal()).isEqualTo(1);
+        // Category facet ignores the category filter but applies the shop filter
+        assertThat(counts.getCategoryCounts()).containsOnly(entry(10L, 1), entry(11L, 1));
+        // Shop facet ignores the shop filter but applies the category filter
+        assertThat(counts.getShopCounts()).containsOnly(entry(100L, 2), entry(200L, 1));
+        assertThat(counts.getPriceBucketCounts())
+                .extracting(ProductFacetIndex.PriceBucketCount::getCount)
+                .containsExactly(0, 0, 1);
+    }
+
+    @Test
+    @DisplayName("Should apply the price filter to the other facets")
+    void testPriceFilter() {
+        ProductFacetIndex.FacetCounts counts = facetIndex.count(null, new BigDecimal("100"), null, null);
+
+        assertThat(counts.getTotal()).isEqualTo(2);
+        assertThat(counts.getCategoryCounts()).containsOnly(entry(10L, 1), entry(11L, 1));
+        assertThat(counts.getPriceBucketCounts())
+                .extracting(ProductFacetIndex.PriceBucketCount::getCount)
+                .containsExactly(2, 1, 1);
+    }
+
+    @Test
+    @DisplayName("Should describe price bucket bounds")
+    void testPriceBucketBounds() {
+        ProductFacetIndex.FacetCounts counts = facetIndex.count(null, null, null, null);
+
+        assertThat(counts.getPriceBucketCounts().get(0).getMinPrice()).isNull();
+        assertThat(counts.getPriceBucketCounts().get(0).getMaxPrice()).isEqualByComparingTo("100");
+        assertThat(counts.getPriceBucketCounts().get(2).getMinPrice()).isEqualByComparingTo("500");
+        assertThat(counts.getPriceBucketCounts().get(2).getMaxPrice()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should reflect updates, deactivation and removal")
+    void testUpsertAndRemove() {
+        facetIndex.upsert(product(1L, "50.00", 11L, 100L, "Active"));
+        facetIndex.upsert(product(3L, "600.00", 10L, 200L, "Banned"));
+        facetIndex.remove(4L);
+        facetIndex.upsert(product(6L, "700.00", 12L, 300L, "Active"));
+
+        ProductFacetIndex.FacetCounts counts = facetIndex.count(null, null, null, null);
+
+        assertThat(facetIndex.size()).isEqualTo(3);
+        assertThat(counts.getCategoryCounts()).containsOnly(entry(10L, 1), entry(11L, 1), entry(12L, 1));
+        assertThat(counts.getShopCounts()).containsOnly(entry(100L, 2), entry(300L, 1));
+    }
+
+    @Test
+    @DisplayName("Should match nothing for an unknown filter value")
+    void testUnknownFilterValue() {
+        ProductFacetIndex.FacetCounts counts = facetIndex.count(null, null, 999L, null);
+
+        assertThat(counts.getTotal()).isZero();
+        assertThat(counts.getCategoryCounts()).containsOnly(entry(10L, 3), entry(11L, 1));
+        assertThat(counts.getShopCounts()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should filter and count a category with its whole subtree")
+    void testCategorySubtree() {
+        // 10 and 11 become children of root 1; 12 sits under 10
+        facetIndex.upsertAll(Arrays.asList(
+                product(1L, "50.00", "/1/10/", 100L, "Active"),
+                product(2L, "150.00", "/1/10/", 100L, "Active"),
+                product(3L, "600.00", "/1/10/", 200L, "Active"),
+                product(4L, "80.00", "/1/11/", 200L, "Active"),
+                product(6L, "700.00", "/1/10/12/", 300L, "Active")));
+
+        ProductFacetIndex.FacetCounts all = facetIndex.count(null, null, null, null);
+        ProductFacetIndex.FacetCounts parent = facetIndex.count(null, null, 10L, null);
+        ProductFacetIndex.FacetCounts root = facetIndex.count(null, null, 1L, 300L);
+
+        assertThat(all.getCategoryCounts()).containsOnly(entry(1L, 5), entry(10L, 4), entry(11L, 1), entry(12L, 1));
+        assertThat(parent.getTotal()).isEqualTo(4);
+        assertThat(parent.getShopCounts()).containsOnly(entry(100L, 2), entry(200L, 1), entry(300L, 1));
+        assertThat(root.getTotal()).isEqualTo(1);
+        // Category facet still applies the shop filter
+        assertThat(root.getCategoryCounts()).containsOnly(entry(1L, 1), entry(10L, 1), entry(12L, 1));
+    }
+
+    private Product product(Long id, String price, String categoryPath, Long shopId, String status) {
+        List<Long> ancestorIds = CategoryPathUtil.ancestorIds(categoryPath);
+        Product product = product(id, price, ancestorIds.get(ancestorIds.size() - 1), shopId, status);
+        product.getCategory().setPath(categoryPath);
+        return product;
+    }
+
+    private Product product(Long id, String price, Long categoryId, Long shopId, String status) {
+        Category category = new Category();
+        category.setCategoryId(categoryId);
+
+        Shop shop = new Shop();
+        shop.setShopId(shopId);
+
+        Product product = new Product();
+        product.setProductId(id);
+        product.setPrice(new BigDecimal(price));
+        product.setCategory(category);
+        product.setShop(shop);
+        product.setStatus(status);
+        product.setHasDeleted(false);
+        return product;
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.DACN.search;
+
+import com.example.DACN.search.ProductLeaderboard.RankedProduct;
+import com.example.DACN.search.ProductLeaderboard.Scope;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ProductLeaderboard Tests")
+class ProductLeaderboardTest {
+
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2025, 12, 1, 10, 0);
+
+    private ProductLeaderboard leaderboard;
+
+    @BeforeEach
+    void setUp() {
+        leaderboard = new ProductLeaderboard();
+
+        // Categories 10 and 11 are children of root category 1
+        leaderboard.upsert(product(1L, 50, 1, 100L, 1L, 10L));
+        leaderboard.upsert(product(2L, 80, 2, 200L, 1L, 10L));
+        leaderboard.upsert(product(3L, 20, 3, 100L, 1L, 11L));
+        leaderboard.upsert(product(4L, 80, 4, 200L, 1L, 11L));
+    }
+
+    @Test
+    @DisplayName("Should rank the whole catalog by sold count, newest ID first on ties")
+    void testGlobalBestSelling() {
+        assertThat(leaderboard.topBestSelling(null, null, 10)).containsExactly(4L, 2L, 1L, 3L);
+    }
+
+    @Test
+    @DisplayName("Should rank by creation time and honour the limit")
+    void testGlobalNewest() {
+        assertThat(leaderboard.topNewest(null, null, 2)).containsExactly(4L, 3L);
+    }
+
+    @Test
+    @DisplayName("Should rank within a category or a shop")
+    void testScopedRankings() {
+        assertThat(leaderboard.topBestSelling(10L, null, 10)).containsExactly(2L, 1L);
+        assertThat(leaderboard.topBestSelling(null, 100L, 10)).containsExactly(1L, 3L);
+        assertThat(leaderboard.topNewest(null, 200L, 10)).containsExactly(4L, 2L);
+        assertThat(leaderboard.topBestSelling(99L, null, 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should rank a parent category over its whole subtree")
+    void testAncestorCategoryScope() {
+        assertThat(leaderboard.topBestSelling(1L, null, 10)).containsExactly(4L, 2L, 1L, 3L);
+    }
+
+    @Test
+    @DisplayName("Should move a product when its sold count changes")
+    void testSoldCountChange() {
+        // Order placed for product 3, then another order for product 1 is cancelled
+        leaderboard.upsert(product(3L, 120, 3, 100L, 1L, 11L));
+        leaderboard.upsert(product(1L, 10, 1, 100L, 1L, 10L));
+
+        assertThat(leaderboard.topBestSelling(null, null, 10)).containsExactly(3L, 4L, 2L, 1L);
+        assertThat(leaderboard.topBestSelling(null, 100L, 10)).containsExactly(3L, 1L);
+    }
+
+    @Test
+    @DisplayName("Should move a product to its new category")
+    void testCategoryChange() {
+        leaderboard.upsert(product(1L, 50, 1, 100L, 1L, 11L));
+
+        assertThat(leaderboard.topBestSelling(10L, null, 10)).containsExactly(2L);
+        assertThat(leaderboard.topBestSelling(11L, null, 10)).containsExactly(4L, 1L, 3L);
+        assertThat(leaderboard.topBestSelling(1L, null, 10)).containsExactly(4L, 2L, 1L, 3L);
+    }
+
+    @Test
+    @DisplayName("Should drop removed products from every ranking")
+    void testRemove() {
+        leaderboard.remove(2L);
+        leaderboard.remove(4L);
+
+        assertThat(leaderboard.topBestSelling(null, null, 10)).containsExactly(1L, 3L);
+        assertThat(leaderboard.topNewest(null, 200L, 10)).isEmpty();
+        assertThat(leaderboard.takeShortScopes()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should keep only the top products of a scope and admit better ones")
+    void testBoundedRanking() {
+        leaderboard.clear();
+        LongStream.rangeClosed(1, 150).forEach(id -> leaderboard.upsert(product(id, (int) id, 0, 100L, 1L)));
+
+        List<Long> top = leaderboard.topBestSelling(null, 100L, ProductLeaderboard.READ_LIMIT);
+        assertThat(top).hasSize(ProductLeaderboard.READ_LIMIT).startsWith(150L, 149L);
+
+        // Product 1 was dropped; a sale moving it to the top brings it back
+        leaderboard.upsert(product(1L, 1000, 0, 100L, 1L));
+        assertThat(leaderboard.topBestSelling(null, 100L, 1)).containsExactly(1L);
+
+        // Product 2 is not kept and still ranks past the last entry, so it stays out
+        leaderboard.upsert(product(2L, 3, 0, 100L, 1L));
+        assertThat(leaderboard.topBestSelling(null, 100L, 200)).doesNotContain(2L);
+    }
+
+    @Test
+    @DisplayName("Should report a bounded ranking that removals left short and reload it")
+    void testShortRankingRefilled() {
+        leaderboard.clear();
+        LongStream.rangeClosed(1, 150).forEach(id -> leaderboard.upsert(product(id, (int) id, 0, 100L, 1L)));
+
+        // Remove the 60 best sellers; the ranking kept only 100 of 150
+        LongStream.rangeClosed(91, 150).forEach(leaderboard::remove);
+        Set<Scope> shortScopes = leaderboard.takeShortScopes();
+        assertThat(shortScopes).contains(ProductLeaderboard.GLOBAL, Scope.shop(100L), Scope.category(1L));
+
+        List<Scope> loaded = new ArrayList<>();
+        leaderboard.refill(shortScopes, (scope, newest, limit) -> {
+            loaded.add(scope);
+            return LongStream.rangeClosed(1, 90)
+                    .mapToObj(id -> product(id, (int) id, 0, 100L, 1L))
+                    .sorted(Comparator.comparingInt(RankedProduct::soldCount).reversed())
+                    .limit(limit)
+                    .toList();
+        });
+
+        assertThat(loaded).contains(ProductLeaderboard.GLOBAL);
+        assertThat(leaderboard.topBestSelling(null, null, 3)).containsExactly(90L, 89L, 88L);
+        assertThat(leaderboard.topBestSelling(null, null, ProductLeaderboard.READ_LIMIT))
+                .hasSize(ProductLeaderboard.READ_LIMIT);
+        assertThat(leaderboard.takeShortScopes()).isEmpty();
+    }
+
+    private RankedProduct product(long productId, int soldCount, int createdHoursAfterBase, Long shopId,
+            Long... categoryIds) {
+        return new RankedProduct(productId, soldCount, BASE_TIME.plusHours(createdHoursAfterBase), shopId,
+                List.of(categoryIds));
+    }
+}
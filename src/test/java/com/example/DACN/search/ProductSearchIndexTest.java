@@ -0,0 +1,225 @@
+package com.example.DACN.search;
+
+import com.example.DACN.entity.Category;
+import com.example.DACN.entity.Product;
+import com.example.DACN.entity.Shop;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.FSDirectory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ProductSearchIndex Tests")
+class ProductSearchIndexTest {
+
+    @TempDir
+    Path indexDir;
+
+    private ProductSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        searchIndex = new ProductSearchIndex(indexDir.toString());
+        searchIndex.open();
+
+        searchIndex.upsertAll(Arrays.asList(
+                product(1L, "Điện thoại Samsung Galaxy", "Màn hình lớn", "5000000.00", 10L, 100L, "Active"),
+                product(2L, "Ốp lưng", "Ốp lưng cho điện thoại Samsung", "50000.00", 11L, 100L, "Active"),
+                product(3L, "Điện thoại cũ", "Hàng đã qua sử dụng", "900000.00", 10L, 200L, "Active"),
+                product(4L, "Điện thoại ẩn", "Sản phẩm tạm ngưng", "1000000.00", 10L, 100L, "Inactive")));
+        searchIndex.commit();
+    }
+
+    @AfterEach
+    void tearDown() {
+        searchIndex.close();
+    }
+
+    @Test
+    @DisplayName("Should match regardless of case and diacritics")
+    void testDiacriticFolding() {
+        ProductSearchIndex.SearchResult withMarks = searchIndex.search("ĐIỆN THOẠI", null, null, null, null, 0, 10);
+        ProductSearchIndex.SearchResult withoutMarks = searchIndex.search("dien thoai", null, null, null, null, 0, 10);
+
+        assertThat(withMarks.getProductIds()).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(withoutMarks.getProductIds()).containsExactlyElementsOf(withMarks.getProductIds());
+    }
+
+    @Test
+    @DisplayName("Should rank name matches above description matches")
+    void testNameRankedAboveDescription() {
+        ProductSearchIndex.SearchResult result = searchIndex.search("samsung", null, null, null, null, 0, 10);
+
+        assertThat(result.getProductIds()).containsExactly(1L, 2L);
+        assertThat(result.getTotalHits()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should apply price, category and shop filters")
+    void testFilters() {
+        assertThat(searchIndex.search("dien thoai", null, null, 10L, null, 0, 10).getProductIds())
+                .containsExactlyInAnyOrder(1L, 3L);
+        assertThat(searchIndex.search("dien thoai", null, null, null, 200L, 0, 10).getProductIds())
+                .containsExactly(3L);
+        assertThat(searchIndex.search("dien thoai", new BigDecimal("50000"), new BigDecimal("900000"),
+                null, null, 0, 10).getProductIds())
+                .containsExactlyInAnyOrder(2L, 3L);
+    }
+
+    @Test
+    @DisplayName("Should page through ranked hits and report the total")
+    void testPaging() {
+        ProductSearchIndex.SearchResult firstPage = searchIndex.search("dien thoai", null, null, null, null, 0, 2);
+        ProductSearchIndex.SearchResult secondPage = searchIndex.search("dien thoai", null, null, null, null, 1, 2);
+        ProductSearchIndex.SearchResult beyond = searchIndex.search("dien thoai", null, null, null, null, 5, 2);
+
+        assertThat(firstPage.getProductIds()).hasSize(2);
+        assertThat(secondPage.getProductIds()).hasSize(1).doesNotContainAnyElementsOf(firstPage.getProductIds());
+        assertThat(beyond.getProductIds()).isEmpty();
+        assertThat(beyond.getTotalHits()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should reflect updates and deletes")
+    void testUpsertAndDelete() {
+        searchIndex.upsert(product(2L, "Ốp lưng iPhone", "Ốp lưng silicon", "50000.00", 11L, 100L, "Active"));
+        searchIndex.delete(1L);
+
+        assertThat(searchIndex.search("samsung", null, null, null, null, 0, 10).getProductIds()).isEmpty();
+        assertThat(searchIndex.search("iphone", null, null, null, null, 0, 10).getProductIds()).containsExactly(2L);
+        assertThat(searchIndex.size()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should match products of descendant categories when filtering by a category")
+    void testCategorySubtreeFilter() {
+        // 10 is under root 1, 12 under 10; 11 stays outside the tree
+        Product child = product(5L, "Điện thoại gập", "Màn hình gập", "20000000.00", 12L, 100L, "Active");
+        child.getCategory().setPath("/1/10/12/");
+        Product parent = product(6L, "Điện thoại mới", "Hàng mới", "3000000.00", 10L, 100L, "Active");
+        parent.getCategory().setPath("/1/10/");
+        searchIndex.upsertAll(Arrays.asList(child, parent));
+        searchIndex.commit();
+
+        assertThat(searchIndex.search("dien thoai", null, null, 1L, null, 0, 10).getProductIds())
+                .containsExactlyInAnyOrder(5L, 6L);
+        assertThat(searchIndex.search("dien thoai", null, null, 10L, null, 0, 10).getProductIds())
+                .containsExactlyInAnyOrder(1L, 3L, 5L, 6L);
+        assertThat(searchIndex.search("dien thoai", null, null, 12L, null, 0, 10).getProductIds())
+                .containsExactly(5L);
+    }
+
+    @Test
+    @DisplayName("Should make writes searchable before they are committed")
+    void testWritesVisibleBeforeCommit() throws Exception {
+        searchIndex.upsert(product(5L, "Máy tính bảng", "Màn hình 11 inch", "8000000.00", 12L, 100L, "Active"));
+        searchIndex.delete(3L);
+
+        assertThat(searchIndex.search("may tinh", null, null, null, null, 0, 10).getProductIds())
+                .containsExactly(5L);
+        assertThat(searchIndex.search("dien thoai", null, null, null, null, 0, 10).getProductIds())
+                .doesNotContain(3L);
+        assertThat(committedDocs()).isEqualTo(4);
+
+        searchIndex.commit();
+        assertThat(committedDocs()).isEqualTo(4);
+        assertThat(searchIndex.search("may tinh", null, null, null, null, 0, 10).getProductIds())
+                .containsExactly(5L);
+    }
+
+    @Test
+    @DisplayName("Should record the format and sync time of a commit across restarts")
+    void testCommitDataSurvivesReopen() {
+        LocalDateTime before = LocalDateTime.now();
+        searchIndex.upsert(product(5L, "Máy tính bảng", "Màn hình 11 inch", "8000000.00", 12L, 100L, "Active"));
+        searchIndex.commit();
+        searchIndex.close();
+
+        searchIndex = new ProductSearchIndex(indexDir.toString());
+        searchIndex.open();
+
+        assertThat(searchIndex.isCurrentVersion()).isTrue();
+        assertThat(searchIndex.getSyncedAt()).hasValueSatisfying(syncedAt -> assertThat(syncedAt)
+                .isAfterOrEqualTo(before));
+        assertThat(searchIndex.search("may tinh", null, null, null, null, 0, 10).getProductIds())
+                .containsExactly(5L);
+    }
+
+    @Test
+    @DisplayName("Should report an index written without a format version as stale until rebuilt")
+    void testOldFormatIsStale(@TempDir Path oldIndexDir) throws Exception {
+        try (FSDirectory directory = FSDirectory.open(oldIndexDir);
+                IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig())) {
+            Document doc = new Document();
+            doc.add(new StringField(ProductSearchIndex.FIELD_ID, "1", Field.Store.YES));
+            writer.addDocument(doc);
+            writer.commit();
+        }
+
+        ProductSearchIndex oldIndex = new ProductSearchIndex(oldIndexDir.toString());
+        oldIndex.open();
+        try {
+            assertThat(oldIndex.isCurrentVersion()).isFalse();
+            assertThat(oldIndex.getSyncedAt()).isEmpty();
+
+            oldIndex.deleteAll();
+            oldIndex.upsertAll(Arrays.asList(
+                    product(1L, "Điện thoại", "Mới", "1000000.00", 10L, 100L, "Active")));
+            oldIndex.commit();
+
+            assertThat(oldIndex.isCurrentVersion()).isTrue();
+            assertThat(oldIndex.getSyncedAt()).isPresent();
+        } finally {
+            oldIndex.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should return nothing for a keyword without searchable terms")
+    void testBlankKeyword() {
+        ProductSearchIndex.SearchResult result = searchIndex.search("  !!  ", null, null, null, null, 0, 10);
+
+        assertThat(result.getProductIds()).isEmpty();
+        assertThat(result.getTotalHits()).isZero();
+    }
+
+    private int committedDocs() throws Exception {
+        try (FSDirectory directory = FSDirectory.open(indexDir);
+                DirectoryReader reader = DirectoryReader.open(directory)) {
+            return reader.numDocs();
+        }
+    }
+
+    private Product product(Long id, String name, String description, String price, Long categoryId, Long shopId,
+            String status) {
+        Category category = new Category();
+        category.setCategoryId(categoryId);
+
+        Shop shop = new Shop();
+        shop.setShopId(shopId);
+
+        Product product = new Product();
+        product.setProductId(id);
+        product.setName(name);
+        product.setDescription(description);
+        product.setPrice(new BigDecimal(price));
+        product.setCategory(category);
+        product.setShop(shop);
+        product.setStatus(status);
+        return product;
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.DACN.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("SuggestionIndex Tests")
+class SuggestionIndexTest {
+
+    private SuggestionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SuggestionIndex(10, 64);
+
+        index.upsertProduct(1L, "Điện thoại Samsung Galaxy", 10L, 100L, 50);
+        index.upsertProduct(2L, "Điện thoại iPhone 15", 10L, 200L, 80);
+        index.upsertProduct(3L, "Dây điện 2 lõi", 11L, 100L, 20);
+        index.upsertProduct(4L, "Áo thun nam", 12L, 200L, 5);
+
+        index.upsertCategory(10L, "Điện thoại", "dien-thoai");
+        index.upsertCategory(11L, "Thiết bị điện", "thiet-bi-dien");
+        index.upsertShop(100L, "Điện Máy Xanh");
+        index.upsertShop(200L, "Thế Giới Di Động");
+    }
+
+    @Test
+    @DisplayName("Should match prefixes regardless of case and diacritics")
+    void testDiacriticInsensitivePrefix() {
+        assertThat(productIds("dien th")).containsExactly(2L, 1L);
+        assertThat(productIds("ĐIỆN THOẠI")).containsExactly(2L, 1L);
+        assertThat(productIds("Dien")).containsExactly(2L, 1L, 3L);
+        assertThat(productIds("xyz")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should complete from any word of a name")
+    void testWordStartMatching() {
+        assertThat(productIds("thoai")).containsExactly(2L, 1L);
+        assertThat(productIds("galaxy")).containsExactly(1L);
+        assertThat(productIds("thun")).containsExactly(4L);
+        // Not a word start
+        assertThat(productIds("hoai")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should re-rank and drop products as they change")
+    void testUpdatesAndRemoval() {
+        index.upsertProduct(3L, "Dây điện 2 lõi", 11L, 100L, 200);
+        assertThat(productIds("d")).containsExactly(3L, 2L, 1L);
+
+        index.removeProduct(2L);
+        assertThat(productIds("dien")).containsExactly(3L, 1L);
+
+        index.upsertProduct(1L, "Tai nghe Samsung", 10L, 100L, 50);
+        assertThat(productIds("dien")).containsExactly(3L);
+        assertThat(productIds("tai")).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("Should rank categories and shops by the sales of their products")
+    void testCategoryAndShopRanking() {
+        SuggestionIndex.Suggestions suggestions = index.suggest("d", 10);
+        assertThat(suggestions.getCategories()).extracting(SuggestionTrie.Suggestion::id)
+                .containsExactly(10L, 11L);
+        assertThat(suggestions.getShops()).extracting(SuggestionTrie.Suggestion::id)
+                .containsExactly(200L, 100L);
+
+        // Shop 100 now sells more than shop 200
+        index.upsertProduct(3L, "Dây điện 2 lõi", 11L, 100L, 500);
+        assertThat(index.suggest("d", 10).getShops()).extracting(SuggestionTrie.Suggestion::id)
+                .containsExactly(100L, 200L);
+        assertThat(index.suggest("d", 10).getCategories()).extracting(SuggestionTrie.Suggestion::id)
+                .containsExactly(11L, 10L);
+    }
+
+    @Test
+    @DisplayName("Should match category slugs")
+    void testCategorySlug() {
+        assertThat(index.suggest("thiet-bi", 10).getCategories())
+                .extracting(SuggestionTrie.Suggestion::slug)
+                .containsExactly("thiet-bi-dien");
+    }
+
+    @Test
+    @DisplayName("Should honour the limit")
+    void testLimit() {
+        assertThat(index.suggest("d", 1).getProducts()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Should drop the lowest-ranked products when over the memory budget")
+    void testMemoryBudget() {
+        SuggestionIndex tiny = new SuggestionIndex(10, 0);
+        tiny.upsertCategory(10L, "Điện thoại", "dien-thoai");
+        tiny.upsertProduct(1L, "Điện thoại Samsung Galaxy", 10L, 100L, 50);
+
+        assertThat(tiny.productCount()).isZero();
+        // Sales still count toward the category, which is never dropped
+        assertThat(tiny.suggest("dien", 10).getCategories()).extracting(SuggestionTrie.Suggestion::score)
+                .containsExactly(50L);
+    }
+
+    @Test
+    @DisplayName("Should return to its initial size once every entry is removed")
+    void testTriePruning() {
+        SuggestionTrie trie = new SuggestionTrie(3);
+        long empty = trie.estimatedBytes();
+
+        List<String> names = List.of("ao", "ao thun", "ao khoac", "ao so mi", "quan", "quan jean", "a");
+        for (int i = 0; i < names.size(); i++) {
+            trie.put(new SuggestionTrie.Suggestion(i, names.get(i), null, i), SuggestionIndex.keysFor(names.get(i)));
+        }
+        assertThat(trie.complete("ao", 10)).extracting(SuggestionTrie.Suggestion::id).containsExactly(3L, 2L, 1L);
+
+        trie.remove(3L);
+        assertThat(trie.complete("ao", 10)).extracting(SuggestionTrie.Suggestion::id).containsExactly(2L, 1L, 0L);
+
+        for (int i = 0; i < names.size(); i++) {
+            trie.remove(i);
+        }
+        assertThat(trie.size()).isZero();
+        assertThat(trie.estimatedBytes()).isEqualTo(empty);
+        assertThat(trie.complete("a", 10)).isEmpty();
+    }
+
+    private List<Long> productIds(String query) {
+        return index.suggest(query, 10).getProducts().stream()
+                .map(SuggestionTrie.Suggestion::id)
+                .toList();
+    }
+}
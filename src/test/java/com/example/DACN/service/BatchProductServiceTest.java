@@ -0,0 +1,148 @@
+package com.example.DACN.service;
+
+import com.example.DACN.cache.ProductDetailCache;
+import com.example.DACN.dto.response.ProductDetailResponse;
+import com.example.DACN.entity.Product;
+import com.example.DACN.entity.ProductImage;
+import com.example.DACN.mapper.ProductMapper;
+import com.example.DACN.repository.ProductImageRepository;
+import com.example.DACN.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProductService - Batch Product Lookup Tests")
+class BatchProductServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductImageRepository productImageRepository;
+
+    @Mock
+    private ProductMapper productMapper;
+
+    @Spy
+    private ProductDetailCache productDetailCache = new ProductDetailCache(100, 60);
+
+    @InjectMocks
+    private ProductService productService;
+
+    private Product product1;
+    private Product product2;
+
+    @BeforeEach
+    void setUp() {
+        product1 = new Product();
+        product1.setProductId(1L);
+        product1.setName("Product 1");
+
+        product2 = new Product();
+        product2.setProductId(2L);
+        product2.setName("Product 2");
+
+        lenient().when(productMapper.toProductDetailResponse(any(Product.class)))
+                .thenAnswer(invocation -> ProductDetailResponse.builder()
+                        .productId(((Product) invocation.getArgument(0)).getProductId())
+                        .build());
+    }
+
+    @Test
+    @DisplayName("Should load all products and images with one query each, in request order")
+    void testBatchLoadsInTwoQueries() {
+        // Given
+        when(productRepository.findAllWithShopAndCategoryByProductIdIn(anyCollection()))
+                .thenReturn(Arrays.asList(product1, product2));
+        when(productImageRepository.findByProductIdsOrderByDisplayOrder(anyCollection()))
+                .thenReturn(Arrays.asList(image(product1, "a.jpg"), image(product1, "b.jpg"), image(product2, "c.jpg")));
+
+        // When
+        List<ProductDetailResponse> result = productService.getProductsByIds(Arrays.asList(2L, 1L, 2L));
+
+        // Then
+        assertThat(result).extracting(ProductDetailResponse::getProductId).containsExactly(2L, 1L);
+        assertThat(result.get(0).getImages()).containsExactly("c.jpg");
+        assertThat(result.get(1).getImages()).containsExactly("a.jpg", "b.jpg");
+
+        verify(productRepository, times(1)).findAllWithShopAndCategoryByProductIdIn(anyCollection());
+        verify(productImageRepository, times(1)).findByProductIdsOrderByDisplayOrder(anyCollection());
+        verify(productImageRepository, never()).findByProductProductIdOrderByDisplayOrderAsc(any());
+    }
+
+    @Test
+    @DisplayName("Should leave out missing products")
+    void testBatchSkipsMissingProducts() {
+        // Given
+        when(productRepository.findAllWithShopAndCategoryByProductIdIn(anyCollection()))
+                .thenReturn(Collections.singletonList(product1));
+        when(productImageRepository.findByProductIdsOrderByDisplayOrder(anyCollection()))
+                .thenReturn(Collections.emptyList());
+
+        // When
+        List<ProductDetailResponse> result = productService.getProductsByIds(Arrays.asList(1L, 999L));
+
+        // Then
+        assertThat(result).extracting(ProductDetailResponse::getProductId).containsExactly(1L);
+        assertThat(result.get(0).getImages()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should only load products missing from the cache")
+    void testBatchReusesCachedProducts() {
+        // Given
+        when(productRepository.findAllWithShopAndCategoryByProductIdIn(anyCollection()))
+                .thenReturn(Collections.singletonList(product1))
+                .thenReturn(Collections.singletonList(product2));
+        when(productImageRepository.findByProductIdsOrderByDisplayOrder(anyCollection()))
+                .thenReturn(Collections.emptyList());
+        productService.getProductsByIds(Collections.singletonList(1L));
+
+        // When
+        List<ProductDetailResponse> result = productService.getProductsByIds(Arrays.asList(1L, 2L));
+
+        // Then
+        assertThat(result).extracting(ProductDetailResponse::getProductId).containsExactly(1L, 2L);
+        verify(productRepository).findAllWithShopAndCategoryByProductIdIn(
+                argThat((Collection<Long> ids) -> ids.size() == 1 && ids.contains(2L)));
+    }
+
+    @Test
+    @DisplayName("Should not query images when no product is found")
+    void testBatchNoProductsFound() {
+        // Given
+        when(productRepository.findAllWithShopAndCategoryByProductIdIn(anyCollection()))
+                .thenReturn(Collections.emptyList());
+
+        // When
+        List<ProductDetailResponse> result = productService.getProductsByIds(Arrays.asList(7L, 8L));
+
+        // Then
+        assertThat(result).isEmpty();
+        verifyNoInteractions(productImageRepository);
+    }
+
+    private ProductImage image(Product product, String url) {
+        ProductImage image = new ProductImage();
+        image.setProduct(product);
+        image.setImageUrl(url);
+        return image;
+    }
+}
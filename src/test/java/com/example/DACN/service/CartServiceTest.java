@@ -6,6 +6,7 @@ import com.example.DACN.entity.Cart;
 import com.example.DACN.entity.CartItem;
 import com.example.DACN.entity.Product;
 import com.example.DACN.entity.User;
+import com.example.DACN.event.OrderCreatedEvent;
 import com.example.DACN.exception.ResourceNotFoundException;
 import com.example.DACN.mapper.CartMapper;
 import com.example.DACN.repository.CartItemRepository;
@@ -21,6 +22,8 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -334,4 +337,35 @@ class CartServiceTest {
                 .isInstanceOf(ResourceNotFoundException.class)
                 .hasMessage("Cart item not found");
     }
+
+    @Test
+    @DisplayName("Should remove ordered products that were in the cart when the order was placed")
+    void onOrderCreated_RemovesOrderedItems() {
+        // Given
+        LocalDateTime placedAt = LocalDateTime.now();
+        OrderCreatedEvent event = new OrderCreatedEvent(100L, user.getUserId(), 1L, "COD",
+                new BigDecimal("200.00"), List.of(1L, 2L), placedAt);
+        when(cartRepository.findByUserUserId(user.getUserId())).thenReturn(Optional.of(cart));
+
+        // When
+        cartService.onOrderCreated(event);
+
+        // Then
+        verify(cartItemRepository).deleteByCartIdAndProductIdsAddedBefore(1L, List.of(1L, 2L), placedAt);
+    }
+
+    @Test
+    @DisplayName("Should do nothing for an order of a user without a cart")
+    void onOrderCreated_NoCart() {
+        // Given
+        OrderCreatedEvent event = new OrderCreatedEvent(100L, user.getUserId(), 1L, "COD",
+                new BigDecimal("200.00"), List.of(1L), LocalDateTime.now());
+        when(cartRepository.findByUserUserId(user.getUserId())).thenReturn(Optional.empty());
+
+        // When
+        cartService.onOrderCreated(event);
+
+        // Then
+        verifyNoInteractions(cartItemRepository);
+    }
 }
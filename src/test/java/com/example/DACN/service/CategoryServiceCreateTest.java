@@ -14,6 +14,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -38,6 +39,9 @@ class CategoryServiceCreateTest {
     @Mock
     private CategoryMapper categoryMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private CategoryService categoryService;
 
@@ -135,6 +139,7 @@ class CategoryServiceCreateTest {
         Category parentCategory = new Category();
         parentCategory.setCategoryId(10L);
         parentCategory.setName("Parent Category");
+        parentCategory.setPath("/10/");
         parentCategory.setHasDeleted(false);
 
         savedCategory.setParent(parentCategory);
@@ -152,6 +157,7 @@ class CategoryServiceCreateTest {
         // Then
         assertThat(result).isNotNull();
         assertThat(result.getParentId()).isEqualTo(10L);
+        assertThat(savedCategory.getPath()).isEqualTo("/10/1/");
 
         verify(categoryRepository).findById(10L);
         verify(categoryRepository).save(any(Category.class));
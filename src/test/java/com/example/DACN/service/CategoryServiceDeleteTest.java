@@ -2,10 +2,10 @@ package com.example.DACN.service;
 
 import com.example.DACN.dto.response.CategoryResponse;
 import com.example.DACN.entity.Category;
-import com.example.DACN.entity.Product;
 import com.example.DACN.exception.ResourceNotFoundException;
 import com.example.DACN.mapper.CategoryMapper;
 import com.example.DACN.repository.CategoryRepository;
+import com.example.DACN.repository.ProductRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -13,10 +13,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
-import java.util.HashSet;
 import java.util.Optional;
-import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -36,6 +35,12 @@ class CategoryServiceDeleteTest {
     @Mock
     private CategoryMapper categoryMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ProductRepository productRepository;
+
     @InjectMocks
     private CategoryService categoryService;
 
@@ -49,7 +54,6 @@ class CategoryServiceDeleteTest {
         existingCategory.setName("Electronics");
         existingCategory.setSlug("electronics");
         existingCategory.setHasDeleted(false);
-        existingCategory.setProducts(new HashSet<>());
 
         categoryResponse = CategoryResponse.builder()
                 .categoryId(1L)
@@ -114,13 +118,8 @@ class CategoryServiceDeleteTest {
     @DisplayName("Should throw IllegalStateException when category has products")
     void testDeleteCategoryWithProducts() {
         // Given
-        Product product = new Product();
-        product.setProductId(1L);
-        Set<Product> products = new HashSet<>();
-        products.add(product);
-        existingCategory.setProducts(products);
-
         when(categoryRepository.findById(1L)).thenReturn(Optional.of(existingCategory));
+        when(productRepository.existsByCategoryCategoryId(1L)).thenReturn(true);
 
         // When & Then
         assertThatThrownBy(() -> categoryService.deleteCategory(1L))
@@ -0,0 +1,130 @@
+package com.example.DACN.service;
+
+import com.example.DACN.dto.response.CategoryResponse;
+import com.example.DACN.entity.Category;
+import com.example.DACN.exception.ResourceNotFoundException;
+import com.example.DACN.mapper.CategoryMapper;
+import com.example.DACN.repository.CategoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CategoryService - Materialized Path Tests")
+class CategoryServicePathTest {
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private CloudinaryService cloudinaryService;
+
+    @Mock
+    private CategoryMapper categoryMapper;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private CategoryService categoryService;
+
+    private Category electronics;
+    private Category phones;
+    private Category smartphones;
+
+    @BeforeEach
+    void setUp() {
+        electronics = category(1L, "Electronics", null, "/1/");
+        phones = category(4L, "Phones", electronics, "/1/4/");
+        smartphones = category(9L, "Smartphones", phones, "/1/4/9/");
+    }
+
+    @Test
+    @DisplayName("Should return the breadcrumb root first from one ancestor lookup")
+    void testGetBreadcrumb() {
+        // Given
+        when(categoryRepository.findById(9L)).thenReturn(Optional.of(smartphones));
+        when(categoryRepository.findAllById(List.of(1L, 4L))).thenReturn(List.of(phones, electronics));
+        when(categoryMapper.toCategoryResponse(any(Category.class))).thenAnswer(invocation -> {
+            Category category = invocation.getArgument(0);
+            return CategoryResponse.builder().categoryId(category.getCategoryId()).name(category.getName()).build();
+        });
+
+        // When
+        List<CategoryResponse> breadcrumb = categoryService.getBreadcrumb(9L);
+
+        // Then
+        assertThat(breadcrumb).extracting(CategoryResponse::getName)
+                .containsExactly("Electronics", "Phones", "Smartphones");
+        verify(categoryRepository, times(1)).findAllById(any());
+    }
+
+    @Test
+    @DisplayName("Should throw ResourceNotFoundException for a deleted category")
+    void testGetBreadcrumbDeleted() {
+        // Given
+        smartphones.setHasDeleted(true);
+        when(categoryRepository.findById(9L)).thenReturn(Optional.of(smartphones));
+
+        // When & Then
+        assertThatThrownBy(() -> categoryService.getBreadcrumb(9L))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("Category has been deleted");
+        verify(categoryRepository, never()).findAllById(any());
+    }
+
+    @Test
+    @DisplayName("Should fill missing and stale paths from the parent links")
+    void testRebuildPaths() {
+        // Given
+        phones.setPath(null);
+        smartphones.setPath("/7/9/");
+        when(categoryRepository.findAll()).thenReturn(List.of(smartphones, phones, electronics));
+
+        // When
+        int updated = categoryService.rebuildPaths();
+
+        // Then
+        assertThat(updated).isEqualTo(2);
+        assertThat(electronics.getPath()).isEqualTo("/1/");
+        assertThat(phones.getPath()).isEqualTo("/1/4/");
+        assertThat(smartphones.getPath()).isEqualTo("/1/4/9/");
+        verify(categoryRepository).saveAll(List.of(smartphones, phones));
+    }
+
+    @Test
+    @DisplayName("Should refuse to build paths for a parent cycle")
+    void testRebuildPathsCycle() {
+        // Given
+        electronics.setParent(smartphones);
+        when(categoryRepository.findAll()).thenReturn(List.of(electronics, phones, smartphones));
+
+        // When & Then
+        assertThatThrownBy(() -> categoryService.rebuildPaths())
+                .isInstanceOf(IllegalStateException.class);
+        verify(categoryRepository, never()).saveAll(any());
+    }
+
+    private Category category(Long id, String name, Category parent, String path) {
+        Category category = new Category();
+        category.setCategoryId(id);
+        category.setName(name);
+        category.setParent(parent);
+        category.setPath(path);
+        category.setHasDeleted(false);
+        return category;
+    }
+}
@@ -14,6 +14,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.mock.web.MockMultipartFile;
 
 import java.io.IOException;
@@ -22,6 +23,7 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -37,6 +39,12 @@ class CategoryServiceUpdateTest {
     @Mock
     private CategoryMapper categoryMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ProductCountService productCountService;
+
     @InjectMocks
     private CategoryService categoryService;
 
@@ -52,6 +60,7 @@ class CategoryServiceUpdateTest {
         existingCategory.setName("Old Name");
         existingCategory.setSlug("old-slug");
         existingCategory.setIconUrl("https://cloudinary.com/old-icon.png");
+        existingCategory.setPath("/1/");
         existingCategory.setHasDeleted(false);
 
         request = UpdateCategoryRequest.builder()
@@ -151,6 +160,7 @@ class CategoryServiceUpdateTest {
         Category parentCategory = new Category();
         parentCategory.setCategoryId(10L);
         parentCategory.setName("Parent");
+        parentCategory.setPath("/10/");
         parentCategory.setHasDeleted(false);
 
         when(categoryRepository.findById(1L)).thenReturn(Optional.of(existingCategory));
@@ -163,10 +173,65 @@ class CategoryServiceUpdateTest {
 
         // Then
         assertThat(result).isNotNull();
+        assertThat(existingCategory.getPath()).isEqualTo("/10/1/");
         verify(categoryRepository).findById(10L);
+        verify(categoryRepository).updateDescendantPaths(1L, "/1/%", 3, "/10/1/");
+        verify(productCountService).moveCategory("/1/", "/10/1/", 0);
         verify(categoryRepository).save(existingCategory);
     }
 
+    @Test
+    @DisplayName("Should leave paths alone when the parent is unchanged")
+    void testUpdateCategorySameParent() throws IOException {
+        // Given
+        request.setName(null);
+        request.setSlug(null);
+        request.setParentId(10L);
+
+        Category parentCategory = new Category();
+        parentCategory.setCategoryId(10L);
+        parentCategory.setPath("/10/");
+        parentCategory.setHasDeleted(false);
+        existingCategory.setParent(parentCategory);
+        existingCategory.setPath("/10/1/");
+
+        when(categoryRepository.findById(1L)).thenReturn(Optional.of(existingCategory));
+        when(categoryRepository.findById(10L)).thenReturn(Optional.of(parentCategory));
+        when(categoryRepository.save(any(Category.class))).thenReturn(existingCategory);
+        when(categoryMapper.toCategoryResponse(existingCategory)).thenReturn(categoryResponse);
+
+        // When
+        categoryService.updateCategory(1L, request, null);
+
+        // Then
+        assertThat(existingCategory.getPath()).isEqualTo("/10/1/");
+        verify(categoryRepository, never()).updateDescendantPaths(any(), any(), anyInt(), any());
+    }
+
+    @Test
+    @DisplayName("Should throw IllegalArgumentException when moving a category under its own subcategory")
+    void testUpdateCategoryParentIsDescendant() {
+        // Given
+        request.setParentId(5L);
+
+        Category grandchild = new Category();
+        grandchild.setCategoryId(5L);
+        grandchild.setPath("/1/3/5/");
+        grandchild.setHasDeleted(false);
+
+        when(categoryRepository.findById(1L)).thenReturn(Optional.of(existingCategory));
+        when(categoryRepository.existsBySlug("updated-slug")).thenReturn(false);
+        when(categoryRepository.findById(5L)).thenReturn(Optional.of(grandchild));
+
+        // When & Then
+        assertThatThrownBy(() -> categoryService.updateCategory(1L, request, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Category cannot be moved under its own subcategory");
+
+        verify(categoryRepository, never()).updateDescendantPaths(any(), any(), anyInt(), any());
+        verify(categoryRepository, never()).save(any());
+    }
+
     @Test
     @DisplayName("Should throw ResourceNotFoundException when category not found")
     void testUpdateCategoryNotFound() {
@@ -3,6 +3,7 @@ package com.example.DACN.service;
 import com.example.DACN.constant.RoleConstants;
 import com.example.DACN.dto.response.DeleteProductResponse;
 import com.example.DACN.entity.*;
+import com.example.DACN.event.ProductChangedEvent;
 import com.example.DACN.exception.ResourceNotFoundException;
 import com.example.DACN.exception.UnauthorizedException;
 import com.example.DACN.mapper.ProductMapper;
@@ -14,6 +15,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.util.Optional;
@@ -50,6 +52,12 @@ class DeleteProductServiceTest {
     @Mock
     private ProductMapper productMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ProductCountService productCountService;
+
     @InjectMocks
     private ProductService productService;
 
@@ -208,6 +216,11 @@ class DeleteProductServiceTest {
         assertThat(result.getMessage()).isEqualTo("Product deleted successfully");
 
         verify(productRepository).save(any(Product.class));
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof ProductChangedEvent changed
+                && changed.getChangeType() == ProductChangedEvent.ChangeType.DELETED));
+        verify(productCountService).apply(
+                new ProductCountService.Snapshot(1L, null, 1L, true),
+                new ProductCountService.Snapshot(1L, null, 1L, false));
     }
 
     @Test
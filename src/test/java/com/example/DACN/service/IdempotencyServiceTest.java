@@ -0,0 +1,262 @@
+package com.example.DACN.service;
+
+import com.example.DACN.dto.response.CreateOrderResponse;
+import com.example.DACN.entity.IdempotencyRecord;
+import com.example.DACN.exception.DuplicateResourceException;
+import com.example.DACN.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("IdempotencyService Tests")
+class IdempotencyServiceTest {
+
+    private static final String SCOPE = "create-order:user-1";
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    private IdempotencyService idempotencyService;
+
+    // Rows of idempotency_keys, keyed by scope and key
+    private final Map<String, IdempotencyRecord> table = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(idempotencyRecordRepository, new ObjectMapper(), 100, 24, 1, 300);
+
+        lenient().when(idempotencyRecordRepository.findByScopeAndIdempotencyKey(anyString(), anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(
+                        table.get(invocation.getArgument(0) + ":" + invocation.getArgument(1))));
+        lenient().when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class)))
+                .thenAnswer(invocation -> store(invocation.getArgument(0)));
+        lenient().when(idempotencyRecordRepository.save(any(IdempotencyRecord.class)))
+                .thenAnswer(invocation -> store(invocation.getArgument(0)));
+        lenient().doAnswer(invocation -> {
+            IdempotencyRecord record = invocation.getArgument(0);
+            table.remove(record.getScope() + ":" + record.getIdempotencyKey());
+            return null;
+        }).when(idempotencyRecordRepository).delete(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    @DisplayName("Should run a request without a key every time")
+    void testExecuteWithoutKey() {
+        AtomicInteger runs = new AtomicInteger();
+
+        idempotencyService.execute(SCOPE, null, "request", CreateOrderResponse.class, () -> response(runs));
+        idempotencyService.execute(SCOPE, " ", "request", CreateOrderResponse.class, () -> response(runs));
+
+        assertThat(runs.get()).isEqualTo(2);
+        verifyNoInteractions(idempotencyRecordRepository);
+    }
+
+    @Test
+    @DisplayName("Should run a request once and replay its response from memory")
+    void testExecuteReplaysFromMemory() {
+        AtomicInteger runs = new AtomicInteger();
+
+        CreateOrderResponse first = idempotencyService.execute(SCOPE, "key-1", "request",
+                CreateOrderResponse.class, () -> response(runs));
+        CreateOrderResponse second = idempotencyService.execute(SCOPE, "key-1", "request",
+                CreateOrderResponse.class, () -> response(runs));
+
+        assertThat(runs.get()).isEqualTo(1);
+        assertThat(second).isEqualTo(first);
+        assertThat(table.get(SCOPE + ":key-1").getStatus()).isEqualTo(IdempotencyRecord.STATUS_COMPLETED);
+        verify(idempotencyRecordRepository, times(1)).saveAndFlush(any());
+    }
+
+    @Test
+    @DisplayName("Should replay a response stored by another instance")
+    void testExecuteReplaysFromTable() {
+        AtomicInteger runs = new AtomicInteger();
+        new IdempotencyService(idempotencyRecordRepository, new ObjectMapper(), 100, 24, 1, 300)
+                .execute(SCOPE, "key-1", "request", CreateOrderResponse.class, () -> response(runs));
+
+        CreateOrderResponse replayed = idempotencyService.execute(SCOPE, "key-1", "request",
+                CreateOrderResponse.class, () -> response(runs));
+
+        assertThat(runs.get()).isEqualTo(1);
+        assertThat(replayed.getOrderId()).isEqualTo(100L);
+    }
+
+    @Test
+    @DisplayName("Should reject a key reused for a different request")
+    void testExecuteDifferentRequest() {
+        AtomicInteger runs = new AtomicInteger();
+        idempotencyService.execute(SCOPE, "key-1", "request", CreateOrderResponse.class, () -> response(runs));
+
+        assertThatThrownBy(() -> idempotencyService.execute(SCOPE, "key-1", "other request",
+                CreateOrderResponse.class, () -> response(runs)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("different request");
+        assertThat(runs.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should release the key of a failed request so it can be retried")
+    void testExecuteFailureReleasesKey() {
+        AtomicInteger runs = new AtomicInteger();
+
+        assertThatThrownBy(() -> idempotencyService.execute(SCOPE, "key-1", "request",
+                CreateOrderResponse.class, () -> {
+                    throw new IllegalArgumentException("Insufficient stock");
+                }))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(table).isEmpty();
+
+        CreateOrderResponse retried = idempotencyService.execute(SCOPE, "key-1", "request",
+                CreateOrderResponse.class, () -> response(runs));
+        assertThat(retried.getOrderId()).isEqualTo(100L);
+        assertThat(runs.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should tell a retry to come back while another instance runs the request")
+    void testExecuteInProgressElsewhere() {
+        IdempotencyRecord running = new IdempotencyRecord();
+        running.setScope(SCOPE);
+        running.setIdempotencyKey("key-1");
+        running.setStatus(IdempotencyRecord.STATUS_IN_PROGRESS);
+        table.put(SCOPE + ":key-1", running);
+        AtomicInteger runs = new AtomicInteger();
+
+        assertThatThrownBy(() -> idempotencyService.execute(SCOPE, "key-1", "request",
+                CreateOrderResponse.class, () -> response(runs)))
+                .isInstanceOf(DuplicateResourceException.class);
+        assertThat(runs.get()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should take over a key whose claim outlived its lease and run the request once")
+    void testExecuteTakesOverAbandonedClaim() {
+        IdempotencyRecord abandoned = inProgress(LocalDateTime.now().minusMinutes(10));
+        lenient().when(idempotencyRecordRepository.takeOver(eq(1L), eq("dead-instance"), anyString(), any()))
+                .thenAnswer(invocation -> {
+                    abandoned.setClaimToken(invocation.getArgument(2));
+                    abandoned.setClaimedAt(invocation.getArgument(3));
+                    return 1;
+                });
+        AtomicInteger runs = new AtomicInteger();
+
+        CreateOrderResponse response = idempotencyService.execute(SCOPE, "key-1", "request",
+                CreateOrderResponse.class, () -> response(runs));
+
+        assertThat(response.getOrderId()).isEqualTo(100L);
+        assertThat(runs.get()).isEqualTo(1);
+        assertThat(table.get(SCOPE + ":key-1").getStatus()).isEqualTo(IdempotencyRecord.STATUS_COMPLETED);
+    }
+
+    @Test
+    @DisplayName("Should keep telling a retry to come back while the claim's lease runs")
+    void testExecuteLeasedClaim() {
+        inProgress(LocalDateTime.now().minusSeconds(10));
+        AtomicInteger runs = new AtomicInteger();
+
+        assertThatThrownBy(() -> idempotencyService.execute(SCOPE, "key-1", "request",
+                CreateOrderResponse.class, () -> response(runs)))
+                .isInstanceOf(DuplicateResourceException.class);
+        assertThat(runs.get()).isZero();
+        verify(idempotencyRecordRepository, never()).takeOver(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should not store the response of a request whose key was taken over")
+    void testCompleteAfterTakeOver() {
+        AtomicInteger runs = new AtomicInteger();
+
+        CreateOrderResponse response = idempotencyService.execute(SCOPE, "key-1", "request",
+                CreateOrderResponse.class, () -> {
+                    table.get(SCOPE + ":key-1").setClaimToken("new-owner");
+                    return response(runs);
+                });
+
+        assertThat(response.getOrderId()).isEqualTo(100L);
+        assertThat(table.get(SCOPE + ":key-1").getStatus()).isEqualTo(IdempotencyRecord.STATUS_IN_PROGRESS);
+        verify(idempotencyRecordRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should make a concurrent duplicate wait for the first request's response")
+    void testExecuteConcurrentDuplicate() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<CreateOrderResponse> first = executor.submit(() -> idempotencyService.execute(SCOPE, "key-1",
+                    "request", CreateOrderResponse.class, () -> {
+                        started.countDown();
+                        await(release);
+                        return response(runs);
+                    }));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+            Future<CreateOrderResponse> duplicate = executor.submit(() -> idempotencyService.execute(SCOPE,
+                    "key-1", "request", CreateOrderResponse.class, () -> response(runs)));
+            release.countDown();
+
+            assertThat(duplicate.get(5, TimeUnit.SECONDS)).isEqualTo(first.get(5, TimeUnit.SECONDS));
+            assertThat(runs.get()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private IdempotencyRecord inProgress(LocalDateTime claimedAt) {
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setRecordId(1L);
+        record.setScope(SCOPE);
+        record.setIdempotencyKey("key-1");
+        // Hash of the JSON string "request", as the service computes it
+        record.setRequestHash(DigestUtils.md5DigestAsHex("\"request\"".getBytes(StandardCharsets.UTF_8)));
+        record.setStatus(IdempotencyRecord.STATUS_IN_PROGRESS);
+        record.setClaimToken("dead-instance");
+        record.setClaimedAt(claimedAt);
+        return store(record);
+    }
+
+    private IdempotencyRecord store(IdempotencyRecord record) {
+        table.put(record.getScope() + ":" + record.getIdempotencyKey(), record);
+        return record;
+    }
+
+    private CreateOrderResponse response(AtomicInteger runs) {
+        runs.incrementAndGet();
+        return CreateOrderResponse.builder().orderId(100L).paymentUrl("https://paypal.test/approve").build();
+    }
+
+    private void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
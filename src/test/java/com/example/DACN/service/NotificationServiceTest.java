@@ -0,0 +1,97 @@
+package com.example.DACN.service;
+
+import com.example.DACN.entity.Notification;
+import com.example.DACN.entity.Shop;
+import com.example.DACN.entity.User;
+import com.example.DACN.event.OrderCreatedEvent;
+import com.example.DACN.event.OrderStatusChangedEvent;
+import com.example.DACN.repository.NotificationRepository;
+import com.example.DACN.repository.ShopRepository;
+import com.example.DACN.repository.UserRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("NotificationService Tests")
+class NotificationServiceTest {
+
+    private static final UUID USER_ID = UUID.randomUUID();
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ShopRepository shopRepository;
+
+    @InjectMocks
+    private NotificationService notificationService;
+
+    @Test
+    @DisplayName("Should notify the seller of a new order under the event's key")
+    void testOnOrderCreated() {
+        User seller = new User();
+        Shop shop = new Shop();
+        shop.setUser(seller);
+        when(notificationRepository.existsByEventKey("OrderCreated:100")).thenReturn(false);
+        when(shopRepository.findById(1L)).thenReturn(Optional.of(shop));
+
+        notificationService.onOrderCreated(created());
+
+        ArgumentCaptor<Notification> captor = ArgumentCaptor.forClass(Notification.class);
+        verify(notificationRepository).save(captor.capture());
+        assertThat(captor.getValue().getEventKey()).isEqualTo("OrderCreated:100");
+        assertThat(captor.getValue().getUser()).isSameAs(seller);
+        assertThat(captor.getValue().getTitle()).isEqualTo("New order #100");
+    }
+
+    @Test
+    @DisplayName("Should not notify again when the outbox redelivers an event")
+    void testRedeliveredEventNotifiesOnce() {
+        when(notificationRepository.existsByEventKey("OrderCreated:100")).thenReturn(true);
+        when(notificationRepository.existsByEventKey("OrderStatusChanged:100:Shipping")).thenReturn(true);
+
+        notificationService.onOrderCreated(created());
+        notificationService.onOrderStatusChanged(new OrderStatusChangedEvent(100L, USER_ID, "Confirmed", "Shipping"));
+
+        verify(notificationRepository, never()).save(any(Notification.class));
+        verifyNoInteractions(shopRepository, userRepository);
+    }
+
+    @Test
+    @DisplayName("Should key status notifications by the status reached")
+    void testOnOrderStatusChanged() {
+        when(notificationRepository.existsByEventKey(any())).thenReturn(false);
+        when(userRepository.getReferenceById(USER_ID)).thenReturn(new User());
+
+        notificationService.onOrderStatusChanged(new OrderStatusChangedEvent(100L, USER_ID, "Pending", "Confirmed"));
+        notificationService.onOrderStatusChanged(new OrderStatusChangedEvent(100L, USER_ID, "Confirmed", "Shipping"));
+
+        ArgumentCaptor<Notification> captor = ArgumentCaptor.forClass(Notification.class);
+        verify(notificationRepository, times(2)).save(captor.capture());
+        assertThat(captor.getAllValues()).extracting(Notification::getEventKey)
+                .containsExactly("OrderStatusChanged:100:Confirmed", "OrderStatusChanged:100:Shipping");
+    }
+
+    private OrderCreatedEvent created() {
+        return new OrderCreatedEvent(100L, USER_ID, 1L, "COD", new BigDecimal("250.00"), List.of(1L),
+                LocalDateTime.now());
+    }
+}
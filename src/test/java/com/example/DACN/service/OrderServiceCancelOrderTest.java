@@ -1,6 +1,8 @@
 package com.example.DACN.service;
 
 import com.example.DACN.entity.*;
+import com.example.DACN.event.OrderCancelledEvent;
+import com.example.DACN.event.ProductChangedEvent;
 import com.example.DACN.exception.ResourceNotFoundException;
 import com.example.DACN.repository.*;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,6 +12,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -19,6 +22,7 @@ import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -56,9 +60,24 @@ class OrderServiceCancelOrderTest {
     @Mock
     private PaypalService paypalService;
 
+    @Mock
+    private StockReservationService stockReservationService;
+
+    @Mock
+    private SalesRollupService salesRollupService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private OrderArchiveService orderArchiveService;
+
     @Mock
     private com.example.DACN.mapper.OrderMapper orderMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private OrderService orderService;
 
@@ -127,9 +146,16 @@ class OrderServiceCancelOrderTest {
 
         // Then
         verify(orderRepository).save(argThat(o -> o.getHasDeleted()));
-        verify(productRepository).save(argThat(p -> p.getStockQuantity() == 105 && p.getSoldCount() == 5));
+        verify(productRepository).restoreStock(1L, 5);
+        verify(productRepository, never()).save(any(Product.class));
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof ProductChangedEvent changed
+                && changed.getChangeType() == ProductChangedEvent.ChangeType.STOCK_CHANGED));
         verify(orderStatusHistoryRepository).save(argThat(h -> "Cancelled".equals(h.getStatus()) &&
                 h.getDescription().contains("customer")));
+        verify(salesRollupService).recordOrderCancelled(order);
+        verify(outboxService).record(argThat(event -> event instanceof OrderCancelledEvent cancelled
+                && cancelled.getOrderId().equals(order.getOrderId())
+                && "Order cancelled by customer".equals(cancelled.getReason())));
     }
 
     @Test
@@ -146,7 +172,7 @@ class OrderServiceCancelOrderTest {
 
         // Then
         verify(orderRepository).save(argThat(o -> o.getHasDeleted()));
-        verify(productRepository).save(any(Product.class));
+        verify(productRepository).restoreStock(1L, 5);
         verify(orderStatusHistoryRepository).save(argThat(h -> "Cancelled".equals(h.getStatus()) &&
                 h.getDescription().contains("seller")));
     }
@@ -264,9 +290,29 @@ class OrderServiceCancelOrderTest {
         orderService.cancelOrder(1L, "customer@test.com");
 
         // Then
-        verify(productRepository, times(2)).save(any(Product.class));
-        verify(productRepository).save(argThat(p -> p.getProductId() == 1L && p.getStockQuantity() == 105));
-        verify(productRepository).save(argThat(p -> p.getProductId() == 2L && p.getStockQuantity() == 53));
+        var inOrder = inOrder(productRepository);
+        inOrder.verify(productRepository).restoreStock(1L, 5);
+        inOrder.verify(productRepository).restoreStock(2L, 3);
+        verify(productRepository, never()).save(any(Product.class));
+    }
+
+    @Test
+    @DisplayName("Should not restore stock that expired holds already put back on sale")
+    void testCancelOrderAfterHoldsReleased() {
+        // Given
+        when(orderRepository.findByOrderIdAndHasDeletedFalse(1L)).thenReturn(Optional.of(order));
+        when(orderStatusHistoryRepository.findTopByOrderOrderIdOrderByCreatedAtDesc(1L))
+                .thenReturn(Optional.of(statusHistory));
+        when(stockReservationService.releaseOnCancel(1L)).thenReturn(true);
+
+        // When
+        orderService.cancelOrder(1L, "customer@test.com");
+
+        // Then
+        verify(orderRepository).save(argThat(o -> o.getHasDeleted()));
+        verify(orderItemRepository, never()).findByOrderOrderId(any());
+        verify(productRepository, never()).restoreStock(any(), anyInt());
+        verify(orderStatusHistoryRepository).save(argThat(h -> "Cancelled".equals(h.getStatus())));
     }
 
     @Test
@@ -322,4 +368,36 @@ class OrderServiceCancelOrderTest {
         verify(orderRepository).save(any(Order.class));
         verify(orderStatusHistoryRepository).save(any(OrderStatusHistory.class));
     }
+
+    @Test
+    @DisplayName("Should check the status on the order without reading history")
+    void testCancelOrderUsesDenormalizedStatus() {
+        // Given
+        order.setCurrentStatus("Shipping");
+        when(orderRepository.findByOrderIdAndHasDeletedFalse(1L)).thenReturn(Optional.of(order));
+
+        // When & Then
+        assertThatThrownBy(() -> orderService.cancelOrder(1L, "customer@test.com"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Cannot cancel order with status: Shipping");
+
+        verify(orderStatusHistoryRepository, never()).findTopByOrderOrderIdOrderByCreatedAtDesc(any());
+        verify(orderRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should mark the cancelled order's current status")
+    void testCancelOrderSetsCurrentStatus() {
+        // Given
+        order.setCurrentStatus("Pending");
+        when(orderRepository.findByOrderIdAndHasDeletedFalse(1L)).thenReturn(Optional.of(order));
+        when(orderItemRepository.findByOrderOrderId(1L)).thenReturn(Arrays.asList(orderItem));
+
+        // When
+        orderService.cancelOrder(1L, "customer@test.com");
+
+        // Then
+        verify(orderRepository).save(argThat(o -> "Cancelled".equals(o.getCurrentStatus())
+                && o.getStatusUpdatedAt() != null));
+    }
 }
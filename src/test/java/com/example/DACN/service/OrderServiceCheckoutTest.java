@@ -0,0 +1,413 @@
+package com.example.DACN.service;
+
+import com.example.DACN.dto.request.CheckoutRequest;
+import com.example.DACN.dto.request.CreateOrderRequest;
+import com.example.DACN.dto.response.CheckoutResponse;
+import com.example.DACN.entity.*;
+import com.example.DACN.event.OrderCreatedEvent;
+import com.example.DACN.exception.ResourceNotFoundException;
+import com.example.DACN.mapper.OrderMapper;
+import com.example.DACN.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OrderService - Multi-Shop Checkout Tests")
+class OrderServiceCheckoutTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderItemRepository orderItemRepository;
+
+    @Mock
+    private OrderStatusHistoryRepository orderStatusHistoryRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ShopRepository shopRepository;
+
+    @Mock
+    private UserVoucherRepository userVoucherRepository;
+
+    @Mock
+    private UserAddressRepository userAddressRepository;
+
+    @Mock
+    private CartItemRepository cartItemRepository;
+
+    @Mock
+    private CartRepository cartRepository;
+
+    @Mock
+    private PaypalService paypalService;
+
+    @Mock
+    private StockReservationService stockReservationService;
+
+    @Mock
+    private SalesRollupService salesRollupService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private OrderArchiveService orderArchiveService;
+
+    @Mock
+    private OrderMapper orderMapper;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private OrderService orderService;
+
+    private UUID userId;
+    private Shop shop1;
+    private Shop shop2;
+    private Product product1;
+    private Product product2;
+    private Product product3;
+    private UserAddress userAddress;
+    private CheckoutRequest request;
+
+    @BeforeEach
+    void setUp() {
+        userId = UUID.randomUUID();
+
+        User user = new User();
+        user.setUserId(userId);
+        user.setEmail("customer@test.com");
+
+        shop1 = shop(1L, "Shop One");
+        shop2 = shop(2L, "Shop Two");
+
+        // Shop One sells products 1 and 2, Shop Two sells product 3
+        product1 = product(1L, "100.00", shop1);
+        product2 = product(2L, "50.00", shop1);
+        product3 = product(3L, "300.00", shop2);
+
+        userAddress = new UserAddress();
+        userAddress.setUserAddressId(5L);
+        userAddress.setUser(user);
+        userAddress.setHasDeleted(false);
+
+        // 2 x product 1 and 1 x product 2 from Shop One (250), 1 x product 3 from Shop Two (300)
+        request = new CheckoutRequest();
+        request.setAddressId(5L);
+        request.setPaymentMethod("COD");
+        request.setItems(List.of(item(3L, 1), item(1L, 2), item(2L, 1)));
+
+        AtomicLong orderIds = new AtomicLong(100);
+        lenient().when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            order.setOrderId(orderIds.getAndIncrement());
+            return order;
+        });
+        lenient().when(userAddressRepository.findById(5L)).thenReturn(Optional.of(userAddress));
+        lenient().when(productRepository.findAllForCheckout(Set.of(1L, 2L, 3L)))
+                .thenReturn(List.of(product1, product2, product3));
+        lenient().when(shopRepository.findByShopIdInAndHasDeletedFalse(Set.of(1L, 2L)))
+                .thenReturn(List.of(shop1, shop2));
+        lenient().when(productRepository.decrementStock(anyLong(), anyInt())).thenReturn(1);
+
+        // Run transaction callbacks in place
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    @DisplayName("Should create one order per shop in a single call")
+    void testCheckoutCreatesOrderPerShop() {
+        // When
+        CheckoutResponse result = orderService.checkout(request, userId);
+
+        // Then
+        assertThat(result.getOrderIds()).containsExactly(100L, 101L);
+        assertThat(result.getFinalAmount()).isEqualByComparingTo("550.00");
+        assertThat(result.getPaymentUrl()).isNull();
+
+        ArgumentCaptor<Order> orders = ArgumentCaptor.forClass(Order.class);
+        verify(orderRepository, times(2)).save(orders.capture());
+        assertThat(orders.getAllValues()).extracting(Order::getShop).containsExactly(shop1, shop2);
+        assertThat(orders.getAllValues()).extracting(Order::getFinalAmount)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("250.00"), new BigDecimal("300.00"));
+
+        var inOrder = inOrder(productRepository);
+        inOrder.verify(productRepository).decrementStock(1L, 2);
+        inOrder.verify(productRepository).decrementStock(2L, 1);
+        inOrder.verify(productRepository).decrementStock(3L, 1);
+
+        verify(productRepository, times(1)).findAllForCheckout(any());
+        verify(shopRepository, times(1)).findByShopIdInAndHasDeletedFalse(any());
+        verify(orderItemRepository).insertAll(argThat(items -> items.size() == 3));
+        verify(orderStatusHistoryRepository).saveAll(argThat((List<OrderStatusHistory> histories) ->
+                histories.size() == 2));
+        verify(outboxService).record(argThat(event -> event instanceof OrderCreatedEvent created
+                && created.getOrderId() == 100L && created.getShopId() == 1L
+                && created.getProductIds().equals(List.of(1L, 2L))));
+        verify(outboxService).record(argThat(event -> event instanceof OrderCreatedEvent created
+                && created.getOrderId() == 101L && created.getShopId() == 2L
+                && created.getProductIds().equals(List.of(3L))));
+        verifyNoInteractions(cartItemRepository);
+        verifyNoInteractions(paypalService, stockReservationService);
+        verify(salesRollupService).recordOrderPlaced(argThat(o -> o.getOrderId() == 100L),
+                argThat(items -> items.size() == 2));
+        verify(salesRollupService).recordOrderPlaced(argThat(o -> o.getOrderId() == 101L),
+                argThat(items -> items.size() == 1));
+    }
+
+    @Test
+    @DisplayName("Should apply a shop voucher to its shop and split a platform voucher across shops")
+    void testCheckoutVouchers() {
+        // Given
+        UserVoucher shopVoucher = userVoucher(10L, "50", shop1);
+        UserVoucher platformVoucher = userVoucher(20L, "100", null);
+        request.setShopVoucherIds(List.of(10L));
+        request.setPlatformVoucherId(20L);
+        when(userVoucherRepository.findByUserUserIdAndVoucherVoucherIdAndIsUsedFalse(userId, 10L))
+                .thenReturn(Optional.of(shopVoucher));
+        when(userVoucherRepository.findByUserUserIdAndVoucherVoucherIdAndIsUsedFalse(userId, 20L))
+                .thenReturn(Optional.of(platformVoucher));
+
+        // When
+        CheckoutResponse result = orderService.checkout(request, userId);
+
+        // Then
+        // Shop One: 250 - 50 shop voucher = 200, Shop Two: 300; platform 100 split 200:300 as 40 and 60
+        ArgumentCaptor<Order> orders = ArgumentCaptor.forClass(Order.class);
+        verify(orderRepository, times(2)).save(orders.capture());
+        assertThat(orders.getAllValues()).extracting(Order::getVoucherDiscount)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("90.00"), new BigDecimal("60.00"));
+        assertThat(result.getFinalAmount()).isEqualByComparingTo("400.00");
+
+        assertThat(shopVoucher.getIsUsed()).isTrue();
+        assertThat(shopVoucher.getUsedAtOrder().getOrderId()).isEqualTo(100L);
+        assertThat(platformVoucher.getIsUsed()).isTrue();
+        verify(userVoucherRepository).saveAll(List.of(shopVoucher, platformVoucher));
+    }
+
+    @Test
+    @DisplayName("Should create a single PayPal payment and hold stock for every order")
+    void testCheckoutPayPal() {
+        // Given
+        request.setPaymentMethod("PAYPAL");
+        String paypalUrl = "https://www.sandbox.paypal.com/checkoutnow?token=EC-12345";
+        when(paypalService.createCheckoutOrder(any()))
+                .thenReturn(Map.of("orderId", "PAYPAL-ORDER-123", "approvalUrl", paypalUrl));
+
+        // When
+        CheckoutResponse result = orderService.checkout(request, userId);
+
+        // Then
+        assertThat(result.getPaymentUrl()).isEqualTo(paypalUrl);
+        verify(paypalService).createCheckoutOrder(argThat(amounts -> amounts.keySet().equals(Set.of(100L, 101L))
+                && amounts.get(100L).compareTo(new BigDecimal("250.00")) == 0));
+        verify(stockReservationService).hold(argThat(o -> o.getOrderId() == 100L), eq(Map.of(1L, 2, 2L, 1)),
+                any());
+        verify(stockReservationService).hold(argThat(o -> o.getOrderId() == 101L), eq(Map.of(3L, 1)), any());
+        var inOrder = inOrder(paypalService, orderRepository, outboxService);
+        inOrder.verify(paypalService).createCheckoutOrder(any());
+        inOrder.verify(orderRepository).linkPaypalOrder(List.of(100L, 101L), "PAYPAL-ORDER-123");
+        inOrder.verify(outboxService, times(2)).record(any(OrderCreatedEvent.class));
+    }
+
+    @Test
+    @DisplayName("Should cancel every committed order when PayPal payment creation fails")
+    void testCheckoutPayPalFailure() {
+        // Given
+        request.setPaymentMethod("PAYPAL");
+        Map<Long, Order> saved = new java.util.HashMap<>();
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            if (order.getOrderId() == null) {
+                order.setOrderId(100L + saved.size());
+            }
+            saved.put(order.getOrderId(), order);
+            return order;
+        });
+        when(orderRepository.findByOrderIdAndHasDeletedFalse(anyLong()))
+                .thenAnswer(invocation -> Optional.ofNullable(saved.get(invocation.<Long>getArgument(0))));
+        when(paypalService.createCheckoutOrder(any())).thenThrow(new RuntimeException("PayPal API error"));
+
+        // When & Then
+        assertThatThrownBy(() -> orderService.checkout(request, userId))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Failed to create PayPal payment");
+
+        assertThat(saved.values()).hasSize(2)
+                .allMatch(o -> o.getHasDeleted() && "Cancelled".equals(o.getCurrentStatus()));
+        verify(stockReservationService).releaseOnCancel(100L);
+        verify(stockReservationService).releaseOnCancel(101L);
+        verify(userVoucherRepository).findByUsedAtOrderOrderId(100L);
+        verify(userVoucherRepository).findByUsedAtOrderOrderId(101L);
+
+        // The orders were never announced, so the cart keeps its items
+        verify(outboxService, never()).record(any(OrderCreatedEvent.class));
+        verifyNoInteractions(cartItemRepository);
+    }
+
+    @Test
+    @DisplayName("Should reject a PayPal checkout from more shops than PayPal accepts before placing orders")
+    void testCheckoutPayPalTooManyShops() {
+        // Given
+        request.setPaymentMethod("PAYPAL");
+        List<Product> products = LongStream.rangeClosed(1, 11)
+                .mapToObj(id -> product(id, "100", shop(id, "Shop " + id)))
+                .toList();
+        request.setItems(products.stream().map(product -> item(product.getProductId(), 1)).toList());
+        when(productRepository.findAllForCheckout(any())).thenReturn(products);
+
+        // When & Then
+        assertThatThrownBy(() -> orderService.checkout(request, userId))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("A PayPal checkout can include at most 10 shops");
+
+        verify(productRepository, never()).decrementStock(anyLong(), anyInt());
+        verify(orderRepository, never()).save(any());
+        verifyNoInteractions(paypalService);
+    }
+
+    @Test
+    @DisplayName("Should reject a shop voucher for a shop outside the checkout")
+    void testCheckoutShopVoucherForOtherShop() {
+        // Given
+        request.setShopVoucherIds(List.of(10L));
+        when(userVoucherRepository.findByUserUserIdAndVoucherVoucherIdAndIsUsedFalse(userId, 10L))
+                .thenReturn(Optional.of(userVoucher(10L, "50", shop(9L, "Other Shop"))));
+
+        // When & Then
+        assertThatThrownBy(() -> orderService.checkout(request, userId))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("does not belong to a shop in this checkout");
+
+        verify(productRepository, never()).decrementStock(anyLong(), anyInt());
+        verify(orderRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should reject a shop voucher passed as the platform voucher")
+    void testCheckoutPlatformVoucherIsShopVoucher() {
+        // Given
+        request.setPlatformVoucherId(10L);
+        when(userVoucherRepository.findByUserUserIdAndVoucherVoucherIdAndIsUsedFalse(userId, 10L))
+                .thenReturn(Optional.of(userVoucher(10L, "50", shop1)));
+
+        // When & Then
+        assertThatThrownBy(() -> orderService.checkout(request, userId))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Voucher is not a platform voucher");
+    }
+
+    @Test
+    @DisplayName("Should create no order when one of the shops is not approved")
+    void testCheckoutShopNotApproved() {
+        // Given
+        shop2.setIsApproved(false);
+
+        // When & Then
+        assertThatThrownBy(() -> orderService.checkout(request, userId))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Shop Shop Two is not approved");
+
+        verify(productRepository, never()).decrementStock(anyLong(), anyInt());
+        verify(orderRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should report a product that does not exist")
+    void testCheckoutProductNotFound() {
+        // Given
+        when(productRepository.findAllForCheckout(Set.of(1L, 2L, 3L))).thenReturn(List.of(product1, product2));
+
+        // When & Then
+        assertThatThrownBy(() -> orderService.checkout(request, userId))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("Product not found with ID: 3");
+    }
+
+    private Shop shop(Long shopId, String name) {
+        Shop shop = new Shop();
+        shop.setShopId(shopId);
+        shop.setShopName(name);
+        shop.setIsApproved(true);
+        shop.setHasDeleted(false);
+        return shop;
+    }
+
+    private Product product(Long productId, String price, Shop shop) {
+        Product product = new Product();
+        product.setProductId(productId);
+        product.setName("Product " + productId);
+        product.setPrice(new BigDecimal(price));
+        product.setStockQuantity(10);
+        product.setStatus("Active");
+        product.setShop(shop);
+        product.setHasDeleted(false);
+        return product;
+    }
+
+    private CreateOrderRequest.OrderItemRequest item(Long productId, int qty) {
+        CreateOrderRequest.OrderItemRequest item = new CreateOrderRequest.OrderItemRequest();
+        item.setProductId(productId);
+        item.setQty(qty);
+        return item;
+    }
+
+    private UserVoucher userVoucher(Long voucherId, String fixedDiscount, Shop shop) {
+        Voucher voucher = new Voucher();
+        voucher.setVoucherId(voucherId);
+        voucher.setDiscountType("FIXED");
+        voucher.setDiscountValue(new BigDecimal(fixedDiscount));
+        voucher.setStartDate(LocalDateTime.now().minusDays(1));
+        voucher.setEndDate(LocalDateTime.now().plusDays(30));
+        voucher.setHasDeleted(false);
+        voucher.setShop(shop);
+
+        UserVoucher userVoucher = new UserVoucher();
+        userVoucher.setVoucher(voucher);
+        userVoucher.setIsUsed(false);
+        return userVoucher;
+    }
+}
@@ -3,6 +3,8 @@ package com.example.DACN.service;
 import com.example.DACN.dto.request.CreateOrderRequest;
 import com.example.DACN.dto.response.CreateOrderResponse;
 import com.example.DACN.entity.*;
+import com.example.DACN.event.OrderCreatedEvent;
+import com.example.DACN.event.OrderEvent;
 import com.example.DACN.exception.ResourceNotFoundException;
 import com.example.DACN.mapper.OrderMapper;
 import com.example.DACN.repository.*;
@@ -14,16 +16,26 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -60,9 +72,27 @@ class OrderServiceCreateOrderTest {
     @Mock
     private PaypalService paypalService;
 
+    @Mock
+    private StockReservationService stockReservationService;
+
+    @Mock
+    private SalesRollupService salesRollupService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private OrderArchiveService orderArchiveService;
+
     @Mock
     private OrderMapper orderMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
     @InjectMocks
     private OrderService orderService;
 
@@ -72,7 +102,6 @@ class OrderServiceCreateOrderTest {
     private Product product2;
     private UserAddress userAddress;
     private User user;
-    private Cart cart;
     private Voucher voucher;
     private UserVoucher userVoucher;
     private Order savedOrder;
@@ -130,11 +159,6 @@ class OrderServiceCreateOrderTest {
         userAddress.setIsDefault(true);
         userAddress.setHasDeleted(false);
 
-        // Setup Cart
-        cart = new Cart();
-        cart.setCartId(1L);
-        cart.setUser(user);
-
         // Setup Voucher
         voucher = new Voucher();
         voucher.setVoucherId(10L);
@@ -183,6 +207,17 @@ class OrderServiceCreateOrderTest {
         response = CreateOrderResponse.builder()
                 .orderId(100L)
                 .build();
+
+        // Stock is available unless a test says otherwise
+        lenient().when(productRepository.decrementStock(anyLong(), anyInt())).thenReturn(1);
+
+        // Run transaction callbacks in place
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
     }
 
     @Test
@@ -191,12 +226,9 @@ class OrderServiceCreateOrderTest {
         // Given
         when(shopRepository.findByShopIdAndHasDeletedFalse(1L)).thenReturn(Optional.of(shop));
         when(userAddressRepository.findById(5L)).thenReturn(Optional.of(userAddress));
-        when(productRepository.findByProductIdAndHasDeletedFalse(1L)).thenReturn(Optional.of(product1));
+        when(productRepository.findAllForCheckout(Set.of(1L))).thenReturn(List.of(product1));
         when(orderRepository.save(any(Order.class))).thenReturn(savedOrder);
-        when(orderItemRepository.save(any(OrderItem.class))).thenReturn(new OrderItem());
-        when(productRepository.save(any(Product.class))).thenReturn(product1);
         when(orderStatusHistoryRepository.save(any(OrderStatusHistory.class))).thenReturn(new OrderStatusHistory());
-        when(cartRepository.findByUserUserId(userId)).thenReturn(Optional.of(cart));
         when(orderMapper.toCreateOrderResponse(savedOrder)).thenReturn(response);
 
         // When
@@ -209,12 +241,18 @@ class OrderServiceCreateOrderTest {
 
         verify(shopRepository).findByShopIdAndHasDeletedFalse(1L);
         verify(userAddressRepository).findById(5L);
-        verify(productRepository).findByProductIdAndHasDeletedFalse(1L);
-        verify(orderRepository).save(any(Order.class));
-        verify(orderItemRepository).save(any(OrderItem.class));
+        verify(productRepository).findAllForCheckout(Set.of(1L));
+        verify(orderRepository).save(argThat((Order o) -> "Pending".equals(o.getCurrentStatus())));
+        verify(orderItemRepository).insertAll(argThat(items -> items.size() == 1
+                && items.get(0).getQuantity() == 2));
         verify(orderStatusHistoryRepository).save(any(OrderStatusHistory.class));
-        verify(cartItemRepository).deleteByCartCartIdAndProductProductId(1L, 1L);
-        verify(paypalService, never()).createOrder(any());
+        verify(outboxService).record(argThat(event -> event instanceof OrderCreatedEvent created
+                && created.getOrderId().equals(100L) && created.getUserId().equals(userId)
+                && created.getProductIds().equals(List.of(1L))));
+        verify(cartItemRepository, never()).deleteByCartIdAndProductIdsAddedBefore(any(), any(), any());
+        verify(paypalService, never()).createOrder(any(), any());
+        verify(stockReservationService, never()).hold(any(), any(), any());
+        verify(salesRollupService).recordOrderPlaced(eq(savedOrder), argThat(items -> items.size() == 1));
     }
 
     @Test
@@ -229,14 +267,11 @@ class OrderServiceCreateOrderTest {
 
         when(shopRepository.findByShopIdAndHasDeletedFalse(1L)).thenReturn(Optional.of(shop));
         when(userAddressRepository.findById(5L)).thenReturn(Optional.of(userAddress));
-        when(productRepository.findByProductIdAndHasDeletedFalse(1L)).thenReturn(Optional.of(product1));
+        when(productRepository.findAllForCheckout(Set.of(1L))).thenReturn(List.of(product1));
         when(orderRepository.save(any(Order.class))).thenReturn(savedOrder);
-        when(orderItemRepository.save(any(OrderItem.class))).thenReturn(new OrderItem());
-        when(productRepository.save(any(Product.class))).thenReturn(product1);
         when(orderStatusHistoryRepository.save(any(OrderStatusHistory.class))).thenReturn(new OrderStatusHistory());
-        when(cartRepository.findByUserUserId(userId)).thenReturn(Optional.of(cart));
         when(orderMapper.toCreateOrderResponse(savedOrder)).thenReturn(response);
-        when(paypalService.createOrder(any(BigDecimal.class))).thenReturn(paypalResult);
+        when(paypalService.createOrder(any(BigDecimal.class), eq(100L))).thenReturn(paypalResult);
 
         // When
         CreateOrderResponse result = orderService.createOrder(request, userId);
@@ -246,33 +281,52 @@ class OrderServiceCreateOrderTest {
         assertThat(result.getOrderId()).isEqualTo(100L);
         assertThat(result.getPaymentUrl()).isEqualTo(paypalUrl);
 
-        verify(paypalService).createOrder(any(BigDecimal.class));
-        verify(cartItemRepository).deleteByCartCartIdAndProductProductId(1L, 1L);
+        var inOrder = inOrder(paypalService, orderRepository, outboxService);
+        inOrder.verify(paypalService).createOrder(any(BigDecimal.class), eq(100L));
+        inOrder.verify(orderRepository).linkPaypalOrder(List.of(100L), "PAYPAL-ORDER-123");
+        inOrder.verify(outboxService).record(any(OrderCreatedEvent.class));
+        verify(stockReservationService).hold(eq(savedOrder), eq(Map.of(1L, 2)), any());
     }
 
     @Test
-    @DisplayName("Should throw IllegalStateException when PayPal payment creation fails")
+    @DisplayName("Should cancel the committed order when PayPal payment creation fails")
     void testCreateOrderPayPalFailure() {
         // Given
         request.setPaymentMethod("PAYPAL");
 
         when(shopRepository.findByShopIdAndHasDeletedFalse(1L)).thenReturn(Optional.of(shop));
         when(userAddressRepository.findById(5L)).thenReturn(Optional.of(userAddress));
-        when(productRepository.findByProductIdAndHasDeletedFalse(1L)).thenReturn(Optional.of(product1));
+        when(productRepository.findAllForCheckout(Set.of(1L))).thenReturn(List.of(product1));
         when(orderRepository.save(any(Order.class))).thenReturn(savedOrder);
-        when(orderItemRepository.save(any(OrderItem.class))).thenReturn(new OrderItem());
-        when(productRepository.save(any(Product.class))).thenReturn(product1);
         when(orderStatusHistoryRepository.save(any(OrderStatusHistory.class))).thenReturn(new OrderStatusHistory());
-        when(cartRepository.findByUserUserId(userId)).thenReturn(Optional.of(cart));
         when(orderMapper.toCreateOrderResponse(savedOrder)).thenReturn(response);
-        when(paypalService.createOrder(any(BigDecimal.class))).thenThrow(new RuntimeException("PayPal API error"));
+        when(paypalService.createOrder(any(BigDecimal.class), eq(100L)))
+                .thenThrow(new RuntimeException("PayPal API error"));
+        when(orderRepository.findByOrderIdAndHasDeletedFalse(100L)).thenReturn(Optional.of(savedOrder));
+        OrderItem orderItem = new OrderItem();
+        orderItem.setProduct(product1);
+        orderItem.setQuantity(2);
+        when(orderItemRepository.findByOrderOrderId(100L)).thenReturn(List.of(orderItem));
+        userVoucher.setIsUsed(true);
+        userVoucher.setUsedAtOrder(savedOrder);
+        when(userVoucherRepository.findByUsedAtOrderOrderId(100L)).thenReturn(List.of(userVoucher));
 
         // When & Then
         assertThatThrownBy(() -> orderService.createOrder(request, userId))
                 .isInstanceOf(IllegalStateException.class)
                 .hasMessageContaining("Failed to create PayPal payment");
 
-        verify(paypalService).createOrder(any(BigDecimal.class));
+        verify(paypalService).createOrder(any(BigDecimal.class), eq(100L));
+        verify(transactionTemplate).execute(any());
+        assertThat(savedOrder.getHasDeleted()).isTrue();
+        assertThat(savedOrder.getCurrentStatus()).isEqualTo("Cancelled");
+        verify(productRepository).restoreStock(1L, 2);
+        assertThat(userVoucher.getIsUsed()).isFalse();
+        assertThat(userVoucher.getUsedAtOrder()).isNull();
+
+        // The order was never announced, so the cart keeps its items
+        verify(outboxService, never()).record(any(OrderCreatedEvent.class));
+        verify(cartItemRepository, never()).deleteByCartIdAndProductIdsAddedBefore(any(), any(), any());
     }
 
     @Test
@@ -283,15 +337,12 @@ class OrderServiceCreateOrderTest {
 
         when(shopRepository.findByShopIdAndHasDeletedFalse(1L)).thenReturn(Optional.of(shop));
         when(userAddressRepository.findById(5L)).thenReturn(Optional.of(userAddress));
-        when(productRepository.findByProductIdAndHasDeletedFalse(1L)).thenReturn(Optional.of(product1));
+        when(productRepository.findAllForCheckout(Set.of(1L))).thenReturn(List.of(product1));
         when(userVoucherRepository.findByUserUserIdAndVoucherVoucherIdAndIsUsedFalse(userId, 10L))
                 .thenReturn(Optional.of(userVoucher));
         when(orderRepository.save(any(Order.class))).thenReturn(savedOrder);
-        when(orderItemRepository.save(any(OrderItem.class))).thenReturn(new OrderItem());
-        when(productRepository.save(any(Product.class))).thenReturn(product1);
         when(orderStatusHistoryRepository.save(any(OrderStatusHistory.class))).thenReturn(new OrderStatusHistory());
         when(userVoucherRepository.save(any(UserVoucher.class))).thenReturn(userVoucher);
-        when(cartRepository.findByUserUserId(userId)).thenReturn(Optional.of(cart));
         when(orderMapper.toCreateOrderResponse(savedOrder)).thenReturn(response);
 
         // When
@@ -394,14 +445,14 @@ class OrderServiceCreateOrderTest {
         // Given
         when(shopRepository.findByShopIdAndHasDeletedFalse(1L)).thenReturn(Optional.of(shop));
         when(userAddressRepository.findById(5L)).thenReturn(Optional.of(userAddress));
-        when(productRepository.findByProductIdAndHasDeletedFalse(1L)).thenReturn(Optional.empty());
+        when(productRepository.findAllForCheckout(Set.of(1L))).thenReturn(List.of());
 
         // When & Then
         assertThatThrownBy(() -> orderService.createOrder(request, userId))
                 .isInstanceOf(ResourceNotFoundException.class)
                 .hasMessageContaining("Product not found");
 
-        verify(productRepository).findByProductIdAndHasDeletedFalse(1L);
+        verify(productRepository).findAllForCheckout(Set.of(1L));
         verify(orderRepository, never()).save(any());
     }
 
@@ -415,7 +466,7 @@ class OrderServiceCreateOrderTest {
 
         when(shopRepository.findByShopIdAndHasDeletedFalse(1L)).thenReturn(Optional.of(shop));
         when(userAddressRepository.findById(5L)).thenReturn(Optional.of(userAddress));
-        when(productRepository.findByProductIdAndHasDeletedFalse(1L)).thenReturn(Optional.of(product1));
+        when(productRepository.findAllForCheckout(Set.of(1L))).thenReturn(List.of(product1));
 
         // When & Then
         assertThatThrownBy(() -> orderService.createOrder(request, userId))
@@ -433,7 +484,7 @@ class OrderServiceCreateOrderTest {
 
         when(shopRepository.findByShopIdAndHasDeletedFalse(1L)).thenReturn(Optional.of(shop));
         when(userAddressRepository.findById(5L)).thenReturn(Optional.of(userAddress));
-        when(productRepository.findByProductIdAndHasDeletedFalse(1L)).thenReturn(Optional.of(product1));
+        when(productRepository.findAllForCheckout(Set.of(1L))).thenReturn(List.of(product1));
 
         // When & Then
         assertThatThrownBy(() -> orderService.createOrder(request, userId))
@@ -451,7 +502,7 @@ class OrderServiceCreateOrderTest {
 
         when(shopRepository.findByShopIdAndHasDeletedFalse(1L)).thenReturn(Optional.of(shop));
         when(userAddressRepository.findById(5L)).thenReturn(Optional.of(userAddress));
-        when(productRepository.findByProductIdAndHasDeletedFalse(1L)).thenReturn(Optional.of(product1));
+        when(productRepository.findAllForCheckout(Set.of(1L))).thenReturn(List.of(product1));
 
         // When & Then
         assertThatThrownBy(() -> orderService.createOrder(request, userId))
@@ -461,6 +512,24 @@ class OrderServiceCreateOrderTest {
         verify(orderRepository, never()).save(any());
     }
 
+    @Test
+    @DisplayName("Should fail when another checkout took the stock after it was read")
+    void testCreateOrderStockTakenConcurrently() {
+        // Given
+        when(shopRepository.findByShopIdAndHasDeletedFalse(1L)).thenReturn(Optional.of(shop));
+        when(userAddressRepository.findById(5L)).thenReturn(Optional.of(userAddress));
+        when(productRepository.findAllForCheckout(Set.of(1L))).thenReturn(List.of(product1));
+        when(productRepository.decrementStock(1L, 2)).thenReturn(0);
+
+        // When & Then
+        assertThatThrownBy(() -> orderService.createOrder(request, userId))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Insufficient stock for product: Product 1");
+
+        verify(orderRepository, never()).save(any());
+        verify(orderItemRepository, never()).insertAll(any());
+    }
+
     @Test
     @DisplayName("Should throw ResourceNotFoundException when voucher not found")
     void testCreateOrderVoucherNotFound() {
@@ -469,7 +538,7 @@ class OrderServiceCreateOrderTest {
 
         when(shopRepository.findByShopIdAndHasDeletedFalse(1L)).thenReturn(Optional.of(shop));
         when(userAddressRepository.findById(5L)).thenReturn(Optional.of(userAddress));
-        when(productRepository.findByProductIdAndHasDeletedFalse(1L)).thenReturn(Optional.of(product1));
+        when(productRepository.findAllForCheckout(Set.of(1L))).thenReturn(List.of(product1));
         when(userVoucherRepository.findByUserUserIdAndVoucherVoucherIdAndIsUsedFalse(userId, 10L))
                 .thenReturn(Optional.empty());
 
@@ -490,7 +559,7 @@ class OrderServiceCreateOrderTest {
 
         when(shopRepository.findByShopIdAndHasDeletedFalse(1L)).thenReturn(Optional.of(shop));
         when(userAddressRepository.findById(5L)).thenReturn(Optional.of(userAddress));
-        when(productRepository.findByProductIdAndHasDeletedFalse(1L)).thenReturn(Optional.of(product1));
+        when(productRepository.findAllForCheckout(Set.of(1L))).thenReturn(List.of(product1));
         when(userVoucherRepository.findByUserUserIdAndVoucherVoucherIdAndIsUsedFalse(userId, 10L))
                 .thenReturn(Optional.of(userVoucher));
 
@@ -511,7 +580,7 @@ class OrderServiceCreateOrderTest {
 
         when(shopRepository.findByShopIdAndHasDeletedFalse(1L)).thenReturn(Optional.of(shop));
         when(userAddressRepository.findById(5L)).thenReturn(Optional.of(userAddress));
-        when(productRepository.findByProductIdAndHasDeletedFalse(1L)).thenReturn(Optional.of(product1));
+        when(productRepository.findAllForCheckout(Set.of(1L))).thenReturn(List.of(product1));
         when(userVoucherRepository.findByUserUserIdAndVoucherVoucherIdAndIsUsedFalse(userId, 10L))
                 .thenReturn(Optional.of(userVoucher));
 
@@ -532,7 +601,7 @@ class OrderServiceCreateOrderTest {
 
         when(shopRepository.findByShopIdAndHasDeletedFalse(1L)).thenReturn(Optional.of(shop));
         when(userAddressRepository.findById(5L)).thenReturn(Optional.of(userAddress));
-        when(productRepository.findByProductIdAndHasDeletedFalse(1L)).thenReturn(Optional.of(product1));
+        when(productRepository.findAllForCheckout(Set.of(1L))).thenReturn(List.of(product1));
         when(userVoucherRepository.findByUserUserIdAndVoucherVoucherIdAndIsUsedFalse(userId, 10L))
                 .thenReturn(Optional.of(userVoucher));
 
@@ -555,7 +624,7 @@ class OrderServiceCreateOrderTest {
 
         when(shopRepository.findByShopIdAndHasDeletedFalse(1L)).thenReturn(Optional.of(shop));
         when(userAddressRepository.findById(5L)).thenReturn(Optional.of(userAddress));
-        when(productRepository.findByProductIdAndHasDeletedFalse(1L)).thenReturn(Optional.of(product1));
+        when(productRepository.findAllForCheckout(Set.of(1L))).thenReturn(List.of(product1));
         when(userVoucherRepository.findByUserUserIdAndVoucherVoucherIdAndIsUsedFalse(userId, 10L))
                 .thenReturn(Optional.of(userVoucher));
 
@@ -577,24 +646,21 @@ class OrderServiceCreateOrderTest {
 
         when(shopRepository.findByShopIdAndHasDeletedFalse(1L)).thenReturn(Optional.of(shop));
         when(userAddressRepository.findById(5L)).thenReturn(Optional.of(userAddress));
-        when(productRepository.findByProductIdAndHasDeletedFalse(1L)).thenReturn(Optional.of(product1));
+        when(productRepository.findAllForCheckout(Set.of(1L))).thenReturn(List.of(product1));
         when(orderRepository.save(any(Order.class))).thenReturn(savedOrder);
-        when(orderItemRepository.save(any(OrderItem.class))).thenReturn(new OrderItem());
-        when(productRepository.save(any(Product.class))).thenReturn(product1);
         when(orderStatusHistoryRepository.save(any(OrderStatusHistory.class))).thenReturn(new OrderStatusHistory());
-        when(cartRepository.findByUserUserId(userId)).thenReturn(Optional.of(cart));
         when(orderMapper.toCreateOrderResponse(savedOrder)).thenReturn(response);
 
         // When
         orderService.createOrder(request, userId);
 
         // Then
-        ArgumentCaptor<Product> productCaptor = ArgumentCaptor.forClass(Product.class);
-        verify(productRepository).save(productCaptor.capture());
-
-        Product savedProduct = productCaptor.getValue();
-        assertThat(savedProduct.getStockQuantity()).isEqualTo(initialStock - orderQty);
-        assertThat(savedProduct.getSoldCount()).isEqualTo(initialSold + orderQty);
+        verify(productRepository).decrementStock(1L, orderQty);
+        verify(productRepository, never()).save(any(Product.class));
+        verify(productRepository, never()).saveAll(any());
+        // The loaded entity is not written back; the UPDATE changed the row
+        assertThat(product1.getStockQuantity()).isEqualTo(initialStock);
+        assertThat(product1.getSoldCount()).isEqualTo(initialSold);
     }
 
     @Test
@@ -603,12 +669,9 @@ class OrderServiceCreateOrderTest {
         // Given
         when(shopRepository.findByShopIdAndHasDeletedFalse(1L)).thenReturn(Optional.of(shop));
         when(userAddressRepository.findById(5L)).thenReturn(Optional.of(userAddress));
-        when(productRepository.findByProductIdAndHasDeletedFalse(1L)).thenReturn(Optional.of(product1));
+        when(productRepository.findAllForCheckout(Set.of(1L))).thenReturn(List.of(product1));
         when(orderRepository.save(any(Order.class))).thenReturn(savedOrder);
-        when(orderItemRepository.save(any(OrderItem.class))).thenReturn(new OrderItem());
-        when(productRepository.save(any(Product.class))).thenReturn(product1);
         when(orderStatusHistoryRepository.save(any(OrderStatusHistory.class))).thenReturn(new OrderStatusHistory());
-        when(cartRepository.findByUserUserId(userId)).thenReturn(Optional.of(cart));
         when(orderMapper.toCreateOrderResponse(savedOrder)).thenReturn(response);
 
         // When
@@ -624,25 +687,28 @@ class OrderServiceCreateOrderTest {
     }
 
     @Test
-    @DisplayName("Should delete cart items after order creation")
-    void testCreateOrderDeletesCartItems() {
+    @DisplayName("Should leave cart cleanup to the order created event")
+    void testCreateOrderRecordsCreatedEvent() {
         // Given
         when(shopRepository.findByShopIdAndHasDeletedFalse(1L)).thenReturn(Optional.of(shop));
         when(userAddressRepository.findById(5L)).thenReturn(Optional.of(userAddress));
-        when(productRepository.findByProductIdAndHasDeletedFalse(1L)).thenReturn(Optional.of(product1));
+        when(productRepository.findAllForCheckout(Set.of(1L))).thenReturn(List.of(product1));
         when(orderRepository.save(any(Order.class))).thenReturn(savedOrder);
-        when(orderItemRepository.save(any(OrderItem.class))).thenReturn(new OrderItem());
-        when(productRepository.save(any(Product.class))).thenReturn(product1);
         when(orderStatusHistoryRepository.save(any(OrderStatusHistory.class))).thenReturn(new OrderStatusHistory());
-        when(cartRepository.findByUserUserId(userId)).thenReturn(Optional.of(cart));
         when(orderMapper.toCreateOrderResponse(savedOrder)).thenReturn(response);
 
         // When
         orderService.createOrder(request, userId);
 
         // Then
-        verify(cartRepository).findByUserUserId(userId);
-        verify(cartItemRepository).deleteByCartCartIdAndProductProductId(1L, 1L);
+        ArgumentCaptor<OrderEvent> eventCaptor = ArgumentCaptor.forClass(OrderEvent.class);
+        verify(outboxService).record(eventCaptor.capture());
+        assertThat(eventCaptor.getValue()).isInstanceOf(OrderCreatedEvent.class);
+        OrderCreatedEvent event = (OrderCreatedEvent) eventCaptor.getValue();
+        assertThat(event.getShopId()).isEqualTo(1L);
+        assertThat(event.getProductIds()).containsExactly(1L);
+        assertThat(event.getPlacedAt()).isNotNull();
+        verify(cartRepository, never()).findByUserUserId(any());
     }
 
     @Test
@@ -656,13 +722,9 @@ class OrderServiceCreateOrderTest {
 
         when(shopRepository.findByShopIdAndHasDeletedFalse(1L)).thenReturn(Optional.of(shop));
         when(userAddressRepository.findById(5L)).thenReturn(Optional.of(userAddress));
-        when(productRepository.findByProductIdAndHasDeletedFalse(1L)).thenReturn(Optional.of(product1));
-        when(productRepository.findByProductIdAndHasDeletedFalse(2L)).thenReturn(Optional.of(product2));
+        when(productRepository.findAllForCheckout(Set.of(1L, 2L))).thenReturn(List.of(product1, product2));
         when(orderRepository.save(any(Order.class))).thenReturn(savedOrder);
-        when(orderItemRepository.save(any(OrderItem.class))).thenReturn(new OrderItem());
-        when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
         when(orderStatusHistoryRepository.save(any(OrderStatusHistory.class))).thenReturn(new OrderStatusHistory());
-        when(cartRepository.findByUserUserId(userId)).thenReturn(Optional.of(cart));
         when(orderMapper.toCreateOrderResponse(savedOrder)).thenReturn(response);
 
         // When
@@ -670,12 +732,16 @@ class OrderServiceCreateOrderTest {
 
         // Then
         assertThat(result).isNotNull();
-        verify(productRepository).findByProductIdAndHasDeletedFalse(1L);
-        verify(productRepository).findByProductIdAndHasDeletedFalse(2L);
-        verify(orderItemRepository, times(2)).save(any(OrderItem.class));
-        verify(productRepository, times(2)).save(any(Product.class));
-        verify(cartItemRepository).deleteByCartCartIdAndProductProductId(1L, 1L);
-        verify(cartItemRepository).deleteByCartCartIdAndProductProductId(1L, 2L);
+        verify(productRepository, times(1)).findAllForCheckout(any());
+        verify(productRepository, never()).findByProductIdAndHasDeletedFalse(any());
+        verify(orderItemRepository).insertAll(argThat(items -> items.size() == 2));
+        verify(orderItemRepository, never()).save(any(OrderItem.class));
+        var inOrder = inOrder(productRepository);
+        inOrder.verify(productRepository).decrementStock(1L, 2);
+        inOrder.verify(productRepository).decrementStock(2L, 1);
+        verify(productRepository, never()).save(any(Product.class));
+        verify(outboxService).record(argThat(event -> event instanceof OrderCreatedEvent created
+                && created.getProductIds().equals(List.of(1L, 2L))));
     }
 
     @Test
@@ -684,12 +750,9 @@ class OrderServiceCreateOrderTest {
         // Given
         when(shopRepository.findByShopIdAndHasDeletedFalse(1L)).thenReturn(Optional.of(shop));
         when(userAddressRepository.findById(5L)).thenReturn(Optional.of(userAddress));
-        when(productRepository.findByProductIdAndHasDeletedFalse(1L)).thenReturn(Optional.of(product1));
+        when(productRepository.findAllForCheckout(Set.of(1L))).thenReturn(List.of(product1));
         when(orderRepository.save(any(Order.class))).thenReturn(savedOrder);
-        when(orderItemRepository.save(any(OrderItem.class))).thenReturn(new OrderItem());
-        when(productRepository.save(any(Product.class))).thenReturn(product1);
         when(orderStatusHistoryRepository.save(any(OrderStatusHistory.class))).thenReturn(new OrderStatusHistory());
-        when(cartRepository.findByUserUserId(userId)).thenReturn(Optional.of(cart));
         when(orderMapper.toCreateOrderResponse(savedOrder)).thenReturn(response);
 
         // When
@@ -1,9 +1,10 @@
 package com.example.DACN.service;
 
+import com.example.DACN.dto.response.CustomerOrderListResponse;
 import com.example.DACN.dto.response.CustomerOrderResponse;
-import com.example.DACN.entity.*;
 import com.example.DACN.mapper.OrderMapper;
 import com.example.DACN.repository.*;
+import com.example.DACN.util.CursorUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -11,17 +12,19 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -58,309 +61,143 @@ class OrderServiceGetCustomerOrdersTest {
     @Mock
     private PaypalService paypalService;
 
+    @Mock
+    private StockReservationService stockReservationService;
+
+    @Mock
+    private SalesRollupService salesRollupService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private OrderArchiveService orderArchiveService;
+
     @Mock
     private OrderMapper orderMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private OrderService orderService;
 
     private UUID userId;
-    private User customer;
-    private Shop shop;
-    private Order order1;
-    private Order order2;
-    private OrderStatusHistory statusHistory1;
-    private OrderStatusHistory statusHistory2;
-    private OrderItem orderItem1;
-    private OrderItem orderItem2;
+    private LocalDateTime now;
     private CustomerOrderResponse response1;
     private CustomerOrderResponse response2;
 
     @BeforeEach
     void setUp() {
         userId = UUID.randomUUID();
-
-        // Setup customer
-        customer = new User();
-        customer.setUserId(userId);
-        customer.setEmail("customer@test.com");
-
-        // Setup shop
-        shop = new Shop();
-        shop.setShopId(1L);
-        shop.setShopName("Test Shop");
-
-        // Setup order 1
-        order1 = new Order();
-        order1.setOrderId(1L);
-        order1.setUser(customer);
-        order1.setShop(shop);
-        order1.setTotalAmount(new BigDecimal("1000000"));
-        order1.setShippingFee(new BigDecimal("30000"));
-        order1.setVoucherDiscount(new BigDecimal("50000"));
-        order1.setFinalAmount(new BigDecimal("980000"));
-        order1.setPaymentMethod("PAYPAL");
-        order1.setCreatedAt(LocalDateTime.now());
-        order1.setHasDeleted(false);
-
-        // Setup order 2
-        order2 = new Order();
-        order2.setOrderId(2L);
-        order2.setUser(customer);
-        order2.setShop(shop);
-        order2.setTotalAmount(new BigDecimal("500000"));
-        order2.setShippingFee(new BigDecimal("20000"));
-        order2.setVoucherDiscount(BigDecimal.ZERO);
-        order2.setFinalAmount(new BigDecimal("520000"));
-        order2.setPaymentMethod("COD");
-        order2.setCreatedAt(LocalDateTime.now().minusDays(1));
-        order2.setHasDeleted(false);
-
-        // Setup status histories
-        statusHistory1 = new OrderStatusHistory();
-        statusHistory1.setOrder(order1);
-        statusHistory1.setStatus("Paid");
-        statusHistory1.setCreatedAt(LocalDateTime.now());
-
-        statusHistory2 = new OrderStatusHistory();
-        statusHistory2.setOrder(order2);
-        statusHistory2.setStatus("Pending");
-        statusHistory2.setCreatedAt(LocalDateTime.now().minusDays(1));
-
-        // Setup order items
-        orderItem1 = new OrderItem();
-        orderItem1.setOrderItemId(1L);
-        orderItem1.setOrder(order1);
-
-        orderItem2 = new OrderItem();
-        orderItem2.setOrderItemId(2L);
-        orderItem2.setOrder(order1);
-
-        // Setup responses
-        response1 = CustomerOrderResponse.builder()
-                .orderId(1L)
-                .shopId(1L)
-                .shopName("Test Shop")
-                .totalAmount(new BigDecimal("1000000"))
-                .shippingFee(new BigDecimal("30000"))
-                .voucherDiscount(new BigDecimal("50000"))
-                .finalAmount(new BigDecimal("980000"))
-                .paymentMethod("PAYPAL")
-                .createdAt(order1.getCreatedAt())
-                .build();
-
-        response2 = CustomerOrderResponse.builder()
-                .orderId(2L)
-                .shopId(1L)
-                .shopName("Test Shop")
-                .totalAmount(new BigDecimal("500000"))
-                .shippingFee(new BigDecimal("20000"))
-                .voucherDiscount(BigDecimal.ZERO)
-                .finalAmount(new BigDecimal("520000"))
-                .paymentMethod("COD")
-                .createdAt(order2.getCreatedAt())
-                .build();
+        now = LocalDateTime.of(2025, 12, 28, 10, 30);
+
+        // Rows as the page query returns them, status and item count included
+        response1 = new CustomerOrderResponse(2L, 1L, "Test Shop", new BigDecimal("1000000"),
+                new BigDecimal("30000"), new BigDecimal("50000"), new BigDecimal("980000"), "PAYPAL", "Paid",
+                now, 2L);
+        response2 = new CustomerOrderResponse(1L, 1L, "Test Shop", new BigDecimal("500000"),
+                new BigDecimal("20000"), BigDecimal.ZERO, new BigDecimal("520000"), "COD", "Unknown",
+                now.minusDays(1), 0L);
     }
 
     @Test
-    @DisplayName("Should return list of customer orders successfully")
-    void testGetCustomerOrdersSuccess() {
+    @DisplayName("Should return the first page from one query without per-order lookups")
+    void testGetCustomerOrdersFirstPage() {
         // Given
-        when(orderRepository.findByUserUserIdAndHasDeletedFalseOrderByCreatedAtDesc(userId))
-                .thenReturn(Arrays.asList(order1, order2));
-        when(orderMapper.toCustomerOrderResponse(order1)).thenReturn(response1);
-        when(orderMapper.toCustomerOrderResponse(order2)).thenReturn(response2);
-        when(orderStatusHistoryRepository.findTopByOrderOrderIdOrderByCreatedAtDesc(1L))
-                .thenReturn(Optional.of(statusHistory1));
-        when(orderStatusHistoryRepository.findTopByOrderOrderIdOrderByCreatedAtDesc(2L))
-                .thenReturn(Optional.of(statusHistory2));
-        when(orderItemRepository.findByOrderOrderId(1L))
-                .thenReturn(Arrays.asList(orderItem1, orderItem2));
-        when(orderItemRepository.findByOrderOrderId(2L))
-                .thenReturn(Collections.singletonList(orderItem2));
+        when(orderRepository.findCustomerOrderPage(userId, null, null, PageRequest.of(0, 20)))
+                .thenReturn(new SliceImpl<>(List.of(response1, response2), PageRequest.of(0, 20), false));
 
         // When
-        List<CustomerOrderResponse> result = orderService.getCustomerOrders(userId);
+        CustomerOrderListResponse result = orderService.getCustomerOrders(userId, null, 20);
 
         // Then
-        assertThat(result).isNotNull();
-        assertThat(result).hasSize(2);
-        assertThat(result.get(0).getOrderId()).isEqualTo(1L);
-        assertThat(result.get(0).getCurrentStatus()).isEqualTo("Paid");
-        assertThat(result.get(0).getItemCount()).isEqualTo(2);
-        assertThat(result.get(1).getOrderId()).isEqualTo(2L);
-        assertThat(result.get(1).getCurrentStatus()).isEqualTo("Pending");
-        assertThat(result.get(1).getItemCount()).isEqualTo(1);
-
-        verify(orderRepository).findByUserUserIdAndHasDeletedFalseOrderByCreatedAtDesc(userId);
-        verify(orderMapper, times(2)).toCustomerOrderResponse(any(Order.class));
-        verify(orderStatusHistoryRepository, times(2)).findTopByOrderOrderIdOrderByCreatedAtDesc(any(Long.class));
-        verify(orderItemRepository, times(2)).findByOrderOrderId(any(Long.class));
+        assertThat(result.getData()).containsExactly(response1, response2);
+        assertThat(result.getData().get(0).getCurrentStatus()).isEqualTo("Paid");
+        assertThat(result.getData().get(0).getItemCount()).isEqualTo(2);
+        assertThat(result.getData().get(1).getCurrentStatus()).isEqualTo("Unknown");
+        assertThat(result.getData().get(1).getItemCount()).isEqualTo(0);
+        assertThat(result.getNextCursor()).isNull();
+
+        verifyNoInteractions(orderStatusHistoryRepository, orderItemRepository, orderMapper);
     }
 
     @Test
-    @DisplayName("Should return empty list when customer has no orders")
-    void testGetCustomerOrdersEmpty() {
+    @DisplayName("Should return a cursor for the last row when more orders exist")
+    void testGetCustomerOrdersHasNext() {
         // Given
-        when(orderRepository.findByUserUserIdAndHasDeletedFalseOrderByCreatedAtDesc(userId))
-                .thenReturn(Collections.emptyList());
+        when(orderRepository.findCustomerOrderPage(eq(userId), isNull(), isNull(), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(response1, response2), PageRequest.of(0, 2), true));
 
         // When
-        List<CustomerOrderResponse> result = orderService.getCustomerOrders(userId);
+        CustomerOrderListResponse result = orderService.getCustomerOrders(userId, null, 2);
 
         // Then
-        assertThat(result).isNotNull();
-        assertThat(result).isEmpty();
-
-        verify(orderRepository).findByUserUserIdAndHasDeletedFalseOrderByCreatedAtDesc(userId);
-        verify(orderMapper, never()).toCustomerOrderResponse(any(Order.class));
+        assertThat(result.getNextCursor()).isEqualTo(CursorUtil.encode(now.minusDays(1), 1L));
     }
 
     @Test
-    @DisplayName("Should set status to Unknown when status history not found")
-    void testGetCustomerOrdersWithNoStatusHistory() {
+    @DisplayName("Should seek past the cursor position")
+    void testGetCustomerOrdersWithCursor() {
         // Given
-        when(orderRepository.findByUserUserIdAndHasDeletedFalseOrderByCreatedAtDesc(userId))
-                .thenReturn(Collections.singletonList(order1));
-        when(orderMapper.toCustomerOrderResponse(order1)).thenReturn(response1);
-        when(orderStatusHistoryRepository.findTopByOrderOrderIdOrderByCreatedAtDesc(1L))
-                .thenReturn(Optional.empty());
-        when(orderItemRepository.findByOrderOrderId(1L))
-                .thenReturn(Collections.singletonList(orderItem1));
+        String cursor = CursorUtil.encode(now, 2L);
+        when(orderRepository.findCustomerOrderPage(userId, now, 2L, PageRequest.of(0, 20)))
+                .thenReturn(new SliceImpl<>(List.of(response2), PageRequest.of(0, 20), false));
 
         // When
-        List<CustomerOrderResponse> result = orderService.getCustomerOrders(userId);
+        CustomerOrderListResponse result = orderService.getCustomerOrders(userId, cursor, 20);
 
         // Then
-        assertThat(result).isNotNull();
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getCurrentStatus()).isEqualTo("Unknown");
-        assertThat(result.get(0).getItemCount()).isEqualTo(1);
+        assertThat(result.getData()).containsExactly(response2);
+        assertThat(result.getNextCursor()).isNull();
     }
 
     @Test
-    @DisplayName("Should handle order with no items")
-    void testGetCustomerOrdersWithNoItems() {
+    @DisplayName("Should continue into archived orders in the same keyset order")
+    void testGetCustomerOrdersMergesArchive() {
         // Given
-        when(orderRepository.findByUserUserIdAndHasDeletedFalseOrderByCreatedAtDesc(userId))
-                .thenReturn(Collections.singletonList(order1));
-        when(orderMapper.toCustomerOrderResponse(order1)).thenReturn(response1);
-        when(orderStatusHistoryRepository.findTopByOrderOrderIdOrderByCreatedAtDesc(1L))
-                .thenReturn(Optional.of(statusHistory1));
-        when(orderItemRepository.findByOrderOrderId(1L))
-                .thenReturn(Collections.emptyList());
+        CustomerOrderResponse archived1 = new CustomerOrderResponse(1000L, 1L, "Test Shop", BigDecimal.TEN,
+                BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.TEN, "COD", "Delivered", now.minusHours(1), 1L);
+        CustomerOrderResponse archived2 = new CustomerOrderResponse(999L, 1L, "Test Shop", BigDecimal.TEN,
+                BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.TEN, "COD", "Cancelled", now.minusDays(30), 1L);
+        when(orderRepository.findCustomerOrderPage(userId, null, null, PageRequest.of(0, 2)))
+                .thenReturn(new SliceImpl<>(List.of(response1, response2), PageRequest.of(0, 2), false));
+        when(orderArchiveService.findCustomerOrders(userId, null, null, 3)).thenReturn(List.of(archived1, archived2));
 
         // When
-        List<CustomerOrderResponse> result = orderService.getCustomerOrders(userId);
+        CustomerOrderListResponse result = orderService.getCustomerOrders(userId, null, 2);
 
         // Then
-        assertThat(result).isNotNull();
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getItemCount()).isEqualTo(0);
+        assertThat(result.getData()).containsExactly(response1, archived1);
+        assertThat(result.getNextCursor()).isEqualTo(CursorUtil.encode(now.minusHours(1), 1000L));
     }
 
     @Test
-    @DisplayName("Should return orders sorted by creation date descending")
-    void testGetCustomerOrdersSortedByDate() {
-        // Given
-        when(orderRepository.findByUserUserIdAndHasDeletedFalseOrderByCreatedAtDesc(userId))
-                .thenReturn(Arrays.asList(order1, order2)); // order1 is newer
-        when(orderMapper.toCustomerOrderResponse(order1)).thenReturn(response1);
-        when(orderMapper.toCustomerOrderResponse(order2)).thenReturn(response2);
-        when(orderStatusHistoryRepository.findTopByOrderOrderIdOrderByCreatedAtDesc(any()))
-                .thenReturn(Optional.of(statusHistory1));
-        when(orderItemRepository.findByOrderOrderId(any()))
-                .thenReturn(Collections.singletonList(orderItem1));
-
-        // When
-        List<CustomerOrderResponse> result = orderService.getCustomerOrders(userId);
-
-        // Then
-        assertThat(result).isNotNull();
-        assertThat(result).hasSize(2);
-        assertThat(result.get(0).getOrderId()).isEqualTo(1L); // Newer order first
-        assertThat(result.get(1).getOrderId()).isEqualTo(2L);
-    }
-
-    @Test
-    @DisplayName("Should handle different order statuses correctly")
-    void testGetCustomerOrdersWithDifferentStatuses() {
-        // Given
-        OrderStatusHistory shippingStatus = new OrderStatusHistory();
-        shippingStatus.setStatus("Shipping");
-
-        OrderStatusHistory deliveredStatus = new OrderStatusHistory();
-        deliveredStatus.setStatus("Delivered");
-
-        when(orderRepository.findByUserUserIdAndHasDeletedFalseOrderByCreatedAtDesc(userId))
-                .thenReturn(Arrays.asList(order1, order2));
-        when(orderMapper.toCustomerOrderResponse(order1)).thenReturn(response1);
-        when(orderMapper.toCustomerOrderResponse(order2)).thenReturn(response2);
-        when(orderStatusHistoryRepository.findTopByOrderOrderIdOrderByCreatedAtDesc(1L))
-                .thenReturn(Optional.of(shippingStatus));
-        when(orderStatusHistoryRepository.findTopByOrderOrderIdOrderByCreatedAtDesc(2L))
-                .thenReturn(Optional.of(deliveredStatus));
-        when(orderItemRepository.findByOrderOrderId(any()))
-                .thenReturn(Collections.singletonList(orderItem1));
-
-        // When
-        List<CustomerOrderResponse> result = orderService.getCustomerOrders(userId);
-
-        // Then
-        assertThat(result).isNotNull();
-        assertThat(result).hasSize(2);
-        assertThat(result.get(0).getCurrentStatus()).isEqualTo("Shipping");
-        assertThat(result.get(1).getCurrentStatus()).isEqualTo("Delivered");
-    }
-
-    @Test
-    @DisplayName("Should handle multiple items per order")
-    void testGetCustomerOrdersWithMultipleItems() {
+    @DisplayName("Should return an empty page when customer has no orders")
+    void testGetCustomerOrdersEmpty() {
         // Given
-        OrderItem item3 = new OrderItem();
-        item3.setOrderItemId(3L);
-
-        when(orderRepository.findByUserUserIdAndHasDeletedFalseOrderByCreatedAtDesc(userId))
-                .thenReturn(Collections.singletonList(order1));
-        when(orderMapper.toCustomerOrderResponse(order1)).thenReturn(response1);
-        when(orderStatusHistoryRepository.findTopByOrderOrderIdOrderByCreatedAtDesc(1L))
-                .thenReturn(Optional.of(statusHistory1));
-        when(orderItemRepository.findByOrderOrderId(1L))
-                .thenReturn(Arrays.asList(orderItem1, orderItem2, item3));
+        when(orderRepository.findCustomerOrderPage(eq(userId), isNull(), isNull(), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(Collections.emptyList()));
 
         // When
-        List<CustomerOrderResponse> result = orderService.getCustomerOrders(userId);
+        CustomerOrderListResponse result = orderService.getCustomerOrders(userId, "", 20);
 
         // Then
-        assertThat(result).isNotNull();
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getItemCount()).isEqualTo(3);
+        assertThat(result.getData()).isEmpty();
+        assertThat(result.getNextCursor()).isNull();
     }
 
     @Test
-    @DisplayName("Should only return non-deleted orders")
-    void testGetCustomerOrdersExcludesDeleted() {
+    @DisplayName("Should reject a malformed cursor")
+    void testGetCustomerOrdersInvalidCursor() {
         // Given
-        Order deletedOrder = new Order();
-        deletedOrder.setOrderId(3L);
-        deletedOrder.setHasDeleted(true);
+        String cursor = CursorUtil.encode("yesterday", 2L);
 
-        // Repository should already filter out deleted orders
-        when(orderRepository.findByUserUserIdAndHasDeletedFalseOrderByCreatedAtDesc(userId))
-                .thenReturn(Arrays.asList(order1, order2)); // Only non-deleted
+        // When & Then
+        assertThatThrownBy(() -> orderService.getCustomerOrders(userId, cursor, 20))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
 
-        when(orderMapper.toCustomerOrderResponse(any())).thenReturn(response1);
-        when(orderStatusHistoryRepository.findTopByOrderOrderIdOrderByCreatedAtDesc(any()))
-                .thenReturn(Optional.of(statusHistory1));
-        when(orderItemRepository.findByOrderOrderId(any()))
-                .thenReturn(Collections.singletonList(orderItem1));
-
-        // When
-        List<CustomerOrderResponse> result = orderService.getCustomerOrders(userId);
-
-        // Then
-        assertThat(result).isNotNull();
-        assertThat(result).hasSize(2);
-        verify(orderRepository).findByUserUserIdAndHasDeletedFalseOrderByCreatedAtDesc(userId);
+        verify(orderRepository, never()).findCustomerOrderPage(any(), any(), any(), any());
     }
 }
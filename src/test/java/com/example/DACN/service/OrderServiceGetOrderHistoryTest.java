@@ -12,6 +12,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -59,9 +60,24 @@ class OrderServiceGetOrderHistoryTest {
     @Mock
     private PaypalService paypalService;
 
+    @Mock
+    private StockReservationService stockReservationService;
+
+    @Mock
+    private SalesRollupService salesRollupService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private OrderArchiveService orderArchiveService;
+
     @Mock
     private OrderMapper orderMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private OrderService orderService;
 
@@ -222,6 +238,23 @@ class OrderServiceGetOrderHistoryTest {
         verify(orderStatusHistoryRepository, never()).findByOrderOrderIdOrderByCreatedAtDesc(any());
     }
 
+    @Test
+    @DisplayName("Should read the history of an archived order from the archive")
+    void testGetOrderHistoryFromArchive() {
+        // Given
+        when(orderRepository.findByOrderIdAndHasDeletedFalse(orderId))
+                .thenReturn(Optional.empty());
+        when(orderArchiveService.findOrderHistory(orderId, customer.getEmail()))
+                .thenReturn(Optional.of(List.of(shippingResponse, paidResponse, pendingResponse)));
+
+        // When
+        List<OrderStatusHistoryResponse> result = orderService.getOrderHistory(orderId, customer.getEmail());
+
+        // Then
+        assertThat(result).containsExactly(shippingResponse, paidResponse, pendingResponse);
+        verify(orderStatusHistoryRepository, never()).findByOrderOrderIdOrderByCreatedAtDesc(any());
+    }
+
     @Test
     @DisplayName("Should throw exception when user is neither customer nor seller")
     void testGetOrderHistoryUnauthorizedUser() {
@@ -0,0 +1,199 @@
+package com.example.DACN.service;
+
+import com.example.DACN.dto.request.SellerOrderSearchRequest;
+import com.example.DACN.dto.response.SellerOrderListResponse;
+import com.example.DACN.dto.response.SellerOrderResponse;
+import com.example.DACN.mapper.OrderMapper;
+import com.example.DACN.repository.*;
+import com.example.DACN.util.CursorUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OrderService - Search Seller Orders Tests")
+class OrderServiceSearchSellerOrdersTest {
+
+    private static final LocalDate FROM = LocalDate.of(2025, 12, 1);
+    private static final LocalDate TO = LocalDate.of(2025, 12, 31);
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderItemRepository orderItemRepository;
+
+    @Mock
+    private OrderStatusHistoryRepository orderStatusHistoryRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ShopRepository shopRepository;
+
+    @Mock
+    private UserVoucherRepository userVoucherRepository;
+
+    @Mock
+    private UserAddressRepository userAddressRepository;
+
+    @Mock
+    private CartItemRepository cartItemRepository;
+
+    @Mock
+    private CartRepository cartRepository;
+
+    @Mock
+    private PaypalService paypalService;
+
+    @Mock
+    private StockReservationService stockReservationService;
+
+    @Mock
+    private SalesRollupService salesRollupService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private OrderArchiveService orderArchiveService;
+
+    @Mock
+    private OrderMapper orderMapper;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private OrderService orderService;
+
+    private Long shopId;
+    private LocalDateTime now;
+    private SellerOrderResponse response1;
+    private SellerOrderResponse response2;
+
+    @BeforeEach
+    void setUp() {
+        shopId = 1L;
+        now = LocalDateTime.of(2025, 12, 28, 10, 30);
+
+        response1 = new SellerOrderResponse(2L, "customer1@test.com", "Customer One", new BigDecimal("1000000"),
+                new BigDecimal("30000"), new BigDecimal("50000"), new BigDecimal("980000"), "PAYPAL", "Paid",
+                now, 3L);
+        response2 = new SellerOrderResponse(1L, "customer1@test.com", "Customer One", new BigDecimal("500000"),
+                new BigDecimal("20000"), BigDecimal.ZERO, new BigDecimal("520000"), "PAYPAL", "Paid",
+                now.minusDays(1), 1L);
+    }
+
+    @Test
+    @DisplayName("Should pass every filter to one query bounded by the whole days of the range")
+    void testSearchFirstPage() {
+        // Given
+        SellerOrderSearchRequest search = SellerOrderSearchRequest.builder()
+                .status("Paid")
+                .from(FROM)
+                .to(TO)
+                .paymentMethod("PAYPAL")
+                .customerEmail("customer1@test.com")
+                .minAmount(new BigDecimal("100000"))
+                .maxAmount(new BigDecimal("1000000"))
+                .build();
+        when(orderRepository.searchSellerOrders(shopId, FROM.atStartOfDay(), LocalDate.of(2026, 1, 1).atStartOfDay(),
+                0L, "Paid", "PAYPAL", new BigDecimal("100000"), new BigDecimal("1000000"), "customer1@test.com",
+                PageRequest.of(0, 2)))
+                .thenReturn(new SliceImpl<>(List.of(response1, response2), PageRequest.of(0, 2), true));
+
+        // When
+        SellerOrderListResponse result = orderService.searchSellerOrders(shopId, search, null, 2);
+
+        // Then
+        assertThat(result.getData()).containsExactly(response1, response2);
+        assertThat(result.getNextCursor()).isEqualTo(CursorUtil.encode(now.minusDays(1), 1L));
+        verify(orderArchiveService).searchSellerOrders(shopId, search, FROM.atStartOfDay(),
+                LocalDate.of(2026, 1, 1).atStartOfDay(), 0L, 3);
+        verifyNoInteractions(orderStatusHistoryRepository, orderItemRepository, orderMapper);
+    }
+
+    @Test
+    @DisplayName("Should continue below the cursor within the same range")
+    void testSearchWithCursor() {
+        // Given
+        SellerOrderSearchRequest search = SellerOrderSearchRequest.builder().from(FROM).to(TO).build();
+        String cursor = CursorUtil.encode(now, 2L);
+        when(orderRepository.searchSellerOrders(shopId, FROM.atStartOfDay(), now, 2L, null, null, null, null, null,
+                PageRequest.of(0, 20)))
+                .thenReturn(new SliceImpl<>(List.of(response2), PageRequest.of(0, 20), false));
+
+        // When
+        SellerOrderListResponse result = orderService.searchSellerOrders(shopId, search, cursor, 20);
+
+        // Then
+        assertThat(result.getData()).containsExactly(response2);
+        assertThat(result.getNextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should default to the last 90 days")
+    void testSearchDefaultRange() {
+        // Given
+        LocalDate today = LocalDate.now();
+        when(orderRepository.searchSellerOrders(eq(shopId), any(), any(), anyLong(), any(), any(), any(), any(),
+                any(), any()))
+                .thenReturn(new SliceImpl<>(List.of()));
+
+        // When
+        orderService.searchSellerOrders(shopId, new SellerOrderSearchRequest(), null, 20);
+
+        // Then
+        verify(orderRepository).searchSellerOrders(eq(shopId), eq(today.minusDays(89).atStartOfDay()),
+                eq(today.plusDays(1).atStartOfDay()), eq(0L), isNull(), isNull(), isNull(), isNull(), isNull(),
+                eq(PageRequest.of(0, 20)));
+    }
+
+    @Test
+    @DisplayName("Should reject ranges that are reversed or longer than 366 days")
+    void testSearchInvalidRange() {
+        SellerOrderSearchRequest reversed = SellerOrderSearchRequest.builder().from(TO).to(FROM).build();
+        SellerOrderSearchRequest tooLong = SellerOrderSearchRequest.builder()
+                .from(FROM.minusDays(366)).to(FROM).build();
+
+        assertThatThrownBy(() -> orderService.searchSellerOrders(shopId, reversed, null, 20))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The end date must not be before the start date");
+        assertThatThrownBy(() -> orderService.searchSellerOrders(shopId, tooLong, null, 20))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The range must not exceed 366 days");
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    @DisplayName("Should reject a maximum amount below the minimum amount")
+    void testSearchInvalidAmounts() {
+        SellerOrderSearchRequest search = SellerOrderSearchRequest.builder()
+                .minAmount(new BigDecimal("500"))
+                .maxAmount(new BigDecimal("100"))
+                .build();
+
+        assertThatThrownBy(() -> orderService.searchSellerOrders(shopId, search, null, 20))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The maximum amount must not be below the minimum amount");
+        verifyNoInteractions(orderRepository);
+    }
+}
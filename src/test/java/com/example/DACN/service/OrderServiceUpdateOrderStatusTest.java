@@ -2,6 +2,7 @@ package com.example.DACN.service;
 
 import com.example.DACN.dto.response.UpdateOrderStatusResponse;
 import com.example.DACN.entity.*;
+import com.example.DACN.event.OrderStatusChangedEvent;
 import com.example.DACN.exception.ResourceNotFoundException;
 import com.example.DACN.mapper.OrderMapper;
 import com.example.DACN.repository.*;
@@ -13,6 +14,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -57,9 +59,24 @@ class OrderServiceUpdateOrderStatusTest {
     @Mock
     private PaypalService paypalService;
 
+    @Mock
+    private StockReservationService stockReservationService;
+
+    @Mock
+    private SalesRollupService salesRollupService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private OrderArchiveService orderArchiveService;
+
     @Mock
     private OrderMapper orderMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private OrderService orderService;
 
@@ -182,6 +199,10 @@ class OrderServiceUpdateOrderStatusTest {
         assertThat(response).isNotNull();
         assertThat(response.getStatus()).isEqualTo("Shipping");
         verify(orderStatusHistoryRepository).save(any(OrderStatusHistory.class));
+        verify(salesRollupService, never()).recordOrderDelivered(any());
+        verify(outboxService).record(argThat(event -> event instanceof OrderStatusChangedEvent changed
+                && changed.getOrderId().equals(orderId) && changed.getUserId().equals(customer.getUserId())
+                && "Paid".equals(changed.getFromStatus()) && "Shipping".equals(changed.getToStatus())));
     }
 
     @Test
@@ -208,6 +229,7 @@ class OrderServiceUpdateOrderStatusTest {
         verify(orderStatusHistoryRepository).save(captor.capture());
         OrderStatusHistory savedHistory = captor.getValue();
         assertThat(savedHistory.getStatus()).isEqualTo("Delivered");
+        verify(salesRollupService).recordOrderDelivered(order);
     }
 
     @Test
@@ -451,4 +473,24 @@ class OrderServiceUpdateOrderStatusTest {
 
         verify(orderStatusHistoryRepository, never()).save(any());
     }
+
+    @Test
+    @DisplayName("Should read the current status from the order and write the new one back")
+    void testUpdateStatusUsesDenormalizedStatus() {
+        // Given
+        order.setCurrentStatus("Paid");
+        when(orderRepository.findByOrderIdAndHasDeletedFalse(orderId))
+                .thenReturn(Optional.of(order));
+        when(orderStatusHistoryRepository.save(any(OrderStatusHistory.class)))
+                .thenReturn(shippingStatus);
+
+        // When
+        orderService.updateOrderStatus(orderId, "Shipping", seller.getEmail());
+
+        // Then
+        verify(orderStatusHistoryRepository, never()).findTopByOrderOrderIdOrderByCreatedAtDesc(any());
+        verify(orderRepository).save(order);
+        assertThat(order.getCurrentStatus()).isEqualTo("Shipping");
+        assertThat(order.getStatusUpdatedAt()).isNotNull();
+    }
 }
@@ -0,0 +1,209 @@
+package com.example.DACN.service;
+
+import com.example.DACN.dto.response.OutboxStatsResponse;
+import com.example.DACN.entity.OutboxEvent;
+import com.example.DACN.event.OrderCancelledEvent;
+import com.example.DACN.event.OrderCreatedEvent;
+import com.example.DACN.event.OrderPaidEvent;
+import com.example.DACN.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OutboxService Tests")
+class OutboxServiceTest {
+
+    private static final UUID USER_ID = UUID.randomUUID();
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private OutboxService outboxService;
+
+    @BeforeEach
+    void setUp() {
+        outboxService = new OutboxService(outboxEventRepository, objectMapper, eventPublisher, 300, 3, 5);
+    }
+
+    @Test
+    @DisplayName("Should write an event as a pending row that is due at once")
+    void testRecord() {
+        LocalDateTime before = LocalDateTime.now();
+
+        outboxService.record(new OrderCancelledEvent(100L, USER_ID, "Order cancelled by customer"));
+
+        ArgumentCaptor<OutboxEvent> captor = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxEventRepository).save(captor.capture());
+        OutboxEvent saved = captor.getValue();
+        assertThat(saved.getEventType()).isEqualTo("OrderCancelledEvent");
+        assertThat(saved.getOrderId()).isEqualTo(100L);
+        assertThat(saved.getStatus()).isEqualTo(OutboxEvent.STATUS_PENDING);
+        assertThat(saved.getAttempts()).isZero();
+        assertThat(saved.getAvailableAt()).isAfterOrEqualTo(before);
+        assertThat(saved.getPayload()).contains("Order cancelled by customer");
+    }
+
+    @Test
+    @DisplayName("Should publish a claimed batch in order and mark it published")
+    void testDispatchBatch() throws Exception {
+        OutboxEvent created = row(1L, new OrderCreatedEvent(100L, USER_ID, 1L, "COD", new BigDecimal("250.00"),
+                List.of(1L, 2L), LocalDateTime.now()));
+        OutboxEvent paid = row(2L, new OrderPaidEvent(100L, USER_ID, new BigDecimal("250.00"), "TX-1"));
+        claim(List.of(created, paid));
+
+        int found = outboxService.dispatchBatch(100);
+
+        assertThat(found).isEqualTo(2);
+        ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertThat(events.getAllValues().get(0)).isInstanceOf(OrderCreatedEvent.class);
+        assertThat(((OrderCreatedEvent) events.getAllValues().get(0)).getProductIds()).containsExactly(1L, 2L);
+        assertThat(events.getAllValues().get(1)).isInstanceOf(OrderPaidEvent.class);
+
+        ArgumentCaptor<String> token = ArgumentCaptor.forClass(String.class);
+        verify(outboxEventRepository).claim(eq(List.of(1L, 2L)), token.capture(), any(), any());
+        verify(outboxEventRepository).markPublished(eq(List.of(1L, 2L)), eq(token.getValue()), any());
+        assertThat(outboxService.stats().getPublishedTotal()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should do nothing when no event is due")
+    void testDispatchBatchEmpty() {
+        when(outboxEventRepository.findDueIds(any(), any())).thenReturn(List.of());
+
+        assertThat(outboxService.dispatchBatch(100)).isZero();
+
+        verify(outboxEventRepository, never()).claim(any(), any(), any(), any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Should retry a failed event later without holding back the others")
+    void testDispatchBatchRetriesFailure() throws Exception {
+        OutboxEvent failing = row(1L, new OrderCancelledEvent(100L, USER_ID, "Order cancelled by seller"));
+        OutboxEvent delivered = row(2L, new OrderPaidEvent(101L, USER_ID, new BigDecimal("10.00"), "TX-2"));
+        claim(List.of(failing, delivered));
+        doThrow(new IllegalStateException("Listener down"))
+                .when(eventPublisher).publishEvent(any(OrderCancelledEvent.class));
+        LocalDateTime before = LocalDateTime.now();
+
+        outboxService.dispatchBatch(100);
+
+        verify(outboxEventRepository).markPublished(eq(List.of(2L)), anyString(), any());
+        verify(outboxEventRepository).save(failing);
+        assertThat(failing.getStatus()).isEqualTo(OutboxEvent.STATUS_PENDING);
+        assertThat(failing.getAttempts()).isEqualTo(1);
+        assertThat(failing.getAvailableAt()).isAfterOrEqualTo(before.plusSeconds(5));
+        assertThat(failing.getClaimToken()).isNull();
+        assertThat(failing.getLastError()).contains("Listener down");
+        assertThat(outboxService.stats().getFailedAttemptsTotal()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should double the retry delay with every failed attempt")
+    void testDispatchBatchBacksOff() throws Exception {
+        OutboxEvent failing = row(1L, new OrderCancelledEvent(100L, USER_ID, "Order cancelled by seller"));
+        failing.setAttempts(1);
+        claim(List.of(failing));
+        doThrow(new IllegalStateException("Listener down")).when(eventPublisher).publishEvent(any(Object.class));
+        LocalDateTime before = LocalDateTime.now();
+
+        outboxService.dispatchBatch(100);
+
+        assertThat(failing.getAttempts()).isEqualTo(2);
+        assertThat(failing.getAvailableAt()).isAfterOrEqualTo(before.plusSeconds(10));
+        verify(outboxEventRepository, never()).markPublished(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should park an event that failed too often")
+    void testDispatchBatchParksEvent() throws Exception {
+        OutboxEvent failing = row(1L, new OrderCancelledEvent(100L, USER_ID, "Order cancelled by seller"));
+        failing.setAttempts(2);
+        claim(List.of(failing));
+        doThrow(new IllegalStateException("Listener down")).when(eventPublisher).publishEvent(any(Object.class));
+
+        outboxService.dispatchBatch(100);
+
+        assertThat(failing.getAttempts()).isEqualTo(3);
+        assertThat(failing.getStatus()).isEqualTo(OutboxEvent.STATUS_FAILED);
+        verify(outboxEventRepository).save(failing);
+    }
+
+    @Test
+    @DisplayName("Should fail an event of an unknown type without publishing it")
+    void testDispatchBatchUnknownType() {
+        OutboxEvent unknown = new OutboxEvent();
+        unknown.setOutboxEventId(1L);
+        unknown.setEventType("OrderRefundedEvent");
+        unknown.setOrderId(100L);
+        unknown.setPayload("{}");
+        unknown.setStatus(OutboxEvent.STATUS_PENDING);
+        unknown.setAttempts(0);
+        unknown.setCreatedAt(LocalDateTime.now());
+        claim(List.of(unknown));
+
+        outboxService.dispatchBatch(100);
+
+        verifyNoInteractions(eventPublisher);
+        assertThat(unknown.getAttempts()).isEqualTo(1);
+        assertThat(unknown.getLastError()).contains("Unknown outbox event type");
+    }
+
+    @Test
+    @DisplayName("Should report the backlog and the age of the oldest waiting event")
+    void testStats() {
+        when(outboxEventRepository.countByStatus(OutboxEvent.STATUS_PENDING)).thenReturn(7L);
+        when(outboxEventRepository.countByStatus(OutboxEvent.STATUS_FAILED)).thenReturn(1L);
+        when(outboxEventRepository.findOldestPendingCreatedAt()).thenReturn(LocalDateTime.now().minusSeconds(2));
+
+        OutboxStatsResponse stats = outboxService.stats();
+
+        assertThat(stats.getPendingCount()).isEqualTo(7);
+        assertThat(stats.getFailedCount()).isEqualTo(1);
+        assertThat(stats.getOldestPendingAgeMs()).isGreaterThanOrEqualTo(2000);
+        assertThat(stats.getPublishedTotal()).isZero();
+        assertThat(stats.getLastBatchAt()).isNull();
+    }
+
+    private void claim(List<OutboxEvent> rows) {
+        when(outboxEventRepository.findDueIds(any(), any()))
+                .thenReturn(rows.stream().map(OutboxEvent::getOutboxEventId).toList());
+        when(outboxEventRepository.findByClaimTokenOrderByOutboxEventId(anyString())).thenReturn(rows);
+    }
+
+    private OutboxEvent row(Long id, Object event) throws Exception {
+        OutboxEvent row = new OutboxEvent();
+        row.setOutboxEventId(id);
+        row.setEventType(event.getClass().getSimpleName());
+        row.setOrderId(100L);
+        row.setPayload(objectMapper.writeValueAsString(event));
+        row.setStatus(OutboxEvent.STATUS_PENDING);
+        row.setAttempts(0);
+        row.setAvailableAt(LocalDateTime.now());
+        row.setCreatedAt(LocalDateTime.now().minusSeconds(1));
+        return row;
+    }
+}
@@ -0,0 +1,270 @@
+package com.example.DACN.service;
+
+import com.example.DACN.entity.Order;
+import com.example.DACN.entity.Payment;
+import com.example.DACN.entity.User;
+import com.example.DACN.event.OrderPaidEvent;
+import com.example.DACN.repository.OrderRepository;
+import com.example.DACN.repository.OrderStatusHistoryRepository;
+import com.example.DACN.repository.PaymentRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PaymentService PayPal Capture Tests")
+class PaymentServiceTest {
+
+    private static final String TOKEN = "PAYPAL-ORDER-123";
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderStatusHistoryRepository orderStatusHistoryRepository;
+
+    @Mock
+    private PaypalService paypalService;
+
+    @Mock
+    private StockReservationService stockReservationService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private PaymentService paymentService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<Long, Payment> payments = new HashMap<>();
+    private Order order1;
+    private Order order2;
+
+    @BeforeEach
+    void setUp() {
+        order1 = order(1L, "250000.00");
+        order2 = order(2L, "130000.00");
+
+        lenient().when(orderRepository.findByPaypalOrderId(TOKEN)).thenReturn(List.of(order1, order2));
+        lenient().when(stockReservationService.convert(anyLong())).thenReturn(true);
+
+        // Payments are kept per order, so a later call sees what an earlier one recorded
+        lenient().when(paymentRepository.findByOrderOrderId(anyLong()))
+                .thenAnswer(invocation -> Optional.ofNullable(payments.get(invocation.<Long>getArgument(0))));
+        lenient().when(paymentRepository.save(any(Payment.class))).thenAnswer(invocation -> {
+            Payment payment = invocation.getArgument(0);
+            payments.put(payment.getOrder().getOrderId(), payment);
+            return payment;
+        });
+
+        // Run transaction callbacks in place
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    @DisplayName("Should record a payment for every linked order from its own capture")
+    void testCaptureCompleted() throws Exception {
+        // Given
+        when(paypalService.captureOrder(TOKEN)).thenReturn(completed());
+
+        // When
+        paymentService.capturePayPalCheckout(TOKEN, List.of(1L, 2L));
+
+        // Then
+        assertThat(payments.get(1L).getTransactionCode()).isEqualTo("CAPTURE-1");
+        assertThat(payments.get(1L).getAmount()).isEqualByComparingTo("250000.00");
+        assertThat(payments.get(2L).getTransactionCode()).isEqualTo("CAPTURE-2");
+        assertThat(List.of(order1, order2)).allSatisfy(order -> {
+            assertThat(order.getCurrentStatus()).isEqualTo("Paid");
+            assertThat(order.getCaptureStartedAt()).isNull();
+        });
+        verify(stockReservationService).convert(1L);
+        verify(stockReservationService).convert(2L);
+        verify(outboxService, times(2)).record(any(OrderPaidEvent.class));
+    }
+
+    @Test
+    @DisplayName("Should capture every linked order even when the redirect names only some of them")
+    void testCaptureUsesLinkedOrders() throws Exception {
+        // Given
+        when(paypalService.captureOrder(TOKEN)).thenReturn(completed());
+
+        // When
+        paymentService.capturePayPalCheckout(TOKEN, List.of(1L));
+
+        // Then
+        assertThat(payments).containsOnlyKeys(1L, 2L);
+        assertThat(order2.getCurrentStatus()).isEqualTo("Paid");
+    }
+
+    @Test
+    @DisplayName("Should refuse a redirect naming an order the PayPal order does not pay for")
+    void testCaptureRejectsUnlinkedOrder() {
+        // When & Then
+        assertThatThrownBy(() -> paymentService.capturePayPalCheckout(TOKEN, List.of(1L, 3L)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Order 3 is not paid by PayPal order " + TOKEN);
+
+        verifyNoInteractions(paypalService, stockReservationService);
+        assertThat(order1.getCaptureStartedAt()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should release the claim when recovery finds the capture did not complete")
+    void testCaptureNotCompletedThenRecovery() throws Exception {
+        // Given
+        when(paypalService.captureOrder(TOKEN)).thenReturn(paypalOrder("PAYER_ACTION_REQUIRED", false));
+        when(paypalService.getOrder(TOKEN)).thenReturn(paypalOrder("APPROVED", false));
+
+        // When
+        assertThatThrownBy(() -> paymentService.capturePayPalCheckout(TOKEN, List.of(1L, 2L)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("PAYER_ACTION_REQUIRED");
+
+        // Then the orders stay claimed until recovery releases them
+        assertThat(order1.getCaptureStartedAt()).isNotNull();
+        assertThat(order2.getCaptureStartedAt()).isNotNull();
+
+        paymentService.recoverCapture(TOKEN);
+
+        assertThat(payments).isEmpty();
+        assertThat(List.of(order1, order2)).allSatisfy(order -> {
+            assertThat(order.getCurrentStatus()).isEqualTo("Pending");
+            assertThat(order.getCaptureStartedAt()).isNull();
+        });
+        verify(stockReservationService).revertConversion(1L);
+        verify(stockReservationService).revertConversion(2L);
+        verify(outboxService, never()).record(any());
+    }
+
+    @Test
+    @DisplayName("Should record a capture PayPal completed when its answer was lost")
+    void testCompletedButNotRecordedThenRecovery() throws Exception {
+        // Given
+        when(paypalService.captureOrder(TOKEN)).thenThrow(new RuntimeException("Read timed out"));
+        when(paypalService.getOrder(TOKEN)).thenReturn(completed());
+
+        // When
+        assertThatThrownBy(() -> paymentService.capturePayPalCheckout(TOKEN, List.of(1L, 2L)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Read timed out");
+        assertThat(payments).isEmpty();
+
+        paymentService.recoverCapture(TOKEN);
+
+        // Then
+        assertThat(payments).containsOnlyKeys(1L, 2L);
+        assertThat(List.of(order1, order2)).allSatisfy(order -> {
+            assertThat(order.getCurrentStatus()).isEqualTo("Paid");
+            assertThat(order.getCaptureStartedAt()).isNull();
+        });
+        verify(stockReservationService, never()).revertConversion(anyLong());
+        verify(outboxService, times(2)).record(any(OrderPaidEvent.class));
+    }
+
+    @Test
+    @DisplayName("Should not capture again after the webhook recorded the payment")
+    void testWebhookThenRedirectCapture() {
+        // Given
+        when(orderRepository.findByPaypalOrderId(TOKEN)).thenReturn(List.of(order1));
+        when(orderRepository.findByOrderIdAndHasDeletedFalse(1L)).thenReturn(Optional.of(order1));
+
+        // When
+        paymentService.processPayPalWebhook(Map.of(
+                "event_type", "PAYMENT.CAPTURE.COMPLETED",
+                "resource", Map.of(
+                        "id", "CAPTURE-1",
+                        "custom_id", "1",
+                        "amount", Map.of("currency_code", "USD", "value", "9.62"))));
+        paymentService.capturePayPalCheckout(TOKEN, List.of(1L));
+
+        // Then
+        assertThat(payments.get(1L).getTransactionCode()).isEqualTo("CAPTURE-1");
+        assertThat(order1.getCurrentStatus()).isEqualTo("Paid");
+        assertThat(order1.getCaptureStartedAt()).isNull();
+        verify(paypalService, never()).captureOrder(any());
+        verify(paymentRepository, times(1)).save(any(Payment.class));
+        verify(outboxService, times(1)).record(any(OrderPaidEvent.class));
+    }
+
+    @Test
+    @DisplayName("Should refuse to capture an order whose stock hold has expired")
+    void testExpiredHoldRefusesCapture() {
+        // Given
+        when(stockReservationService.convert(2L)).thenReturn(false);
+
+        // When & Then
+        assertThatThrownBy(() -> paymentService.capturePayPalCheckout(TOKEN, List.of(1L, 2L)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Stock reservation for order 2 has expired");
+
+        verifyNoInteractions(paypalService);
+        assertThat(payments).isEmpty();
+        assertThat(order2.getCaptureStartedAt()).isNull();
+    }
+
+    private Order order(Long orderId, String finalAmount) {
+        User user = new User();
+        user.setUserId(UUID.randomUUID());
+        Order order = new Order();
+        order.setOrderId(orderId);
+        order.setUser(user);
+        order.setPaymentMethod("PAYPAL");
+        order.setFinalAmount(new BigDecimal(finalAmount));
+        order.setCurrentStatus("Pending");
+        order.setPaypalOrderId(TOKEN);
+        order.setCreatedAt(LocalDateTime.now());
+        return order;
+    }
+
+    private JsonNode completed() throws Exception {
+        return paypalOrder("COMPLETED", true);
+    }
+
+    private JsonNode paypalOrder(String status, boolean captured) throws Exception {
+        String units = captured
+                ? "[" + purchaseUnit(1L) + "," + purchaseUnit(2L) + "]"
+                : "[{\"reference_id\":\"1\"},{\"reference_id\":\"2\"}]";
+        return objectMapper.readTree("{\"id\":\"" + TOKEN + "\",\"status\":\"" + status + "\","
+                + "\"purchase_units\":" + units + "}");
+    }
+
+    private String purchaseUnit(Long orderId) {
+        return "{\"reference_id\":\"" + orderId + "\",\"payments\":{\"captures\":[{\"id\":\"CAPTURE-" + orderId
+                + "\",\"status\":\"COMPLETED\",\"custom_id\":\"" + orderId + "\"}]}}";
+    }
+}
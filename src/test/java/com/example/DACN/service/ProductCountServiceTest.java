@@ -0,0 +1,141 @@
+package com.example.DACN.service;
+
+import com.example.DACN.dto.projection.IdCount;
+import com.example.DACN.entity.Category;
+import com.example.DACN.entity.Product;
+import com.example.DACN.entity.Shop;
+import com.example.DACN.repository.CategoryRepository;
+import com.example.DACN.repository.ProductRepository;
+import com.example.DACN.repository.ShopRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProductCountService Tests")
+class ProductCountServiceTest {
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private ShopRepository shopRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @InjectMocks
+    private ProductCountService productCountService;
+
+    @Test
+    @DisplayName("Should count a new active product in its category, every ancestor and its shop")
+    void testApplyCreated() {
+        Product product = product("/1/4/9/", 9L, 7L, "Active", false);
+
+        productCountService.apply(null, ProductCountService.Snapshot.of(product));
+
+        verify(categoryRepository).adjustActiveProductCount(argThat(ids -> ids.containsAll(List.of(1L, 4L, 9L))
+                && ids.size() == 3), eq(1));
+        verify(shopRepository).adjustActiveProductCount(7L, 1);
+        verifyNoMoreInteractions(categoryRepository, shopRepository);
+    }
+
+    @Test
+    @DisplayName("Should only touch the categories that differ when a product moves")
+    void testApplyCategoryMove() {
+        ProductCountService.Snapshot before = ProductCountService.Snapshot.of(product("/1/4/9/", 9L, 7L, "Active",
+                false));
+        ProductCountService.Snapshot after = ProductCountService.Snapshot.of(product("/1/5/", 5L, 7L, "Active",
+                false));
+
+        productCountService.apply(before, after);
+
+        verify(categoryRepository).adjustActiveProductCount(argThat(ids -> ids.size() == 2
+                && ids.containsAll(List.of(4L, 9L))), eq(-1));
+        verify(categoryRepository).adjustActiveProductCount(List.of(5L), 1);
+        verify(shopRepository, never()).adjustActiveProductCount(any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should leave counters alone for changes that keep a product uncounted")
+    void testApplyInactiveProduct() {
+        Product product = product("/1/", 1L, 7L, "Inactive", false);
+        ProductCountService.Snapshot before = ProductCountService.Snapshot.of(product);
+        product.setHasDeleted(true);
+
+        productCountService.apply(before, ProductCountService.Snapshot.of(product));
+
+        verifyNoInteractions(categoryRepository, shopRepository);
+    }
+
+    @Test
+    @DisplayName("Should move a subtree count from old ancestors to new ones")
+    void testMoveCategory() {
+        productCountService.moveCategory("/1/4/9/", "/1/5/9/", 12);
+
+        verify(categoryRepository).adjustActiveProductCount(List.of(4L), -12);
+        verify(categoryRepository).adjustActiveProductCount(List.of(5L), 12);
+        verifyNoMoreInteractions(categoryRepository);
+    }
+
+    @Test
+    @DisplayName("Should roll up direct counts and correct only drifted categories")
+    void testReconcileCategories() {
+        Category root = category(1L, "/1/", 5);
+        Category child = category(4L, "/1/4/", 3);
+        Category leaf = category(9L, "/1/4/9/", 1);
+        when(categoryRepository.findAll()).thenReturn(List.of(root, child, leaf));
+        when(productRepository.countActiveByCategory()).thenReturn(List.of(
+                new IdCount(1L, 2L), new IdCount(4L, 1L), new IdCount(9L, 2L)));
+        when(categoryRepository.reconcileActiveProductCount(anyLong(), anyLong(), anyLong())).thenReturn(1);
+
+        int corrected = productCountService.reconcileCategories();
+
+        assertThat(corrected).isEqualTo(1);
+        verify(categoryRepository).reconcileActiveProductCount(9L, 1L, 2L);
+        verify(categoryRepository, never()).reconcileActiveProductCount(eq(1L), anyLong(), anyLong());
+        verify(categoryRepository, never()).reconcileActiveProductCount(eq(4L), anyLong(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Should zero the counter of a shop without active products")
+    void testReconcileShops() {
+        when(productRepository.countActiveByShopIdRange(0L, 1000L)).thenReturn(List.of(new IdCount(7L, 3L)));
+        when(shopRepository.findActiveProductCounts(0L, 1000L)).thenReturn(List.of(
+                new IdCount(7L, 3), new IdCount(8L, 2)));
+        when(shopRepository.reconcileActiveProductCount(8L, 2L, 0L)).thenReturn(1);
+
+        int corrected = productCountService.reconcileShops(0L, 1000L);
+
+        assertThat(corrected).isEqualTo(1);
+        verify(shopRepository, never()).reconcileActiveProductCount(eq(7L), anyLong(), anyLong());
+    }
+
+    private Product product(String categoryPath, Long categoryId, Long shopId, String status, boolean deleted) {
+        Shop shop = new Shop();
+        shop.setShopId(shopId);
+        Product product = new Product();
+        product.setCategory(category(categoryId, categoryPath, 0));
+        product.setShop(shop);
+        product.setStatus(status);
+        product.setHasDeleted(deleted);
+        return product;
+    }
+
+    private Category category(Long id, String path, int activeProductCount) {
+        Category category = new Category();
+        category.setCategoryId(id);
+        category.setPath(path);
+        category.setActiveProductCount(activeProductCount);
+        return category;
+    }
+}
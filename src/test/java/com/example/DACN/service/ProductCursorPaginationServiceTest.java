@@ -0,0 +1,159 @@
+package com.example.DACN.service;
+
+import com.example.DACN.dto.response.ProductListItemResponse;
+import com.example.DACN.dto.response.ProductListResponse;
+import com.example.DACN.mapper.ProductMapper;
+import com.example.DACN.repository.CategoryRepository;
+import com.example.DACN.repository.ProductRepository;
+import com.example.DACN.util.CursorUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProductService - Cursor Pagination Tests")
+class ProductCursorPaginationServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductMapper productMapper;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @InjectMocks
+    private ProductService productService;
+
+    private ProductListItemResponse product1;
+    private ProductListItemResponse product2;
+    private LocalDateTime createdAt1;
+    private LocalDateTime createdAt2;
+
+    @BeforeEach
+    void setUp() {
+        createdAt1 = LocalDateTime.of(2025, 12, 28, 10, 30, 0);
+        createdAt2 = LocalDateTime.of(2025, 12, 27, 9, 0, 0);
+
+        product1 = ProductListItemResponse.builder()
+                .productId(20L)
+                .name("Product 1")
+                .price(new BigDecimal("99.99"))
+                .soldCount(50)
+                .createdAt(createdAt1)
+                .build();
+
+        product2 = ProductListItemResponse.builder()
+                .productId(15L)
+                .name("Product 2")
+                .price(new BigDecimal("149.99"))
+                .soldCount(40)
+                .createdAt(createdAt2)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should start from the first page when cursor is empty")
+    void testFirstPageWithEmptyCursor() {
+        // Given
+        when(productRepository.findProductsWithFiltersAfterCreatedAt(any(), any(), any(), any(), anyString(),
+                isNull(), isNull(), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(Arrays.asList(product1, product2), PageRequest.of(0, 2), true));
+
+        // When
+        ProductListResponse result = productService.getProductsByCursor(null, null, null, null, "created_at", "", 2);
+
+        // Then
+        assertThat(result.getData()).hasSize(2);
+        assertThat(result.getTotalPage()).isNull();
+        assertThat(result.getNextCursor()).isEqualTo(CursorUtil.encode("created_at", createdAt2, 15L));
+        verify(productRepository, never()).findProductListItemsWithFilters(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should seek after the position encoded in the cursor")
+    void testSeekAfterCursor() {
+        // Given
+        String cursor = CursorUtil.encode("created_at", createdAt1, 20L);
+        when(productRepository.findProductsWithFiltersAfterCreatedAt(any(), any(), any(), any(), anyString(),
+                eq(createdAt1), eq(20L), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(Collections.singletonList(product2), PageRequest.of(0, 2), false));
+
+        // When
+        ProductListResponse result = productService.getProductsByCursor(null, null, null, null, "created_at", cursor,
+                2);
+
+        // Then
+        assertThat(result.getData()).hasSize(1);
+        assertThat(result.getData().get(0).getProductId()).isEqualTo(15L);
+        assertThat(result.getNextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should seek on sold count when sorting by sold_count")
+    void testSeekBySoldCount() {
+        // Given
+        String cursor = CursorUtil.encode("sold_count", 50, 20L);
+        when(productRepository.findProductsWithFiltersAfterSoldCount(any(), any(), any(), any(), anyString(),
+                eq(50), eq(20L), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(Collections.singletonList(product2), PageRequest.of(0, 1), true));
+
+        // When
+        ProductListResponse result = productService.getProductsByCursor(null, null, 1L, null, "sold_count", cursor,
+                1);
+
+        // Then
+        assertThat(result.getNextCursor()).isEqualTo(CursorUtil.encode("sold_count", 40, 15L));
+        verify(productRepository, never()).findProductsWithFiltersAfterCreatedAt(any(), any(), any(), any(), any(),
+                any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should reject a malformed cursor")
+    void testMalformedCursor() {
+        assertThatThrownBy(() -> productService.getProductsByCursor(null, null, null, null, "created_at",
+                "not-a-cursor", 20))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    @DisplayName("Should reject a cursor issued for a different sort order")
+    void testCursorSortMismatch() {
+        String cursor = CursorUtil.encode("sold_count", 50, 20L);
+
+        assertThatThrownBy(() -> productService.getProductsByCursor(null, null, null, null, "created_at", cursor, 20))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Cursor does not match sort_by");
+    }
+
+    @Test
+    @DisplayName("Should reject a sort order cursor pagination cannot seek on")
+    void testUnsupportedSortBy() {
+        assertThatThrownBy(() -> productService.getProductsByCursor(null, null, null, null, "price", null, 20))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Cursor pagination supports sort_by created_at or sold_count only");
+
+        verifyNoInteractions(productRepository);
+    }
+}
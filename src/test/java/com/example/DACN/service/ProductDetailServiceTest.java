@@ -1,10 +1,12 @@
 package com.example.DACN.service;
 
+import com.example.DACN.cache.ProductDetailCache;
 import com.example.DACN.dto.response.ProductDetailResponse;
 import com.example.DACN.entity.Category;
 import com.example.DACN.entity.Product;
 import com.example.DACN.entity.ProductImage;
 import com.example.DACN.entity.Shop;
+import com.example.DACN.event.ProductChangedEvent;
 import com.example.DACN.exception.ResourceNotFoundException;
 import com.example.DACN.mapper.ProductMapper;
 import com.example.DACN.repository.ProductImageRepository;
@@ -15,6 +17,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
@@ -43,6 +46,9 @@ class ProductDetailServiceTest {
     @Mock
     private ProductMapper productMapper;
 
+    @Spy
+    private ProductDetailCache productDetailCache = new ProductDetailCache(100, 60);
+
     @InjectMocks
     private ProductService productService;
 
@@ -209,4 +215,60 @@ class ProductDetailServiceTest {
         inOrder.verify(productMapper).toProductDetailResponse(product);
         inOrder.verify(productImageRepository).findByProductProductIdOrderByDisplayOrderAsc(1L);
     }
+
+    @Test
+    @DisplayName("Should serve repeated views from the cache")
+    void testGetProductByIdServedFromCache() {
+        // Given
+        when(productRepository.findByProductIdAndHasDeletedFalse(1L)).thenReturn(Optional.of(product));
+        when(productMapper.toProductDetailResponse(product)).thenReturn(productDetailResponse);
+        when(productImageRepository.findByProductProductIdOrderByDisplayOrderAsc(1L))
+                .thenReturn(Collections.emptyList());
+
+        // When
+        ProductDetailResponse first = productService.getProductById(1L);
+        ProductDetailResponse second = productService.getProductById(1L);
+
+        // Then
+        assertThat(second).isSameAs(first);
+        verify(productRepository, times(1)).findByProductIdAndHasDeletedFalse(1L);
+        verify(productImageRepository, times(1)).findByProductProductIdOrderByDisplayOrderAsc(1L);
+        assertThat(productDetailCache.stats().getHitCount()).isEqualTo(1L);
+        assertThat(productDetailCache.stats().getMissCount()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("Should reload after the product changes")
+    void testGetProductByIdReloadsAfterChange() {
+        // Given
+        when(productRepository.findByProductIdAndHasDeletedFalse(1L)).thenReturn(Optional.of(product));
+        when(productMapper.toProductDetailResponse(product)).thenReturn(productDetailResponse);
+        when(productImageRepository.findByProductProductIdOrderByDisplayOrderAsc(1L))
+                .thenReturn(Collections.emptyList());
+
+        // When
+        productService.getProductById(1L);
+        productDetailCache.onProductChanged(
+                new ProductChangedEvent(1L, ProductChangedEvent.ChangeType.STOCK_CHANGED));
+        productService.getProductById(1L);
+
+        // Then
+        verify(productRepository, times(2)).findByProductIdAndHasDeletedFalse(1L);
+    }
+
+    @Test
+    @DisplayName("Should not cache a missing product")
+    void testGetProductByIdNotFoundNotCached() {
+        // Given
+        when(productRepository.findByProductIdAndHasDeletedFalse(999L)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThatThrownBy(() -> productService.getProductById(999L))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> productService.getProductById(999L))
+                .isInstanceOf(ResourceNotFoundException.class);
+
+        verify(productRepository, times(2)).findByProductIdAndHasDeletedFalse(999L);
+        assertThat(productDetailCache.stats().getSize()).isZero();
+    }
 }
@@ -15,6 +15,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -52,6 +53,12 @@ class ProductServiceTest {
     @Mock
     private ProductMapper productMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ProductCountService productCountService;
+
     @InjectMocks
     private ProductService productService;
 
@@ -279,7 +286,8 @@ class ProductServiceTest {
         assertThat(result.getProductId()).isEqualTo(1L);
 
         verify(cloudinaryService).uploadProductImages(images);
-        verify(productRepository).save(any(Product.class));
+        verify(productRepository).save(argThat(product ->
+                "https://cloudinary.com/image1.jpg".equals(product.getMainImageUrl())));
         verify(productImageRepository, times(3)).save(any(ProductImage.class));
     }
 
@@ -6,6 +6,7 @@ import com.example.DACN.entity.Category;
 import com.example.DACN.entity.Product;
 import com.example.DACN.entity.Shop;
 import com.example.DACN.mapper.ProductMapper;
+import com.example.DACN.repository.CategoryRepository;
 import com.example.DACN.repository.ProductRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -23,6 +24,7 @@ import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
@@ -38,6 +40,9 @@ class PublicProductServiceTest {
         @Mock
         private ProductMapper productMapper;
 
+        @Mock
+        private CategoryRepository categoryRepository;
+
         @InjectMocks
         private ProductService productService;
 
@@ -111,14 +116,12 @@ class PublicProductServiceTest {
         @DisplayName("Should return products list successfully")
         void testGetProductsSuccess() {
                 // Given
-                List<Product> products = Arrays.asList(product1, product2);
-                Page<Product> productPage = new PageImpl<>(products);
+                List<ProductListItemResponse> products = Arrays.asList(productResponse1, productResponse2);
+                Page<ProductListItemResponse> productPage = new PageImpl<>(products);
 
-                when(productRepository.findProductsWithFilters(any(), any(), any(), any(), anyString(),
+                when(productRepository.findProductListItemsWithFilters(any(), any(), any(), any(), anyString(),
                                 any(Pageable.class)))
                                 .thenReturn(productPage);
-                when(productMapper.toProductListItemResponse(product1)).thenReturn(productResponse1);
-                when(productMapper.toProductListItemResponse(product2)).thenReturn(productResponse2);
 
                 // When
                 ProductListResponse result = productService.getProducts(null, null, null, null, "created_at", 0, 20);
@@ -130,22 +133,21 @@ class PublicProductServiceTest {
                 assertThat(result.getData().get(0).getProductId()).isEqualTo(1L);
                 assertThat(result.getData().get(1).getProductId()).isEqualTo(2L);
 
-                verify(productRepository).findProductsWithFilters(any(), any(), any(), any(), eq("Active"),
+                verify(productRepository).findProductListItemsWithFilters(any(), any(), any(), any(), eq("Active"),
                                 any(Pageable.class));
-                verify(productMapper, times(2)).toProductListItemResponse(any(Product.class));
+                verifyNoInteractions(productMapper);
         }
 
         @Test
         @DisplayName("Should filter by price range")
         void testGetProductsWithPriceFilter() {
                 // Given
-                List<Product> products = Arrays.asList(product1);
-                Page<Product> productPage = new PageImpl<>(products);
+                List<ProductListItemResponse> products = Arrays.asList(productResponse1);
+                Page<ProductListItemResponse> productPage = new PageImpl<>(products);
 
-                when(productRepository.findProductsWithFilters(any(), any(), any(), any(), anyString(),
+                when(productRepository.findProductListItemsWithFilters(any(), any(), any(), any(), anyString(),
                                 any(Pageable.class)))
                                 .thenReturn(productPage);
-                when(productMapper.toProductListItemResponse(product1)).thenReturn(productResponse1);
 
                 // When
                 BigDecimal minPrice = new BigDecimal("50.00");
@@ -157,23 +159,22 @@ class PublicProductServiceTest {
                 assertThat(result).isNotNull();
                 assertThat(result.getData()).hasSize(1);
 
-                verify(productRepository).findProductsWithFilters(eq(minPrice), eq(maxPrice), isNull(), isNull(),
+                verify(productRepository).findProductListItemsWithFilters(eq(minPrice), eq(maxPrice), isNull(), isNull(),
                                 eq("Active"),
                                 any(Pageable.class));
         }
 
         @Test
-        @DisplayName("Should filter by category")
+        @DisplayName("Should filter by category subtree")
         void testGetProductsWithCategoryFilter() {
                 // Given
-                List<Product> products = Arrays.asList(product1, product2);
-                Page<Product> productPage = new PageImpl<>(products);
+                List<ProductListItemResponse> products = Arrays.asList(productResponse1, productResponse2);
+                Page<ProductListItemResponse> productPage = new PageImpl<>(products);
 
-                when(productRepository.findProductsWithFilters(any(), any(), any(), any(), anyString(),
+                when(categoryRepository.findPathByCategoryId(1L)).thenReturn(Optional.of("/3/1/"));
+                when(productRepository.findProductListItemsWithFilters(any(), any(), any(), any(), anyString(),
                                 any(Pageable.class)))
                                 .thenReturn(productPage);
-                when(productMapper.toProductListItemResponse(any(Product.class)))
-                                .thenReturn(productResponse1, productResponse2);
 
                 // When
                 ProductListResponse result = productService.getProducts(null, null, 1L, null, "created_at", 0, 20);
@@ -182,22 +183,38 @@ class PublicProductServiceTest {
                 assertThat(result).isNotNull();
                 assertThat(result.getData()).hasSize(2);
 
-                verify(productRepository).findProductsWithFilters(isNull(), isNull(), eq(1L), isNull(), eq("Active"),
+                verify(productRepository).findProductListItemsWithFilters(isNull(), isNull(), eq("/3/1/%"), isNull(), eq("Active"),
                                 any(Pageable.class));
         }
 
+        @Test
+        @DisplayName("Should return nothing for an unknown category")
+        void testGetProductsWithUnknownCategory() {
+                // Given
+                when(categoryRepository.findPathByCategoryId(99L)).thenReturn(Optional.empty());
+                when(productRepository.findProductListItemsWithFilters(any(), any(), any(), any(), anyString(),
+                                any(Pageable.class)))
+                                .thenReturn(new PageImpl<>(Collections.emptyList()));
+
+                // When
+                ProductListResponse result = productService.getProducts(null, null, 99L, null, "created_at", 0, 20);
+
+                // Then
+                assertThat(result.getData()).isEmpty();
+                verify(productRepository).findProductListItemsWithFilters(isNull(), isNull(), eq("/99/%"), isNull(),
+                                eq("Active"), any(Pageable.class));
+        }
+
         @Test
         @DisplayName("Should filter by shop")
         void testGetProductsWithShopFilter() {
                 // Given
-                List<Product> products = Arrays.asList(product1, product2);
-                Page<Product> productPage = new PageImpl<>(products);
+                List<ProductListItemResponse> products = Arrays.asList(productResponse1, productResponse2);
+                Page<ProductListItemResponse> productPage = new PageImpl<>(products);
 
-                when(productRepository.findProductsWithFilters(any(), any(), any(), any(), anyString(),
+                when(productRepository.findProductListItemsWithFilters(any(), any(), any(), any(), anyString(),
                                 any(Pageable.class)))
                                 .thenReturn(productPage);
-                when(productMapper.toProductListItemResponse(any(Product.class)))
-                                .thenReturn(productResponse1, productResponse2);
 
                 // When
                 ProductListResponse result = productService.getProducts(null, null, null, 1L, "created_at", 0, 20);
@@ -206,7 +223,7 @@ class PublicProductServiceTest {
                 assertThat(result).isNotNull();
                 assertThat(result.getData()).hasSize(2);
 
-                verify(productRepository).findProductsWithFilters(isNull(), isNull(), isNull(), eq(1L), eq("Active"),
+                verify(productRepository).findProductListItemsWithFilters(isNull(), isNull(), isNull(), eq(1L), eq("Active"),
                                 any(Pageable.class));
         }
 
@@ -214,14 +231,12 @@ class PublicProductServiceTest {
         @DisplayName("Should sort by sold_count")
         void testGetProductsSortBySoldCount() {
                 // Given
-                List<Product> products = Arrays.asList(product2, product1); // product2 has higher soldCount
-                Page<Product> productPage = new PageImpl<>(products);
+                List<ProductListItemResponse> products = Arrays.asList(productResponse2, productResponse1); // product2 has higher soldCount
+                Page<ProductListItemResponse> productPage = new PageImpl<>(products);
 
-                when(productRepository.findProductsWithFilters(any(), any(), any(), any(), anyString(),
+                when(productRepository.findProductListItemsWithFilters(any(), any(), any(), any(), anyString(),
                                 any(Pageable.class)))
                                 .thenReturn(productPage);
-                when(productMapper.toProductListItemResponse(any(Product.class)))
-                                .thenReturn(productResponse2, productResponse1);
 
                 // When
                 ProductListResponse result = productService.getProducts(null, null, null, null, "sold_count", 0, 20);
@@ -230,7 +245,7 @@ class PublicProductServiceTest {
                 assertThat(result).isNotNull();
                 assertThat(result.getData()).hasSize(2);
 
-                verify(productRepository).findProductsWithFilters(any(), any(), any(), any(), eq("Active"),
+                verify(productRepository).findProductListItemsWithFilters(any(), any(), any(), any(), eq("Active"),
                                 argThat(pageable -> pageable.getSort().toString().contains("soldCount")));
         }
 
@@ -238,9 +253,9 @@ class PublicProductServiceTest {
         @DisplayName("Should return empty list when no products found")
         void testGetProductsEmptyList() {
                 // Given
-                Page<Product> emptyPage = new PageImpl<>(Collections.emptyList());
+                Page<ProductListItemResponse> emptyPage = new PageImpl<>(Collections.emptyList());
 
-                when(productRepository.findProductsWithFilters(any(), any(), any(), any(), anyString(),
+                when(productRepository.findProductListItemsWithFilters(any(), any(), any(), any(), anyString(),
                                 any(Pageable.class)))
                                 .thenReturn(emptyPage);
 
@@ -252,21 +267,19 @@ class PublicProductServiceTest {
                 assertThat(result.getData()).isEmpty();
                 assertThat(result.getTotalPage()).isEqualTo(1); // Spring returns 1 page for empty results
 
-                verify(productMapper, never()).toProductListItemResponse(any(Product.class));
+                verifyNoInteractions(productMapper);
         }
 
         @Test
         @DisplayName("Should calculate total pages correctly")
         void testGetProductsTotalPages() {
                 // Given
-                List<Product> products = Arrays.asList(product1, product2);
-                Page<Product> productPage = new PageImpl<>(products, Pageable.ofSize(1), 2);
+                List<ProductListItemResponse> products = Arrays.asList(productResponse1, productResponse2);
+                Page<ProductListItemResponse> productPage = new PageImpl<>(products, Pageable.ofSize(1), 2);
 
-                when(productRepository.findProductsWithFilters(any(), any(), any(), any(), anyString(),
+                when(productRepository.findProductListItemsWithFilters(any(), any(), any(), any(), anyString(),
                                 any(Pageable.class)))
                                 .thenReturn(productPage);
-                when(productMapper.toProductListItemResponse(any(Product.class)))
-                                .thenReturn(productResponse1, productResponse2);
 
                 // When
                 ProductListResponse result = productService.getProducts(null, null, null, null, "created_at", 0, 1);
@@ -111,13 +111,11 @@ class ShopProductsServiceTest {
     @DisplayName("Should return shop products successfully")
     void testGetProductsByShopIdSuccess() {
         // Given
-        List<Product> products = Arrays.asList(product1, product2);
-        Page<Product> productPage = new PageImpl<>(products);
+        List<ProductListItemResponse> products = Arrays.asList(productResponse1, productResponse2);
+        Page<ProductListItemResponse> productPage = new PageImpl<>(products);
 
-        when(productRepository.findByShopShopIdAndHasDeletedFalse(anyLong(), any(Pageable.class)))
+        when(productRepository.findProductListItemsByShopId(anyLong(), any(Pageable.class)))
                 .thenReturn(productPage);
-        when(productMapper.toProductListItemResponse(product1)).thenReturn(productResponse1);
-        when(productMapper.toProductListItemResponse(product2)).thenReturn(productResponse2);
 
         // When
         ProductListResponse result = productService.getProductsByShopId(1L, 0, 20);
@@ -131,17 +129,17 @@ class ShopProductsServiceTest {
         assertThat(result.getData().get(0).getShopId()).isEqualTo(1L);
         assertThat(result.getData().get(1).getShopId()).isEqualTo(1L);
 
-        verify(productRepository).findByShopShopIdAndHasDeletedFalse(eq(1L), any(Pageable.class));
-        verify(productMapper, times(2)).toProductListItemResponse(any(Product.class));
+        verify(productRepository).findProductListItemsByShopId(eq(1L), any(Pageable.class));
+        verifyNoInteractions(productMapper);
     }
 
     @Test
     @DisplayName("Should return empty list when shop has no products")
     void testGetProductsByShopIdEmptyList() {
         // Given
-        Page<Product> emptyPage = new PageImpl<>(Collections.emptyList());
+        Page<ProductListItemResponse> emptyPage = new PageImpl<>(Collections.emptyList());
 
-        when(productRepository.findByShopShopIdAndHasDeletedFalse(anyLong(), any(Pageable.class)))
+        when(productRepository.findProductListItemsByShopId(anyLong(), any(Pageable.class)))
                 .thenReturn(emptyPage);
 
         // When
@@ -152,19 +150,18 @@ class ShopProductsServiceTest {
         assertThat(result.getData()).isEmpty();
         assertThat(result.getTotalPage()).isEqualTo(1);
 
-        verify(productMapper, never()).toProductListItemResponse(any(Product.class));
+        verifyNoInteractions(productMapper);
     }
 
     @Test
     @DisplayName("Should support pagination")
     void testGetProductsByShopIdWithPagination() {
         // Given
-        List<Product> products = Arrays.asList(product1);
-        Page<Product> productPage = new PageImpl<>(products, Pageable.ofSize(10), 2);
+        List<ProductListItemResponse> products = Arrays.asList(productResponse1);
+        Page<ProductListItemResponse> productPage = new PageImpl<>(products, Pageable.ofSize(10), 2);
 
-        when(productRepository.findByShopShopIdAndHasDeletedFalse(anyLong(), any(Pageable.class)))
+        when(productRepository.findProductListItemsByShopId(anyLong(), any(Pageable.class)))
                 .thenReturn(productPage);
-        when(productMapper.toProductListItemResponse(product1)).thenReturn(productResponse1);
 
         // When
         ProductListResponse result = productService.getProductsByShopId(1L, 0, 10);
@@ -179,13 +176,11 @@ class ShopProductsServiceTest {
     @DisplayName("Should calculate total pages correctly")
     void testGetProductsByShopIdTotalPages() {
         // Given
-        List<Product> products = Arrays.asList(product1, product2);
-        Page<Product> productPage = new PageImpl<>(products, Pageable.ofSize(1), 2);
+        List<ProductListItemResponse> products = Arrays.asList(productResponse1, productResponse2);
+        Page<ProductListItemResponse> productPage = new PageImpl<>(products, Pageable.ofSize(1), 2);
 
-        when(productRepository.findByShopShopIdAndHasDeletedFalse(anyLong(), any(Pageable.class)))
+        when(productRepository.findProductListItemsByShopId(anyLong(), any(Pageable.class)))
                 .thenReturn(productPage);
-        when(productMapper.toProductListItemResponse(any(Product.class)))
-                .thenReturn(productResponse1, productResponse2);
 
         // When
         ProductListResponse result = productService.getProductsByShopId(1L, 0, 1);
@@ -199,13 +194,11 @@ class ShopProductsServiceTest {
     @DisplayName("Should sort by created_at descending")
     void testGetProductsByShopIdSortedByCreatedAt() {
         // Given
-        List<Product> products = Arrays.asList(product2, product1);
-        Page<Product> productPage = new PageImpl<>(products);
+        List<ProductListItemResponse> products = Arrays.asList(productResponse2, productResponse1);
+        Page<ProductListItemResponse> productPage = new PageImpl<>(products);
 
-        when(productRepository.findByShopShopIdAndHasDeletedFalse(anyLong(), any(Pageable.class)))
+        when(productRepository.findProductListItemsByShopId(anyLong(), any(Pageable.class)))
                 .thenReturn(productPage);
-        when(productMapper.toProductListItemResponse(any(Product.class)))
-                .thenReturn(productResponse2, productResponse1);
 
         // When
         ProductListResponse result = productService.getProductsByShopId(1L, 0, 20);
@@ -214,7 +207,7 @@ class ShopProductsServiceTest {
         assertThat(result).isNotNull();
         assertThat(result.getData()).hasSize(2);
 
-        verify(productRepository).findByShopShopIdAndHasDeletedFalse(eq(1L),
+        verify(productRepository).findProductListItemsByShopId(eq(1L),
                 argThat(pageable -> pageable.getSort().toString().contains("createdAt")));
     }
 }
@@ -0,0 +1,200 @@
+package com.example.DACN.service;
+
+import com.example.DACN.entity.Order;
+import com.example.DACN.entity.OrderStatusHistory;
+import com.example.DACN.entity.Product;
+import com.example.DACN.entity.StockReservation;
+import com.example.DACN.entity.User;
+import com.example.DACN.event.OrderCancelledEvent;
+import com.example.DACN.repository.OrderRepository;
+import com.example.DACN.repository.OrderStatusHistoryRepository;
+import com.example.DACN.repository.ProductRepository;
+import com.example.DACN.repository.StockReservationRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("StockReservationService Tests")
+class StockReservationServiceTest {
+
+    @Mock
+    private StockReservationRepository stockReservationRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderStatusHistoryRepository orderStatusHistoryRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private SalesRollupService salesRollupService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private StockReservationService stockReservationService;
+
+    @Test
+    @DisplayName("Should record one held reservation per product of the order")
+    void testHold() {
+        Order order = order("Pending");
+        Product product1 = product(1L);
+        Product product2 = product(2L);
+        LocalDateTime before = LocalDateTime.now();
+
+        stockReservationService.hold(order, new TreeMap<>(Map.of(1L, 2, 2L, 1)),
+                Map.of(1L, product1, 2L, product2));
+
+        verify(stockReservationRepository).saveAll(argThat((List<StockReservation> reservations) ->
+                reservations.size() == 2
+                        && reservations.get(0).getProduct() == product1 && reservations.get(0).getQuantity() == 2
+                        && reservations.get(1).getProduct() == product2 && reservations.get(1).getQuantity() == 1
+                        && reservations.stream().allMatch(r -> r.getOrder() == order
+                                && StockReservation.STATUS_HELD.equals(r.getStatus())
+                                && !r.getExpiresAt().isBefore(before))));
+    }
+
+    @Test
+    @DisplayName("Should convert held reservations into a sale")
+    void testConvertHeld() {
+        when(stockReservationRepository.convertHeld(100L)).thenReturn(2);
+
+        assertThat(stockReservationService.convert(100L)).isTrue();
+        verify(stockReservationRepository, never()).existsByOrderOrderIdAndStatus(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should refuse to convert reservations that were already released")
+    void testConvertReleased() {
+        when(stockReservationRepository.convertHeld(100L)).thenReturn(0);
+        when(stockReservationRepository.existsByOrderOrderIdAndStatus(100L, StockReservation.STATUS_RELEASED))
+                .thenReturn(true);
+
+        assertThat(stockReservationService.convert(100L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should convert an order placed without reservations")
+    void testConvertWithoutReservations() {
+        when(stockReservationRepository.convertHeld(100L)).thenReturn(0);
+        when(stockReservationRepository.existsByOrderOrderIdAndStatus(100L, StockReservation.STATUS_RELEASED))
+                .thenReturn(false);
+
+        assertThat(stockReservationService.convert(100L)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should tell a cancellation that expired holds already returned the stock")
+    void testReleaseOnCancel() {
+        when(stockReservationRepository.releaseHeld(100L)).thenReturn(0);
+        when(stockReservationRepository.existsByOrderOrderIdAndStatus(100L, StockReservation.STATUS_RELEASED))
+                .thenReturn(true);
+
+        assertThat(stockReservationService.releaseOnCancel(100L)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should let a cancellation restore the stock of holds it released itself")
+    void testReleaseOnCancelHeld() {
+        when(stockReservationRepository.releaseHeld(100L)).thenReturn(1);
+
+        assertThat(stockReservationService.releaseOnCancel(100L)).isFalse();
+        verify(stockReservationRepository, never()).existsByOrderOrderIdAndStatus(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should restore stock in product ID order and cancel the unpaid order")
+    void testReleaseExpired() {
+        Order order = order("Pending");
+        when(orderRepository.findByOrderIdAndHasDeletedFalse(100L)).thenReturn(Optional.of(order));
+        when(stockReservationRepository.releaseHeld(100L)).thenReturn(2);
+        when(stockReservationRepository.findByOrderOrderId(100L))
+                .thenReturn(List.of(reservation(order, 2L, 1), reservation(order, 1L, 3)));
+
+        assertThat(stockReservationService.releaseExpired(100L)).isTrue();
+
+        var inOrder = inOrder(productRepository);
+        inOrder.verify(productRepository).restoreStock(1L, 3);
+        inOrder.verify(productRepository).restoreStock(2L, 1);
+        verify(eventPublisher, times(2)).publishEvent(any(Object.class));
+        verify(orderRepository).save(argThat(o -> o.getHasDeleted() && "Cancelled".equals(o.getCurrentStatus())));
+        verify(orderStatusHistoryRepository).save(argThat((OrderStatusHistory h) -> "Cancelled".equals(h.getStatus())));
+        verify(salesRollupService).recordOrderCancelled(order);
+        verify(outboxService).record(argThat(event -> event instanceof OrderCancelledEvent cancelled
+                && cancelled.getOrderId() == 100L));
+    }
+
+    @Test
+    @DisplayName("Should leave stock alone when the payment was captured first")
+    void testReleaseExpiredAlreadyConverted() {
+        when(orderRepository.findByOrderIdAndHasDeletedFalse(100L)).thenReturn(Optional.of(order("Pending")));
+        when(stockReservationRepository.releaseHeld(100L)).thenReturn(0);
+
+        assertThat(stockReservationService.releaseExpired(100L)).isFalse();
+
+        verify(productRepository, never()).restoreStock(any(), anyInt());
+        verify(orderRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should keep the stock of an order the seller already moved past Pending")
+    void testReleaseExpiredOrderInProgress() {
+        when(orderRepository.findByOrderIdAndHasDeletedFalse(100L)).thenReturn(Optional.of(order("Shipping")));
+
+        assertThat(stockReservationService.releaseExpired(100L)).isFalse();
+
+        verify(stockReservationRepository).convertHeld(100L);
+        verify(stockReservationRepository, never()).releaseHeld(any());
+        verify(productRepository, never()).restoreStock(any(), anyInt());
+    }
+
+    private Order order(String status) {
+        User customer = new User();
+        customer.setUserId(UUID.randomUUID());
+
+        Order order = new Order();
+        order.setOrderId(100L);
+        order.setUser(customer);
+        order.setHasDeleted(false);
+        order.setCurrentStatus(status);
+        return order;
+    }
+
+    private Product product(Long productId) {
+        Product product = new Product();
+        product.setProductId(productId);
+        return product;
+    }
+
+    private StockReservation reservation(Order order, Long productId, int quantity) {
+        StockReservation reservation = new StockReservation();
+        reservation.setOrder(order);
+        reservation.setProduct(product(productId));
+        reservation.setQuantity(quantity);
+        reservation.setStatus(StockReservation.STATUS_RELEASED);
+        return reservation;
+    }
+}
@@ -15,6 +15,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -52,6 +53,12 @@ class UpdateProductServiceTest {
     @Mock
     private ProductMapper productMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ProductCountService productCountService;
+
     @InjectMocks
     private ProductService productService;
 
@@ -331,6 +338,7 @@ class UpdateProductServiceTest {
         verify(cloudinaryService).uploadProductImages(images);
         verify(productImageRepository, times(2)).save(any(ProductImage.class));
         verify(productRepository).save(any(Product.class));
+        assertThat(existingProduct.getMainImageUrl()).isEqualTo("https://cloudinary.com/new1.jpg");
     }
 
     @Test
@@ -0,0 +1,119 @@
+package com.example.DACN.util;
+
+import com.example.DACN.dto.projection.VersionStamp;
+import com.example.DACN.dto.response.ProductListItemResponse;
+import com.example.DACN.dto.response.ProductListResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ConditionalGetUtil Tests")
+class ConditionalGetUtilTest {
+
+    private static final LocalDateTime UPDATED_AT = LocalDateTime.of(2025, 12, 28, 10, 30, 0);
+
+    @Test
+    @DisplayName("Should set validators and serve the body on an unconditional request")
+    void testUnconditionalRequest() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        VersionStamp stamp = new VersionStamp(3L, UPDATED_AT);
+
+        boolean notModified = ConditionalGetUtil.checkNotModified(
+                new ServletWebRequest(get(), response), stamp);
+
+        assertThat(notModified).isFalse();
+        assertThat(response.getHeader("ETag")).isEqualTo(stamp.toEtag());
+        assertThat(response.getDateHeader("Last-Modified")).isEqualTo(stamp.lastModifiedMillis());
+    }
+
+    @Test
+    @DisplayName("Should answer 304 when the ETag matches")
+    void testMatchingEtag() {
+        VersionStamp stamp = new VersionStamp(3L, UPDATED_AT);
+        MockHttpServletRequest request = get();
+        request.addHeader("If-None-Match", stamp.toEtag());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        boolean notModified = ConditionalGetUtil.checkNotModified(new ServletWebRequest(request, response), stamp);
+
+        assertThat(notModified).isTrue();
+        assertThat(response.getStatus()).isEqualTo(304);
+    }
+
+    @Test
+    @DisplayName("Should serve the body when the resource changed")
+    void testChangedResource() {
+        MockHttpServletRequest request = get();
+        request.addHeader("If-None-Match", new VersionStamp(3L, UPDATED_AT).toEtag());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // One row removed, latest timestamp unchanged
+        VersionStamp current = new VersionStamp(2L, UPDATED_AT);
+        boolean notModified = ConditionalGetUtil.checkNotModified(new ServletWebRequest(request, response), current);
+
+        assertThat(notModified).isFalse();
+        assertThat(response.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Should answer 304 when not modified since the given date")
+    void testIfModifiedSince() {
+        VersionStamp stamp = new VersionStamp(1L, null, UPDATED_AT, UPDATED_AT.minusDays(1), null);
+        MockHttpServletRequest request = get();
+        request.addHeader("If-Modified-Since", stamp.lastModifiedMillis());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        boolean notModified = ConditionalGetUtil.checkNotModified(new ServletWebRequest(request, response), stamp);
+
+        assertThat(notModified).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should derive different ETags from image changes")
+    void testImageSequenceChangesEtag() {
+        VersionStamp before = new VersionStamp(2L, 10L, UPDATED_AT, UPDATED_AT, UPDATED_AT);
+        VersionStamp after = new VersionStamp(2L, 12L, UPDATED_AT, UPDATED_AT, UPDATED_AT);
+
+        assertThat(after.toEtag()).isNotEqualTo(before.toEtag());
+        assertThat(before.toEtag()).startsWith("\"").endsWith("\"");
+    }
+
+    @Test
+    @DisplayName("Should tag a built response from its body and answer 304 until it changes")
+    void testBodyEtag() {
+        ProductListItemResponse item = ProductListItemResponse.builder()
+                .productId(1L).name("Phone").price(new BigDecimal("100.00")).createdAt(UPDATED_AT).build();
+        ProductListResponse page = ProductListResponse.builder().data(List.of(item)).totalPage(1).build();
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        ConditionalGetUtil.checkBodyNotModified(new ServletWebRequest(get(), first), page);
+        String etag = first.getHeader("ETag");
+
+        MockHttpServletRequest request = get();
+        request.addHeader("If-None-Match", etag);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        boolean notModified = ConditionalGetUtil.checkBodyNotModified(new ServletWebRequest(request, response), page);
+
+        assertThat(etag).startsWith("\"").endsWith("\"");
+        assertThat(notModified).isTrue();
+        assertThat(response.getStatus()).isEqualTo(304);
+
+        // Shop renamed: same products, different body
+        item.setShopName("Renamed shop");
+        MockHttpServletRequest again = get();
+        again.addHeader("If-None-Match", etag);
+        assertThat(ConditionalGetUtil.checkBodyNotModified(
+                new ServletWebRequest(again, new MockHttpServletResponse()), page)).isFalse();
+    }
+
+    private MockHttpServletRequest get() {
+        return new MockHttpServletRequest("GET", "/api/v1/products/1");
+    }
+}